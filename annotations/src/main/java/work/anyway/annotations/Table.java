@@ -28,4 +28,25 @@ public @interface Table {
    * 数据源（可选）
    */
   String dataSource() default "";
+
+  /**
+   * 是否启用实体二级缓存（可选）
+   * 启用后按 ID 查询的结果被缓存，通过同一数据服务的仓库写入时失效
+   */
+  boolean cacheable() default false;
+
+  /**
+   * 缓存条目的存活时间（秒）
+   */
+  int cacheTtlSeconds() default 300;
+
+  /**
+   * 缓存的最大条目数
+   */
+  int cacheMaxSize() default 1000;
+
+  /**
+   * 是否同时缓存条件查询的结果
+   */
+  boolean cacheQueries() default false;
 }
\ No newline at end of file
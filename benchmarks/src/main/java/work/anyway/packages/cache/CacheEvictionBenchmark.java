@@ -0,0 +1,123 @@
+package work.anyway.packages.cache;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有容量上限的 CacheServiceImpl 在百万级键上的读写吞吐
+ * 缓存容量为 maximumSize，键空间是容量的两倍，缓存预先填满，测量期间持续淘汰。
+ * readThrough 按偏斜分布访问（约一半的访问落在前 10% 的键上），未命中时写入，模拟会话等读多写少的命名空间；
+ * put 按均匀分布写入，每次写入都可能触发准入判断和淘汰。
+ * readThrough 的 hits / misses 辅助计数器给出测量期间的命中率。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class CacheEvictionBenchmark {
+
+  private static final long TTL_SECONDS = 3600;
+  // 每个线程预先生成的访问序列长度，2 的幂
+  private static final int SEQUENCE_LENGTH = 1 << 20;
+
+  @State(Scope.Benchmark)
+  public static class SharedCache {
+    @Param({ "1000000" })
+    int maximumSize;
+
+    final AtomicInteger threadSeeds = new AtomicInteger();
+    CacheServiceImpl cache;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      CacheConfig config = new CacheConfig();
+      config.setMaximumSize(maximumSize);
+      cache = new CacheServiceImpl(null, config);
+
+      keys = new String[maximumSize * 2];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = "session:" + i;
+      }
+      for (int i = 0; i < maximumSize; i++) {
+        cache.put(keys[i], Boolean.TRUE, TTL_SECONDS);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Access {
+    int[] skewed;
+    int[] uniform;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp(SharedCache shared) {
+      SplittableRandom random = new SplittableRandom(shared.threadSeeds.incrementAndGet());
+      int keySpace = shared.keys.length;
+      skewed = new int[SEQUENCE_LENGTH];
+      uniform = new int[SEQUENCE_LENGTH];
+      for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+        double u = random.nextDouble();
+        skewed[i] = (int) (keySpace * u * u * u);
+        uniform[i] = random.nextInt(keySpace);
+      }
+    }
+
+    int next() {
+      return position++ & (SEQUENCE_LENGTH - 1);
+    }
+  }
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class HitCounters {
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  @Benchmark
+  public Object readThrough(SharedCache shared, Access access, HitCounters counters) {
+    String key = shared.keys[access.skewed[access.next()]];
+    Object value = shared.cache.get(key);
+    if (value != null) {
+      counters.hits++;
+      return value;
+    }
+    counters.misses++;
+    shared.cache.put(key, Boolean.TRUE, TTL_SECONDS);
+    return Boolean.TRUE;
+  }
+
+  @Benchmark
+  public void put(SharedCache shared, Access access) {
+    shared.cache.put(shared.keys[access.uniform[access.next()]], Boolean.TRUE, TTL_SECONDS);
+  }
+}
@@ -0,0 +1,178 @@
+package work.anyway.packages.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 持久化缓存的启动恢复耗时
+ * 数据为三类各占三分之一的条目：令牌黑名单（Boolean）、登录计数器和短字符串。
+ * restoreService 从快照恢复完整的 CacheServiceImpl，包括反序列化和写入淘汰策略；
+ * readSnapshot、replayJournal 只读取快照或日志，分别对应上次正常关闭和只有日志的情况（如快照前崩溃）。
+ * 每次调用是一次完整的恢复，使用单次计时模式。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CacheRestoreBenchmark {
+
+  private static final long TTL_MILLIS = 3_600_000;
+
+  @State(Scope.Benchmark)
+  public static class PersistedCache {
+    @Param({ "1000000" })
+    int entries;
+
+    Path snapshotDirectory;
+    Path journalDirectory;
+    CacheServiceImpl restored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      snapshotDirectory = Files.createTempDirectory("cache-restore-snapshot");
+      journalDirectory = Files.createTempDirectory("cache-restore-journal");
+
+      // 正常关闭时写入快照
+      CacheServiceImpl cache = new CacheServiceImpl(null, config(snapshotDirectory, entries));
+      cache.afterPropertiesSet();
+      for (int i = 0; i < entries; i++) {
+        switch (i % 3) {
+          case 0:
+            cache.put("token_blacklist:" + i, Boolean.TRUE, TTL_MILLIS / 1000);
+            break;
+          case 1:
+            cache.increment("login_attempts:" + i, i % 5 + 1, TTL_MILLIS / 1000);
+            break;
+          default:
+            cache.put("user_permissions:" + i, "user:read,user:write", TTL_MILLIS / 1000);
+            break;
+        }
+      }
+      cache.destroy();
+
+      // 同样的数据只写入日志
+      JavaValueSerializer serializer = new JavaValueSerializer();
+      long expirationTime = System.currentTimeMillis() + TTL_MILLIS;
+      Map<String, CacheEntry> journaled = new HashMap<>();
+      for (int i = 0; i < entries; i++) {
+        CacheEntry entry;
+        switch (i % 3) {
+          case 0:
+            entry = new CacheEntry("token_blacklist:" + i, Boolean.TRUE, expirationTime, 1);
+            break;
+          case 1:
+            entry = CacheEntry.counter("login_attempts:" + i, i % 5 + 1, expirationTime, 1);
+            break;
+          default:
+            entry = new CacheEntry("user_permissions:" + i, "user:read,user:write", expirationTime, 1);
+            break;
+        }
+        journaled.put(entry.getKey(), entry);
+      }
+      CachePersistence persistence = new CachePersistence(journalDirectory.toString());
+      persistence.restore(new CountingSink());
+      journaled.keySet().forEach(persistence::markDirty);
+      persistence.flush(journaled::get, entry -> entry.isCounter()
+          ? new CachePersistence.EncodedValue(CachePersistence.TYPE_COUNTER,
+              ByteBuffer.allocate(8).putLong((Long) entry.getValue()).array())
+          : new CachePersistence.EncodedValue(CachePersistence.TYPE_OBJECT, serializer.serialize(entry.getValue())));
+      persistence.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeRestored() {
+      // 关闭时重新写入快照，下一次调用恢复同样的数据
+      if (restored != null) {
+        restored.destroy();
+        restored = null;
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      delete(snapshotDirectory);
+      delete(journalDirectory);
+    }
+  }
+
+  @Benchmark
+  public long restoreService(PersistedCache state) {
+    state.restored = new CacheServiceImpl(null, config(state.snapshotDirectory, state.entries));
+    state.restored.afterPropertiesSet();
+    return state.restored.getStats().getSize();
+  }
+
+  @Benchmark
+  public long readSnapshot(PersistedCache state) throws IOException {
+    return read(state.snapshotDirectory);
+  }
+
+  @Benchmark
+  public long replayJournal(PersistedCache state) throws IOException {
+    return read(state.journalDirectory);
+  }
+
+  private static long read(Path directory) throws IOException {
+    CachePersistence persistence = new CachePersistence(directory.toString());
+    CountingSink sink = new CountingSink();
+    persistence.restore(sink);
+    persistence.close();
+    return sink.restored;
+  }
+
+  private static CacheConfig config(Path directory, int entries) {
+    CacheConfig config = new CacheConfig();
+    config.setMaximumSize(entries * 2L);
+    config.setBackend("none");
+    config.setPersistenceEnabled(true);
+    config.setPersistenceDirectory(directory.toString());
+    return config;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  private static final class CountingSink implements CachePersistence.RestoreSink {
+    long restored;
+
+    @Override
+    public void restore(String key, long expirationTime, byte type, byte[] value) {
+      restored++;
+    }
+
+    @Override
+    public void remove(String key) {
+      restored--;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package work.anyway.packages.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CacheService.increment 的争用基准
+ * hotKey 模拟同一账号的登录失败计数，所有线程递增同一个键；
+ * distinctKeys 每个线程递增自己的键，只在命名空间子表上竞争；
+ * atomicLong 是单个 AtomicLong 的下限，用于对比计数器路径的额外开销。
+ * 线程数可以用 -t 覆盖，例如 -t 1、-t 8 分别测量无争用和高争用。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CounterContentionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SharedCache {
+    final AtomicInteger threadIds = new AtomicInteger();
+    final AtomicLong baseline = new AtomicLong();
+    CacheServiceImpl cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      CacheConfig config = new CacheConfig();
+      config.setMaximumSize(100_000);
+      cache = new CacheServiceImpl(null, config);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadKey {
+    String key;
+
+    @Setup(Level.Trial)
+    public void setUp(SharedCache shared) {
+      key = "login_attempts:user" + shared.threadIds.incrementAndGet();
+    }
+  }
+
+  @Benchmark
+  public long hotKey(SharedCache shared) {
+    return shared.cache.increment("login_attempts:alice", 1, 3600);
+  }
+
+  @Benchmark
+  public long distinctKeys(SharedCache shared, ThreadKey thread) {
+    return shared.cache.increment(thread.key, 1, 3600);
+  }
+
+  @Benchmark
+  public long atomicLong(SharedCache shared) {
+    return shared.baseline.incrementAndGet();
+  }
+}
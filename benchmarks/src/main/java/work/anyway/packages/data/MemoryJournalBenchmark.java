@@ -0,0 +1,103 @@
+package work.anyway.packages.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 内存数据服务预写日志在各 fsync 策略下的写入吞吐
+ * 每次操作与一次 save 的日志部分相同：编码一条 PUT 记录，追加后等待按策略写出。
+ * 多个线程同时写入时，同一批记录共享一次写出和 fsync（成组提交）；线程数可以用 -t 覆盖，-t 1 测量单个写入方。
+ * ALWAYS 的结果取决于磁盘的 fsync 延迟，应在部署使用的存储上运行。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MemoryJournalBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Journal {
+    @Param({ "ALWAYS", "INTERVAL", "NEVER" })
+    String policy;
+
+    final AtomicLong ids = new AtomicLong();
+    Path directory;
+    MemoryJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      directory = Files.createTempDirectory("memory-journal");
+      journal = new MemoryJournal(directory, MemoryJournal.FsyncPolicy.of(policy), 10);
+      journal.recover(new MemoryJournal.Replay() {
+        @Override
+        public void put(String collection, String id, long sequence, Map<String, Object> row) {
+        }
+
+        @Override
+        public void sequence(String collection, long sequence) {
+        }
+
+        @Override
+        public void delete(String collection, String id) {
+        }
+
+        @Override
+        public void clear(String collection) {
+        }
+      });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      journal.close();
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public long save(Journal state) {
+    long sequence = state.ids.incrementAndGet();
+    String id = Long.toString(sequence);
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("id", id);
+    row.put("userId", "user-" + (sequence % 1000));
+    row.put("ipAddress", "10.0.0." + (sequence % 256));
+    row.put("success", sequence % 4 != 0);
+    row.put("createdAt", System.currentTimeMillis());
+
+    long position = state.journal.append(MemoryJournal.put("login_logs", id, sequence, row));
+    state.journal.await(position);
+    return position;
+  }
+}
@@ -0,0 +1,101 @@
+package work.anyway.packages.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存数据服务两种存储引擎的扫描、过滤和排序耗时
+ * 数据模拟参考表：低基数的分类字符串、价格（Double）、库存（Integer）、启用标志（Boolean）和创建时间（Long）。
+ * 直接测量存储引擎，不经过 IndexedMemoryTable 的二级索引，过滤走全表扫描。
+ * 每个基准读取结果中每条记录的一个字段，使按行复制与只读视图的读取成本都计入结果。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MemoryTableBenchmark {
+
+  private static final int CATEGORIES = 20;
+
+  @State(Scope.Benchmark)
+  public static class Table {
+    @Param({ "hash", "columnar" })
+    String engine;
+
+    @Param({ "100000" })
+    int rows;
+
+    MemoryTable table;
+    Map<String, Object> selective;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      table = "columnar".equals(engine) ? new ColumnarMemoryTable() : new HashMemoryTable();
+      long createdAt = System.currentTimeMillis();
+      for (int i = 0; i < rows; i++) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "product-" + i);
+        row.put("category", "category-" + (i % CATEGORIES));
+        row.put("price", (i * 7919 % 100_000) / 100.0);
+        row.put("stock", i % 500);
+        row.put("active", i % 3 != 0);
+        row.put("createdAt", createdAt - i * 1000L);
+        table.put("product-" + i, row);
+      }
+      selective = Map.of("category", "category-3", "active", Boolean.TRUE);
+    }
+  }
+
+  @Benchmark
+  public double scan(Table state) {
+    return sumPrices(state.table.scan(Collections.emptyMap(), null, true));
+  }
+
+  @Benchmark
+  public double filter(Table state) {
+    return sumPrices(state.table.scan(state.selective, null, true));
+  }
+
+  @Benchmark
+  public long count(Table state) {
+    return state.table.count(state.selective);
+  }
+
+  @Benchmark
+  public double sort(Table state) {
+    return sumPrices(state.table.scan(Collections.emptyMap(), "price", false));
+  }
+
+  @Benchmark
+  public double filterAndSort(Table state) {
+    return sumPrices(state.table.scan(state.selective, "createdAt", true));
+  }
+
+  private static double sumPrices(List<Map<String, Object>> rows) {
+    double sum = 0;
+    for (Map<String, Object> row : rows) {
+      sum += (Double) row.get("price");
+    }
+    return sum;
+  }
+}
@@ -21,12 +21,15 @@ public class ConfigLoader {
 
   // 可配置的系统属性前缀
   private static final Set<String> SYSTEM_PROPERTY_PREFIXES = new HashSet<>(Arrays.asList(
-      "http.", "plugins.", "vertx.", "service.", "datasource.", "spring.", "login.", "dev."));
+      "http.", "plugins.", "vertx.", "service.", "datasource.", "spring.", "login.", "dev.", "cache.",
+      "data."));
 
   static {
     loadProperties();
     propagateDataSourceConfig();
     propagateLoginSecurityConfig();
+    propagateCacheConfig();
+    propagateDataMemoryConfig();
   }
 
   private static void loadProperties() {
@@ -149,6 +152,40 @@ public class ConfigLoader {
     LOG.debug("Propagated {} login security configuration(s) to system properties", count[0]);
   }
 
+  /**
+   * 将缓存配置传播到系统属性
+   * 这样 CacheConfig 就可以读取到这些配置
+   */
+  private static void propagateCacheConfig() {
+    final int[] count = { 0 };
+    properties.forEach((key, value) -> {
+      String keyStr = key.toString();
+      if (keyStr.startsWith("cache.")) {
+        System.setProperty(keyStr, value.toString());
+        LOG.debug("  Setting cache property: {} = {}", keyStr, value.toString());
+        count[0]++;
+      }
+    });
+    LOG.debug("Propagated {} cache configuration(s) to system properties", count[0]);
+  }
+
+  /**
+   * 将内存数据服务配置传播到系统属性
+   * 这样 MemoryDataServiceImpl 就可以读取到这些配置
+   */
+  private static void propagateDataMemoryConfig() {
+    final int[] count = { 0 };
+    properties.forEach((key, value) -> {
+      String keyStr = key.toString();
+      if (keyStr.startsWith("data.memory.")) {
+        System.setProperty(keyStr, value.toString());
+        LOG.debug("  Setting memory data property: {} = {}", keyStr, value.toString());
+        count[0]++;
+      }
+    });
+    LOG.debug("Propagated {} memory data configuration(s) to system properties", count[0]);
+  }
+
   /**
    * 获取所有配置属性
    */
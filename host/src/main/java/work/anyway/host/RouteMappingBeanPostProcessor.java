@@ -27,6 +27,10 @@ import java.util.List;
 public class RouteMappingBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware {
   private static final Logger LOG = LoggerFactory.getLogger(RouteMappingBeanPostProcessor.class);
 
+  // 工作线程中的处理结果：前置拦截器中断了请求或抛出了异常
+  private static final Object INTERCEPTED = new Object();
+  private static final Object PRE_HANDLE_FAILED = new Object();
+
   private ApplicationContext applicationContext;
   private Router router;
   private Vertx vertx;
@@ -247,23 +251,27 @@ public class RouteMappingBeanPostProcessor implements BeanPostProcessor, Applica
         method.getName(),
         applicableInterceptors.stream().map(Interceptor::getName).toList());
 
-    // 执行前置拦截
-    for (Interceptor interceptor : applicableInterceptors) {
-      try {
-        if (!interceptor.preHandle(ctx)) {
+    // 在 Vert.x 的工作线程中执行拦截器和控制器方法。
+    // 前置拦截器也可能阻塞（如认证拦截器检查令牌黑名单时同步访问远程缓存后端），不能在事件循环中执行
+    vertx.executeBlocking(promise -> {
+      // 执行前置拦截
+      for (Interceptor interceptor : applicableInterceptors) {
+        boolean proceed;
+        try {
+          proceed = interceptor.preHandle(ctx);
+        } catch (Exception e) {
+          LOG.error("Error in interceptor preHandle: {}", interceptor.getName(), e);
+          promise.complete(PRE_HANDLE_FAILED);
+          return;
+        }
+        if (!proceed) {
           // 拦截器返回 false，中断处理
           LOG.debug("Request intercepted by: {}", interceptor.getName());
+          promise.complete(INTERCEPTED);
           return;
         }
-      } catch (Exception e) {
-        LOG.error("Error in interceptor preHandle: {}", interceptor.getName(), e);
-        ctx.fail(500);
-        return;
       }
-    }
 
-    // 在 Vert.x 的工作线程中执行控制器方法
-    vertx.executeBlocking(promise -> {
       try {
         // 判断方法参数
         Class<?>[] paramTypes = method.getParameterTypes();
@@ -300,6 +308,13 @@ public class RouteMappingBeanPostProcessor implements BeanPostProcessor, Applica
         promise.fail(e);
       }
     }, res -> {
+      if (res.succeeded() && res.result() == INTERCEPTED) {
+        return;
+      }
+      if (res.succeeded() && res.result() == PRE_HANDLE_FAILED) {
+        ctx.fail(500);
+        return;
+      }
       if (res.succeeded()) {
         // 执行完成拦截（成功情况）
         for (Interceptor interceptor : applicableInterceptors) {
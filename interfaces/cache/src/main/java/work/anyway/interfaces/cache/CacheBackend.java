@@ -0,0 +1,186 @@
+package work.anyway.interfaces.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存后端
+ * 多个实例共享的远程缓存存储，{@link CacheService} 的实现在其前面维护本地近端缓存，
+ * 写操作通过发布/订阅通知其他实例失效各自的近端副本。
+ * 值以字节数组保存，由调用方负责序列化；{@link #increment} 创建的计数器以十进制文本保存。
+ * 注册为 Spring Bean 即可替换通过配置创建的后端。
+ * 网络或协议错误以 {@link RuntimeException} 抛出。
+ */
+public interface CacheBackend {
+
+  /**
+   * 获取缓存值及其剩余存活时间
+   *
+   * @param key 键
+   * @return 条目，不存在或已过期时返回 null
+   */
+  Entry get(String key);
+
+  /**
+   * 存储缓存值
+   *
+   * @param key        键
+   * @param value      值
+   * @param ttlSeconds 存活时间（秒），不大于 0 时删除该键
+   */
+  void set(String key, byte[] value, long ttlSeconds);
+
+  /**
+   * 批量获取缓存值，默认逐个调用 {@link #get}，网络实现应合并为一次往返
+   *
+   * @param keys 键集合
+   * @return 键到条目的映射，只包含存在的键
+   */
+  default Map<String, Entry> getAll(Collection<String> keys) {
+    Map<String, Entry> result = new HashMap<>();
+    for (String key : keys) {
+      Entry entry = get(key);
+      if (entry != null) {
+        result.put(key, entry);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 批量存储缓存值，默认逐个调用 {@link #set}
+   *
+   * @param values     键值映射
+   * @param ttlSeconds 存活时间（秒）
+   */
+  default void setAll(Map<String, byte[]> values, long ttlSeconds) {
+    for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+      set(entry.getKey(), entry.getValue(), ttlSeconds);
+    }
+  }
+
+  /**
+   * 批量删除缓存项，默认逐个调用 {@link #delete}
+   *
+   * @param keys 键集合
+   * @return 删除的键数
+   */
+  default long deleteAll(Collection<String> keys) {
+    long removedCount = 0;
+    for (String key : keys) {
+      if (delete(key)) {
+        removedCount++;
+      }
+    }
+    return removedCount;
+  }
+
+  /**
+   * 删除缓存项
+   *
+   * @param key 键
+   * @return 键是否存在
+   */
+  boolean delete(String key);
+
+  /**
+   * 检查键是否存在
+   *
+   * @param key 键
+   * @return 是否存在
+   */
+  boolean exists(String key);
+
+  /**
+   * 原子递增计数器，键不存在时以 delta 为初始值并设置过期时间，已有的值不是十进制整数时抛出异常
+   *
+   * @param key        键
+   * @param delta      增量
+   * @param ttlSeconds 新建计数器的存活时间（秒）
+   * @return 递增后的值
+   */
+  long increment(String key, long delta, long ttlSeconds);
+
+  /**
+   * 重新设置存活时间
+   *
+   * @param key        键
+   * @param ttlSeconds 新的存活时间（秒）
+   * @return 键是否存在
+   */
+  boolean expire(String key, long ttlSeconds);
+
+  /**
+   * 删除匹配模式的所有键
+   *
+   * @param pattern 模式，只有 * 作为通配符，其余字符按字面匹配
+   * @return 删除的键数
+   */
+  long deletePattern(String pattern);
+
+  /**
+   * 向频道发布消息
+   *
+   * @param channel 频道
+   * @param message 消息
+   */
+  void publish(String channel, String message);
+
+  /**
+   * 订阅频道，连接断开时由实现负责重连
+   *
+   * @param channel  频道
+   * @param listener 消息监听器
+   */
+  void subscribe(String channel, MessageListener listener);
+
+  /**
+   * 关闭后端，释放连接和订阅
+   */
+  void close();
+
+  /**
+   * 频道消息监听器
+   */
+  interface MessageListener {
+
+    /**
+     * 收到消息
+     *
+     * @param message 消息
+     */
+    void onMessage(String message);
+
+    /**
+     * 订阅曾经中断并已恢复，中断期间的消息可能已丢失
+     */
+    default void onReset() {
+    }
+  }
+
+  /**
+   * 后端条目
+   */
+  final class Entry {
+    private final byte[] value;
+    private final long ttlMillis;
+
+    /**
+     * @param value     值
+     * @param ttlMillis 剩余存活时间（毫秒），负数表示永不过期
+     */
+    public Entry(byte[] value, long ttlMillis) {
+      this.value = value;
+      this.ttlMillis = ttlMillis;
+    }
+
+    public byte[] getValue() {
+      return value;
+    }
+
+    public long getTtlMillis() {
+      return ttlMillis;
+    }
+  }
+}
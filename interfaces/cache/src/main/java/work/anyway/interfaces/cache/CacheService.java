@@ -1,5 +1,13 @@
 package work.anyway.interfaces.cache;
 
+import io.vertx.core.Future;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 /**
  * 缓存服务接口
  * 提供基础缓存功能和认证相关的扩展功能
@@ -22,6 +30,7 @@ public interface CacheService {
    * @param key        键
    * @param value      值
    * @param ttlSeconds 存活时间（秒）
+   * @throws RuntimeException 使用远程后端时，后端不可用
    */
   void put(String key, Object value, long ttlSeconds);
 
@@ -29,9 +38,86 @@ public interface CacheService {
    * 移除缓存项
    * 
    * @param key 键
+   * @throws RuntimeException 使用远程后端时，后端不可用
    */
   void remove(String key);
 
+  // 批量操作
+
+  /**
+   * 批量获取缓存值
+   *
+   * @param keys 键集合
+   * @return 键到值的映射，只包含存在且未过期的键
+   */
+  Map<String, Object> getAll(Collection<String> keys);
+
+  /**
+   * 批量存储缓存值，所有条目使用相同的存活时间
+   *
+   * @param entries    键值映射
+   * @param ttlSeconds 存活时间（秒）
+   * @throws RuntimeException 使用远程后端时，后端不可用
+   */
+  void putAll(Map<String, ?> entries, long ttlSeconds);
+
+  /**
+   * 批量移除缓存项
+   *
+   * @param keys 键集合
+   * @throws RuntimeException 使用远程后端时，后端不可用
+   */
+  void removeAll(Collection<String> keys);
+
+  // 读穿透加载
+
+  /**
+   * 获取缓存值，未命中时调用加载器并缓存结果
+   * 同一个键的并发加载会合并为一次加载器调用，其他调用方等待该次结果。
+   * 该方法会阻塞等待加载完成，不应在事件循环线程上调用。
+   *
+   * @param key        键
+   * @param ttlSeconds 存活时间（秒）
+   * @param loader     加载器，返回 null 时不缓存
+   * @return 缓存值或加载结果
+   */
+  <T> T getOrLoad(String key, long ttlSeconds, Supplier<T> loader);
+
+  /**
+   * 获取缓存值，未命中时调用加载器并缓存结果，支持提前刷新
+   * 条目写入超过 refreshAfterSeconds 后仍返回旧值，同时在后台刷新。
+   *
+   * @param key                 键
+   * @param ttlSeconds          存活时间（秒）
+   * @param refreshAfterSeconds 写入多久后触发后台刷新（秒），0 表示不刷新
+   * @param loader              加载器，返回 null 时不缓存
+   * @return 缓存值或加载结果
+   */
+  <T> T getOrLoad(String key, long ttlSeconds, long refreshAfterSeconds, Supplier<T> loader);
+
+  /**
+   * 异步获取缓存值，未命中时调用异步加载器并缓存结果
+   * 同一个键的并发加载会合并为一次加载器调用。
+   *
+   * @param key        键
+   * @param ttlSeconds 存活时间（秒）
+   * @param loader     异步加载器，结果为 null 时不缓存
+   * @return 缓存值或加载结果
+   */
+  <T> Future<T> getOrLoadAsync(String key, long ttlSeconds, Supplier<Future<T>> loader);
+
+  /**
+   * 异步获取缓存值，未命中时调用异步加载器并缓存结果，支持提前刷新
+   *
+   * @param key                 键
+   * @param ttlSeconds          存活时间（秒）
+   * @param refreshAfterSeconds 写入多久后触发后台刷新（秒），0 表示不刷新
+   * @param loader              异步加载器，结果为 null 时不缓存
+   * @return 缓存值或加载结果
+   */
+  <T> Future<T> getOrLoadAsync(String key, long ttlSeconds, long refreshAfterSeconds,
+      Supplier<Future<T>> loader);
+
   // 认证功能扩展
 
   /**
@@ -39,6 +125,7 @@ public interface CacheService {
    * 
    * @param key 键
    * @return 是否存在
+   * @throws RuntimeException 使用远程后端时，后端不可用（无法确认键不存在，调用方不应按不存在处理）
    */
   boolean exists(String key);
 
@@ -50,6 +137,7 @@ public interface CacheService {
    * @param delta      增量
    * @param ttlSeconds TTL（仅在键不存在时设置）
    * @return 递增后的值
+   * @throws RuntimeException 使用远程后端时，后端不可用或已有的值不是整数
    */
   long increment(String key, long delta, long ttlSeconds);
 
@@ -67,6 +155,7 @@ public interface CacheService {
    * 支持通配符 * 匹配
    * 
    * @param pattern 模式，如 "user:*" 匹配所有以user:开头的键
+   * @throws RuntimeException 使用远程后端时，后端不可用
    */
   void removePattern(String pattern);
 
@@ -84,11 +173,33 @@ public interface CacheService {
     private final long size;
     private final long hitCount;
     private final long missCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final OffHeapStats offHeapStats;
+    private final List<NamespaceStats> namespaceStats;
 
     public CacheStats(long size, long hitCount, long missCount) {
+      this(size, hitCount, missCount, 0, 0);
+    }
+
+    public CacheStats(long size, long hitCount, long missCount, long evictionCount, long evictionWeight) {
+      this(size, hitCount, missCount, evictionCount, evictionWeight, null);
+    }
+
+    public CacheStats(long size, long hitCount, long missCount, long evictionCount, long evictionWeight,
+        OffHeapStats offHeapStats) {
+      this(size, hitCount, missCount, evictionCount, evictionWeight, offHeapStats, Collections.emptyList());
+    }
+
+    public CacheStats(long size, long hitCount, long missCount, long evictionCount, long evictionWeight,
+        OffHeapStats offHeapStats, List<NamespaceStats> namespaceStats) {
       this.size = size;
       this.hitCount = hitCount;
       this.missCount = missCount;
+      this.evictionCount = evictionCount;
+      this.evictionWeight = evictionWeight;
+      this.offHeapStats = offHeapStats;
+      this.namespaceStats = namespaceStats;
     }
 
     public long getSize() {
@@ -103,9 +214,178 @@ public interface CacheService {
       return missCount;
     }
 
+    /**
+     * 因容量限制被淘汰的条目数
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * 因容量限制被淘汰的总权重（按条目数限制时与淘汰条目数相同）
+     */
+    public long getEvictionWeight() {
+      return evictionWeight;
+    }
+
+    /**
+     * 堆外存储统计信息
+     *
+     * @return 统计信息，未启用堆外存储时返回 null
+     */
+    public OffHeapStats getOffHeapStats() {
+      return offHeapStats;
+    }
+
+    /**
+     * 按命名空间（键中第一个 ':' 之前的部分）划分的统计信息
+     */
+    public List<NamespaceStats> getNamespaceStats() {
+      return namespaceStats;
+    }
+
     public double getHitRate() {
       long total = hitCount + missCount;
       return total == 0 ? 0.0 : (double) hitCount / total;
     }
+
+    /**
+     * 命名空间统计信息
+     */
+    public static class NamespaceStats {
+
+      /**
+       * 加载耗时直方图各区间的上界（毫秒），最后一个区间没有上界
+       */
+      public static final long[] LOAD_LATENCY_BOUNDS_MILLIS = { 1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+      private final String name;
+      private final long size;
+      private final long hitCount;
+      private final long missCount;
+      private final long loadSuccessCount;
+      private final long loadFailureCount;
+      private final long totalLoadTimeNanos;
+      private final long[] loadLatencyHistogram;
+      private final long evictionCount;
+      private final long expirationCount;
+
+      public NamespaceStats(String name, long size, long hitCount, long missCount, long loadSuccessCount,
+          long loadFailureCount, long totalLoadTimeNanos, long[] loadLatencyHistogram, long evictionCount,
+          long expirationCount) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.loadLatencyHistogram = loadLatencyHistogram;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+      }
+
+      /**
+       * 命名空间名称，没有 ':' 的键属于空命名空间
+       */
+      public String getName() {
+        return name;
+      }
+
+      public long getSize() {
+        return size;
+      }
+
+      public long getHitCount() {
+        return hitCount;
+      }
+
+      public long getMissCount() {
+        return missCount;
+      }
+
+      public long getLoadSuccessCount() {
+        return loadSuccessCount;
+      }
+
+      public long getLoadFailureCount() {
+        return loadFailureCount;
+      }
+
+      public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+      }
+
+      /**
+       * 加载耗时直方图，第 i 个元素为耗时不超过 {@link #LOAD_LATENCY_BOUNDS_MILLIS}[i] 的加载次数，
+       * 最后一个元素为超过所有上界的次数
+       */
+      public long[] getLoadLatencyHistogram() {
+        return loadLatencyHistogram;
+      }
+
+      /**
+       * 因容量限制被淘汰的条目数
+       */
+      public long getEvictionCount() {
+        return evictionCount;
+      }
+
+      /**
+       * 过期后被主动清理的条目数
+       */
+      public long getExpirationCount() {
+        return expirationCount;
+      }
+
+      public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+      }
+
+      /**
+       * 平均加载耗时（毫秒）
+       */
+      public double getAverageLoadMillis() {
+        long total = loadSuccessCount + loadFailureCount;
+        return total == 0 ? 0.0 : totalLoadTimeNanos / 1_000_000.0 / total;
+      }
+    }
+
+    /**
+     * 堆外存储统计信息
+     */
+    public static class OffHeapStats {
+      private final long capacity;
+      private final long usedBytes;
+      private final long entryCount;
+      private final long rejectedCount;
+
+      public OffHeapStats(long capacity, long usedBytes, long entryCount, long rejectedCount) {
+        this.capacity = capacity;
+        this.usedBytes = usedBytes;
+        this.entryCount = entryCount;
+        this.rejectedCount = rejectedCount;
+      }
+
+      public long getCapacity() {
+        return capacity;
+      }
+
+      public long getUsedBytes() {
+        return usedBytes;
+      }
+
+      public long getEntryCount() {
+        return entryCount;
+      }
+
+      /**
+       * 因堆外空间不足而保留在堆上的值的数量
+       */
+      public long getRejectedCount() {
+        return rejectedCount;
+      }
+    }
   }
 }
\ No newline at end of file
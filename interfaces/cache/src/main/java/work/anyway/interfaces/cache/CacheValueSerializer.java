@@ -0,0 +1,32 @@
+package work.anyway.interfaces.cache;
+
+/**
+ * 缓存值序列化器
+ * 用于将缓存值写入堆外存储或持久化文件，注册为 Spring Bean 即可替换默认的 Java 序列化
+ */
+public interface CacheValueSerializer {
+
+  /**
+   * 是否支持序列化该值
+   *
+   * @param value 缓存值
+   * @return 是否支持
+   */
+  boolean supports(Object value);
+
+  /**
+   * 序列化缓存值
+   *
+   * @param value 缓存值
+   * @return 字节数组
+   */
+  byte[] serialize(Object value);
+
+  /**
+   * 反序列化缓存值
+   *
+   * @param bytes 字节数组
+   * @return 缓存值
+   */
+  Object deserialize(byte[] bytes);
+}
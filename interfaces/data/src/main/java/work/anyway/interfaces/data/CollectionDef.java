@@ -12,12 +12,14 @@ public class CollectionDef {
   private final String schema;
   private final String table;
   private final Class<? extends BaseEntity> entityClass;
+  private final EntityCacheOptions cacheOptions;
 
   private CollectionDef(Builder builder) {
     this.dataSource = builder.dataSource;
     this.schema = builder.schema;
     this.table = builder.table;
     this.entityClass = builder.entityClass;
+    this.cacheOptions = builder.cacheOptions;
   }
 
   /**
@@ -74,6 +76,15 @@ public class CollectionDef {
     return entityClass;
   }
 
+  /**
+   * 获取实体缓存配置
+   * 
+   * @return 缓存配置，为 null 时使用实体类 @Table 上的声明
+   */
+  public EntityCacheOptions getCacheOptions() {
+    return cacheOptions;
+  }
+
   /**
    * 创建一个构建器
    * 
@@ -92,6 +103,7 @@ public class CollectionDef {
     private String dataSource;
     private String schema;
     private Class<? extends BaseEntity> entityClass;
+    private EntityCacheOptions cacheOptions;
 
     private Builder(String table) {
       if (table == null || table.isEmpty()) {
@@ -133,6 +145,17 @@ public class CollectionDef {
       return this;
     }
 
+    /**
+     * 启用实体二级缓存，覆盖实体类 @Table 上的声明
+     * 
+     * @param cacheOptions 缓存配置
+     * @return 当前构建器实例
+     */
+    public Builder cache(EntityCacheOptions cacheOptions) {
+      this.cacheOptions = cacheOptions;
+      return this;
+    }
+
     /**
      * 构建集合定义
      * 
@@ -0,0 +1,32 @@
+package work.anyway.interfaces.data;
+
+import lombok.Getter;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+/**
+ * 游标分页结果类
+ * 基于排序键和主键定位下一页（keyset 分页），翻页耗时不随页码增加
+ * 
+ * @param <T> 数据类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+  private final List<T> data;
+
+  /**
+   * 获取下一页的游标，没有下一页时为 null
+   */
+  private final String nextCursor;
+
+  /**
+   * 是否有下一页
+   */
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
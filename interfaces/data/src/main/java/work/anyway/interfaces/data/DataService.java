@@ -117,4 +117,13 @@ public interface DataService {
    * @return 集合名称列表
    */
   List<String> listCollections();
+
+  /**
+   * 重新读取数据库的表结构
+   * 
+   * @return 读取到的表数，不基于数据库的实现返回 0
+   */
+  default int refreshSchema() {
+    return 0;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package work.anyway.interfaces.data;
+
+import work.anyway.annotations.Table;
+
+/**
+ * 实体二级缓存配置
+ * 可以通过 {@link Table#cacheable()} 在实体类上声明，也可以通过 {@link CollectionDef.Builder#cache(EntityCacheOptions)}
+ * 为单个集合指定，后者优先。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+public final class EntityCacheOptions {
+
+  private final int ttlSeconds;
+  private final int maxSize;
+  private final boolean cacheQueries;
+
+  private EntityCacheOptions(int ttlSeconds, int maxSize, boolean cacheQueries) {
+    if (ttlSeconds <= 0 || maxSize <= 0) {
+      throw new IllegalArgumentException("ttlSeconds and maxSize must be positive");
+    }
+    this.ttlSeconds = ttlSeconds;
+    this.maxSize = maxSize;
+    this.cacheQueries = cacheQueries;
+  }
+
+  /**
+   * 创建缓存配置
+   *
+   * @param ttlSeconds   缓存条目的存活时间（秒）
+   * @param maxSize      最大条目数
+   * @param cacheQueries 是否缓存条件查询结果
+   */
+  public static EntityCacheOptions of(int ttlSeconds, int maxSize, boolean cacheQueries) {
+    return new EntityCacheOptions(ttlSeconds, maxSize, cacheQueries);
+  }
+
+  /**
+   * 读取实体类 @Table 上的缓存声明
+   *
+   * @return 缓存配置，未启用时返回 null
+   */
+  static EntityCacheOptions of(Table table) {
+    if (table == null || !table.cacheable()) {
+      return null;
+    }
+    return new EntityCacheOptions(table.cacheTtlSeconds(), table.cacheMaxSize(), table.cacheQueries());
+  }
+
+  public int getTtlSeconds() {
+    return ttlSeconds;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public boolean isCacheQueries() {
+    return cacheQueries;
+  }
+
+  @Override
+  public String toString() {
+    return "EntityCacheOptions{ttlSeconds=" + ttlSeconds + ", maxSize=" + maxSize
+        + ", cacheQueries=" + cacheQueries + '}';
+  }
+}
@@ -0,0 +1,90 @@
+package work.anyway.interfaces.data;
+
+/**
+ * 实体二级缓存统计
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+public class EntityCacheStats {
+  private final String name;
+  private final long size;
+  private final long hitCount;
+  private final long missCount;
+  private final long queryHitCount;
+  private final long queryMissCount;
+  private final long evictionCount;
+  private final long invalidationCount;
+
+  public EntityCacheStats(String name, long size, long hitCount, long missCount, long queryHitCount,
+      long queryMissCount, long evictionCount, long invalidationCount) {
+    this.name = name;
+    this.size = size;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.queryHitCount = queryHitCount;
+    this.queryMissCount = queryMissCount;
+    this.evictionCount = evictionCount;
+    this.invalidationCount = invalidationCount;
+  }
+
+  /**
+   * 缓存名称，格式为 数据源:实体类名
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * 当前缓存的实体和查询结果条目数
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * 按 ID 查询的命中率
+   */
+  public double getHitRate() {
+    long total = hitCount + missCount;
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  public long getQueryHitCount() {
+    return queryHitCount;
+  }
+
+  public long getQueryMissCount() {
+    return queryMissCount;
+  }
+
+  /**
+   * 条件查询的命中率
+   */
+  public double getQueryHitRate() {
+    long total = queryHitCount + queryMissCount;
+    return total == 0 ? 0.0 : (double) queryHitCount / total;
+  }
+
+  /**
+   * 因容量上限或过期被移除的条目数
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * 因写入而失效的次数
+   */
+  public long getInvalidationCount() {
+    return invalidationCount;
+  }
+}
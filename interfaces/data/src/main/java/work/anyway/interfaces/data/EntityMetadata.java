@@ -1,5 +1,6 @@
 package work.anyway.interfaces.data;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import work.anyway.annotations.Column;
 import work.anyway.annotations.Table;
@@ -8,10 +9,13 @@ import work.anyway.annotations.Transient;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 实体元数据
- * 缓存实体类的表信息和字段映射信息
+ * 缓存实体类的表信息和字段映射信息，以及解析时生成的构造函数和字段访问器
  * 
  * @author 作者名
  * @since 1.0.0
@@ -26,6 +30,9 @@ public class EntityMetadata<T> {
   private final Map<String, FieldMetadata> fields;
   private final List<FieldMetadata> persistentFields;
   private final FieldMetadata primaryKeyField;
+  private final EntityCacheOptions cacheOptions;
+  @Getter(AccessLevel.NONE)
+  private final Supplier<T> constructor;
 
   // 缓存已解析的元数据
   private static final Map<Class<?>, EntityMetadata<?>> CACHE = new ConcurrentHashMap<>();
@@ -39,11 +46,13 @@ public class EntityMetadata<T> {
       this.tableName = table.value();
       this.schema = table.schema();
       this.dataSource = table.dataSource();
+      this.cacheOptions = EntityCacheOptions.of(table);
     } else {
       // 默认使用类名的 snake_case 作为表名
       this.tableName = camelToSnake(entityClass.getSimpleName());
       this.schema = "";
       this.dataSource = "";
+      this.cacheOptions = null;
     }
 
     // 解析字段
@@ -83,6 +92,19 @@ public class EntityMetadata<T> {
     }
 
     this.primaryKeyField = primaryKey;
+    this.constructor = FieldAccessors.constructor(entityClass);
+  }
+
+  /**
+   * 使用无参构造器创建实体实例
+   *
+   * @throws IllegalStateException 实体类没有无参构造器或是抽象类时
+   */
+  public T newInstance() {
+    if (constructor == null) {
+      throw new IllegalStateException("Entity has no accessible no-arg constructor: " + entityClass.getName());
+    }
+    return constructor.get();
   }
 
   /**
@@ -190,6 +212,10 @@ public class EntityMetadata<T> {
     private final boolean nullable;
     private final boolean unique;
     private final int length;
+    @Getter(AccessLevel.NONE)
+    private final Function<Object, Object> getter;
+    @Getter(AccessLevel.NONE)
+    private final BiConsumer<Object, Object> setter;
 
     public FieldMetadata(Field field) {
       this.field = field;
@@ -211,6 +237,8 @@ public class EntityMetadata<T> {
       }
 
       field.setAccessible(true);
+      this.getter = FieldAccessors.getter(field);
+      this.setter = FieldAccessors.setter(field);
     }
 
     public void setPrimaryKey(boolean primaryKey) {
@@ -218,19 +246,14 @@ public class EntityMetadata<T> {
     }
 
     public Object getValue(Object entity) {
-      try {
-        return field.get(entity);
-      } catch (IllegalAccessException e) {
-        throw new RuntimeException("Failed to get field value: " + fieldName, e);
-      }
+      return getter.apply(entity);
     }
 
+    /**
+     * 设置字段值，基本类型字段不接受 null
+     */
     public void setValue(Object entity, Object value) {
-      try {
-        field.set(entity, value);
-      } catch (IllegalAccessException e) {
-        throw new RuntimeException("Failed to set field value: " + fieldName, e);
-      }
+      setter.accept(entity, value);
     }
   }
 
@@ -0,0 +1,170 @@
+package work.anyway.interfaces.data;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 字段访问器工厂
+ * 在解析实体元数据时为每个字段生成一次访问器：有 getter/setter 方法（如 Lombok 生成的）时
+ * 通过 LambdaMetafactory 生成直接调用该方法的函数对象，否则退回到字段的 MethodHandle。
+ * 生成后的读写不再经过 Field.get/set 的反射检查。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class FieldAccessors {
+
+  private FieldAccessors() {
+  }
+
+  /**
+   * 生成字段读取函数
+   */
+  @SuppressWarnings("unchecked")
+  static Function<Object, Object> getter(Field field) {
+    Class<?> owner = field.getDeclaringClass();
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+      Method accessor = findGetter(field);
+      if (accessor != null) {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+            MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class),
+            lookup.unreflect(accessor),
+            MethodType.methodType(wrap(field.getType()), owner));
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+      }
+
+      MethodHandle handle = lookup.unreflectGetter(field)
+          .asType(MethodType.methodType(Object.class, Object.class));
+      return entity -> {
+        try {
+          return handle.invokeExact(entity);
+        } catch (Throwable e) {
+          throw new RuntimeException("Failed to get field value: " + field.getName(), e);
+        }
+      };
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot create getter for field: " + field, e);
+    }
+  }
+
+  /**
+   * 生成字段写入函数
+   */
+  @SuppressWarnings("unchecked")
+  static BiConsumer<Object, Object> setter(Field field) {
+    Class<?> owner = field.getDeclaringClass();
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+      Method accessor = findSetter(field);
+      if (accessor != null) {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+            MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class),
+            lookup.unreflect(accessor),
+            MethodType.methodType(void.class, owner, wrap(field.getType())));
+        return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+      }
+
+      MethodHandle handle = lookup.unreflectSetter(field)
+          .asType(MethodType.methodType(void.class, Object.class, Object.class));
+      return (entity, value) -> {
+        try {
+          handle.invokeExact(entity, value);
+        } catch (Throwable e) {
+          throw new RuntimeException("Failed to set field value: " + field.getName(), e);
+        }
+      };
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot create setter for field: " + field, e);
+    }
+  }
+
+  /**
+   * 生成无参构造函数，类型不可实例化时返回 null
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Supplier<T> constructor(Class<T> type) {
+    if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
+      return null;
+    }
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      MethodHandle target = lookup.findConstructor(type, MethodType.methodType(void.class));
+      if (!Modifier.isPublic(type.getDeclaredConstructor().getModifiers())) {
+        // 非公开构造器不能作为 lambda 的实现方法
+        MethodHandle handle = target.asType(MethodType.methodType(Object.class));
+        return () -> {
+          try {
+            return (T) handle.invokeExact();
+          } catch (Throwable e) {
+            throw new RuntimeException("Failed to create entity: " + type.getName(), e);
+          }
+        };
+      }
+      CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+          MethodType.methodType(Supplier.class),
+          MethodType.methodType(Object.class),
+          target,
+          MethodType.methodType(type));
+      return (Supplier<T>) site.getTarget().invokeExact();
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot create constructor for: " + type.getName(), e);
+    }
+  }
+
+  /**
+   * 查找与字段类型一致的 getter，按 Lombok 的命名规则：boolean 使用 is 前缀，其余使用 get 前缀
+   */
+  private static Method findGetter(Field field) {
+    String name = field.getName();
+    String capitalized = capitalize(name);
+    if (field.getType() == boolean.class) {
+      Method method = findMethod(field.getDeclaringClass(),
+          name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2))
+              ? name
+              : "is" + capitalized);
+      if (method != null && method.getReturnType() == boolean.class) {
+        return method;
+      }
+    }
+    Method method = findMethod(field.getDeclaringClass(), "get" + capitalized);
+    return method != null && method.getReturnType() == field.getType() ? method : null;
+  }
+
+  private static Method findSetter(Field field) {
+    String name = field.getName();
+    String property = field.getType() == boolean.class && name.startsWith("is") && name.length() > 2
+        && Character.isUpperCase(name.charAt(2)) ? name.substring(2) : capitalize(name);
+    return findMethod(field.getDeclaringClass(), "set" + property, field.getType());
+  }
+
+  private static Method findMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+    try {
+      Method method = owner.getDeclaredMethod(name, parameterTypes);
+      return Modifier.isStatic(method.getModifiers()) ? null : method;
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static String capitalize(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+}
@@ -0,0 +1,130 @@
+package work.anyway.interfaces.data;
+
+import io.vertx.core.Future;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 响应式仓库接口
+ * 与 {@link Repository} 提供相同的操作，但所有方法立即返回 {@link Future}，
+ * 不阻塞调用线程，可以在事件循环线程上直接使用。
+ *
+ * @param <T> 实体类型，必须继承自 Entity
+ * @author 作者名
+ * @since 1.0.0
+ */
+public interface ReactiveRepository<T extends BaseEntity> {
+
+  /**
+   * 保存实体
+   * 如果实体没有ID，将自动生成
+   *
+   * @param entity 要保存的实体
+   * @return 保存后的实体
+   */
+  Future<T> save(T entity);
+
+  /**
+   * 根据ID查找实体
+   *
+   * @param id 实体ID
+   * @return 查找到的实体，如果不存在返回空
+   */
+  Future<Optional<T>> findById(String id);
+
+  /**
+   * 查找所有实体
+   *
+   * @return 所有实体列表
+   */
+  Future<List<T>> findAll();
+
+  /**
+   * 根据条件查询实体
+   *
+   * @param criteria 查询条件
+   * @return 符合条件的实体列表
+   */
+  Future<List<T>> findBy(QueryCriteria<T> criteria);
+
+  /**
+   * 更新实体
+   *
+   * @param entity 要更新的实体
+   * @return 更新成功返回 true，否则返回 false
+   */
+  Future<Boolean> update(T entity);
+
+  /**
+   * 删除实体
+   *
+   * @param id 实体ID
+   * @return 删除成功返回 true，否则返回 false
+   */
+  Future<Boolean> delete(String id);
+
+  /**
+   * 批量保存实体
+   *
+   * @param entities 要保存的实体列表
+   * @return 成功保存的数量
+   */
+  Future<Integer> batchSave(List<T> entities);
+
+  /**
+   * 批量删除实体
+   *
+   * @param ids 要删除的实体ID列表
+   * @return 成功删除的数量
+   */
+  Future<Integer> batchDelete(List<String> ids);
+
+  /**
+   * 分页查询
+   *
+   * @param options 查询选项（包含分页、排序、过滤条件等）
+   * @return 分页查询结果
+   */
+  Future<PageResult<T>> findPage(QueryOptions options);
+
+  /**
+   * 统计实体数量
+   *
+   * @return 实体总数
+   */
+  Future<Long> count();
+
+  /**
+   * 统计符合条件的实体数量
+   *
+   * @param criteria 查询条件
+   * @return 符合条件的实体数量
+   */
+  Future<Long> countBy(QueryCriteria<T> criteria);
+
+  /**
+   * 游标分页查询（keyset 分页）
+   * 按查询条件的排序字段和主键排序，从游标之后开始读取。
+   * 排序字段的值不能为 null，不支持自定义过滤器。
+   *
+   * @param criteria 查询条件
+   * @param cursor   上一页返回的游标，为 null 时从第一页开始
+   * @param limit    每页数量
+   * @return 游标分页结果
+   */
+  Future<CursorPage<T>> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit);
+
+  /**
+   * 流式读取符合条件的实体
+   * 使用数据库游标按批次读取，处理函数返回的 Future 完成后才读取下一批，内存中只保留一个批次。
+   * 处理函数返回失败的 Future 时停止读取。
+   *
+   * @param criteria  查询条件，自定义过滤器在每个批次内执行
+   * @param batchSize 每批从数据库读取的行数
+   * @param handler   批次处理函数
+   * @return 处理的实体总数
+   */
+  Future<Long> stream(QueryCriteria<T> criteria, int batchSize, Function<List<T>, Future<Void>> handler);
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package work.anyway.interfaces.data;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 通用仓库接口
@@ -99,4 +100,35 @@ public interface Repository<T extends BaseEntity> {
    * @return 符合条件的实体数量
    */
   long countBy(QueryCriteria<T> criteria);
+
+  /**
+   * 游标分页查询（keyset 分页）
+   * 按查询条件的排序字段和主键排序，从游标之后开始读取，翻页耗时不随页码增加。
+   * 排序字段的值不能为 null，不支持自定义过滤器。
+   * 
+   * @param criteria 查询条件
+   * @param cursor   上一页返回的游标，为 null 时从第一页开始
+   * @param limit    每页数量
+   * @return 游标分页结果
+   */
+  default CursorPage<T> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    throw new UnsupportedOperationException("Keyset pagination is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * 按批次遍历符合条件的实体
+   * 默认实现一次查询全部结果后分批回调，支持流式读取的实现只在内存中保留一个批次。
+   * 
+   * @param criteria  查询条件
+   * @param batchSize 每批数量
+   * @param consumer  批次处理函数，在调用线程上执行，处理完一批后才读取下一批
+   * @return 遍历的实体总数
+   */
+  default long forEachBatch(QueryCriteria<T> criteria, int batchSize, Consumer<List<T>> consumer) {
+    List<T> all = findBy(criteria);
+    for (int from = 0; from < all.size(); from += batchSize) {
+      consumer.accept(all.subList(from, Math.min(from + batchSize, all.size())));
+    }
+    return all.size();
+  }
 }
\ No newline at end of file
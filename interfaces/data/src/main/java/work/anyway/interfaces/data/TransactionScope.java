@@ -0,0 +1,34 @@
+package work.anyway.interfaces.data;
+
+/**
+ * 事务作用域
+ * 从作用域获取的响应式仓库共用同一个事务连接，所有操作随事务一起提交或回滚。
+ * 作用域只在事务函数执行期间有效。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+public interface TransactionScope {
+
+  /**
+   * 获取绑定到当前事务的响应式仓库
+   *
+   * @param collectionDef 集合定义，数据源必须与事务所在数据源一致
+   * @param entityClass   实体类型
+   * @param <T>           实体类型参数
+   * @return 响应式仓库实例
+   */
+  <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef, Class<T> entityClass);
+
+  /**
+   * 获取绑定到当前事务的响应式仓库
+   *
+   * @param table       表名
+   * @param entityClass 实体类型
+   * @param <T>         实体类型参数
+   * @return 响应式仓库实例
+   */
+  default <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(String table, Class<T> entityClass) {
+    return getReactiveRepository(CollectionDef.builder(table).entityClass(entityClass).build(), entityClass);
+  }
+}
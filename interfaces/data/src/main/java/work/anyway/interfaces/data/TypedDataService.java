@@ -1,5 +1,12 @@
 package work.anyway.interfaces.data;
 
+import io.vertx.core.Future;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * 类型安全的数据服务接口
  * 扩展了原有的 DataService，提供泛型支持
@@ -39,4 +46,84 @@ public interface TypedDataService extends DataService {
    * @return 类型安全的仓库实例
    */
   <T extends BaseEntity> Repository<T> getRepository(String dataSource, String table, Class<T> entityClass);
-}
\ No newline at end of file
+
+  /**
+   * 获取响应式仓库，所有操作返回 Future，不阻塞调用线程
+   * 
+   * @param collectionDef 集合定义，包含数据源、模式、表名等信息
+   * @param entityClass   实体类型
+   * @param <T>           实体类型参数
+   * @return 响应式仓库实例
+   * @throws UnsupportedOperationException 实现不支持响应式访问时
+   */
+  default <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef,
+      Class<T> entityClass) {
+    throw new UnsupportedOperationException("Reactive repository is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * 使用默认数据源获取响应式仓库
+   * 
+   * @param table       表名
+   * @param entityClass 实体类型
+   * @param <T>         实体类型参数
+   * @return 响应式仓库实例
+   * @throws UnsupportedOperationException 实现不支持响应式访问时
+   */
+  default <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(String table, Class<T> entityClass) {
+    return getReactiveRepository(CollectionDef.builder(table).entityClass(entityClass).build(), entityClass);
+  }
+
+  /**
+   * 使用指定数据源获取响应式仓库
+   * 
+   * @param dataSource  数据源名称
+   * @param table       表名
+   * @param entityClass 实体类型
+   * @param <T>         实体类型参数
+   * @return 响应式仓库实例
+   * @throws UnsupportedOperationException 实现不支持响应式访问时
+   */
+  default <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(String dataSource, String table,
+      Class<T> entityClass) {
+    return getReactiveRepository(
+        CollectionDef.builder(table).dataSource(dataSource).entityClass(entityClass).build(), entityClass);
+  }
+
+  /**
+   * 在默认数据源的事务中执行阻塞操作
+   * 执行期间，当前线程通过本服务获取的阻塞式仓库（默认数据源）都加入同一个事务，
+   * 仓库操作失败时直接抛出异常而不是返回空结果。函数正常返回时提交，抛出异常时回滚并重新抛出。
+   * 已经在事务中时直接加入外层事务。不能在事件循环线程上调用。
+   * 
+   * @param work 事务内执行的操作
+   * @param <R>  返回值类型
+   * @return 操作的返回值
+   * @throws UnsupportedOperationException 实现不支持事务时
+   */
+  default <R> R inTransaction(Supplier<R> work) {
+    throw new UnsupportedOperationException("Transaction is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * 在默认数据源的事务中执行响应式操作
+   * 返回的 Future 成功时提交，失败时回滚。
+   * 
+   * @param work 事务内执行的操作，通过作用域获取绑定到事务连接的仓库
+   * @param <R>  返回值类型
+   * @return 操作的结果
+   * @throws UnsupportedOperationException 实现不支持事务时
+   */
+  default <R> Future<R> inTransactionAsync(Function<TransactionScope, Future<R>> work) {
+    throw new UnsupportedOperationException("Transaction is not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * 获取实体二级缓存的统计信息
+   * 
+   * @return 每个启用缓存的实体一项，不支持缓存时返回空列表
+   */
+  default List<EntityCacheStats> getEntityCacheStats() {
+    return Collections.emptyList();
+  }
+}
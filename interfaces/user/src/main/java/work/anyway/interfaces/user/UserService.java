@@ -35,6 +35,16 @@ public interface UserService {
    */
   User createUser(User user);
 
+  /**
+   * 创建用户及其登录账户
+   * 用户与账户在同一个事务中创建，任一步失败时两者都不会保存
+   * 
+   * @param user    用户信息
+   * @param account 账户信息，用户ID会被设置为新用户的ID
+   * @return 创建的用户信息（包含生成的ID）
+   */
+  User createUserWithAccount(User user, UserAccount account);
+
   /**
    * 更新用户信息
    * 
@@ -165,13 +165,8 @@ public class AuthPlugin {
         user.setDepartment(body.getString("department").trim());
       }
 
-      // 创建用户
-      User createdUser = userService.createUser(user);
-      String userId = createdUser.getId();
-
       // 2. 创建邮箱账户
       UserAccount emailAccount = new UserAccount();
-      emailAccount.setUserId(userId);
       emailAccount.setAccountType(AccountType.EMAIL);
       emailAccount.setIdentifier(email);
       emailAccount.setCredentials(hashedPassword);
@@ -179,7 +174,9 @@ public class AuthPlugin {
       emailAccount.setPrimaryAccount(true);
       emailAccount.setRegistrationIp(ctx.request().remoteAddress().host());
 
-      UserAccount createdAccount = accountService.createAccount(emailAccount);
+      // 在同一个事务中创建用户和账户
+      User createdUser = userService.createUserWithAccount(user, emailAccount);
+      String userId = createdUser.getId();
 
       // 生成访问令牌（包含完整用户信息）
       String accessToken = jwtTokenUtil.generateAccessToken(createdUser, email);
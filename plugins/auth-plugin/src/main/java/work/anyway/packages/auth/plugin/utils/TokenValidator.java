@@ -162,6 +162,7 @@ public class TokenValidator {
    * 撤销 token（加入黑名单）
    * 
    * @param token JWT token
+   * @throws RuntimeException 写入黑名单失败，token 仍然有效
    */
   public void revokeToken(String token) {
     try {
@@ -170,8 +171,9 @@ public class TokenValidator {
         cacheService.put("token_blacklist:" + token, true, remainingTime);
         LOG.debug("Token revoked and added to blacklist");
       }
-    } catch (Exception e) {
+    } catch (RuntimeException e) {
       LOG.error("Failed to revoke token", e);
+      throw e;
     }
   }
 
@@ -14,8 +14,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import work.anyway.annotations.*;
 import work.anyway.interfaces.data.DataService;
+import work.anyway.interfaces.data.EntityCacheStats;
 import work.anyway.interfaces.data.PageResult;
 import work.anyway.interfaces.data.QueryOptions;
+import work.anyway.interfaces.data.TypedDataService;
 import work.anyway.packages.data.DataSourceManager;
 
 import java.io.InputStream;
@@ -43,6 +45,9 @@ public class DataPlugin {
   @Autowired(required = false)
   private DataSourceManager dataSourceManager;
 
+  @Autowired(required = false)
+  private TypedDataService typedDataService;
+
   @Autowired
   private Vertx vertx;
 
@@ -563,6 +568,55 @@ public class DataPlugin {
     }
   }
 
+  /**
+   * 获取实体缓存统计
+   */
+  @GetMapping("/api/data/entity-cache")
+  public void handleGetEntityCacheStats(RoutingContext ctx) {
+    try {
+      JsonArray caches = new JsonArray();
+      if (typedDataService != null) {
+        for (EntityCacheStats stats : typedDataService.getEntityCacheStats()) {
+          caches.add(new JsonObject()
+              .put("name", stats.getName())
+              .put("size", stats.getSize())
+              .put("hitCount", stats.getHitCount())
+              .put("missCount", stats.getMissCount())
+              .put("hitRate", stats.getHitRate())
+              .put("queryHitCount", stats.getQueryHitCount())
+              .put("queryMissCount", stats.getQueryMissCount())
+              .put("queryHitRate", stats.getQueryHitRate())
+              .put("evictionCount", stats.getEvictionCount())
+              .put("invalidationCount", stats.getInvalidationCount()));
+        }
+      }
+
+      ctx.response()
+          .putHeader("content-type", "application/json")
+          .end(new JsonObject().put("caches", caches).encode());
+    } catch (Exception e) {
+      LOG.error("Error getting entity cache stats", e);
+      ctx.fail(500, e);
+    }
+  }
+
+  /**
+   * 重新读取表结构
+   */
+  @PostMapping("/api/data/schema/refresh")
+  public void handleRefreshSchema(RoutingContext ctx) {
+    try {
+      int tables = dataService.refreshSchema();
+
+      ctx.response()
+          .putHeader("content-type", "application/json")
+          .end(new JsonObject().put("success", true).put("tables", tables).encode());
+    } catch (Exception e) {
+      LOG.error("Error refreshing schema", e);
+      ctx.fail(500, e);
+    }
+  }
+
   // 辅助方法
 
   private List<String> getAllCollections() {
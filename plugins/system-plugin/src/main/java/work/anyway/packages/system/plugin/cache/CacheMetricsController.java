@@ -0,0 +1,112 @@
+package work.anyway.packages.system.plugin.cache;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import work.anyway.annotations.Controller;
+import work.anyway.annotations.GetMapping;
+import work.anyway.annotations.Intercepted;
+import work.anyway.annotations.RequestMapping;
+import work.anyway.annotations.RequirePermission;
+import work.anyway.interfaces.cache.CacheService;
+import work.anyway.interfaces.cache.CacheService.CacheStats;
+
+/**
+ * 缓存指标控制器
+ * 提供缓存整体和各命名空间的命中、加载、淘汰统计
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@Controller
+@RequestMapping("/api/system/cache")
+@Intercepted({ "SystemRequestLog" })
+public class CacheMetricsController {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheMetricsController.class);
+
+  @Autowired(required = false)
+  private CacheService cacheService;
+
+  /**
+   * 获取缓存指标
+   * 加载耗时直方图按区间上界（毫秒）给出各区间的加载次数，不累加
+   *
+   * @param ctx 路由上下文
+   */
+  @GetMapping("/metrics")
+  @Intercepted({ "SimpleAuth" })
+  @RequirePermission("system.view")
+  public void getMetrics(RoutingContext ctx) {
+    if (cacheService == null) {
+      ctx.response()
+          .setStatusCode(503)
+          .putHeader("content-type", "application/json")
+          .end(new JsonObject().put("success", false).put("error", "Cache service is not available").encode());
+      return;
+    }
+
+    try {
+      CacheStats stats = cacheService.getStats();
+
+      JsonArray namespaces = new JsonArray();
+      for (CacheStats.NamespaceStats namespace : stats.getNamespaceStats()) {
+        namespaces.add(toJson(namespace));
+      }
+
+      JsonObject data = new JsonObject()
+          .put("size", stats.getSize())
+          .put("hitCount", stats.getHitCount())
+          .put("missCount", stats.getMissCount())
+          .put("hitRate", stats.getHitRate())
+          .put("evictionCount", stats.getEvictionCount())
+          .put("evictionWeight", stats.getEvictionWeight())
+          .put("namespaces", namespaces);
+
+      CacheStats.OffHeapStats offHeap = stats.getOffHeapStats();
+      if (offHeap != null) {
+        data.put("offHeap", new JsonObject()
+            .put("capacity", offHeap.getCapacity())
+            .put("usedBytes", offHeap.getUsedBytes())
+            .put("entryCount", offHeap.getEntryCount())
+            .put("rejectedCount", offHeap.getRejectedCount()));
+      }
+
+      ctx.response()
+          .putHeader("content-type", "application/json")
+          .end(new JsonObject().put("success", true).put("data", data).encode());
+
+    } catch (Exception e) {
+      LOG.error("Failed to get cache metrics", e);
+      ctx.response()
+          .setStatusCode(500)
+          .putHeader("content-type", "application/json")
+          .end(new JsonObject().put("success", false).put("error", e.getMessage()).encode());
+    }
+  }
+
+  private static JsonObject toJson(CacheStats.NamespaceStats namespace) {
+    long[] histogram = namespace.getLoadLatencyHistogram();
+    long[] bounds = CacheStats.NamespaceStats.LOAD_LATENCY_BOUNDS_MILLIS;
+    JsonObject loadLatency = new JsonObject();
+    for (int i = 0; i < histogram.length; i++) {
+      loadLatency.put(i < bounds.length ? String.valueOf(bounds[i]) : "+Inf", histogram[i]);
+    }
+
+    return new JsonObject()
+        .put("name", namespace.getName())
+        .put("size", namespace.getSize())
+        .put("hitCount", namespace.getHitCount())
+        .put("missCount", namespace.getMissCount())
+        .put("hitRate", namespace.getHitRate())
+        .put("loadSuccessCount", namespace.getLoadSuccessCount())
+        .put("loadFailureCount", namespace.getLoadFailureCount())
+        .put("averageLoadMillis", namespace.getAverageLoadMillis())
+        .put("loadLatencyMillis", loadLatency)
+        .put("evictionCount", namespace.getEvictionCount())
+        .put("expirationCount", namespace.getExpirationCount());
+  }
+}
@@ -30,6 +30,9 @@ public class LoginLogServiceImpl implements LoginLogService {
 
   private static final Logger LOG = LoggerFactory.getLogger(LoginLogServiceImpl.class);
 
+  // 清理过期日志时每批读取和删除的记录数
+  private static final int CLEANUP_BATCH_SIZE = 500;
+
   private final Repository<LoginLog> loginLogRepository;
 
   @Autowired
@@ -138,15 +141,12 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      List<LoginLog> results = loginLogRepository.findBy(
+      return loginLogRepository.findBy(
           QueryCriteria.<LoginLog>create()
               .eq("clientIp", clientIp)
+              .gt("createdAt", cutoffTime)
               .orderBy("createdAt", false));
 
-      return results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
-          .collect(Collectors.toList());
-
     } catch (Exception e) {
       LOG.error("Failed to get IP login history", e);
       return Collections.emptyList();
@@ -160,15 +160,12 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      List<LoginLog> results = loginLogRepository.findBy(
+      return loginLogRepository.findBy(
           QueryCriteria.<LoginLog>create()
               .eq("identifier", identifier)
+              .gt("createdAt", cutoffTime)
               .orderBy("createdAt", false));
 
-      return results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
-          .collect(Collectors.toList());
-
     } catch (Exception e) {
       LOG.error("Failed to get identifier login history", e);
       return Collections.emptyList();
@@ -182,16 +179,12 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      List<LoginLog> allLogs = loginLogRepository.findAll();
+      List<LoginLog> riskyLogs = loginLogRepository.findBy(
+          QueryCriteria.<LoginLog>create()
+              .gte("createdAt", cutoffTime)
+              .gte("riskScore", minRiskScore));
 
-      return allLogs.stream()
-          .filter(log -> {
-            if (log.getCreatedAt().before(cutoffTime)) {
-              return false;
-            }
-            Integer riskScore = log.getRiskScore();
-            return riskScore != null && riskScore >= minRiskScore;
-          })
+      return riskyLogs.stream()
           .sorted((a, b) -> {
             // 按风险分数降序，然后按时间降序
             int riskCompare = Integer.compare(
@@ -251,16 +244,13 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      QueryCriteria<LoginLog> criteria = QueryCriteria.<LoginLog>create();
+      QueryCriteria<LoginLog> criteria = QueryCriteria.<LoginLog>create()
+          .gt("createdAt", cutoffTime);
       if (status != null && !status.isEmpty()) {
         criteria.eq("loginStatus", status);
       }
 
-      List<LoginLog> results = loginLogRepository.findBy(criteria);
-
-      List<LoginLog> recentLogs = results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
-          .collect(Collectors.toList());
+      List<LoginLog> recentLogs = loginLogRepository.findBy(criteria);
 
       Map<String, Long> statistics = new HashMap<>();
       statistics.put("total", (long) recentLogs.size());
@@ -298,11 +288,8 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - days * 24 * 3600 * 1000L);
 
-      List<LoginLog> results = loginLogRepository.findAll();
-
-      List<LoginLog> recentLogs = results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
-          .collect(Collectors.toList());
+      List<LoginLog> recentLogs = loginLogRepository.findBy(
+          QueryCriteria.<LoginLog>create().gt("createdAt", cutoffTime));
 
       Map<String, Map<String, Long>> trends = new LinkedHashMap<>();
 
@@ -346,10 +333,10 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      List<LoginLog> results = loginLogRepository.findAll();
+      List<LoginLog> results = loginLogRepository.findBy(
+          QueryCriteria.<LoginLog>create().gt("createdAt", cutoffTime));
 
       Map<String, Long> ipCounts = results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
           .collect(Collectors.groupingBy(
               LoginLog::getClientIp,
               Collectors.counting()));
@@ -376,11 +363,12 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hours * 3600 * 1000L);
 
-      List<LoginLog> results = loginLogRepository.findAll();
+      List<LoginLog> results = loginLogRepository.findBy(
+          QueryCriteria.<LoginLog>create()
+              .gt("createdAt", cutoffTime)
+              .in("loginStatus", "failed", "blocked"));
 
       Map<String, Long> failedCounts = results.stream()
-          .filter(log -> log.getCreatedAt().after(cutoffTime))
-          .filter(log -> "failed".equals(log.getLoginStatus()) || "blocked".equals(log.getLoginStatus()))
           .collect(Collectors.groupingBy(
               LoginLog::getIdentifier,
               Collectors.counting()));
@@ -407,15 +395,17 @@ public class LoginLogServiceImpl implements LoginLogService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - daysToKeep * 24 * 3600 * 1000L);
 
-      List<LoginLog> allLogs = loginLogRepository.findAll();
-      List<String> expiredIds = allLogs.stream()
-          .filter(log -> log.getCreatedAt() != null && log.getCreatedAt().before(cutoffTime))
-          .map(LoginLog::getId)
-          .collect(Collectors.toList());
-
-      int deletedCount = loginLogRepository.batchDelete(expiredIds);
-      LOG.info("Cleaned {} expired login logs", deletedCount);
-      return deletedCount;
+      // 按批次读取并删除，内存中只保留一个批次
+      long[] deletedCount = { 0 };
+      loginLogRepository.forEachBatch(
+          QueryCriteria.<LoginLog>create().lt("createdAt", cutoffTime),
+          CLEANUP_BATCH_SIZE,
+          batch -> deletedCount[0] += loginLogRepository.batchDelete(batch.stream()
+              .map(LoginLog::getId)
+              .collect(Collectors.toList())));
+
+      LOG.info("Cleaned {} expired login logs", deletedCount[0]);
+      return deletedCount[0];
 
     } catch (Exception e) {
       LOG.error("Failed to clean expired logs", e);
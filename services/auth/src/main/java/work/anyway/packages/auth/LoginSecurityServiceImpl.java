@@ -27,6 +27,9 @@ public class LoginSecurityServiceImpl implements LoginSecurityService {
 
   private static final Logger LOG = LoggerFactory.getLogger(LoginSecurityServiceImpl.class);
 
+  // 清理过期尝试记录时每批读取和删除的记录数
+  private static final int CLEANUP_BATCH_SIZE = 500;
+
   private final Repository<LoginAttempt> loginAttemptRepository;
   private final Repository<IpBlacklist> ipBlacklistRepository;
 
@@ -358,24 +361,18 @@ public class LoginSecurityServiceImpl implements LoginSecurityService {
     try {
       Date cutoffTime = new Date(System.currentTimeMillis() - hoursToKeep * 3600 * 1000L);
 
-      // 查找过期记录
-      List<LoginAttempt> allAttempts = loginAttemptRepository.findAll();
-      List<String> expiredIds = new ArrayList<>();
-
-      for (LoginAttempt attempt : allAttempts) {
-        // 如果最后尝试时间超过保留期限，且没有锁定或锁定已过期
-        if (attempt.getLastAttemptAt() != null) {
-          // 将 LocalDateTime 转换为 Date 进行比较
-          Date lastAttemptDate = Date.from(attempt.getLastAttemptAt()
-              .atZone(ZoneId.systemDefault()).toInstant());
-          if (lastAttemptDate.before(cutoffTime) && !attempt.isLocked()) {
-            expiredIds.add(attempt.getId());
-          }
-        }
-      }
-
-      // 批量删除过期记录
-      int deletedCount = loginAttemptRepository.batchDelete(expiredIds);
+      // 按批次查找并删除过期记录，锁定尚未过期的记录保留
+      LocalDateTime cutoff = LocalDateTime.ofInstant(cutoffTime.toInstant(), ZoneId.systemDefault());
+      long[] deleted = { 0 };
+      loginAttemptRepository.forEachBatch(
+          QueryCriteria.<LoginAttempt>create().lt("lastAttemptAt", cutoff),
+          CLEANUP_BATCH_SIZE,
+          batch -> deleted[0] += loginAttemptRepository.batchDelete(batch.stream()
+              .filter(attempt -> !attempt.isLocked())
+              .map(LoginAttempt::getId)
+              .collect(Collectors.toList())));
+
+      long deletedCount = deleted[0];
       LOG.info("Cleaned {} expired login attempts", deletedCount);
       return deletedCount;
 
@@ -28,6 +28,8 @@ public class PermissionServiceImpl implements PermissionService {
   @Autowired
   private DataService dataService;
 
+  private final TypedDataService typedDataService;
+
   // 强类型 Repository
   private final Repository<Role> roleRepository;
   private final Repository<Permission> permissionRepository;
@@ -42,6 +44,8 @@ public class PermissionServiceImpl implements PermissionService {
       @Qualifier("enhancedDataService") TypedDataService typedDataService) {
     this.dataService = dataService;
 
+    this.typedDataService = typedDataService;
+
     // 初始化强类型 Repository
     this.roleRepository = typedDataService.getRepository("roles", Role.class);
     this.permissionRepository = typedDataService.getRepository("permissions", Permission.class);
@@ -85,17 +89,21 @@ public class PermissionServiceImpl implements PermissionService {
         .build();
 
     try {
-      userPermissionRepository.save(userPermission);
+      // 权限与审计日志在同一个事务中写入
+      typedDataService.inTransaction(() -> {
+        userPermissionRepository.save(userPermission);
+
+        // 记录审计日志
+        auditLogRepository.save(
+            PermissionAuditLog.success(
+                PermissionAuditLog.Action.GRANT,
+                PermissionAuditLog.TargetType.USER_PERMISSION,
+                userPermission.getId(),
+                "system", // TODO: 获取当前操作者
+                "Direct permission grant"));
+        return null;
+      });
       LOG.info("Granted permission {} to user {}", permission, userId);
-
-      // 记录审计日志
-      auditLogRepository.save(
-          PermissionAuditLog.success(
-              PermissionAuditLog.Action.GRANT,
-              PermissionAuditLog.TargetType.USER_PERMISSION,
-              userPermission.getId(),
-              "system", // TODO: 获取当前操作者
-              "Direct permission grant"));
     } catch (Exception e) {
       LOG.error("Failed to grant permission {} to user {}", permission, userId, e);
 
@@ -133,17 +141,20 @@ public class PermissionServiceImpl implements PermissionService {
     // 删除权限
     UserPermission userPermission = existing.get(0);
     try {
-      userPermissionRepository.delete(userPermission.getId());
+      typedDataService.inTransaction(() -> {
+        userPermissionRepository.delete(userPermission.getId());
+
+        // 记录审计日志
+        auditLogRepository.save(
+            PermissionAuditLog.success(
+                PermissionAuditLog.Action.REVOKE,
+                PermissionAuditLog.TargetType.USER_PERMISSION,
+                userPermission.getId(),
+                "system", // TODO: 获取当前操作者
+                "Direct permission revoke"));
+        return null;
+      });
       LOG.info("Revoked permission {} from user {}", permission, userId);
-
-      // 记录审计日志
-      auditLogRepository.save(
-          PermissionAuditLog.success(
-              PermissionAuditLog.Action.REVOKE,
-              PermissionAuditLog.TargetType.USER_PERMISSION,
-              userPermission.getId(),
-              "system", // TODO: 获取当前操作者
-              "Direct permission revoke"));
     } catch (Exception e) {
       LOG.error("Failed to revoke permission {} from user {}", permission, userId, e);
 
@@ -589,14 +600,14 @@ public class PermissionServiceImpl implements PermissionService {
             .eq("userId", userId)
             .eq("roleId", role.getId()));
 
+    UserRole expired = null;
     if (!existing.isEmpty()) {
       UserRole userRole = existing.get(0);
       if (!userRole.isExpired()) {
         LOG.debug("User role already assigned and not expired: user={}, role={}", userId, roleCode);
         return false;
       }
-      // 如果已过期，删除旧记录
-      userRoleRepository.delete(userRole.getId());
+      expired = userRole;
     }
 
     // 创建新的用户角色关联
@@ -609,18 +620,26 @@ public class PermissionServiceImpl implements PermissionService {
         .expiresAt(expiresAt)
         .build();
 
+    String expiredId = expired == null ? null : expired.getId();
     try {
-      userRoleRepository.save(userRole);
+      // 删除过期记录、创建新关联和审计日志在同一个事务中完成
+      typedDataService.inTransaction(() -> {
+        if (expiredId != null) {
+          userRoleRepository.delete(expiredId);
+        }
+        userRoleRepository.save(userRole);
+
+        // 记录审计日志
+        auditLogRepository.save(
+            PermissionAuditLog.success(
+                PermissionAuditLog.Action.ROLE_ASSIGN,
+                PermissionAuditLog.TargetType.USER_ROLE,
+                userRole.getId(),
+                "system",
+                reason));
+        return null;
+      });
       LOG.info("Assigned role {} to user {}", roleCode, userId);
-
-      // 记录审计日志
-      auditLogRepository.save(
-          PermissionAuditLog.success(
-              PermissionAuditLog.Action.ROLE_ASSIGN,
-              PermissionAuditLog.TargetType.USER_ROLE,
-              userRole.getId(),
-              "system",
-              reason));
       return true;
     } catch (Exception e) {
       LOG.error("Failed to assign role {} to user {}", roleCode, userId, e);
@@ -671,17 +690,20 @@ public class PermissionServiceImpl implements PermissionService {
     UserRole userRole = existing.get(0);
 
     try {
-      userRoleRepository.delete(userRole.getId());
+      typedDataService.inTransaction(() -> {
+        userRoleRepository.delete(userRole.getId());
+
+        // 记录审计日志
+        auditLogRepository.save(
+            PermissionAuditLog.success(
+                PermissionAuditLog.Action.ROLE_REMOVE,
+                PermissionAuditLog.TargetType.USER_ROLE,
+                userRole.getId(),
+                "system",
+                reason));
+        return null;
+      });
       LOG.info("Removed role {} from user {}", roleCode, userId);
-
-      // 记录审计日志
-      auditLogRepository.save(
-          PermissionAuditLog.success(
-              PermissionAuditLog.Action.ROLE_REMOVE,
-              PermissionAuditLog.TargetType.USER_ROLE,
-              userRole.getId(),
-              "system",
-              reason));
       return true;
     } catch (Exception e) {
       LOG.error("Failed to remove role {} from user {}", roleCode, userId, e);
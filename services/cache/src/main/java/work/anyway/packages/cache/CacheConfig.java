@@ -0,0 +1,311 @@
+package work.anyway.packages.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存配置类
+ * 管理缓存容量、淘汰策略、过期清理、堆外存储、序列化、持久化和远程后端相关的配置参数
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+@Component
+public class CacheConfig {
+
+  // 容量配置
+  /**
+   * 最大条目数，0 表示不限制；与 maximum.weight 都为 0 时不淘汰，条目只按 TTL 过期
+   */
+  @Value("${cache.maximum.size:0}")
+  private long maximumSize;
+
+  /**
+   * 按估算字节数限制缓存容量，0 表示只按条目数限制
+   */
+  @Value("${cache.maximum.weight:0}")
+  private long maximumWeight;
+
+  /**
+   * 不参与容量淘汰的命名空间，逗号分隔，如令牌黑名单；这些条目只按 TTL 过期，不计入容量
+   */
+  @Value("${cache.eviction.exempt.namespaces:token_blacklist}")
+  private String evictionExemptNamespaces;
+
+  // 过期清理配置
+  @Value("${cache.expiry.interval.ms:1000}")
+  private long expiryIntervalMs;
+
+  // 堆外存储配置
+  /**
+   * 堆外存储容量（字节），0 表示不启用
+   */
+  @Value("${cache.offheap.capacity:0}")
+  private long offHeapCapacity;
+
+  @Value("${cache.offheap.block.size:1024}")
+  private int offHeapBlockSize;
+
+  /**
+   * 序列化后不小于该字节数的值才写入堆外
+   */
+  @Value("${cache.offheap.threshold:8192}")
+  private int offHeapThreshold;
+
+  // 序列化配置
+  /**
+   * Java 序列化值的反序列化白名单，格式同 jdk.serialFilter，为空时使用默认白名单
+   */
+  @Value("${cache.serialization.filter:}")
+  private String serializationFilter;
+
+  // 持久化配置
+  @Value("${cache.persistence.enabled:false}")
+  private boolean persistenceEnabled;
+
+  @Value("${cache.persistence.directory:data/cache}")
+  private String persistenceDirectory;
+
+  @Value("${cache.persistence.flush.interval.ms:1000}")
+  private long persistenceFlushIntervalMs;
+
+  @Value("${cache.persistence.snapshot.interval.ms:300000}")
+  private long persistenceSnapshotIntervalMs;
+
+  // 远程后端配置
+  /**
+   * 后端类型：none 只使用进程内缓存，local 使用进程内后端，redis 使用 Redis 协议后端
+   */
+  @Value("${cache.backend:none}")
+  private String backend;
+
+  @Value("${cache.redis.host:localhost}")
+  private String redisHost;
+
+  @Value("${cache.redis.port:6379}")
+  private int redisPort;
+
+  @Value("${cache.redis.password:}")
+  private String redisPassword;
+
+  @Value("${cache.redis.database:0}")
+  private int redisDatabase;
+
+  @Value("${cache.redis.timeout.ms:2000}")
+  private int redisTimeoutMs;
+
+  @Value("${cache.redis.pool.size:8}")
+  private int redisPoolSize;
+
+  /**
+   * 近端缓存副本的最长存活时间，兜底失效消息丢失的情况
+   */
+  @Value("${cache.near.ttl.seconds:60}")
+  private long nearTtlSeconds;
+
+  /**
+   * 远程后端中不存在的键在近端缓存中记录的时间，期间的未命中不再访问后端，0 表示不记录
+   */
+  @Value("${cache.near.negative.ttl.seconds:10}")
+  private long nearNegativeTtlSeconds;
+
+  @Value("${cache.invalidation.channel:cache:invalidation}")
+  private String invalidationChannel;
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  public String getEvictionExemptNamespaces() {
+    return evictionExemptNamespaces;
+  }
+
+  public void setEvictionExemptNamespaces(String evictionExemptNamespaces) {
+    this.evictionExemptNamespaces = evictionExemptNamespaces;
+  }
+
+  public long getExpiryIntervalMs() {
+    return expiryIntervalMs;
+  }
+
+  public void setExpiryIntervalMs(long expiryIntervalMs) {
+    this.expiryIntervalMs = expiryIntervalMs;
+  }
+
+  public long getOffHeapCapacity() {
+    return offHeapCapacity;
+  }
+
+  public void setOffHeapCapacity(long offHeapCapacity) {
+    this.offHeapCapacity = offHeapCapacity;
+  }
+
+  public int getOffHeapBlockSize() {
+    return offHeapBlockSize;
+  }
+
+  public void setOffHeapBlockSize(int offHeapBlockSize) {
+    this.offHeapBlockSize = offHeapBlockSize;
+  }
+
+  public int getOffHeapThreshold() {
+    return offHeapThreshold;
+  }
+
+  public void setOffHeapThreshold(int offHeapThreshold) {
+    this.offHeapThreshold = offHeapThreshold;
+  }
+
+  /**
+   * 是否启用堆外存储
+   */
+  public boolean isOffHeapEnabled() {
+    return offHeapCapacity > 0 && offHeapBlockSize > 0;
+  }
+
+  public String getSerializationFilter() {
+    return serializationFilter;
+  }
+
+  public void setSerializationFilter(String serializationFilter) {
+    this.serializationFilter = serializationFilter;
+  }
+
+  public boolean isPersistenceEnabled() {
+    return persistenceEnabled;
+  }
+
+  public void setPersistenceEnabled(boolean persistenceEnabled) {
+    this.persistenceEnabled = persistenceEnabled;
+  }
+
+  public String getPersistenceDirectory() {
+    return persistenceDirectory;
+  }
+
+  public void setPersistenceDirectory(String persistenceDirectory) {
+    this.persistenceDirectory = persistenceDirectory;
+  }
+
+  public long getPersistenceFlushIntervalMs() {
+    return persistenceFlushIntervalMs;
+  }
+
+  public void setPersistenceFlushIntervalMs(long persistenceFlushIntervalMs) {
+    this.persistenceFlushIntervalMs = persistenceFlushIntervalMs;
+  }
+
+  public long getPersistenceSnapshotIntervalMs() {
+    return persistenceSnapshotIntervalMs;
+  }
+
+  public void setPersistenceSnapshotIntervalMs(long persistenceSnapshotIntervalMs) {
+    this.persistenceSnapshotIntervalMs = persistenceSnapshotIntervalMs;
+  }
+
+  public String getBackend() {
+    return backend;
+  }
+
+  public void setBackend(String backend) {
+    this.backend = backend;
+  }
+
+  public String getRedisHost() {
+    return redisHost;
+  }
+
+  public void setRedisHost(String redisHost) {
+    this.redisHost = redisHost;
+  }
+
+  public int getRedisPort() {
+    return redisPort;
+  }
+
+  public void setRedisPort(int redisPort) {
+    this.redisPort = redisPort;
+  }
+
+  public String getRedisPassword() {
+    return redisPassword;
+  }
+
+  public void setRedisPassword(String redisPassword) {
+    this.redisPassword = redisPassword;
+  }
+
+  public int getRedisDatabase() {
+    return redisDatabase;
+  }
+
+  public void setRedisDatabase(int redisDatabase) {
+    this.redisDatabase = redisDatabase;
+  }
+
+  public int getRedisTimeoutMs() {
+    return redisTimeoutMs;
+  }
+
+  public void setRedisTimeoutMs(int redisTimeoutMs) {
+    this.redisTimeoutMs = redisTimeoutMs;
+  }
+
+  public int getRedisPoolSize() {
+    return redisPoolSize;
+  }
+
+  public void setRedisPoolSize(int redisPoolSize) {
+    this.redisPoolSize = redisPoolSize;
+  }
+
+  public long getNearTtlSeconds() {
+    return nearTtlSeconds;
+  }
+
+  public void setNearTtlSeconds(long nearTtlSeconds) {
+    this.nearTtlSeconds = nearTtlSeconds;
+  }
+
+  public long getNearNegativeTtlSeconds() {
+    return nearNegativeTtlSeconds;
+  }
+
+  public void setNearNegativeTtlSeconds(long nearNegativeTtlSeconds) {
+    this.nearNegativeTtlSeconds = nearNegativeTtlSeconds;
+  }
+
+  public String getInvalidationChannel() {
+    return invalidationChannel;
+  }
+
+  public void setInvalidationChannel(String invalidationChannel) {
+    this.invalidationChannel = invalidationChannel;
+  }
+
+  /**
+   * 是否按权重（估算字节数）限制容量
+   */
+  public boolean isWeighted() {
+    return maximumWeight > 0;
+  }
+
+  /**
+   * 是否限制缓存容量
+   */
+  public boolean isBounded() {
+    return maximumWeight > 0 || maximumSize > 0;
+  }
+}
@@ -0,0 +1,91 @@
+package work.anyway.packages.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存条目
+ * 除了值和过期时间外，还携带淘汰策略和时间轮使用的链表指针，这些字段只在策略锁内访问。
+ * 计数器条目的值保存在 {@link AtomicLong} 中，递增时原地更新而不替换条目。
+ */
+final class CacheEntry {
+
+  static final byte QUEUE_NONE = 0;
+  static final byte QUEUE_WINDOW = 1;
+  static final byte QUEUE_PROBATION = 2;
+  static final byte QUEUE_PROTECTED = 3;
+  static final byte QUEUE_PINNED = 4;
+
+  private final String key;
+  private final Object value;
+  private final long expirationTime;
+  private final int weight;
+  private final AtomicLong counter;
+
+  // 以下字段由 WindowTinyLfuPolicy 在锁内维护
+  CacheEntry prev;
+  CacheEntry next;
+  CacheEntry timerPrev;
+  CacheEntry timerNext;
+  byte queue = QUEUE_NONE;
+  boolean retired;
+
+  CacheEntry(String key, Object value, long expirationTime, int weight) {
+    this.key = key;
+    this.value = value;
+    this.expirationTime = expirationTime;
+    this.weight = weight;
+    this.counter = null;
+  }
+
+  private CacheEntry(String key, long initialValue, long expirationTime, int weight) {
+    this.key = key;
+    this.value = null;
+    this.expirationTime = expirationTime;
+    this.weight = weight;
+    this.counter = new AtomicLong(initialValue);
+  }
+
+  /**
+   * 创建计数器条目
+   */
+  static CacheEntry counter(String key, long initialValue, long expirationTime, int weight) {
+    return new CacheEntry(key, initialValue, expirationTime, weight);
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  Object getValue() {
+    return counter != null ? counter.get() : value;
+  }
+
+  boolean isCounter() {
+    return counter != null;
+  }
+
+  /**
+   * 原子递增计数器条目
+   *
+   * @return 递增后的值
+   */
+  long addAndGet(long delta) {
+    return counter.addAndGet(delta);
+  }
+
+  long getExpirationTime() {
+    return expirationTime;
+  }
+
+  int getWeight() {
+    return weight;
+  }
+
+  boolean isExpired() {
+    return isExpired(System.currentTimeMillis());
+  }
+
+  boolean isExpired(long currentTime) {
+    return currentTime > expirationTime;
+  }
+}
@@ -0,0 +1,117 @@
+package work.anyway.packages.cache;
+
+import work.anyway.interfaces.cache.CacheService.CacheStats.NamespaceStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存命名空间
+ * 键中第一个 ':' 之前的部分为命名空间，没有 ':' 的键属于空命名空间。
+ * 每个命名空间持有自己的条目子表，前缀失效只需访问对应的子表。
+ * 统计计数使用 {@link LongAdder}，多线程并发更新时分散到不同的单元，避免争用同一缓存行。
+ */
+final class CacheNamespace {
+
+  private static final long[] LOAD_LATENCY_BOUNDS_NANOS = new long[NamespaceStats.LOAD_LATENCY_BOUNDS_MILLIS.length];
+
+  static {
+    for (int i = 0; i < LOAD_LATENCY_BOUNDS_NANOS.length; i++) {
+      LOAD_LATENCY_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(NamespaceStats.LOAD_LATENCY_BOUNDS_MILLIS[i]);
+    }
+  }
+
+  private final String name;
+  private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder loadSuccessCount = new LongAdder();
+  private final LongAdder loadFailureCount = new LongAdder();
+  private final LongAdder totalLoadTimeNanos = new LongAdder();
+  private final LongAdder[] loadLatencyHistogram = new LongAdder[LOAD_LATENCY_BOUNDS_NANOS.length + 1];
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder expirationCount = new LongAdder();
+
+  CacheNamespace(String name) {
+    this.name = name;
+    for (int i = 0; i < loadLatencyHistogram.length; i++) {
+      loadLatencyHistogram[i] = new LongAdder();
+    }
+  }
+
+  String getName() {
+    return name;
+  }
+
+  Map<String, CacheEntry> getEntries() {
+    return entries;
+  }
+
+  void recordHits(long count) {
+    hitCount.add(count);
+  }
+
+  void recordMisses(long count) {
+    missCount.add(count);
+  }
+
+  long getHitCount() {
+    return hitCount.sum();
+  }
+
+  long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * 记录一次加载及其耗时
+   */
+  void recordLoad(boolean success, long elapsedNanos) {
+    if (success) {
+      loadSuccessCount.increment();
+    } else {
+      loadFailureCount.increment();
+    }
+    totalLoadTimeNanos.add(elapsedNanos);
+
+    int bucket = 0;
+    while (bucket < LOAD_LATENCY_BOUNDS_NANOS.length && elapsedNanos > LOAD_LATENCY_BOUNDS_NANOS[bucket]) {
+      bucket++;
+    }
+    loadLatencyHistogram[bucket].increment();
+  }
+
+  /**
+   * 记录一次淘汰或过期
+   */
+  void recordRemoval(RemovalCause cause) {
+    if (cause == RemovalCause.SIZE) {
+      evictionCount.increment();
+    } else {
+      expirationCount.increment();
+    }
+  }
+
+  /**
+   * 生成统计快照，各计数分别读取，彼此之间不保证一致
+   */
+  NamespaceStats snapshot() {
+    long[] histogram = new long[loadLatencyHistogram.length];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = loadLatencyHistogram[i].sum();
+    }
+    return new NamespaceStats(name, entries.size(), hitCount.sum(), missCount.sum(), loadSuccessCount.sum(),
+        loadFailureCount.sum(), totalLoadTimeNanos.sum(), histogram, evictionCount.sum(), expirationCount.sum());
+  }
+
+  /**
+   * 提取键的命名空间长度，没有 ':' 时为 0
+   */
+  static int namespaceLength(String key) {
+    int index = key.indexOf(':');
+    return index < 0 ? 0 : index;
+  }
+}
@@ -0,0 +1,473 @@
+package work.anyway.packages.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 缓存持久化
+ * 写操作只记录脏键，定时批量写入追加日志（write-behind），同一个键在两次刷新之间的多次写入合并为一条记录。
+ * 定时将全部条目写入内存映射的快照文件。日志文件按代编号，快照前先切换到新一代日志，
+ * 快照头部记录它之后的第一代日志，恢复时加载快照后只重放不早于该代的日志，
+ * 因此快照替换后、旧日志删除前崩溃也不会用旧日志覆盖快照中较新的数据。
+ * 过期时间以绝对时间保存，已过期的记录在恢复时跳过。
+ * 映射区用完后立即解除映射，不等 GC 回收，否则截断、替换快照文件在 Windows 上会因文件仍被映射而失败。
+ * 刷新和快照由同一把锁串行化。
+ */
+final class CachePersistence {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachePersistence.class);
+
+  private static final int SNAPSHOT_MAGIC = 0x43534e50;
+  private static final int SNAPSHOT_VERSION = 2;
+  private static final long MAP_CHUNK_SIZE = 64L * 1024 * 1024;
+
+  private static final byte OP_PUT = 1;
+  private static final byte OP_REMOVE = 2;
+
+  static final byte TYPE_OBJECT = 0;
+  static final byte TYPE_COUNTER = 1;
+
+  private static final String JOURNAL_PREFIX = "cache-";
+  private static final String JOURNAL_SUFFIX = ".journal";
+
+  // 解除映射，JDK 不支持时为 null，映射区由 GC 回收
+  private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+  private final Path directory;
+  private final Path snapshotFile;
+  private final Path snapshotTempFile;
+  private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+  private FileChannel journal;
+  // 当前日志的代
+  private long generation;
+
+  /**
+   * 恢复记录的接收方
+   */
+  interface RestoreSink {
+    void restore(String key, long expirationTime, byte type, byte[] value);
+
+    void remove(String key);
+  }
+
+  /**
+   * 条目编码结果
+   */
+  static final class EncodedValue {
+    final byte type;
+    final byte[] bytes;
+
+    EncodedValue(byte type, byte[] bytes) {
+      this.type = type;
+      this.bytes = bytes;
+    }
+  }
+
+  CachePersistence(String directory) throws IOException {
+    this.directory = Paths.get(directory);
+    Files.createDirectories(this.directory);
+    this.snapshotFile = this.directory.resolve("cache.snapshot");
+    this.snapshotTempFile = this.directory.resolve("cache.snapshot.tmp");
+  }
+
+  /**
+   * 记录发生变化的键，下一次刷新时写入日志
+   */
+  void markDirty(String key) {
+    dirtyKeys.add(key);
+  }
+
+  /**
+   * 从快照和日志恢复缓存，完成后打开新一代日志准备追加
+   * 早于快照记录的代的日志已包含在快照中，直接删除
+   *
+   * @return 恢复的记录数
+   */
+  synchronized long restore(RestoreSink sink) throws IOException {
+    long currentTime = System.currentTimeMillis();
+    long restored = 0;
+    long[] firstGeneration = { 0 };
+
+    if (Files.exists(snapshotFile)) {
+      restored += readSnapshot(sink, currentTime, firstGeneration);
+    }
+    long nextGeneration = firstGeneration[0];
+    for (Map.Entry<Long, Path> journalFile : listJournals().entrySet()) {
+      if (journalFile.getKey() < firstGeneration[0]) {
+        Files.delete(journalFile.getValue());
+        continue;
+      }
+      restored += replayJournal(journalFile.getValue(), sink, currentTime);
+      nextGeneration = journalFile.getKey() + 1;
+    }
+
+    // 上一代日志末尾可能有不完整的记录，总是从新的文件开始追加
+    openJournal(nextGeneration);
+    return restored;
+  }
+
+  /**
+   * 将脏键的当前状态追加到日志
+   * 脏键在读取条目前取出，刷新期间再次修改的键会重新标记；写入或落盘失败时截掉本次写入的部分记录，
+   * 并把取出的键放回，留到下一次刷新
+   *
+   * @param lookup  按键查找当前未过期的条目，不存在时返回 null
+   * @param encoder 条目编码，无法持久化时返回 null
+   * @return 写入的记录数
+   */
+  synchronized int flush(Function<String, CacheEntry> lookup, Function<CacheEntry, EncodedValue> encoder)
+      throws IOException {
+    if (journal == null || dirtyKeys.isEmpty()) {
+      return 0;
+    }
+
+    long start = journal.size();
+    List<String> keys = new ArrayList<>(dirtyKeys.size());
+    Iterator<String> iterator = dirtyKeys.iterator();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next());
+      iterator.remove();
+    }
+
+    try {
+      writeRecords(keys, lookup, encoder);
+      journal.force(false);
+    } catch (IOException | RuntimeException e) {
+      discardFrom(start);
+      dirtyKeys.addAll(keys);
+      throw e;
+    }
+    return keys.size();
+  }
+
+  private void writeRecords(List<String> keys, Function<String, CacheEntry> lookup,
+      Function<CacheEntry, EncodedValue> encoder) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    for (String key : keys) {
+      CacheEntry entry = lookup.apply(key);
+      EncodedValue encoded = entry == null ? null : encoder.apply(entry);
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+      int recordSize = 1 + 4 + keyBytes.length + (encoded == null ? 0 : 8 + 1 + 4 + encoded.bytes.length);
+
+      if (buffer.remaining() < recordSize) {
+        writeFully(buffer);
+        if (buffer.capacity() < recordSize) {
+          buffer = ByteBuffer.allocate(recordSize);
+        }
+      }
+
+      if (encoded == null) {
+        buffer.put(OP_REMOVE);
+        putBytes(buffer, keyBytes);
+      } else {
+        buffer.put(OP_PUT);
+        putBytes(buffer, keyBytes);
+        buffer.putLong(entry.getExpirationTime());
+        buffer.put(encoded.type);
+        putBytes(buffer, encoded.bytes);
+      }
+    }
+    writeFully(buffer);
+  }
+
+  /**
+   * 截掉写入失败时留下的部分记录，避免后续记录接在不完整的记录之后
+   */
+  private void discardFrom(long position) {
+    try {
+      journal.truncate(position);
+    } catch (IOException e) {
+      LOG.warn("Failed to truncate cache journal after a failed write, the tail will be ignored on restore", e);
+    }
+  }
+
+  /**
+   * 写入快照
+   * 先刷新日志并切换到新一代，再把所有条目写入临时的内存映射文件，完成后原子替换旧快照并删除旧日志。
+   * 替换前失败时旧快照和所有日志都保留，恢复结果不受影响
+   *
+   * @return 写入的条目数
+   */
+  synchronized long snapshot(Iterable<CacheNamespace> namespaces, Function<String, CacheEntry> lookup,
+      Function<CacheEntry, EncodedValue> encoder) throws IOException {
+    if (journal == null) {
+      return 0;
+    }
+
+    flush(lookup, encoder);
+    journal.close();
+    journal = null;
+    long firstGeneration = generation + 1;
+    openJournal(firstGeneration);
+
+    long count = 0;
+    long currentTime = System.currentTimeMillis();
+    MappedByteBuffer buffer = null;
+    try (FileChannel channel = FileChannel.open(snapshotTempFile, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      long position = 0;
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, MAP_CHUNK_SIZE);
+      buffer.putInt(SNAPSHOT_MAGIC);
+      buffer.putInt(SNAPSHOT_VERSION);
+      buffer.putLong(firstGeneration);
+
+      for (CacheNamespace namespace : namespaces) {
+        for (Map.Entry<String, CacheEntry> mapEntry : namespace.getEntries().entrySet()) {
+          CacheEntry entry = mapEntry.getValue();
+          if (entry.isExpired(currentTime)) {
+            continue;
+          }
+          EncodedValue encoded = encoder.apply(entry);
+          if (encoded == null) {
+            continue;
+          }
+
+          byte[] keyBytes = mapEntry.getKey().getBytes(StandardCharsets.UTF_8);
+          int recordSize = 4 + keyBytes.length + 8 + 1 + 4 + encoded.bytes.length;
+          if (buffer.remaining() < recordSize + 4) {
+            // 当前映射区不足，从已写位置重新映射
+            buffer.force();
+            position += buffer.position();
+            unmap(buffer);
+            // 重新映射失败时 finally 不再处理已解除的映射区
+            buffer = null;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                Math.max(MAP_CHUNK_SIZE, recordSize + 4L));
+          }
+
+          putBytes(buffer, keyBytes);
+          buffer.putLong(entry.getExpirationTime());
+          buffer.put(encoded.type);
+          putBytes(buffer, encoded.bytes);
+          count++;
+        }
+      }
+
+      // 结束标记
+      buffer.putInt(-1);
+      buffer.force();
+      position += buffer.position();
+      unmap(buffer);
+      buffer = null;
+      channel.truncate(position);
+    } finally {
+      if (buffer != null) {
+        unmap(buffer);
+      }
+    }
+
+    Files.move(snapshotTempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    for (Map.Entry<Long, Path> journalFile : listJournals().entrySet()) {
+      if (journalFile.getKey() < firstGeneration) {
+        Files.deleteIfExists(journalFile.getValue());
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 关闭日志文件
+   */
+  synchronized void close() throws IOException {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  /**
+   * 读取快照
+   *
+   * @param firstGeneration 写入快照之后的第一代日志
+   * @return 恢复的条目数
+   */
+  private long readSnapshot(RestoreSink sink, long currentTime, long[] firstGeneration) throws IOException {
+    long count = 0;
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+      if (channel.size() < 16) {
+        return 0;
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    try {
+      if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+        LOG.warn("Ignoring cache snapshot with unknown format: {}", snapshotFile);
+        return 0;
+      }
+      firstGeneration[0] = buffer.getLong();
+
+      while (buffer.remaining() >= 4) {
+        int keyLength = buffer.getInt();
+        if (keyLength < 0) {
+          break;
+        }
+        String key = readString(buffer, keyLength);
+        long expirationTime = buffer.getLong();
+        byte type = buffer.get();
+        byte[] value = readBytes(buffer);
+        if (expirationTime >= currentTime) {
+          sink.restore(key, expirationTime, type, value);
+          count++;
+        }
+      }
+    } catch (BufferUnderflowException e) {
+      LOG.warn("Cache snapshot is truncated, restored {} entries before the damaged record", count);
+    } finally {
+      // 恢复的键和值都已复制出映射区
+      unmap(buffer);
+    }
+    return count;
+  }
+
+  private long replayJournal(Path file, RestoreSink sink, long currentTime) throws IOException {
+    long count = 0;
+    byte[] content = Files.readAllBytes(file);
+    ByteBuffer buffer = ByteBuffer.wrap(content);
+    try {
+      while (buffer.hasRemaining()) {
+        byte op = buffer.get();
+        String key = readString(buffer, buffer.getInt());
+        if (op == OP_PUT) {
+          long expirationTime = buffer.getLong();
+          byte type = buffer.get();
+          byte[] value = readBytes(buffer);
+          if (expirationTime >= currentTime) {
+            sink.restore(key, expirationTime, type, value);
+          } else {
+            sink.remove(key);
+          }
+        } else {
+          sink.remove(key);
+        }
+        count++;
+      }
+    } catch (BufferUnderflowException e) {
+      // 最后一次刷新可能只写入了一部分
+      LOG.warn("Cache journal {} ends with an incomplete record, replayed {} records", file, count);
+    }
+    return count;
+  }
+
+  private void openJournal(long journalGeneration) throws IOException {
+    journal = FileChannel.open(journalFile(journalGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    generation = journalGeneration;
+  }
+
+  private Path journalFile(long journalGeneration) {
+    return directory.resolve(String.format("%s%020d%s", JOURNAL_PREFIX, journalGeneration, JOURNAL_SUFFIX));
+  }
+
+  /**
+   * 目录中的所有日志文件，按代排序
+   */
+  private Map<Long, Path> listJournals() throws IOException {
+    Map<Long, Path> journals = new TreeMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          journals.put(Long.parseLong(
+              name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())), file);
+        } catch (NumberFormatException e) {
+          LOG.warn("Ignoring unexpected file in cache persistence directory: {}", file);
+        }
+      }
+    }
+    return journals;
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      journal.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * 立即解除映射，之后不能再访问该映射区
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    if (INVOKE_CLEANER == null) {
+      return;
+    }
+    try {
+      INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+    } catch (Throwable e) {
+      LOG.debug("Failed to unmap cache snapshot buffer, leaving it to GC", e);
+    }
+  }
+
+  private static MethodHandle findInvokeCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(theUnsafe.get(null));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Unmapping is not supported, mapped snapshot buffers are released by GC", e);
+      return null;
+    }
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer, int length) {
+    checkLength(buffer, length);
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    checkLength(buffer, length);
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * 长度字段损坏时按截断处理，避免分配异常大的数组
+   */
+  private static void checkLength(ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+  }
+}
@@ -1,203 +1,1428 @@
 package work.anyway.packages.cache;
 
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import work.anyway.interfaces.cache.CacheBackend;
 import work.anyway.interfaces.cache.CacheService;
+import work.anyway.interfaces.cache.CacheValueSerializer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 /**
  * 增强的内存缓存实现
  * 支持基础缓存操作和认证相关的扩展功能
+ * 配置了容量上限时超出后按 W-TinyLFU 策略淘汰，默认不限制容量；令牌黑名单等豁免的命名空间不参与淘汰，
+ * 否则只通过 exists 检查的撤销标记可能被淘汰，已撤销的令牌重新生效。
+ * 过期条目除了在访问时惰性移除外，还由 Vert.x 定时器推进时间轮主动清理。
+ * 条目按命名空间（键中第一个 ':' 之前的部分）分表存储，前缀失效只访问匹配的子表。
+ * 读穿透加载按键合并并发请求，同一时刻每个键最多只有一次加载在进行。
+ * 启用堆外存储后，序列化后较大的值写入 {@link OffHeapStore}，堆上只保留句柄。
+ * 启用持久化后，写操作通过 {@link CachePersistence} 异步记录日志并定期快照，重启时恢复。
+ * 配置了 {@link CacheBackend} 后，本地存储作为近端缓存：未命中时读取远程后端，写操作同时写入后端
+ * 并发布失效消息，其他实例收到后移除各自的近端副本。近端副本的存活时间不超过配置的上限。
+ * 后端中不存在的键也在近端缓存中短暂记录，失效消息同样会移除这些记录，
+ * 使 exists 等在事件循环中调用的高频检查在未命中时也不必每次同步访问后端。
+ * 批量操作只读取一次时钟并合并命中统计，远程部分交给后端批量执行。
+ * 命中、未命中、加载耗时和淘汰按命名空间统计，计数使用 LongAdder 以减少多线程争用。
  */
 @Service
-public class CacheServiceImpl implements CacheService {
+public class CacheServiceImpl implements CacheService, InitializingBean, DisposableBean {
 
   private static final Logger LOG = LoggerFactory.getLogger(CacheServiceImpl.class);
 
-  private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
-  private final AtomicLong hitCount = new AtomicLong(0);
-  private final AtomicLong missCount = new AtomicLong(0);
+  /**
+   * 写入远程后端的普通值以该字节开头；计数器和 Long 值以十进制文本保存，首字节不会是 0，
+   * 因此 put 写入的 Long 值也可以在后端直接递增
+   */
+  private static final byte REMOTE_OBJECT = 0;
+  /**
+   * 读取值时表示未命中，与值为 null 的条目区分
+   */
+  private static final Object MISS = new Object();
+  /**
+   * 近端缓存中表示远程后端不存在该键的值，读取时按未命中处理，但不再访问后端
+   */
+  private static final Object ABSENT = new Object();
+  private static final char INVALIDATE_KEY = 'K';
+  private static final char INVALIDATE_PATTERN = 'P';
+  private static final char INVALIDATE_KEYS = 'M';
+
+  private final NamespaceTable namespaces = new NamespaceTable();
+  private final Map<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+  private final Vertx vertx;
+  private final CacheConfig config;
+  private final CacheWeigher weigher;
+  private final WindowTinyLfuPolicy policy;
+  private final OffHeapStore offHeap;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final AtomicLong nearCacheVersion = new AtomicLong(0);
+  private CachePersistence persistence;
+  private CacheValueSerializer valueSerializer;
+  private CacheBackend backend;
+  private boolean ownsBackend;
+  private long expiryTimerId = -1;
+  private long flushTimerId = -1;
+  private long snapshotTimerId = -1;
 
+  @Autowired
+  public CacheServiceImpl(Vertx vertx, CacheConfig config) {
+    this.vertx = vertx;
+    this.config = config;
+    Predicate<String> exempt = exemptNamespaces(config.getEvictionExemptNamespaces());
+    if (config.isWeighted()) {
+      this.weigher = CacheWeigher.ESTIMATED_BYTES;
+      this.policy = new WindowTinyLfuPolicy(config.getMaximumWeight(), config.getMaximumSize(), exempt,
+          this::onRemoval);
+    } else if (config.isBounded()) {
+      this.weigher = CacheWeigher.ENTRY_COUNT;
+      this.policy = new WindowTinyLfuPolicy(config.getMaximumSize(), config.getMaximumSize(), exempt,
+          this::onRemoval);
+    } else {
+      // 不限制容量时策略只负责过期，频率统计表不参与决策，使用最小的表
+      this.weigher = CacheWeigher.ENTRY_COUNT;
+      this.policy = new WindowTinyLfuPolicy(Long.MAX_VALUE, 0, exempt, this::onRemoval);
+    }
+    if (config.isOffHeapEnabled()) {
+      this.offHeap = new OffHeapStore(config.getOffHeapCapacity(), config.getOffHeapBlockSize());
+      LOG.info("Off-heap cache tier enabled with capacity: {} bytes", offHeap.getCapacity());
+    } else {
+      this.offHeap = null;
+    }
+    String serializationFilter = config.getSerializationFilter();
+    this.valueSerializer = serializationFilter == null || serializationFilter.trim().isEmpty()
+        ? new JavaValueSerializer()
+        : new JavaValueSerializer(serializationFilter.trim());
+    this.persistence = createPersistence(config);
+    if (config.isBounded()) {
+      LOG.info("CacheServiceImpl initialized with maximum {}: {}",
+          config.isWeighted() ? "weight" : "size", policy.getMaximum());
+    } else {
+      LOG.info("CacheServiceImpl initialized without a size bound");
+    }
+  }
+
+  /**
+   * 替换默认的 Java 序列化器
+   */
+  @Autowired(required = false)
+  public void setValueSerializer(CacheValueSerializer valueSerializer) {
+    this.valueSerializer = valueSerializer;
+  }
+
+  /**
+   * 使用自定义的远程后端替换按配置创建的后端
+   */
+  @Autowired(required = false)
+  public void setBackend(CacheBackend backend) {
+    this.backend = backend;
+  }
+
+  /**
+   * Spring 初始化回调，连接远程后端，恢复持久化数据并启动定时任务
+   */
   @Override
-  public Object get(String key) {
-    CacheEntry entry = cache.get(key);
-    if (entry == null) {
-      missCount.incrementAndGet();
-      LOG.debug("Cache miss for key: {}", key);
-      return null;
+  public void afterPropertiesSet() {
+    if (backend == null) {
+      backend = createBackend(config);
+      ownsBackend = backend != null;
+    }
+    if (backend != null) {
+      subscribeInvalidations();
     }
 
-    if (entry.isExpired()) {
-      cache.remove(key);
-      missCount.incrementAndGet();
-      LOG.debug("Cache expired for key: {}", key);
-      return null;
+    if (persistence != null) {
+      restore();
     }
 
-    hitCount.incrementAndGet();
-    LOG.debug("Cache hit for key: {}", key);
-    return entry.getValue();
+    if (vertx == null) {
+      return;
+    }
+    if (config.getExpiryIntervalMs() > 0) {
+      expiryTimerId = vertx.setPeriodic(config.getExpiryIntervalMs(),
+          id -> policy.expire(System.currentTimeMillis()));
+      LOG.info("Cache expiry timer started with interval: {}ms", config.getExpiryIntervalMs());
+    }
+    if (persistence != null) {
+      flushTimerId = vertx.setPeriodic(config.getPersistenceFlushIntervalMs(),
+          id -> vertx.executeBlocking(() -> {
+            flushJournal();
+            return null;
+          }, false));
+      snapshotTimerId = vertx.setPeriodic(config.getPersistenceSnapshotIntervalMs(),
+          id -> vertx.executeBlocking(() -> {
+            writeSnapshot();
+            return null;
+          }, false));
+      LOG.info("Cache persistence timers started, flush interval: {}ms, snapshot interval: {}ms",
+          config.getPersistenceFlushIntervalMs(), config.getPersistenceSnapshotIntervalMs());
+    }
+  }
+
+  /**
+   * Spring 销毁回调，停止定时任务并写入最终快照
+   */
+  @Override
+  public void destroy() {
+    for (long timerId : new long[] { expiryTimerId, flushTimerId, snapshotTimerId }) {
+      if (timerId >= 0) {
+        vertx.cancelTimer(timerId);
+      }
+    }
+    expiryTimerId = -1;
+    flushTimerId = -1;
+    snapshotTimerId = -1;
+
+    if (persistence != null) {
+      writeSnapshot();
+      try {
+        persistence.close();
+      } catch (IOException e) {
+        LOG.error("Failed to close cache journal", e);
+      }
+    }
+    if (backend != null && ownsBackend) {
+      backend.close();
+    }
+  }
+
+  @Override
+  public Object get(String key) {
+    Object value = getValue(key, null);
+    if (value == ABSENT) {
+      return null;
+    }
+    return value != MISS ? value : fetchRemote(key);
   }
 
   @Override
   public void put(String key, Object value, long ttlSeconds) {
-    long expirationTime = System.currentTimeMillis() + (ttlSeconds * 1000);
-    cache.put(key, new CacheEntry(value, expirationTime));
+    if (backend != null) {
+      nearCacheVersion.incrementAndGet();
+    }
+    putEntry(key, value, nearExpirationTime(System.currentTimeMillis(), ttlSeconds));
+    if (backend != null) {
+      writeRemote(key, value, ttlSeconds);
+    }
     LOG.debug("Cached value for key: {} with TTL: {}s", key, ttlSeconds);
   }
 
   @Override
   public void remove(String key) {
-    cache.remove(key);
+    if (backend != null) {
+      nearCacheVersion.incrementAndGet();
+    }
+    removeLocal(key);
+    if (backend != null) {
+      writeBackend("delete", key, () -> backend.delete(key));
+      publishInvalidation(INVALIDATE_KEY, key);
+    }
     LOG.debug("Removed cache entry for key: {}", key);
   }
 
   @Override
-  public boolean exists(String key) {
-    CacheEntry entry = cache.get(key);
-    if (entry == null) {
-      return false;
+  public Map<String, Object> getAll(Collection<String> keys) {
+    Map<String, Object> result = new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+    List<String> missing = backend == null ? null : new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    // 连续属于同一命名空间的键合并为一次统计更新
+    CacheNamespace statsNamespace = null;
+    long hits = 0;
+    long misses = 0;
+    int totalHits = 0;
+
+    for (String key : keys) {
+      CacheNamespace namespace = namespaces.findOrCreate(key);
+      if (namespace != statsNamespace) {
+        recordStats(statsNamespace, hits, misses);
+        statsNamespace = namespace;
+        hits = 0;
+        misses = 0;
+      }
+
+      Object value = readLive(namespace, key, currentTime, null);
+      if (value == MISS || value == ABSENT) {
+        misses++;
+        if (value == MISS && missing != null) {
+          missing.add(key);
+        }
+        continue;
+      }
+      hits++;
+      totalHits++;
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    recordStats(statsNamespace, hits, misses);
+
+    if (missing != null && !missing.isEmpty()) {
+      fetchRemoteAll(missing, result);
+    }
+    LOG.debug("Bulk get of {} keys: {} hits", keys.size(), totalHits);
+    return result;
+  }
+
+  @Override
+  public void putAll(Map<String, ?> entries, long ttlSeconds) {
+    if (backend != null) {
+      nearCacheVersion.incrementAndGet();
+    }
+    long expirationTime = nearExpirationTime(System.currentTimeMillis(), ttlSeconds);
+    for (Map.Entry<String, ?> entry : entries.entrySet()) {
+      putEntry(entry.getKey(), entry.getValue(), expirationTime);
+    }
+    if (backend != null && !entries.isEmpty()) {
+      writeRemoteAll(entries, ttlSeconds);
+    }
+    LOG.debug("Cached {} values with TTL: {}s", entries.size(), ttlSeconds);
+  }
+
+  @Override
+  public void removeAll(Collection<String> keys) {
+    if (backend != null) {
+      nearCacheVersion.incrementAndGet();
+    }
+    for (String key : keys) {
+      removeLocal(key);
+    }
+    if (backend != null && !keys.isEmpty()) {
+      writeBackend("deleteAll", keys.size() + " keys", () -> backend.deleteAll(keys));
+      publishInvalidation(INVALIDATE_KEYS, String.join("\n", keys));
+    }
+    LOG.debug("Removed {} cache entries", keys.size());
+  }
+
+  @Override
+  public <T> T getOrLoad(String key, long ttlSeconds, Supplier<T> loader) {
+    return getOrLoad(key, ttlSeconds, 0, loader);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T getOrLoad(String key, long ttlSeconds, long refreshAfterSeconds, Supplier<T> loader) {
+    CacheEntry[] hit = new CacheEntry[1];
+    Object cached = getValue(key, hit);
+    if (cached != MISS && cached != ABSENT) {
+      if (needsRefresh(hit[0], ttlSeconds, refreshAfterSeconds)) {
+        refresh(key, ttlSeconds, () -> executeLoader(loader));
+      }
+      return (T) cached;
+    }
+
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      LOG.debug("Waiting for in-flight load of key: {}", key);
+      return (T) await(inFlight);
+    }
+
+    try {
+      // 获得加载权后再检查一次，避免刚结束的加载被重复执行
+      Object value = peekValue(key);
+      if (value == ABSENT || value == MISS && (value = fetchRemote(key)) == null) {
+        value = timedLoad(key, loader);
+        if (value != null) {
+          putLoaded(key, value, ttlSeconds);
+        }
+      }
+      load.complete(value);
+      return (T) value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(key, load);
     }
+  }
 
-    if (entry.isExpired()) {
-      cache.remove(key);
+  @Override
+  public <T> Future<T> getOrLoadAsync(String key, long ttlSeconds, Supplier<Future<T>> loader) {
+    return getOrLoadAsync(key, ttlSeconds, 0, loader);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Future<T> getOrLoadAsync(String key, long ttlSeconds, long refreshAfterSeconds,
+      Supplier<Future<T>> loader) {
+    CacheEntry[] hit = new CacheEntry[1];
+    Object cached = getValue(key, hit);
+    if (cached != MISS && cached != ABSENT) {
+      if (needsRefresh(hit[0], ttlSeconds, refreshAfterSeconds)) {
+        refresh(key, ttlSeconds, loader);
+      }
+      return Future.succeededFuture((T) cached);
+    }
+
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      LOG.debug("Joining in-flight load of key: {}", key);
+      return (Future<T>) toFuture(inFlight);
+    }
+
+    Object loaded = peekValue(key);
+    if (loaded != MISS && loaded != ABSENT) {
+      loads.remove(key, load);
+      load.complete(loaded);
+      return Future.succeededFuture((T) loaded);
+    }
+
+    // 已知后端中不存在时直接调用加载器
+    startLoad(key, ttlSeconds, load,
+        backend == null || loaded == ABSENT ? loader : () -> loadThroughBackend(key, loader));
+    return (Future<T>) toFuture(load);
+  }
+
+  @Override
+  public boolean exists(String key) {
+    CacheEntry entry = lookup(key);
+    if (entry != null) {
+      if (!entry.isExpired()) {
+        // 只通过 exists 检查的键（如令牌黑名单）同样计入访问频率
+        policy.onRead(entry);
+        return entry.getValue() != ABSENT;
+      }
+      removeEntry(key, entry);
+    }
+    if (backend == null) {
       return false;
     }
 
-    return true;
+    // 后端失败时直接抛出异常而不是按不存在处理：令牌黑名单等撤销检查依赖该结果，
+    // 返回 false 会在后端不可用期间放行已撤销的令牌
+    long version = nearCacheVersion.get();
+    boolean exists;
+    try {
+      exists = backend.exists(key);
+    } catch (RuntimeException e) {
+      LOG.error("Cache backend exists failed for key: {}: {}", key, e.getMessage());
+      throw e;
+    }
+    if (!exists) {
+      installAbsent(key, version, System.currentTimeMillis());
+    }
+    return exists;
   }
 
   @Override
   public long increment(String key, long delta, long ttlSeconds) {
-    CacheEntry entry = cache.get(key);
-    long newValue;
-
-    if (entry == null || entry.isExpired()) {
-      // 键不存在或已过期，初始化为delta值
-      newValue = delta;
-      put(key, newValue, ttlSeconds);
-      LOG.debug("Initialized counter for key: {} with value: {}", key, newValue);
-    } else {
-      // 键存在，递增值
-      Object currentObj = entry.getValue();
-      long currentValue = (currentObj instanceof Long) ? (Long) currentObj : 0L;
-      newValue = currentValue + delta;
+    if (backend != null) {
+      // 计数器以远程后端为准，近端副本直接失效。后端失败时直接抛出异常，
+      // 退化为本地计数会让各实例的计数各自增长，限流等依赖计数的逻辑随之失效
+      nearCacheVersion.incrementAndGet();
+      long remoteValue;
+      try {
+        remoteValue = backend.increment(key, delta, ttlSeconds);
+      } catch (RuntimeException e) {
+        LOG.warn("Cache backend increment failed for key: {}: {}", key, e.getMessage());
+        throw e;
+      } finally {
+        removeLocal(key);
+      }
+      publishInvalidation(INVALIDATE_KEY, key);
+      LOG.debug("Incremented remote counter for key: {} to {}", key, remoteValue);
+      return remoteValue;
+    }
 
-      // 更新值但保持原有的过期时间
-      cache.put(key, new CacheEntry(newValue, entry.getExpirationTime()));
-      LOG.debug("Incremented counter for key: {} from {} to {}", key, currentValue, newValue);
+    // 快速路径：已存在的计数器条目直接原子递增，不分配新对象
+    CacheEntry entry = lookup(key);
+    if (entry != null && entry.isCounter() && !entry.isExpired()) {
+      long newValue = entry.addAndGet(delta);
+      policy.onRead(entry);
+      markDirty(key);
+      LOG.debug("Incremented counter for key: {} to {}", key, newValue);
+      return newValue;
     }
 
-    return newValue;
+    // 慢速路径：在子表的 compute 中原子地创建或转换计数器条目
+    long currentTime = System.currentTimeMillis();
+    long[] result = new long[1];
+    CacheEntry[] changed = new CacheEntry[2];
+    namespaces.findOrCreate(key).getEntries().compute(key, (k, current) -> {
+      if (current != null && !current.isExpired(currentTime)) {
+        if (current.isCounter()) {
+          result[0] = current.addAndGet(delta);
+          return current;
+        }
+        // 普通条目转换为计数器，保持原有的过期时间
+        Object currentObj = current.getValue();
+        long currentValue = (currentObj instanceof Long) ? (Long) currentObj : 0L;
+        result[0] = currentValue + delta;
+        changed[0] = CacheEntry.counter(k, result[0], current.getExpirationTime(), weigher.weigh(k, result[0]));
+      } else {
+        // 键不存在或已过期，初始化为delta值
+        result[0] = delta;
+        changed[0] = CacheEntry.counter(k, delta, currentTime + (ttlSeconds * 1000), weigher.weigh(k, delta));
+      }
+      changed[1] = current;
+      return changed[0];
+    });
+
+    if (changed[0] != null) {
+      policy.onWrite(changed[0], changed[1]);
+      if (changed[1] != null) {
+        release(changed[1]);
+      }
+      LOG.debug("Initialized counter for key: {} with value: {}", key, result[0]);
+    }
+    markDirty(key);
+    return result[0];
   }
 
   @Override
   public Object getAndRefresh(String key, long newTtlSeconds) {
-    CacheEntry entry = cache.get(key);
-    if (entry == null) {
-      missCount.incrementAndGet();
-      LOG.debug("Cache miss for key: {}", key);
-      return null;
+    if (backend != null) {
+      Boolean refreshed = callBackend("expire", key, () -> backend.expire(key, newTtlSeconds), null);
+      if (refreshed != null) {
+        return refreshNear(key, refreshed, newTtlSeconds);
+      }
     }
 
-    if (entry.isExpired()) {
-      cache.remove(key);
-      missCount.incrementAndGet();
-      LOG.debug("Cache expired for key: {}", key);
+    Object value = getValue(key, null);
+    if (value == MISS || value == ABSENT) {
       return null;
     }
 
     // 刷新TTL
     long newExpirationTime = System.currentTimeMillis() + (newTtlSeconds * 1000);
-    cache.put(key, new CacheEntry(entry.getValue(), newExpirationTime));
-
-    hitCount.incrementAndGet();
+    putEntry(key, value, newExpirationTime);
     LOG.debug("Cache hit and refreshed TTL for key: {} with new TTL: {}s", key, newTtlSeconds);
-    return entry.getValue();
+    return value;
   }
 
   @Override
   public void removePattern(String pattern) {
-    // 将通配符模式转换为正则表达式
-    String regex = pattern.replace("*", ".*");
-    Pattern compiledPattern = Pattern.compile(regex);
-
-    int removedCount = 0;
-    var iterator = cache.entrySet().iterator();
-    while (iterator.hasNext()) {
-      var entry = iterator.next();
-      if (compiledPattern.matcher(entry.getKey()).matches()) {
-        iterator.remove();
-        removedCount++;
-      }
+    if (backend != null) {
+      nearCacheVersion.incrementAndGet();
+    }
+    int removedCount = removePatternLocal(pattern);
+    if (backend != null) {
+      writeBackend("deletePattern", pattern, () -> backend.deletePattern(pattern));
+      publishInvalidation(INVALIDATE_PATTERN, pattern);
     }
-
     LOG.debug("Removed {} cache entries matching pattern: {}", removedCount, pattern);
   }
 
   @Override
   public CacheStats getStats() {
-    // 清理过期的条目以获得准确的大小
-    cleanupExpired();
+    // 过期条目由时间轮持续清理，这里不再遍历整个缓存；全局计数由各命名空间汇总
+    long size = 0;
+    long hits = 0;
+    long misses = 0;
+    List<CacheStats.NamespaceStats> namespaceStats = new ArrayList<>();
+    for (CacheNamespace namespace : namespaces.all()) {
+      CacheStats.NamespaceStats stats = namespace.snapshot();
+      size += stats.getSize();
+      hits += stats.getHitCount();
+      misses += stats.getMissCount();
+      namespaceStats.add(stats);
+    }
+    namespaceStats.sort(Comparator.comparing(CacheStats.NamespaceStats::getName));
 
     return new CacheStats(
-        cache.size(),
-        hitCount.get(),
-        missCount.get());
+        size,
+        hits,
+        misses,
+        policy.getEvictionCount(),
+        policy.getEvictionWeight(),
+        offHeap == null ? null : new CacheStats.OffHeapStats(
+            offHeap.getCapacity(),
+            offHeap.getUsedBytes(),
+            offHeap.getEntryCount(),
+            offHeap.getRejectedCount()),
+        namespaceStats);
   }
 
   /**
-   * 清理过期的缓存条目
+   * 只删除本地存储中的键
    */
-  private void cleanupExpired() {
-    long currentTime = System.currentTimeMillis();
+  private void removeLocal(String key) {
+    CacheNamespace namespace = namespaces.find(key);
+    CacheEntry removed = namespace == null ? null : namespace.getEntries().remove(key);
+    if (removed != null) {
+      policy.onRemove(removed);
+      release(removed);
+      markDirty(key);
+    }
+  }
+
+  /**
+   * 只删除本地存储中匹配模式的键
+   *
+   * @return 删除的条目数
+   */
+  private int removePatternLocal(String pattern) {
+    int starIndex = pattern.indexOf('*');
+    int removedCount;
+
+    if (starIndex < 0) {
+      // 没有通配符，按单个键删除
+      CacheNamespace namespace = namespaces.find(pattern);
+      CacheEntry entry = namespace == null ? null : namespace.getEntries().get(pattern);
+      removedCount = entry != null && removeEntry(pattern, entry) ? 1 : 0;
+    } else if (starIndex == pattern.length() - 1) {
+      // 前缀模式，只访问匹配的命名空间
+      removedCount = removeByPrefix(pattern.substring(0, starIndex));
+    } else {
+      // 其他通配符模式回退到全表扫描
+      removedCount = removeByRegex(toRegex(pattern));
+    }
+    return removedCount;
+  }
+
+  /**
+   * 按键读取未过期条目的值并记录命中统计
+   *
+   * @param hit 不为 null 时，命中后写入读取到的条目
+   * @return 值，未命中时返回 {@link #MISS}
+   */
+  private Object getValue(String key, CacheEntry[] hit) {
+    CacheNamespace namespace = namespaces.findOrCreate(key);
+    Object value = readLive(namespace, key, System.currentTimeMillis(), hit);
+    if (value == MISS || value == ABSENT) {
+      namespace.recordMisses(1);
+      LOG.debug("Cache miss for key: {}", key);
+    } else {
+      namespace.recordHits(1);
+      LOG.debug("Cache hit for key: {}", key);
+    }
+    return value;
+  }
+
+  /**
+   * 按键读取未过期条目的值，不记录统计
+   *
+   * @return 值，未命中时返回 {@link #MISS}
+   */
+  private Object peekValue(String key) {
+    CacheNamespace namespace = namespaces.find(key);
+    return namespace == null ? MISS : readLive(namespace, key, System.currentTimeMillis(), null);
+  }
+
+  /**
+   * 读取子表中未过期条目的值，过期条目在此移除
+   * 堆外值可能在查找之后、读取之前被并发的写入或删除释放，此时条目已不在子表中，
+   * 重新查找当前映射的条目；键已被删除时按未命中处理
+   *
+   * @param hit 不为 null 时，命中后写入读取到的条目
+   * @return 值，未命中时返回 {@link #MISS}
+   */
+  private Object readLive(CacheNamespace namespace, String key, long currentTime, CacheEntry[] hit) {
+    CacheEntry entry = namespace.getEntries().get(key);
+    while (entry != null) {
+      if (entry.isExpired(currentTime)) {
+        removeEntry(key, entry);
+        LOG.debug("Cache expired for key: {}", key);
+        return MISS;
+      }
+      Object value = readValue(entry);
+      if (value != MISS) {
+        policy.onRead(entry);
+        if (hit != null) {
+          hit[0] = entry;
+        }
+        return value;
+      }
+      CacheEntry current = namespace.getEntries().get(key);
+      entry = current != entry ? current : null;
+    }
+    return MISS;
+  }
+
+  private static void recordStats(CacheNamespace namespace, long hits, long misses) {
+    if (namespace == null) {
+      return;
+    }
+    if (hits > 0) {
+      namespace.recordHits(hits);
+    }
+    if (misses > 0) {
+      namespace.recordMisses(misses);
+    }
+  }
+
+  /**
+   * 按键查找未过期的条目，不记录统计
+   */
+  private CacheEntry lookupLive(String key) {
+    CacheEntry entry = lookup(key);
+    return entry == null || entry.isExpired() ? null : entry;
+  }
+
+  /**
+   * 体积较大且可序列化的值写入堆外，其余值原样保存在堆上
+   */
+  private Object toStoredValue(String key, Object value) {
+    if (offHeap == null || value == null
+        || CacheWeigher.ESTIMATED_BYTES.weigh(key, value) < config.getOffHeapThreshold()
+        || !valueSerializer.supports(value)) {
+      return value;
+    }
+
+    try {
+      byte[] bytes = valueSerializer.serialize(value);
+      if (bytes.length < config.getOffHeapThreshold()) {
+        return value;
+      }
+      OffHeapStore.OffHeapValue offHeapValue = offHeap.allocate(bytes);
+      return offHeapValue != null ? offHeapValue : value;
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to move cache value off-heap for key: {}", key, e);
+      return value;
+    }
+  }
+
+  /**
+   * 读取条目的值，堆外值在此反序列化
+   *
+   * @return 值，堆外值已被释放或无法反序列化时返回 {@link #MISS}
+   */
+  private Object readValue(CacheEntry entry) {
+    Object value = entry.getValue();
+    if (!(value instanceof OffHeapStore.OffHeapValue)) {
+      return value;
+    }
+
+    byte[] bytes = offHeap.read((OffHeapStore.OffHeapValue) value);
+    if (bytes == null) {
+      return MISS;
+    }
+    try {
+      return valueSerializer.deserialize(bytes);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to read off-heap cache value for key: {}", entry.getKey(), e);
+      removeEntry(entry.getKey(), entry);
+      return MISS;
+    }
+  }
+
+  /**
+   * 释放已移除条目占用的堆外空间
+   */
+  private void release(CacheEntry entry) {
+    if (entry.getValue() instanceof OffHeapStore.OffHeapValue) {
+      offHeap.free((OffHeapStore.OffHeapValue) entry.getValue());
+    }
+  }
+
+  /**
+   * 按键查找条目
+   */
+  private CacheEntry lookup(String key) {
+    CacheNamespace namespace = namespaces.find(key);
+    return namespace == null ? null : namespace.getEntries().get(key);
+  }
+
+  /**
+   * 写入条目并交给淘汰策略记录
+   */
+  private void putEntry(String key, Object value, long expirationTime) {
+    Object stored = toStoredValue(key, value);
+    installEntry(new CacheEntry(key, stored, expirationTime, weigher.weigh(key, stored)));
+    markDirty(key);
+  }
+
+  private void installEntry(CacheEntry entry) {
+    CacheEntry replaced = namespaces.findOrCreate(entry.getKey()).getEntries().put(entry.getKey(), entry);
+    policy.onWrite(entry, replaced);
+    if (replaced != null) {
+      release(replaced);
+    }
+  }
+
+  /**
+   * 仅当键仍映射到指定条目时移除
+   *
+   * @return 是否移除成功
+   */
+  private boolean removeEntry(String key, CacheEntry entry) {
+    CacheNamespace namespace = namespaces.find(key);
+    if (namespace != null && namespace.getEntries().remove(key, entry)) {
+      policy.onRemove(entry);
+      release(entry);
+      markDirty(key);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 删除以指定前缀开头的所有键
+   * 前缀包含 ':' 时只访问一个命名空间，否则访问名称以该前缀开头的命名空间和空命名空间
+   */
+  private int removeByPrefix(String prefix) {
     int removedCount = 0;
+    int colonIndex = prefix.indexOf(':');
+
+    if (colonIndex >= 0) {
+      CacheNamespace namespace = namespaces.findByName(prefix.substring(0, colonIndex));
+      if (namespace != null) {
+        removedCount += removeMatching(namespace, prefix);
+      }
+      return removedCount;
+    }
+
+    for (CacheNamespace namespace : namespaces.all()) {
+      if (namespace.getName().isEmpty() || namespace.getName().startsWith(prefix)) {
+        removedCount += removeMatching(namespace, prefix);
+      }
+    }
+    return removedCount;
+  }
 
-    var iterator = cache.entrySet().iterator();
-    while (iterator.hasNext()) {
-      var entry = iterator.next();
-      if (entry.getValue().isExpired(currentTime)) {
-        iterator.remove();
+  private int removeMatching(CacheNamespace namespace, String prefix) {
+    int removedCount = 0;
+    for (Map.Entry<String, CacheEntry> entry : namespace.getEntries().entrySet()) {
+      if (entry.getKey().startsWith(prefix) && removeEntry(entry.getKey(), entry.getValue())) {
         removedCount++;
       }
     }
+    return removedCount;
+  }
 
-    if (removedCount > 0) {
-      LOG.debug("Cleaned up {} expired cache entries", removedCount);
+  private int removeByRegex(Pattern compiledPattern) {
+    int removedCount = 0;
+    for (CacheNamespace namespace : namespaces.all()) {
+      for (Map.Entry<String, CacheEntry> entry : namespace.getEntries().entrySet()) {
+        if (compiledPattern.matcher(entry.getKey()).matches() && removeEntry(entry.getKey(), entry.getValue())) {
+          removedCount++;
+        }
+      }
     }
+    return removedCount;
   }
 
   /**
-   * 缓存条目
+   * 将通配符模式转换为正则表达式，除 * 外的字符按字面匹配
    */
-  private static class CacheEntry {
-    private final Object value;
-    private final long expirationTime;
+  static Pattern toRegex(String pattern) {
+    StringBuilder regex = new StringBuilder();
+    int start = 0;
+    int starIndex;
+    while ((starIndex = pattern.indexOf('*', start)) >= 0) {
+      if (starIndex > start) {
+        regex.append(Pattern.quote(pattern.substring(start, starIndex)));
+      }
+      regex.append(".*");
+      start = starIndex + 1;
+    }
+    if (start < pattern.length()) {
+      regex.append(Pattern.quote(pattern.substring(start)));
+    }
+    return Pattern.compile(regex.toString());
+  }
 
-    public CacheEntry(Object value, long expirationTime) {
-      this.value = value;
-      this.expirationTime = expirationTime;
+  /**
+   * 条目写入时间是否已超过刷新阈值
+   * 按剩余存活时间推算写入时间，刷新只对使用相同 TTL 写入的条目有意义
+   */
+  private static boolean needsRefresh(CacheEntry entry, long ttlSeconds, long refreshAfterSeconds) {
+    if (refreshAfterSeconds <= 0 || refreshAfterSeconds >= ttlSeconds) {
+      return false;
+    }
+    long remaining = entry.getExpirationTime() - System.currentTimeMillis();
+    return remaining < (ttlSeconds - refreshAfterSeconds) * 1000;
+  }
+
+  /**
+   * 后台刷新条目，已有加载在进行时跳过
+   */
+  private void refresh(String key, long ttlSeconds, Supplier<? extends Future<?>> loader) {
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    if (loads.putIfAbsent(key, load) == null) {
+      LOG.debug("Refreshing cache entry in background for key: {}", key);
+      startLoad(key, ttlSeconds, load, loader);
+    }
+  }
+
+  /**
+   * 执行异步加载，完成后写入缓存并通知所有等待者
+   */
+  private void startLoad(String key, long ttlSeconds, CompletableFuture<Object> load,
+      Supplier<? extends Future<?>> loader) {
+    long startTime = System.nanoTime();
+    Future<?> future;
+    try {
+      future = loader.get();
+    } catch (RuntimeException e) {
+      future = Future.failedFuture(e);
+    }
+
+    future.onComplete(ar -> {
+      Object value = ar.succeeded() ? ar.result() : null;
+      if (value instanceof RemoteValue) {
+        // 远程命中的值已写入近端缓存，不再写回后端
+        value = ((RemoteValue) value).value;
+      } else {
+        namespaces.findOrCreate(key).recordLoad(ar.succeeded(), System.nanoTime() - startTime);
+        if (value != null) {
+          putLoaded(key, value, ttlSeconds);
+        }
+      }
+      loads.remove(key, load);
+      if (ar.succeeded()) {
+        load.complete(value);
+      } else {
+        LOG.warn("Failed to load cache entry for key: {}", key, ar.cause());
+        load.completeExceptionally(ar.cause());
+      }
+    });
+  }
+
+  /**
+   * 缓存加载器的结果，后端写入失败时不影响本次读取，调用方仍拿到加载的值
+   */
+  private void putLoaded(String key, Object value, long ttlSeconds) {
+    try {
+      put(key, value, ttlSeconds);
+    } catch (RuntimeException e) {
+      LOG.debug("Loaded value for key: {} was not cached", key);
     }
+  }
 
-    public Object getValue() {
+  /**
+   * 调用同步加载器并记录耗时
+   */
+  private <T> T timedLoad(String key, Supplier<T> loader) {
+    long startTime = System.nanoTime();
+    boolean success = false;
+    try {
+      T value = loader.get();
+      success = true;
       return value;
+    } finally {
+      namespaces.findOrCreate(key).recordLoad(success, System.nanoTime() - startTime);
+    }
+  }
+
+  /**
+   * 在工作线程中执行同步加载器
+   */
+  private <T> Future<T> executeLoader(Supplier<T> loader) {
+    if (vertx == null) {
+      return Future.fromCompletionStage(CompletableFuture.supplyAsync(loader));
+    }
+    return vertx.executeBlocking(loader::get, false);
+  }
+
+  private Future<Object> toFuture(CompletableFuture<Object> load) {
+    if (vertx == null) {
+      return Future.fromCompletionStage(load);
+    }
+    return Future.fromCompletionStage(load, vertx.getOrCreateContext());
+  }
+
+  private static Object await(CompletableFuture<Object> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 解析豁免淘汰的命名空间列表
+   */
+  private static Predicate<String> exemptNamespaces(String namespaces) {
+    Set<String> names = new HashSet<>();
+    if (namespaces != null) {
+      for (String name : namespaces.split(",")) {
+        if (!name.trim().isEmpty()) {
+          names.add(name.trim());
+        }
+      }
+    }
+    if (names.isEmpty()) {
+      return key -> false;
+    }
+    return key -> {
+      int length = CacheNamespace.namespaceLength(key);
+      return length > 0 && names.contains(key.substring(0, length));
+    };
+  }
+
+  private static CachePersistence createPersistence(CacheConfig config) {
+    if (!config.isPersistenceEnabled()) {
+      return null;
+    }
+    try {
+      return new CachePersistence(config.getPersistenceDirectory());
+    } catch (IOException e) {
+      LOG.error("Failed to initialize cache persistence in {}, persistence disabled",
+          config.getPersistenceDirectory(), e);
+      return null;
+    }
+  }
+
+  private void markDirty(String key) {
+    if (persistence != null) {
+      persistence.markDirty(key);
+    }
+  }
+
+  /**
+   * 从快照和日志恢复缓存，恢复的条目不再写回日志
+   */
+  private void restore() {
+    long startTime = System.currentTimeMillis();
+    try {
+      long restored = persistence.restore(new CachePersistence.RestoreSink() {
+        @Override
+        public void restore(String key, long expirationTime, byte type, byte[] value) {
+          restoreEntry(key, expirationTime, type, value);
+        }
+
+        @Override
+        public void remove(String key) {
+          CacheNamespace namespace = namespaces.find(key);
+          CacheEntry removed = namespace == null ? null : namespace.getEntries().remove(key);
+          if (removed != null) {
+            policy.onRemove(removed);
+            release(removed);
+          }
+        }
+      });
+      LOG.info("Restored {} cache records in {}ms", restored, System.currentTimeMillis() - startTime);
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Failed to restore cache from {}", config.getPersistenceDirectory(), e);
+    }
+  }
+
+  private void restoreEntry(String key, long expirationTime, byte type, byte[] value) {
+    if (type == CachePersistence.TYPE_COUNTER) {
+      long counterValue = ByteBuffer.wrap(value).getLong();
+      installEntry(CacheEntry.counter(key, counterValue, expirationTime, weigher.weigh(key, counterValue)));
+      return;
+    }
+
+    // 已序列化的大值直接写入堆外，省去一次反序列化
+    Object stored = null;
+    if (offHeap != null && value.length >= config.getOffHeapThreshold()) {
+      stored = offHeap.allocate(value);
+    }
+    if (stored == null) {
+      try {
+        stored = valueSerializer.deserialize(value);
+      } catch (RuntimeException e) {
+        LOG.warn("Skipping cache record that cannot be deserialized, key: {}", key, e);
+        return;
+      }
+    }
+    installEntry(new CacheEntry(key, stored, expirationTime, weigher.weigh(key, stored)));
+  }
+
+  /**
+   * 编码条目用于持久化，无法序列化的值返回 null
+   */
+  private CachePersistence.EncodedValue encodeEntry(CacheEntry entry) {
+    if (entry.isCounter()) {
+      byte[] bytes = ByteBuffer.allocate(8).putLong((Long) entry.getValue()).array();
+      return new CachePersistence.EncodedValue(CachePersistence.TYPE_COUNTER, bytes);
+    }
+
+    Object value = entry.getValue();
+    if (value instanceof OffHeapStore.OffHeapValue) {
+      byte[] bytes = offHeap.read((OffHeapStore.OffHeapValue) value);
+      return bytes == null ? null : new CachePersistence.EncodedValue(CachePersistence.TYPE_OBJECT, bytes);
+    }
+    if (value == null || !valueSerializer.supports(value)) {
+      return null;
+    }
+    try {
+      return new CachePersistence.EncodedValue(CachePersistence.TYPE_OBJECT, valueSerializer.serialize(value));
+    } catch (RuntimeException e) {
+      LOG.debug("Cache value for key {} is not persistable", entry.getKey(), e);
+      return null;
+    }
+  }
+
+  private void flushJournal() {
+    try {
+      int written = persistence.flush(this::lookupLive, this::encodeEntry);
+      if (written > 0) {
+        LOG.debug("Flushed {} cache journal records", written);
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to flush cache journal", e);
+    }
+  }
+
+  private void writeSnapshot() {
+    long startTime = System.currentTimeMillis();
+    try {
+      long count = persistence.snapshot(namespaces.all(), this::lookupLive, this::encodeEntry);
+      LOG.info("Wrote cache snapshot with {} entries in {}ms", count, System.currentTimeMillis() - startTime);
+    } catch (IOException e) {
+      LOG.error("Failed to write cache snapshot", e);
+    }
+  }
+
+  /**
+   * 远程后端命中的值，异步加载完成时据此跳过写回
+   */
+  private static final class RemoteValue {
+    final Object value;
+
+    RemoteValue(Object value) {
+      this.value = value;
+    }
+  }
+
+  private static CacheBackend createBackend(CacheConfig config) {
+    switch (config.getBackend()) {
+      case "none":
+        return null;
+      case "local":
+        LOG.info("Using in-process cache backend");
+        return new LocalCacheBackend();
+      case "redis":
+        LOG.info("Using Redis cache backend at {}:{}", config.getRedisHost(), config.getRedisPort());
+        return new RedisCacheBackend(config.getRedisHost(), config.getRedisPort(), config.getRedisPassword(),
+            config.getRedisDatabase(), config.getRedisTimeoutMs(), config.getRedisPoolSize());
+      default:
+        throw new IllegalArgumentException("Unsupported cache backend: " + config.getBackend());
+    }
+  }
+
+  /**
+   * 订阅失效频道
+   * 近端缓存以远程后端为准，重启后恢复的本地数据可能已过时，因此不再启用持久化
+   */
+  private void subscribeInvalidations() {
+    if (persistence != null) {
+      LOG.warn("Cache persistence is disabled because a remote cache backend is configured");
+      persistence = null;
+    }
+    backend.subscribe(config.getInvalidationChannel(), new CacheBackend.MessageListener() {
+      @Override
+      public void onMessage(String message) {
+        onInvalidation(message);
+      }
+
+      @Override
+      public void onReset() {
+        LOG.warn("Cache invalidation channel was interrupted, clearing near cache");
+        clearLocal();
+      }
+    });
+    LOG.info("Near cache enabled with maximum TTL: {}s, invalidation channel: {}",
+        config.getNearTtlSeconds(), config.getInvalidationChannel());
+  }
+
+  /**
+   * 近端副本的过期时间，不超过配置的上限
+   */
+  private long nearExpirationTime(long currentTime, long ttlSeconds) {
+    long ttl = backend == null ? ttlSeconds : Math.min(ttlSeconds, config.getNearTtlSeconds());
+    return currentTime + (ttl * 1000);
+  }
+
+  /**
+   * 近端缓存未命中时读取远程后端，并按剩余存活时间写入近端缓存
+   * 读取期间收到失效消息或本地写入时不写入近端缓存，避免留下过时的副本
+   *
+   * @return 值，未配置后端或远程不存在时返回 null
+   */
+  private Object fetchRemote(String key) {
+    if (backend == null) {
+      return null;
+    }
+
+    long version = nearCacheVersion.get();
+    Optional<CacheBackend.Entry> remote = callBackend("get", key, () -> Optional.ofNullable(backend.get(key)), null);
+    if (remote == null) {
+      return null;
+    }
+    if (!remote.isPresent()) {
+      installAbsent(key, version, System.currentTimeMillis());
+      return null;
+    }
+    LOG.debug("Loaded cache entry from backend for key: {}", key);
+    return installRemote(key, remote.get(), version, System.currentTimeMillis());
+  }
+
+  /**
+   * 批量读取远程后端，结果写入近端缓存并加入 result
+   */
+  private void fetchRemoteAll(List<String> keys, Map<String, Object> result) {
+    long version = nearCacheVersion.get();
+    Map<String, CacheBackend.Entry> remote = callBackend("getAll", keys.size() + " keys",
+        () -> backend.getAll(keys), null);
+    if (remote == null) {
+      return;
+    }
+    long currentTime = System.currentTimeMillis();
+    for (String key : keys) {
+      CacheBackend.Entry entry = remote.get(key);
+      if (entry == null) {
+        installAbsent(key, version, currentTime);
+        continue;
+      }
+      Object value = installRemote(key, entry, version, currentTime);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+  }
+
+  /**
+   * 解码远程条目，读取期间近端缓存版本未变化时写入近端缓存
+   *
+   * @return 值，无法解码时返回 null
+   */
+  private Object installRemote(String key, CacheBackend.Entry remote, long version, long currentTime) {
+    Object value;
+    try {
+      value = decodeRemote(remote.getValue());
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to decode remote cache value for key: {}", key, e);
+      return null;
     }
 
-    public long getExpirationTime() {
-      return expirationTime;
+    if (nearCacheVersion.get() == version) {
+      long nearTtlMillis = config.getNearTtlSeconds() * 1000;
+      long ttlMillis = remote.getTtlMillis() < 0 ? nearTtlMillis : Math.min(remote.getTtlMillis(), nearTtlMillis);
+      putEntry(key, value, currentTime + ttlMillis);
     }
+    return value;
+  }
 
-    public boolean isExpired() {
-      return isExpired(System.currentTimeMillis());
+  /**
+   * 记录后端中不存在该键，读取期间近端缓存版本变化时不记录
+   */
+  private void installAbsent(String key, long version, long currentTime) {
+    long ttlSeconds = Math.min(config.getNearNegativeTtlSeconds(), config.getNearTtlSeconds());
+    if (ttlSeconds > 0 && nearCacheVersion.get() == version) {
+      installEntry(new CacheEntry(key, ABSENT, currentTime + ttlSeconds * 1000, weigher.weigh(key, ABSENT)));
     }
+  }
 
-    public boolean isExpired(long currentTime) {
-      return currentTime > expirationTime;
+  /**
+   * 远程后端刷新存活时间后同步近端副本
+   */
+  private Object refreshNear(String key, boolean refreshed, long newTtlSeconds) {
+    if (!refreshed) {
+      removeLocal(key);
+      namespaces.findOrCreate(key).recordMisses(1);
+      LOG.debug("Cache miss for key: {}", key);
+      return null;
+    }
+
+    Object value = getValue(key, null);
+    if (value == MISS || value == ABSENT) {
+      return fetchRemote(key);
+    }
+    putEntry(key, value, nearExpirationTime(System.currentTimeMillis(), newTtlSeconds));
+    LOG.debug("Cache hit and refreshed TTL for key: {} with new TTL: {}s", key, newTtlSeconds);
+    return value;
+  }
+
+  /**
+   * 先读取远程后端，未命中时再调用加载器
+   */
+  @SuppressWarnings("unchecked")
+  private Future<Object> loadThroughBackend(String key, Supplier<? extends Future<?>> loader) {
+    return executeLoader(() -> fetchRemote(key)).compose(remote -> remote != null
+        ? Future.succeededFuture(new RemoteValue(remote))
+        : (Future<Object>) loader.get());
+  }
+
+  /**
+   * 写入远程后端并通知其他实例，无法序列化的值只保留在本地，同时删除后端中的旧值
+   * 后端写入失败时删除刚写入的近端副本，避免本实例读到其他实例看不到的值
+   */
+  private void writeRemote(String key, Object value, long ttlSeconds) {
+    byte[] bytes = encodeRemote(key, value);
+    try {
+      writeBackend("set", key, () -> {
+        if (bytes == null) {
+          backend.delete(key);
+        } else {
+          backend.set(key, bytes, ttlSeconds);
+        }
+      });
+    } catch (RuntimeException e) {
+      removeLocal(key);
+      throw e;
+    }
+    publishInvalidation(INVALIDATE_KEY, key);
+  }
+
+  /**
+   * 批量写入远程后端，只发布一条失效消息
+   */
+  private void writeRemoteAll(Map<String, ?> entries, long ttlSeconds) {
+    Map<String, byte[]> encoded = new HashMap<>(entries.size() * 4 / 3 + 1);
+    List<String> unshareable = new ArrayList<>();
+    for (Map.Entry<String, ?> entry : entries.entrySet()) {
+      byte[] bytes = encodeRemote(entry.getKey(), entry.getValue());
+      if (bytes == null) {
+        unshareable.add(entry.getKey());
+      } else {
+        encoded.put(entry.getKey(), bytes);
+      }
+    }
+    try {
+      writeBackend("setAll", entries.size() + " keys", () -> {
+        if (!encoded.isEmpty()) {
+          backend.setAll(encoded, ttlSeconds);
+        }
+        if (!unshareable.isEmpty()) {
+          backend.deleteAll(unshareable);
+        }
+      });
+    } catch (RuntimeException e) {
+      for (String key : entries.keySet()) {
+        removeLocal(key);
+      }
+      throw e;
+    }
+    publishInvalidation(INVALIDATE_KEYS, String.join("\n", entries.keySet()));
+  }
+
+  private byte[] encodeRemote(String key, Object value) {
+    if (value instanceof Long) {
+      return value.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+    if (value == null || !valueSerializer.supports(value)) {
+      LOG.debug("Cache value for key {} is not shareable, kept in near cache only", key);
+      return null;
+    }
+    try {
+      byte[] serialized = valueSerializer.serialize(value);
+      byte[] bytes = new byte[serialized.length + 1];
+      bytes[0] = REMOTE_OBJECT;
+      System.arraycopy(serialized, 0, bytes, 1, serialized.length);
+      return bytes;
+    } catch (RuntimeException e) {
+      LOG.debug("Cache value for key {} is not shareable, kept in near cache only", key, e);
+      return null;
+    }
+  }
+
+  private Object decodeRemote(byte[] bytes) {
+    if (bytes.length > 0 && bytes[0] == REMOTE_OBJECT) {
+      return valueSerializer.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+    // 计数器
+    return Long.parseLong(new String(bytes, StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * 读取远程后端，失败时记录日志并返回默认值，此时读取退化为只使用本地存储和加载器
+   */
+  private <T> T callBackend(String operation, String key, Supplier<T> call, T fallback) {
+    try {
+      return call.get();
+    } catch (RuntimeException e) {
+      LOG.warn("Cache backend {} failed for key: {}: {}", operation, key, e.getMessage());
+      return fallback;
+    }
+  }
+
+  /**
+   * 写入、删除远程后端或发布失效消息，失败时记录日志并抛出异常
+   * 写入失败后其他实例仍会读到旧值，不能当作成功返回给调用方
+   */
+  private void writeBackend(String operation, String key, Runnable call) {
+    try {
+      call.run();
+    } catch (RuntimeException e) {
+      LOG.error("Cache backend {} failed for key: {}: {}", operation, key, e.getMessage());
+      throw e;
+    }
+  }
+
+  /**
+   * 发布失效消息，格式为 节点标识|类型|键或模式，批量失效的多个键以换行分隔
+   */
+  private void publishInvalidation(char type, String payload) {
+    String message = nodeId + '|' + type + '|' + payload;
+    writeBackend("publish", payload, () -> backend.publish(config.getInvalidationChannel(), message));
+  }
+
+  /**
+   * 处理其他实例发布的失效消息，忽略本实例发布的消息
+   */
+  private void onInvalidation(String message) {
+    int separator = message.indexOf('|');
+    if (separator < 0 || message.length() < separator + 3) {
+      LOG.warn("Ignoring malformed cache invalidation message: {}", message);
+      return;
+    }
+    if (separator == nodeId.length() && message.startsWith(nodeId)) {
+      return;
+    }
+
+    nearCacheVersion.incrementAndGet();
+    String payload = message.substring(separator + 3);
+    char type = message.charAt(separator + 1);
+    if (type == INVALIDATE_PATTERN) {
+      removePatternLocal(payload);
+    } else if (type == INVALIDATE_KEYS) {
+      for (String key : payload.split("\n")) {
+        removeLocal(key);
+      }
+    } else {
+      removeLocal(payload);
+    }
+  }
+
+  /**
+   * 清空近端缓存
+   */
+  private void clearLocal() {
+    nearCacheVersion.incrementAndGet();
+    for (CacheNamespace namespace : namespaces.all()) {
+      for (Map.Entry<String, CacheEntry> entry : namespace.getEntries().entrySet()) {
+        removeEntry(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * 淘汰策略回调，在策略锁内调用
+   */
+  private void onRemoval(CacheEntry entry, RemovalCause cause) {
+    CacheNamespace namespace = namespaces.find(entry.getKey());
+    if (namespace != null) {
+      namespace.getEntries().remove(entry.getKey(), entry);
+      namespace.recordRemoval(cause);
     }
+    release(entry);
+    LOG.debug("Removed cache entry for key: {} ({})", entry.getKey(), cause);
   }
-}
\ No newline at end of file
+}
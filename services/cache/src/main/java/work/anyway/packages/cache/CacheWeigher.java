@@ -0,0 +1,38 @@
+package work.anyway.packages.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存条目权重计算
+ */
+interface CacheWeigher {
+
+  /**
+   * 每个条目权重为 1，即按条目数限制容量
+   */
+  CacheWeigher ENTRY_COUNT = (key, value) -> 1;
+
+  /**
+   * 粗略估算条目占用的堆内存字节数
+   */
+  CacheWeigher ESTIMATED_BYTES = (key, value) -> {
+    long bytes = 64 + 40 + 2L * key.length();
+    if (value instanceof CharSequence) {
+      bytes += 40 + 2L * ((CharSequence) value).length();
+    } else if (value instanceof byte[]) {
+      bytes += 16 + ((byte[]) value).length;
+    } else if (value instanceof Number || value instanceof Boolean) {
+      bytes += 16;
+    } else if (value instanceof Collection) {
+      bytes += 64 + 32L * ((Collection<?>) value).size();
+    } else if (value instanceof Map) {
+      bytes += 64 + 64L * ((Map<?, ?>) value).size();
+    } else if (value != null) {
+      bytes += 64;
+    }
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  };
+
+  int weigh(String key, Object value);
+}
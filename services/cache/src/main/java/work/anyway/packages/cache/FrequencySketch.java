@@ -0,0 +1,93 @@
+package work.anyway.packages.cache;
+
+/**
+ * 访问频率估算（4 位 Count-Min Sketch）
+ * 每个 long 存放 16 个 4 位计数器，每个键映射到同一个 long 中的 4 个计数器。
+ * 累计增量达到采样上限后所有计数器减半，使历史热度逐渐衰减。
+ * 非线程安全，由调用方在策略锁内访问。
+ */
+final class FrequencySketch {
+
+  private static final long[] SEED = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_TABLE_SIZE = 1 << 22;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(long expectedEntries) {
+    int capacity = (int) Math.min(Math.max(expectedEntries, 16), MAX_TABLE_SIZE);
+    int length = Integer.highestOneBit(capacity - 1) << 1;
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * 估算键的访问频率（0-15）
+   */
+  int frequency(Object item) {
+    int hash = spread(item.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * 记录一次访问
+   */
+  void increment(Object item) {
+    int hash = spread(item.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 所有计数器减半
+   */
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int item, int i) {
+    long hash = (item + SEED[i]) * SEED[i];
+    hash += hash >>> 32;
+    return ((int) hash) & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
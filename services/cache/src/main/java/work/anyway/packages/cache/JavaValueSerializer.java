@@ -0,0 +1,111 @@
+package work.anyway.packages.cache;
+
+import work.anyway.interfaces.cache.CacheValueSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于 Java 序列化的默认缓存值序列化器
+ * 字符串、布尔值和整数这类常见小值使用带类型标记的紧凑编码，避免 Java 序列化的流头和类描述开销
+ * 反序列化时使用 {@link ObjectInputFilter} 白名单，持久化文件和远程后端中的数据只能还原为允许的类，
+ * 被篡改的数据无法借助类路径上的其他类执行代码。
+ */
+class JavaValueSerializer implements CacheValueSerializer {
+
+  /**
+   * 默认允许的类：常用的 JDK 值类型和集合以及本项目的类，其余一律拒绝
+   */
+  static final String DEFAULT_FILTER = "maxdepth=32;maxrefs=100000;java.lang.*;java.util.*;java.util.concurrent.**;"
+      + "java.math.*;java.time.**;java.net.URI;work.anyway.**;!*";
+
+  private static final byte TAG_SERIALIZED = 0;
+  private static final byte TAG_STRING = 1;
+  private static final byte TAG_TRUE = 2;
+  private static final byte TAG_FALSE = 3;
+  private static final byte TAG_LONG = 4;
+  private static final byte TAG_INTEGER = 5;
+
+  private final ObjectInputFilter filter;
+
+  JavaValueSerializer() {
+    this(DEFAULT_FILTER);
+  }
+
+  /**
+   * @param filterPattern {@link ObjectInputFilter.Config#createFilter} 格式的过滤规则
+   */
+  JavaValueSerializer(String filterPattern) {
+    this.filter = ObjectInputFilter.Config.createFilter(filterPattern);
+  }
+
+  @Override
+  public boolean supports(Object value) {
+    return value instanceof Serializable;
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    if (value instanceof String) {
+      byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+      byte[] bytes = new byte[utf8.length + 1];
+      bytes[0] = TAG_STRING;
+      System.arraycopy(utf8, 0, bytes, 1, utf8.length);
+      return bytes;
+    }
+    if (value instanceof Boolean) {
+      return new byte[] { (Boolean) value ? TAG_TRUE : TAG_FALSE };
+    }
+    if (value instanceof Long) {
+      return ByteBuffer.allocate(9).put(TAG_LONG).putLong((Long) value).array();
+    }
+    if (value instanceof Integer) {
+      return ByteBuffer.allocate(5).put(TAG_INTEGER).putInt((Integer) value).array();
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    bytes.write(TAG_SERIALIZED);
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to serialize cache value", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    switch (bytes[0]) {
+      case TAG_STRING:
+        return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+      case TAG_TRUE:
+        return Boolean.TRUE;
+      case TAG_FALSE:
+        return Boolean.FALSE;
+      case TAG_LONG:
+        return ByteBuffer.wrap(bytes, 1, 8).getLong();
+      case TAG_INTEGER:
+        return ByteBuffer.wrap(bytes, 1, 4).getInt();
+      case TAG_SERIALIZED:
+        break;
+      default:
+        throw new IllegalStateException("Unknown cache value tag: " + bytes[0]);
+    }
+
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+      in.setObjectInputFilter(filter);
+      return in.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("Failed to deserialize cache value", e);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package work.anyway.packages.cache;
+
+import work.anyway.interfaces.cache.CacheBackend;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内缓存后端
+ * 语义与 {@link RedisCacheBackend} 一致，过期条目在访问时惰性移除，发布的消息同步投递给本进程的订阅者。
+ * 适用于单实例部署和不依赖外部服务的集成验证。
+ */
+final class LocalCacheBackend implements CacheBackend {
+
+  private final Map<String, StoredValue> entries = new ConcurrentHashMap<>();
+  private final Map<String, List<MessageListener>> subscribers = new ConcurrentHashMap<>();
+
+  private static final class StoredValue {
+    final byte[] value;
+    final long expirationTime;
+
+    StoredValue(byte[] value, long expirationTime) {
+      this.value = value;
+      this.expirationTime = expirationTime;
+    }
+
+    boolean isExpired(long currentTime) {
+      return currentTime > expirationTime;
+    }
+  }
+
+  @Override
+  public Entry get(String key) {
+    long currentTime = System.currentTimeMillis();
+    StoredValue stored = live(key, currentTime);
+    return stored == null ? null : new Entry(stored.value, stored.expirationTime - currentTime);
+  }
+
+  @Override
+  public void set(String key, byte[] value, long ttlSeconds) {
+    if (ttlSeconds <= 0) {
+      entries.remove(key);
+      return;
+    }
+    entries.put(key, new StoredValue(value, System.currentTimeMillis() + ttlSeconds * 1000));
+  }
+
+  @Override
+  public boolean delete(String key) {
+    StoredValue removed = entries.remove(key);
+    return removed != null && !removed.isExpired(System.currentTimeMillis());
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return live(key, System.currentTimeMillis()) != null;
+  }
+
+  @Override
+  public long increment(String key, long delta, long ttlSeconds) {
+    long currentTime = System.currentTimeMillis();
+    long[] result = new long[1];
+    entries.compute(key, (k, current) -> {
+      long expirationTime;
+      if (current == null || current.isExpired(currentTime)) {
+        result[0] = delta;
+        expirationTime = currentTime + ttlSeconds * 1000;
+      } else {
+        result[0] = parseCounter(current.value) + delta;
+        expirationTime = current.expirationTime;
+      }
+      return new StoredValue(Long.toString(result[0]).getBytes(StandardCharsets.US_ASCII), expirationTime);
+    });
+    return result[0];
+  }
+
+  @Override
+  public boolean expire(String key, long ttlSeconds) {
+    long currentTime = System.currentTimeMillis();
+    boolean[] found = new boolean[1];
+    entries.computeIfPresent(key, (k, current) -> {
+      if (current.isExpired(currentTime)) {
+        return null;
+      }
+      found[0] = true;
+      return ttlSeconds <= 0 ? null : new StoredValue(current.value, currentTime + ttlSeconds * 1000);
+    });
+    return found[0];
+  }
+
+  @Override
+  public long deletePattern(String pattern) {
+    Pattern compiledPattern = CacheServiceImpl.toRegex(pattern);
+    long currentTime = System.currentTimeMillis();
+    long removedCount = 0;
+    for (Map.Entry<String, StoredValue> entry : entries.entrySet()) {
+      if (compiledPattern.matcher(entry.getKey()).matches() && entries.remove(entry.getKey(), entry.getValue())
+          && !entry.getValue().isExpired(currentTime)) {
+        removedCount++;
+      }
+    }
+    return removedCount;
+  }
+
+  @Override
+  public void publish(String channel, String message) {
+    List<MessageListener> listeners = subscribers.get(channel);
+    if (listeners != null) {
+      for (MessageListener listener : listeners) {
+        listener.onMessage(message);
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(String channel, MessageListener listener) {
+    subscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  @Override
+  public void close() {
+    subscribers.clear();
+  }
+
+  private StoredValue live(String key, long currentTime) {
+    StoredValue stored = entries.get(key);
+    if (stored != null && stored.isExpired(currentTime)) {
+      entries.remove(key, stored);
+      return null;
+    }
+    return stored;
+  }
+
+  private static long parseCounter(byte[] value) {
+    try {
+      return Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("Value is not an integer");
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package work.anyway.packages.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 命名空间路由表
+ * 直接按键的前缀区间计算哈希并比较，查找时不需要截取子串。
+ * 命名空间数量很少且几乎不变，采用写时复制的开放寻址数组，读路径无锁。
+ */
+final class NamespaceTable {
+
+  private volatile CacheNamespace[] table = new CacheNamespace[16];
+  private volatile List<CacheNamespace> namespaces = Collections.emptyList();
+
+  /**
+   * 查找键所属的命名空间
+   *
+   * @return 命名空间，不存在时返回 null
+   */
+  CacheNamespace find(String key) {
+    return find(key, CacheNamespace.namespaceLength(key));
+  }
+
+  /**
+   * 查找键所属的命名空间，不存在时创建
+   */
+  CacheNamespace findOrCreate(String key) {
+    int length = CacheNamespace.namespaceLength(key);
+    CacheNamespace namespace = find(key, length);
+    return namespace != null ? namespace : create(key.substring(0, length));
+  }
+
+  /**
+   * 按名称查找命名空间
+   */
+  CacheNamespace findByName(String name) {
+    return find(name, name.length());
+  }
+
+  /**
+   * 所有已创建的命名空间快照
+   */
+  List<CacheNamespace> all() {
+    return namespaces;
+  }
+
+  private CacheNamespace find(String key, int length) {
+    CacheNamespace[] current = table;
+    int mask = current.length - 1;
+    for (int i = hash(key, length) & mask;; i = (i + 1) & mask) {
+      CacheNamespace namespace = current[i];
+      if (namespace == null) {
+        return null;
+      }
+      String name = namespace.getName();
+      if (name.length() == length && key.regionMatches(0, name, 0, length)) {
+        return namespace;
+      }
+    }
+  }
+
+  private synchronized CacheNamespace create(String name) {
+    CacheNamespace existing = find(name, name.length());
+    if (existing != null) {
+      return existing;
+    }
+
+    CacheNamespace namespace = new CacheNamespace(name);
+    List<CacheNamespace> updated = new ArrayList<>(namespaces);
+    updated.add(namespace);
+
+    // 保持装载因子不超过 0.5
+    int capacity = table.length;
+    while (updated.size() * 2 > capacity) {
+      capacity <<= 1;
+    }
+    CacheNamespace[] rebuilt = new CacheNamespace[capacity];
+    for (CacheNamespace each : updated) {
+      int mask = capacity - 1;
+      int i = hash(each.getName(), each.getName().length()) & mask;
+      while (rebuilt[i] != null) {
+        i = (i + 1) & mask;
+      }
+      rebuilt[i] = each;
+    }
+
+    table = rebuilt;
+    namespaces = Collections.unmodifiableList(updated);
+    return namespace;
+  }
+
+  private static int hash(String key, int length) {
+    int h = 0;
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + key.charAt(i);
+    }
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,149 @@
+package work.anyway.packages.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 堆外存储区
+ * 预先分配一块直接内存并切分为固定大小的块，每个值占用若干个（不要求连续的）块，
+ * 因此不会产生碎片。块的分配和释放持有写锁，读取持有读锁并检查值是否已被释放，
+ * 避免读到被重新分配的块。
+ */
+final class OffHeapStore {
+
+  private final ByteBuffer arena;
+  private final int blockSize;
+  private final int[] freeBlocks;
+  private int freeCount;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final AtomicLong entryCount = new AtomicLong();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  /**
+   * @param capacity  总容量（字节），最大约 2GB
+   * @param blockSize 块大小（字节）
+   */
+  OffHeapStore(long capacity, int blockSize) {
+    int blockCount = (int) Math.min(capacity / blockSize, Integer.MAX_VALUE / blockSize);
+    this.blockSize = blockSize;
+    this.arena = ByteBuffer.allocateDirect(blockCount * blockSize);
+    this.freeBlocks = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      freeBlocks[i] = blockCount - 1 - i;
+    }
+    this.freeCount = blockCount;
+  }
+
+  /**
+   * 将数据写入堆外
+   *
+   * @param data 数据
+   * @return 堆外值句柄，空间不足时返回 null
+   */
+  OffHeapValue allocate(byte[] data) {
+    int required = Math.max(1, (data.length + blockSize - 1) / blockSize);
+    int[] blocks = new int[required];
+
+    lock.writeLock().lock();
+    try {
+      if (freeCount < required) {
+        rejectedCount.incrementAndGet();
+        return null;
+      }
+      for (int i = 0; i < required; i++) {
+        blocks[i] = freeBlocks[--freeCount];
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    // 块已归当前线程独占，写入不需要持锁
+    int offset = 0;
+    for (int block : blocks) {
+      int length = Math.min(blockSize, data.length - offset);
+      arena.put(block * blockSize, data, offset, length);
+      offset += length;
+    }
+
+    entryCount.incrementAndGet();
+    usedBytes.addAndGet((long) required * blockSize);
+    return new OffHeapValue(blocks, data.length);
+  }
+
+  /**
+   * 读取堆外数据
+   *
+   * @return 数据，值已释放时返回 null
+   */
+  byte[] read(OffHeapValue value) {
+    lock.readLock().lock();
+    try {
+      if (value.freed) {
+        return null;
+      }
+      byte[] data = new byte[value.length];
+      int offset = 0;
+      for (int block : value.blocks) {
+        int length = Math.min(blockSize, data.length - offset);
+        arena.get(block * blockSize, data, offset, length);
+        offset += length;
+      }
+      return data;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 释放堆外值占用的块，重复释放会被忽略
+   */
+  void free(OffHeapValue value) {
+    lock.writeLock().lock();
+    try {
+      if (value.freed) {
+        return;
+      }
+      value.freed = true;
+      for (int block : value.blocks) {
+        freeBlocks[freeCount++] = block;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    entryCount.decrementAndGet();
+    usedBytes.addAndGet(-(long) value.blocks.length * blockSize);
+  }
+
+  long getCapacity() {
+    return arena.capacity();
+  }
+
+  long getEntryCount() {
+    return entryCount.get();
+  }
+
+  long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * 堆外值句柄，作为缓存条目的值保存在堆上
+   */
+  static final class OffHeapValue {
+    private final int[] blocks;
+    private final int length;
+    private boolean freed;
+
+    private OffHeapValue(int[] blocks, int length) {
+      this.blocks = blocks;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,409 @@
+package work.anyway.packages.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import work.anyway.interfaces.cache.CacheBackend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 协议的缓存后端
+ * 命令连接放在有界连接池中复用，每个订阅使用独立的连接和守护线程，断开后按固定间隔重连。
+ * 读取时用流水线同时发送 GET 和 PTTL，一次往返取得值和剩余存活时间；批量操作按固定大小分段流水线发送。
+ */
+final class RedisCacheBackend implements CacheBackend {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RedisCacheBackend.class);
+
+  private static final long RECONNECT_DELAY_MS = 1000;
+  private static final int SCAN_COUNT = 500;
+  private static final int PIPELINE_SIZE = 256;
+
+  /**
+   * 递增并只为新建的计数器设置过期时间，保证两步操作的原子性
+   */
+  private static final String INCREMENT_SCRIPT =
+      "local v = redis.call('INCRBY', KEYS[1], ARGV[1]) "
+          + "if tonumber(ARGV[2]) > 0 and redis.call('TTL', KEYS[1]) == -1 then "
+          + "redis.call('EXPIRE', KEYS[1], ARGV[2]) end "
+          + "return v";
+
+  private final String host;
+  private final int port;
+  private final String password;
+  private final int database;
+  private final int timeoutMs;
+  private final Semaphore permits;
+  private final Queue<RespConnection> idle = new ConcurrentLinkedQueue<>();
+  private final List<Subscription> subscriptions = new ArrayList<>();
+  private volatile boolean closed;
+
+  @FunctionalInterface
+  private interface Command<T> {
+    T execute(RespConnection connection) throws IOException;
+  }
+
+  RedisCacheBackend(String host, int port, String password, int database, int timeoutMs, int poolSize) {
+    this.host = host;
+    this.port = port;
+    this.password = password;
+    this.database = database;
+    this.timeoutMs = timeoutMs;
+    this.permits = new Semaphore(Math.max(1, poolSize));
+  }
+
+  @Override
+  public Entry get(String key) {
+    return execute(connection -> {
+      connection.write("GET", key);
+      connection.write("PTTL", key);
+      connection.flush();
+      byte[] value;
+      try {
+        value = (byte[]) connection.read();
+      } catch (IllegalStateException e) {
+        // 读完流水线中剩余的回复，保持连接可用
+        connection.read();
+        throw e;
+      }
+      long ttlMillis = (Long) connection.read();
+      // 两条命令之间键可能过期，PTTL 返回 -2
+      return value == null || ttlMillis == -2 ? null : new Entry(value, ttlMillis);
+    });
+  }
+
+  @Override
+  public void set(String key, byte[] value, long ttlSeconds) {
+    execute(connection -> ttlSeconds <= 0
+        ? connection.execute("DEL", key)
+        : connection.execute("SET", key, value, "EX", ttlSeconds));
+  }
+
+  @Override
+  public boolean delete(String key) {
+    return execute(connection -> (Long) connection.execute("DEL", key)) > 0;
+  }
+
+  @Override
+  public Map<String, Entry> getAll(Collection<String> keys) {
+    List<String> keyList = new ArrayList<>(keys);
+    Map<String, Entry> result = new HashMap<>();
+    for (int start = 0; start < keyList.size(); start += PIPELINE_SIZE) {
+      List<String> chunk = keyList.subList(start, Math.min(start + PIPELINE_SIZE, keyList.size()));
+      execute(connection -> {
+        for (String key : chunk) {
+          connection.write("GET", key);
+          connection.write("PTTL", key);
+        }
+        connection.flush();
+        Object[] replies = readReplies(connection, chunk.size() * 2);
+        for (int i = 0; i < chunk.size(); i++) {
+          Object value = replies[i * 2];
+          Object ttlMillis = replies[i * 2 + 1];
+          if (value instanceof byte[] && ttlMillis instanceof Long && (Long) ttlMillis != -2) {
+            result.put(chunk.get(i), new Entry((byte[]) value, (Long) ttlMillis));
+          }
+        }
+        return null;
+      });
+    }
+    return result;
+  }
+
+  @Override
+  public void setAll(Map<String, byte[]> values, long ttlSeconds) {
+    if (ttlSeconds <= 0) {
+      deleteAll(values.keySet());
+      return;
+    }
+    List<Map.Entry<String, byte[]>> entries = new ArrayList<>(values.entrySet());
+    for (int start = 0; start < entries.size(); start += PIPELINE_SIZE) {
+      List<Map.Entry<String, byte[]>> chunk = entries.subList(start, Math.min(start + PIPELINE_SIZE, entries.size()));
+      execute(connection -> {
+        for (Map.Entry<String, byte[]> entry : chunk) {
+          connection.write("SET", entry.getKey(), entry.getValue(), "EX", ttlSeconds);
+        }
+        connection.flush();
+        throwFirstError(readReplies(connection, chunk.size()));
+        return null;
+      });
+    }
+  }
+
+  @Override
+  public long deleteAll(Collection<String> keys) {
+    List<String> keyList = new ArrayList<>(keys);
+    long removedCount = 0;
+    for (int start = 0; start < keyList.size(); start += PIPELINE_SIZE) {
+      List<String> chunk = keyList.subList(start, Math.min(start + PIPELINE_SIZE, keyList.size()));
+      Object[] args = new Object[chunk.size() + 1];
+      args[0] = "DEL";
+      for (int i = 0; i < chunk.size(); i++) {
+        args[i + 1] = chunk.get(i);
+      }
+      removedCount += execute(connection -> (Long) connection.execute(args));
+    }
+    return removedCount;
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return execute(connection -> (Long) connection.execute("EXISTS", key)) > 0;
+  }
+
+  @Override
+  public long increment(String key, long delta, long ttlSeconds) {
+    return execute(connection -> (Long) connection.execute("EVAL", INCREMENT_SCRIPT, 1, key, delta, ttlSeconds));
+  }
+
+  @Override
+  public boolean expire(String key, long ttlSeconds) {
+    if (ttlSeconds <= 0) {
+      return delete(key);
+    }
+    return execute(connection -> (Long) connection.execute("EXPIRE", key, ttlSeconds)) > 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public long deletePattern(String pattern) {
+    String match = toGlob(pattern);
+    return execute(connection -> {
+      long removedCount = 0;
+      String cursor = "0";
+      do {
+        List<Object> reply = (List<Object>) connection.execute("SCAN", cursor, "MATCH", match, "COUNT", SCAN_COUNT);
+        cursor = new String((byte[]) reply.get(0), StandardCharsets.US_ASCII);
+        List<Object> keys = (List<Object>) reply.get(1);
+        if (!keys.isEmpty()) {
+          Object[] args = new Object[keys.size() + 1];
+          args[0] = "UNLINK";
+          for (int i = 0; i < keys.size(); i++) {
+            args[i + 1] = keys.get(i);
+          }
+          removedCount += (Long) connection.execute(args);
+        }
+      } while (!"0".equals(cursor));
+      return removedCount;
+    });
+  }
+
+  @Override
+  public void publish(String channel, String message) {
+    execute(connection -> connection.execute("PUBLISH", channel, message));
+  }
+
+  @Override
+  public void subscribe(String channel, MessageListener listener) {
+    Subscription subscription = new Subscription(channel, listener);
+    synchronized (subscriptions) {
+      subscriptions.add(subscription);
+    }
+    subscription.start();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    synchronized (subscriptions) {
+      for (Subscription subscription : subscriptions) {
+        subscription.stop();
+      }
+      subscriptions.clear();
+    }
+    RespConnection connection;
+    while ((connection = idle.poll()) != null) {
+      connection.close();
+    }
+  }
+
+  /**
+   * 从连接池借用连接执行命令
+   * I/O 异常时丢弃该连接，错误回复不影响连接复用
+   */
+  private <T> T execute(Command<T> command) {
+    if (closed) {
+      throw new IllegalStateException("Redis cache backend is closed");
+    }
+    try {
+      if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new IllegalStateException("Timed out waiting for a Redis connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a Redis connection", e);
+    }
+
+    RespConnection connection = null;
+    try {
+      connection = idle.poll();
+      if (connection == null) {
+        connection = connect();
+      }
+      T result = command.execute(connection);
+      idle.offer(connection);
+      return result;
+    } catch (IOException e) {
+      if (connection != null) {
+        connection.close();
+      }
+      throw new UncheckedIOException("Redis command failed on " + host + ":" + port, e);
+    } catch (RuntimeException e) {
+      if (connection != null) {
+        // 错误回复已被完整读取，其他异常时连接状态未知，直接丢弃
+        if (e instanceof IllegalStateException) {
+          idle.offer(connection);
+        } else {
+          connection.close();
+        }
+      }
+      throw e;
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * 读取流水线中的全部回复，错误回复以异常对象保留，保证连接上没有未读的回复
+   */
+  private static Object[] readReplies(RespConnection connection, int count) throws IOException {
+    Object[] replies = new Object[count];
+    for (int i = 0; i < count; i++) {
+      try {
+        replies[i] = connection.read();
+      } catch (IllegalStateException e) {
+        replies[i] = e;
+      }
+    }
+    return replies;
+  }
+
+  private static void throwFirstError(Object[] replies) {
+    for (Object reply : replies) {
+      if (reply instanceof IllegalStateException) {
+        throw (IllegalStateException) reply;
+      }
+    }
+  }
+
+  private RespConnection connect() throws IOException {
+    RespConnection connection = new RespConnection(host, port, timeoutMs);
+    try {
+      if (password != null && !password.isEmpty()) {
+        connection.execute("AUTH", password);
+      }
+      if (database > 0) {
+        connection.execute("SELECT", database);
+      }
+      return connection;
+    } catch (IOException | RuntimeException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 将只含 * 通配符的模式转换为 Redis glob，转义其他 glob 元字符
+   */
+  private static String toGlob(String pattern) {
+    StringBuilder glob = new StringBuilder(pattern.length() + 8);
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '?' || c == '[' || c == ']' || c == '\\') {
+        glob.append('\\');
+      }
+      glob.append(c);
+    }
+    return glob.toString();
+  }
+
+  /**
+   * 单个频道的订阅，在守护线程中阻塞读取消息
+   */
+  private final class Subscription implements Runnable {
+    private final String channel;
+    private final MessageListener listener;
+    private volatile RespConnection connection;
+    private Thread thread;
+
+    Subscription(String channel, MessageListener listener) {
+      this.channel = channel;
+      this.listener = listener;
+    }
+
+    void start() {
+      thread = new Thread(this, "cache-subscriber-" + channel);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    void stop() {
+      RespConnection current = connection;
+      if (current != null) {
+        current.close();
+      }
+      thread.interrupt();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+      boolean subscribedBefore = false;
+      while (!closed) {
+        try {
+          connection = connect();
+          connection.setReadTimeout(0);
+          connection.execute("SUBSCRIBE", channel);
+          if (subscribedBefore) {
+            listener.onReset();
+          }
+          subscribedBefore = true;
+          LOG.info("Subscribed to cache channel {} on {}:{}", channel, host, port);
+
+          while (!closed) {
+            List<Object> message = (List<Object>) connection.read();
+            if ("message".equals(new String((byte[]) message.get(0), StandardCharsets.US_ASCII))) {
+              deliver(new String((byte[]) message.get(2), StandardCharsets.UTF_8));
+            }
+          }
+        } catch (IOException | RuntimeException e) {
+          if (closed) {
+            break;
+          }
+          LOG.warn("Cache channel {} subscription lost, reconnecting in {}ms: {}", channel, RECONNECT_DELAY_MS,
+              e.getMessage());
+        } finally {
+          RespConnection current = connection;
+          if (current != null) {
+            current.close();
+          }
+        }
+
+        try {
+          Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+
+    private void deliver(String message) {
+      try {
+        listener.onMessage(message);
+      } catch (RuntimeException e) {
+        LOG.warn("Cache channel {} listener failed for message: {}", channel, message, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package work.anyway.packages.cache;
+
+/**
+ * 条目被缓存自动移除的原因
+ */
+enum RemovalCause {
+  /**
+   * 超过存活时间
+   */
+  EXPIRED,
+  /**
+   * 超过容量限制
+   */
+  SIZE
+}
@@ -0,0 +1,166 @@
+package work.anyway.packages.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis 协议（RESP2）连接
+ * 命令以批量字符串数组发送；回复解析为 String（状态）、Long（整数）、byte[]（批量字符串）、
+ * List（数组）或 null，错误回复抛出 {@link IllegalStateException}，连接仍可继续使用。
+ * 多条命令可以先依次写入再依次读取回复（流水线）。非线程安全。
+ */
+final class RespConnection implements Closeable {
+
+  private static final byte[] CRLF = { '\r', '\n' };
+
+  private final Socket socket;
+  private final InputStream in;
+  private final OutputStream out;
+
+  RespConnection(String host, int port, int timeoutMs) throws IOException {
+    this.socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.setKeepAlive(true);
+      socket.connect(new InetSocketAddress(host, port), timeoutMs);
+      socket.setSoTimeout(timeoutMs);
+      this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+      this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 设置读超时，0 表示无限等待（用于订阅连接）
+   */
+  void setReadTimeout(int timeoutMs) throws IOException {
+    socket.setSoTimeout(timeoutMs);
+  }
+
+  /**
+   * 发送命令并读取回复
+   */
+  Object execute(Object... args) throws IOException {
+    write(args);
+    flush();
+    return read();
+  }
+
+  /**
+   * 写入命令但不刷新，参数为 String、byte[] 或数值
+   */
+  void write(Object... args) throws IOException {
+    out.write('*');
+    writeNumber(args.length);
+    for (Object arg : args) {
+      byte[] bytes = arg instanceof byte[]
+          ? (byte[]) arg
+          : String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+      out.write('$');
+      writeNumber(bytes.length);
+      out.write(bytes);
+      out.write(CRLF);
+    }
+  }
+
+  void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * 读取一条回复
+   */
+  Object read() throws IOException {
+    int type = in.read();
+    switch (type) {
+      case '+':
+        return readLine();
+      case '-':
+        throw new IllegalStateException("Redis error: " + readLine());
+      case ':':
+        return Long.parseLong(readLine());
+      case '$':
+        return readBulk();
+      case '*':
+        int count = Integer.parseInt(readLine());
+        if (count < 0) {
+          return null;
+        }
+        List<Object> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          try {
+            items.add(read());
+          } catch (IllegalStateException e) {
+            // 数组中的错误（如事务中的单条命令失败）保留为元素，继续读取剩余部分
+            items.add(e);
+          }
+        }
+        return items;
+      case -1:
+        throw new EOFException("Redis connection closed");
+      default:
+        throw new IOException("Unexpected Redis reply type: " + (char) type);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // 关闭失败无需处理
+    }
+  }
+
+  private byte[] readBulk() throws IOException {
+    int length = Integer.parseInt(readLine());
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    int offset = 0;
+    while (offset < length) {
+      int read = in.read(bytes, offset, length - offset);
+      if (read < 0) {
+        throw new EOFException("Redis connection closed");
+      }
+      offset += read;
+    }
+    if (in.read() != '\r' || in.read() != '\n') {
+      throw new IOException("Malformed Redis bulk reply");
+    }
+    return bytes;
+  }
+
+  private String readLine() throws IOException {
+    StringBuilder line = new StringBuilder();
+    int b;
+    while ((b = in.read()) != '\r') {
+      if (b < 0) {
+        throw new EOFException("Redis connection closed");
+      }
+      line.append((char) b);
+    }
+    if (in.read() != '\n') {
+      throw new IOException("Malformed Redis reply line");
+    }
+    return line.toString();
+  }
+
+  private void writeNumber(int value) throws IOException {
+    out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+    out.write(CRLF);
+  }
+}
@@ -0,0 +1,126 @@
+package work.anyway.packages.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 条目按剩余存活时间放入不同精度的层：约 1 秒 x 64、约 1 分钟 x 64、约 1 小时 x 32、
+ * 约 1.5 天 x 4，更远的放入溢出桶。时间推进时只处理经过的桶，未到期的条目
+ * 重新放入更精细的层，因此每个条目的调度和过期都是均摊 O(1)。
+ * 非线程安全，由 {@link WindowTinyLfuPolicy} 在锁内访问。
+ */
+final class TimerWheel {
+
+  private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+  private static final int[] SHIFT = { 10, 16, 22, 27, 29 };
+  private static final long[] SPANS = { 1L << 10, 1L << 16, 1L << 22, 1L << 27, 1L << 29 };
+
+  private final CacheEntry[][] wheel;
+  private long ticked;
+
+  TimerWheel(long currentTime) {
+    this.ticked = currentTime;
+    this.wheel = new CacheEntry[BUCKETS.length][];
+    for (int i = 0; i < BUCKETS.length; i++) {
+      wheel[i] = new CacheEntry[BUCKETS[i]];
+      for (int j = 0; j < BUCKETS[i]; j++) {
+        wheel[i][j] = sentinel();
+      }
+    }
+  }
+
+  /**
+   * 将条目放入与其过期时间对应的桶
+   */
+  void schedule(CacheEntry entry) {
+    CacheEntry sentinel = findBucket(entry.getExpirationTime());
+    link(sentinel, entry);
+  }
+
+  /**
+   * 将条目从所在的桶中移除，未调度的条目忽略
+   */
+  void deschedule(CacheEntry entry) {
+    if (entry.timerNext != null) {
+      entry.timerNext.timerPrev = entry.timerPrev;
+      entry.timerPrev.timerNext = entry.timerNext;
+      entry.timerNext = null;
+      entry.timerPrev = null;
+    }
+  }
+
+  /**
+   * 推进时间轮，对已过期的条目调用回调
+   *
+   * @param currentTime 当前时间（毫秒）
+   * @param expired     过期回调
+   */
+  void advance(long currentTime, Consumer<CacheEntry> expired) {
+    long previousTime = ticked;
+    ticked = currentTime;
+    for (int i = 0; i < SHIFT.length; i++) {
+      long previousTicks = previousTime >>> SHIFT[i];
+      long currentTicks = currentTime >>> SHIFT[i];
+      if (currentTicks - previousTicks <= 0L) {
+        break;
+      }
+      expire(i, previousTicks, currentTicks - previousTicks, expired);
+    }
+  }
+
+  private void expire(int level, long previousTicks, long delta, Consumer<CacheEntry> expired) {
+    CacheEntry[] buckets = wheel[level];
+    int mask = buckets.length - 1;
+    int steps = (int) Math.min(1 + delta, buckets.length);
+    int start = (int) (previousTicks & mask);
+    int end = start + steps;
+
+    for (int i = start; i < end; i++) {
+      CacheEntry sentinel = buckets[i & mask];
+      CacheEntry entry = sentinel.timerNext;
+      sentinel.timerNext = sentinel;
+      sentinel.timerPrev = sentinel;
+
+      while (entry != sentinel) {
+        CacheEntry next = entry.timerNext;
+        entry.timerNext = null;
+        entry.timerPrev = null;
+        if (entry.getExpirationTime() < ticked) {
+          expired.accept(entry);
+        } else {
+          schedule(entry);
+        }
+        entry = next;
+      }
+    }
+  }
+
+  private CacheEntry findBucket(long expirationTime) {
+    // 已过期的条目放入当前桶，在下一次推进时处理
+    long time = Math.max(expirationTime, ticked);
+    long duration = time - ticked;
+    int length = wheel.length - 1;
+    for (int i = 0; i < length; i++) {
+      if (duration < SPANS[i + 1]) {
+        long ticks = time >>> SHIFT[i];
+        int index = (int) (ticks & (wheel[i].length - 1));
+        return wheel[i][index];
+      }
+    }
+    return wheel[length][0];
+  }
+
+  private static void link(CacheEntry sentinel, CacheEntry entry) {
+    entry.timerPrev = sentinel.timerPrev;
+    entry.timerNext = sentinel;
+    sentinel.timerPrev.timerNext = entry;
+    sentinel.timerPrev = entry;
+  }
+
+  private static CacheEntry sentinel() {
+    CacheEntry sentinel = new CacheEntry(null, null, Long.MAX_VALUE, 0);
+    sentinel.timerPrev = sentinel;
+    sentinel.timerNext = sentinel;
+    return sentinel;
+  }
+}
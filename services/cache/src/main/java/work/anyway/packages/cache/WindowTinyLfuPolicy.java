@@ -0,0 +1,335 @@
+package work.anyway.packages.cache;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * W-TinyLFU 淘汰策略
+ * 新条目先进入占总容量 1% 的窗口 LRU，窗口溢出的条目要与主区域（分段 LRU）的
+ * 淘汰候选比较访问频率，频率更高者留下。主区域分为试用区和保护区（80%），
+ * 试用区中再次被访问的条目晋升到保护区。
+ * 另外维护一个按过期时间组织的 {@link TimerWheel}，由定时任务推进以主动清理过期条目。
+ * 豁免的条目（如令牌黑名单）只进入时间轮，不计入容量也不会被淘汰，只按过期时间移除。
+ * 所有结构由一把锁保护，读操作使用 tryLock 记录访问，竞争时直接丢弃该次记录。
+ */
+final class WindowTinyLfuPolicy {
+
+  private final long maximum;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final FrequencySketch sketch;
+  private final TimerWheel timerWheel;
+  private final Predicate<String> exempt;
+  private final BiConsumer<CacheEntry, RemovalCause> removalListener;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final AccessOrderQueue window = new AccessOrderQueue();
+  private final AccessOrderQueue probation = new AccessOrderQueue();
+  private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+
+  private long windowWeight;
+  private long protectedWeight;
+  private long weightedSize;
+
+  private volatile long evictionCount;
+  private volatile long evictionWeight;
+  private volatile long expirationCount;
+
+  /**
+   * @param maximum          容量上限（条目数或估算字节数）
+   * @param expectedEntries  预期条目数，用于确定频率统计表大小
+   * @param exempt           按键判断条目是否豁免淘汰
+   * @param removalListener  条目被淘汰或过期时的回调，在锁内调用，负责将条目从存储中移除
+   */
+  WindowTinyLfuPolicy(long maximum, long expectedEntries, Predicate<String> exempt,
+      BiConsumer<CacheEntry, RemovalCause> removalListener) {
+    this.maximum = Math.max(1, maximum);
+    this.windowMaximum = Math.max(1, this.maximum / 100);
+    this.protectedMaximum = (long) ((this.maximum - windowMaximum) * 0.8);
+    this.sketch = new FrequencySketch(expectedEntries);
+    this.timerWheel = new TimerWheel(System.currentTimeMillis());
+    this.exempt = exempt;
+    this.removalListener = removalListener;
+  }
+
+  /**
+   * 记录新写入的条目，必要时淘汰
+   *
+   * @param entry    新条目
+   * @param replaced 被替换的旧条目，可为 null
+   */
+  void onWrite(CacheEntry entry, CacheEntry replaced) {
+    lock.lock();
+    try {
+      if (replaced != null) {
+        retire(replaced);
+      }
+      if (entry.retired) {
+        // 在获得锁之前已被其他线程替换或删除
+        return;
+      }
+      if (exempt.test(entry.getKey())) {
+        entry.queue = CacheEntry.QUEUE_PINNED;
+        timerWheel.schedule(entry);
+        return;
+      }
+      sketch.increment(entry.getKey());
+      if (entry.getWeight() > maximum) {
+        entry.retired = true;
+        recordEviction(entry);
+        return;
+      }
+      window.addLast(entry);
+      entry.queue = CacheEntry.QUEUE_WINDOW;
+      windowWeight += entry.getWeight();
+      weightedSize += entry.getWeight();
+      timerWheel.schedule(entry);
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 记录一次读访问，锁被占用时放弃记录
+   */
+  void onRead(CacheEntry entry) {
+    if (!lock.tryLock()) {
+      return;
+    }
+    try {
+      if (entry.retired) {
+        return;
+      }
+      sketch.increment(entry.getKey());
+      switch (entry.queue) {
+        case CacheEntry.QUEUE_WINDOW:
+          window.moveToLast(entry);
+          break;
+        case CacheEntry.QUEUE_PROBATION:
+          probation.remove(entry);
+          protectedQueue.addLast(entry);
+          entry.queue = CacheEntry.QUEUE_PROTECTED;
+          protectedWeight += entry.getWeight();
+          demoteProtected();
+          break;
+        case CacheEntry.QUEUE_PROTECTED:
+          protectedQueue.moveToLast(entry);
+          break;
+        default:
+          break;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 条目已从存储中移除（删除、过期或替换）
+   */
+  void onRemove(CacheEntry entry) {
+    lock.lock();
+    try {
+      retire(entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 推进时间轮并移除已过期的条目
+   *
+   * @param currentTime 当前时间（毫秒）
+   */
+  void expire(long currentTime) {
+    lock.lock();
+    try {
+      timerWheel.advance(currentTime, this::expireEntry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  long getEvictionCount() {
+    return evictionCount;
+  }
+
+  long getEvictionWeight() {
+    return evictionWeight;
+  }
+
+  long getExpirationCount() {
+    return expirationCount;
+  }
+
+  long getMaximum() {
+    return maximum;
+  }
+
+  long getWeightedSize() {
+    lock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void retire(CacheEntry entry) {
+    if (entry.retired) {
+      return;
+    }
+    unlink(entry);
+    entry.retired = true;
+  }
+
+  private void unlink(CacheEntry entry) {
+    timerWheel.deschedule(entry);
+    switch (entry.queue) {
+      case CacheEntry.QUEUE_WINDOW:
+        window.remove(entry);
+        windowWeight -= entry.getWeight();
+        break;
+      case CacheEntry.QUEUE_PROBATION:
+        probation.remove(entry);
+        break;
+      case CacheEntry.QUEUE_PROTECTED:
+        protectedQueue.remove(entry);
+        protectedWeight -= entry.getWeight();
+        break;
+      case CacheEntry.QUEUE_PINNED:
+        // 豁免的条目不计入容量
+        entry.queue = CacheEntry.QUEUE_NONE;
+        return;
+      default:
+        return;
+    }
+    entry.queue = CacheEntry.QUEUE_NONE;
+    weightedSize -= entry.getWeight();
+  }
+
+  private void evict() {
+    // 窗口溢出的条目与主区域的淘汰候选比较频率
+    while (windowWeight > windowMaximum) {
+      CacheEntry candidate = window.peekFirst();
+      window.remove(candidate);
+      windowWeight -= candidate.getWeight();
+      candidate.queue = CacheEntry.QUEUE_NONE;
+
+      if (weightedSize <= maximum) {
+        admitToProbation(candidate);
+        continue;
+      }
+
+      CacheEntry victim = probation.peekFirst() != null ? probation.peekFirst() : protectedQueue.peekFirst();
+      if (victim == null || sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+        admitToProbation(candidate);
+        if (victim != null) {
+          evictEntry(victim);
+        }
+      } else {
+        weightedSize -= candidate.getWeight();
+        timerWheel.deschedule(candidate);
+        candidate.retired = true;
+        recordEviction(candidate);
+      }
+    }
+
+    // 仍然超限时（如大条目进入窗口）按试用区、保护区、窗口的顺序淘汰
+    while (weightedSize > maximum) {
+      CacheEntry victim = probation.peekFirst();
+      if (victim == null) {
+        victim = protectedQueue.peekFirst();
+      }
+      if (victim == null) {
+        victim = window.peekFirst();
+      }
+      if (victim == null) {
+        break;
+      }
+      evictEntry(victim);
+    }
+  }
+
+  private void admitToProbation(CacheEntry entry) {
+    probation.addLast(entry);
+    entry.queue = CacheEntry.QUEUE_PROBATION;
+  }
+
+  private void demoteProtected() {
+    while (protectedWeight > protectedMaximum) {
+      CacheEntry demoted = protectedQueue.peekFirst();
+      if (demoted == null) {
+        break;
+      }
+      protectedQueue.remove(demoted);
+      protectedWeight -= demoted.getWeight();
+      admitToProbation(demoted);
+    }
+  }
+
+  private void evictEntry(CacheEntry entry) {
+    unlink(entry);
+    entry.retired = true;
+    recordEviction(entry);
+  }
+
+  private void recordEviction(CacheEntry entry) {
+    evictionCount++;
+    evictionWeight += entry.getWeight();
+    removalListener.accept(entry, RemovalCause.SIZE);
+  }
+
+  private void expireEntry(CacheEntry entry) {
+    unlink(entry);
+    entry.retired = true;
+    expirationCount++;
+    removalListener.accept(entry, RemovalCause.EXPIRED);
+  }
+
+  /**
+   * 基于条目自身指针的双向链表，头部为最久未访问
+   */
+  private static final class AccessOrderQueue {
+    private CacheEntry head;
+    private CacheEntry tail;
+
+    CacheEntry peekFirst() {
+      return head;
+    }
+
+    void addLast(CacheEntry entry) {
+      entry.prev = tail;
+      entry.next = null;
+      if (tail == null) {
+        head = entry;
+      } else {
+        tail.next = entry;
+      }
+      tail = entry;
+    }
+
+    void remove(CacheEntry entry) {
+      if (entry.prev == null) {
+        head = entry.next;
+      } else {
+        entry.prev.next = entry.next;
+      }
+      if (entry.next == null) {
+        tail = entry.prev;
+      } else {
+        entry.next.prev = entry.prev;
+      }
+      entry.prev = null;
+      entry.next = null;
+    }
+
+    void moveToLast(CacheEntry entry) {
+      if (tail != entry) {
+        remove(entry);
+        addLast(entry);
+      }
+    }
+  }
+}
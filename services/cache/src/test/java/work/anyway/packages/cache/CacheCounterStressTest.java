@@ -0,0 +1,143 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CacheService.increment 在多线程争用下的原子性
+ */
+class CacheCounterStressTest {
+
+  private static final int THREADS = 16;
+
+  private CacheServiceImpl cache;
+
+  @BeforeEach
+  void setUp() {
+    CacheConfig config = new CacheConfig();
+    config.setMaximumSize(100_000);
+    cache = new CacheServiceImpl(null, config);
+  }
+
+  @Test
+  void concurrentIncrementsOfOneKeyAreNotLost() throws Exception {
+    int perThread = 20_000;
+    runConcurrently(THREADS, thread -> {
+      for (int i = 0; i < perThread; i++) {
+        cache.increment("login_attempts:alice", 1, 3600);
+      }
+    });
+
+    assertEquals((long) THREADS * perThread, cache.increment("login_attempts:alice", 0, 3600));
+    assertEquals((long) THREADS * perThread, cache.get("login_attempts:alice"));
+  }
+
+  @Test
+  void racingFirstIncrementsInitializeTheCounterOnce() throws Exception {
+    for (int round = 0; round < 200; round++) {
+      String key = "login_attempts:user" + round;
+      runConcurrently(THREADS, thread -> cache.increment(key, 1, 3600));
+      assertEquals((long) THREADS, cache.get(key), "round " + round);
+    }
+  }
+
+  @Test
+  void mixedDeltasSumExactly() throws Exception {
+    int perThread = 10_000;
+    runConcurrently(THREADS, thread -> {
+      long delta = thread % 2 == 0 ? 3 : -1;
+      for (int i = 0; i < perThread; i++) {
+        cache.increment("rate:ip", delta, 3600);
+      }
+    });
+
+    long expected = (THREADS / 2) * (3L - 1) * perThread;
+    assertEquals(expected, cache.get("rate:ip"));
+  }
+
+  @Test
+  void returnedValuesAreUniqueUnderContention() throws Exception {
+    int perThread = 5_000;
+    boolean[] seen = new boolean[THREADS * perThread + 1];
+    runConcurrently(THREADS, thread -> {
+      for (int i = 0; i < perThread; i++) {
+        int value = (int) cache.increment("sequence:ids", 1, 3600);
+        synchronized (seen) {
+          assertFalse(seen[value], "value returned twice: " + value);
+          seen[value] = true;
+        }
+      }
+    });
+
+    for (int value = 1; value < seen.length; value++) {
+      assertTrue(seen[value], "value never returned: " + value);
+    }
+  }
+
+  @Test
+  void plainLongValueIsConvertedOnce() throws Exception {
+    cache.put("login_attempts:bob", 100L, 3600);
+    runConcurrently(THREADS, thread -> {
+      for (int i = 0; i < 1_000; i++) {
+        cache.increment("login_attempts:bob", 1, 3600);
+      }
+    });
+
+    assertEquals(100L + THREADS * 1_000L, cache.get("login_attempts:bob"));
+  }
+
+  @Test
+  void expiredCounterStartsOver() throws Exception {
+    cache.increment("login_attempts:carol", 5, 0);
+    Thread.sleep(20);
+
+    assertEquals(1L, cache.increment("login_attempts:carol", 1, 3600));
+  }
+
+  /**
+   * 所有线程就绪后同时开始执行，任一线程失败时抛出其异常
+   */
+  private static void runConcurrently(int threads, ThreadBody body) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch ready = new CountDownLatch(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        Callable<Void> task = () -> {
+          ready.countDown();
+          start.await();
+          body.run(thread);
+          return null;
+        };
+        futures.add(executor.submit(task));
+      }
+      ready.await();
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ThreadBody {
+    void run(int thread) throws Exception;
+  }
+}
@@ -0,0 +1,78 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 容量上限与淘汰豁免：写满缓存后，令牌撤销标记仍然有效
+ */
+class CacheEvictionTest {
+
+  private static final int MAXIMUM_SIZE = 100;
+
+  @Test
+  void revocationSurvivesFillingTheCachePastTheBound() {
+    CacheConfig config = boundedConfig();
+    config.setEvictionExemptNamespaces("token_blacklist");
+    CacheServiceImpl cache = new CacheServiceImpl(null, config);
+
+    cache.put("token_blacklist:revoked", true, 3600);
+    fill(cache);
+
+    assertTrue(cache.exists("token_blacklist:revoked"));
+    assertTrue(cache.getStats().getEvictionCount() > 0);
+    assertTrue(cache.getStats().getSize() <= MAXIMUM_SIZE + 1);
+  }
+
+  @Test
+  void exemptEntriesStillExpire() throws InterruptedException {
+    CacheConfig config = boundedConfig();
+    config.setEvictionExemptNamespaces("token_blacklist");
+    CacheServiceImpl cache = new CacheServiceImpl(null, config);
+
+    cache.put("token_blacklist:short", true, 1);
+    Thread.sleep(1100);
+
+    assertFalse(cache.exists("token_blacklist:short"));
+  }
+
+  @Test
+  void existsCountsAsAnAccess() {
+    CacheConfig config = boundedConfig();
+    CacheServiceImpl cache = new CacheServiceImpl(null, config);
+
+    cache.put("session:hot", true, 3600);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(cache.exists("session:hot"));
+    }
+    fill(cache);
+
+    assertTrue(cache.exists("session:hot"));
+  }
+
+  @Test
+  void cacheIsUnboundedByDefault() {
+    CacheConfig config = new CacheConfig();
+    CacheServiceImpl cache = new CacheServiceImpl(null, config);
+
+    fill(cache);
+
+    assertEquals(0, cache.getStats().getEvictionCount());
+    assertEquals(10 * MAXIMUM_SIZE, cache.getStats().getSize());
+  }
+
+  private static CacheConfig boundedConfig() {
+    CacheConfig config = new CacheConfig();
+    config.setMaximumSize(MAXIMUM_SIZE);
+    return config;
+  }
+
+  private static void fill(CacheServiceImpl cache) {
+    for (int i = 0; i < 10 * MAXIMUM_SIZE; i++) {
+      cache.put("session:" + i, i, 3600);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存快照与日志的恢复
+ */
+class CachePersistenceTest {
+
+  private static final long TTL_MILLIS = 3_600_000;
+
+  @TempDir
+  Path directory;
+
+  private CacheNamespace namespace;
+
+  @BeforeEach
+  void setUp() {
+    namespace = new CacheNamespace("session");
+  }
+
+  @Test
+  void restoresSnapshotAndLaterJournal() throws IOException {
+    CachePersistence persistence = open();
+    put(persistence, "session:a", "1");
+    put(persistence, "session:b", "2");
+    snapshot(persistence);
+    put(persistence, "session:a", "3");
+    remove(persistence, "session:b");
+    put(persistence, "session:c", "4");
+    persistence.flush(this::lookup, CachePersistenceTest::encode);
+    persistence.close();
+
+    assertEquals(Map.of("session:a", "3", "session:c", "4"), restore());
+  }
+
+  @Test
+  void journalsOlderThanTheSnapshotAreNotReplayed() throws IOException {
+    CachePersistence persistence = open();
+    put(persistence, "session:a", "old");
+    put(persistence, "session:b", "removed later");
+    persistence.flush(this::lookup, CachePersistenceTest::encode);
+    Map<Path, byte[]> staleJournals = readJournals();
+
+    put(persistence, "session:a", "new");
+    remove(persistence, "session:b");
+    snapshot(persistence);
+    persistence.close();
+
+    // 模拟快照替换后、旧日志删除前崩溃
+    for (Map.Entry<Path, byte[]> journal : staleJournals.entrySet()) {
+      assertFalse(Files.exists(journal.getKey()));
+      Files.write(journal.getKey(), journal.getValue());
+    }
+
+    assertEquals(Map.of("session:a", "new"), restore());
+    for (Path journal : staleJournals.keySet()) {
+      assertFalse(Files.exists(journal), "stale journal should be deleted on restore");
+    }
+  }
+
+  @Test
+  void failedSnapshotKeepsEveryJournal() throws IOException {
+    CachePersistence persistence = open();
+    put(persistence, "session:a", "1");
+    snapshot(persistence);
+    put(persistence, "session:a", "2");
+    put(persistence, "session:b", "3");
+    persistence.flush(this::lookup, CachePersistenceTest::encode);
+    persistence.close();
+
+    // 模拟快照写入中途崩溃：留下未完成的临时文件，旧快照和日志不变
+    Files.write(directory.resolve("cache.snapshot.tmp"), new byte[] { 1, 2, 3 });
+
+    assertEquals(Map.of("session:a", "2", "session:b", "3"), restore());
+  }
+
+  @Test
+  void eachRestartAppendsToANewJournal() throws IOException {
+    CachePersistence persistence = open();
+    put(persistence, "session:a", "1");
+    persistence.flush(this::lookup, CachePersistenceTest::encode);
+    persistence.close();
+
+    // 上一次运行的日志以不完整的记录结尾
+    List<Path> journals = new ArrayList<>(readJournals().keySet());
+    assertEquals(1, journals.size());
+    Files.write(journals.get(0), new byte[] { 1, 0, 0 }, StandardOpenOption.APPEND);
+
+    CachePersistence reopened = open();
+    put(reopened, "session:b", "2");
+    reopened.flush(this::lookup, CachePersistenceTest::encode);
+    reopened.close();
+
+    assertEquals(2, readJournals().size());
+    assertEquals(Map.of("session:a", "1", "session:b", "2"), restore());
+  }
+
+  @Test
+  void failedFlushKeepsDirtyKeysForTheNextFlush() throws IOException {
+    CachePersistence persistence = open();
+    put(persistence, "session:a", "1");
+    persistence.flush(this::lookup, CachePersistenceTest::encode);
+
+    // 写入中途失败
+    put(persistence, "session:b", "2");
+    remove(persistence, "session:a");
+    assertThrows(IllegalStateException.class, () -> persistence.flush(this::lookup, entry -> {
+      throw new IllegalStateException("encode failed");
+    }));
+
+    assertEquals(2, persistence.flush(this::lookup, CachePersistenceTest::encode));
+    persistence.close();
+
+    assertEquals(Map.of("session:b", "2"), restore());
+  }
+
+  private CachePersistence open() throws IOException {
+    CachePersistence persistence = new CachePersistence(directory.toString());
+    persistence.restore(new CachePersistence.RestoreSink() {
+      @Override
+      public void restore(String key, long expirationTime, byte type, byte[] value) {
+      }
+
+      @Override
+      public void remove(String key) {
+      }
+    });
+    return persistence;
+  }
+
+  private Map<String, String> restore() throws IOException {
+    Map<String, String> restored = new HashMap<>();
+    CachePersistence persistence = new CachePersistence(directory.toString());
+    persistence.restore(new CachePersistence.RestoreSink() {
+      @Override
+      public void restore(String key, long expirationTime, byte type, byte[] value) {
+        assertTrue(expirationTime > System.currentTimeMillis());
+        restored.put(key, new String(value, StandardCharsets.UTF_8));
+      }
+
+      @Override
+      public void remove(String key) {
+        restored.remove(key);
+      }
+    });
+    persistence.close();
+    return restored;
+  }
+
+  private void put(CachePersistence persistence, String key, String value) {
+    namespace.getEntries().put(key, new CacheEntry(key, value, System.currentTimeMillis() + TTL_MILLIS, 1));
+    persistence.markDirty(key);
+  }
+
+  private void remove(CachePersistence persistence, String key) {
+    namespace.getEntries().remove(key);
+    persistence.markDirty(key);
+  }
+
+  private void snapshot(CachePersistence persistence) throws IOException {
+    persistence.snapshot(List.of(namespace), this::lookup, CachePersistenceTest::encode);
+  }
+
+  private CacheEntry lookup(String key) {
+    return namespace.getEntries().get(key);
+  }
+
+  private static CachePersistence.EncodedValue encode(CacheEntry entry) {
+    return new CachePersistence.EncodedValue(CachePersistence.TYPE_OBJECT,
+        ((String) entry.getValue()).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Map<Path, byte[]> readJournals() throws IOException {
+    Map<Path, byte[]> journals = new HashMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.journal")) {
+      for (Path file : files) {
+        journals.put(file, Files.readAllBytes(file));
+      }
+    }
+    return journals;
+  }
+}
@@ -0,0 +1,72 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 默认序列化器的编码和反序列化白名单
+ */
+class JavaValueSerializerTest {
+
+  private final JavaValueSerializer serializer = new JavaValueSerializer();
+
+  @Test
+  void compactValuesRoundTrip() {
+    for (Object value : List.of("token", true, false, 42L, 7)) {
+      assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+    }
+  }
+
+  @Test
+  void allowedTypesRoundTrip() {
+    Map<String, Object> permissions = new HashMap<>();
+    permissions.put("roles", new ArrayList<>(List.of("admin", "user")));
+    permissions.put("quota", new BigDecimal("12.50"));
+    permissions.put("updatedAt", Instant.ofEpochSecond(1_700_000_000L));
+    permissions.put("scopes", new ConcurrentHashMap<>(Map.of("read", 1)));
+    permissions.put("mask", new long[] { 1, 2, 3 });
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> restored = (Map<String, Object>) serializer.deserialize(serializer.serialize(permissions));
+
+    assertEquals(permissions.get("roles"), restored.get("roles"));
+    assertEquals(permissions.get("quota"), restored.get("quota"));
+    assertEquals(permissions.get("updatedAt"), restored.get("updatedAt"));
+    assertEquals(permissions.get("scopes"), restored.get("scopes"));
+  }
+
+  @Test
+  void classesOutsideTheAllowListAreRejected() {
+    byte[] bytes = serializer.serialize(new File("/etc/passwd"));
+
+    assertThrows(IllegalStateException.class, () -> serializer.deserialize(bytes));
+  }
+
+  @Test
+  void nestedClassesOutsideTheAllowListAreRejected() {
+    byte[] bytes = serializer.serialize(new HashMap<>(Map.of("file", new File("/tmp"))));
+
+    assertThrows(IllegalStateException.class, () -> serializer.deserialize(bytes));
+  }
+
+  @Test
+  void customFilterReplacesTheDefault() {
+    JavaValueSerializer withFiles = new JavaValueSerializer("java.io.File;java.lang.*;!*");
+    File file = new File("/tmp/cache");
+
+    assertEquals(file, withFiles.deserialize(withFiles.serialize(file)));
+    assertThrows(IllegalStateException.class,
+        () -> withFiles.deserialize(withFiles.serialize(new ArrayList<>(List.of(1)))));
+  }
+}
@@ -0,0 +1,91 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.Test;
+import work.anyway.interfaces.cache.CacheService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 堆外值在读取期间被并发替换时，读取不应返回 null
+ */
+class OffHeapReadRaceTest {
+
+  @Test
+  void readsOfAKeyBeingReplacedNeverSeeAFreedBlock() throws Exception {
+    CacheConfig config = new CacheConfig();
+    config.setMaximumSize(1_000);
+    config.setOffHeapCapacity(4 * 1024 * 1024);
+    config.setOffHeapBlockSize(256);
+    config.setOffHeapThreshold(512);
+    CacheServiceImpl cache = new CacheServiceImpl(null, config);
+
+    String key = "permissions:user1";
+    cache.put(key, value(0), 3600);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<Long>> readers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        readers.add(executor.submit(() -> {
+          long reads = 0;
+          while (running.get()) {
+            Object value = cache.get(key);
+            assertNotNull(value, "live key read as missing");
+            String loaded = cache.getOrLoad(key, 3600, () -> {
+              throw new AssertionError("loader called for a live key");
+            });
+            assertNotNull(loaded);
+            reads++;
+          }
+          return reads;
+        }));
+      }
+      List<Future<Long>> writers = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        writers.add(executor.submit(() -> {
+          long writes = 0;
+          while (running.get()) {
+            cache.put(key, value(writes), 3600);
+            writes++;
+          }
+          return writes;
+        }));
+      }
+
+      Thread.sleep(1_000);
+      running.set(false);
+      long reads = 0;
+      for (Future<Long> reader : readers) {
+        reads += reader.get(10, TimeUnit.SECONDS);
+      }
+      for (Future<Long> writer : writers) {
+        assertTrue(writer.get(10, TimeUnit.SECONDS) > 0);
+      }
+
+      CacheService.CacheStats stats = cache.getStats();
+      assertEquals(reads * 2, stats.getHitCount());
+      assertEquals(0, stats.getMissCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String value(long version) {
+    StringBuilder builder = new StringBuilder(2048);
+    while (builder.length() < 2000) {
+      builder.append(version).append(':');
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,190 @@
+package work.anyway.packages.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 通过 Redis 协议后端共享的计数器和近端缓存，多个实例连接同一个进程内的协议桩
+ */
+class RedisCacheBackendTest {
+
+  private RespStubServer server;
+  private final List<CacheServiceImpl> nodes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new RespStubServer();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    for (CacheServiceImpl node : nodes) {
+      node.destroy();
+    }
+    server.close();
+  }
+
+  @Test
+  void incrementsFromEveryNodeShareOneCounter() throws Exception {
+    CacheServiceImpl first = startNode();
+    CacheServiceImpl second = startNode();
+
+    for (int i = 0; i < 3; i++) {
+      first.increment("login_attempts:alice", 1, 900);
+      second.increment("login_attempts:alice", 1, 900);
+    }
+
+    assertEquals(7, first.increment("login_attempts:alice", 1, 900));
+    assertEquals(7L, second.get("login_attempts:alice"));
+    assertEquals("7", new String(server.rawValue("login_attempts:alice"), StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  void longValuesWrittenWithPutCanBeIncremented() throws Exception {
+    CacheServiceImpl first = startNode();
+    CacheServiceImpl second = startNode();
+
+    first.put("register_attempts:10.0.0.1", 5L, 3600);
+    assertEquals(5L, second.get("register_attempts:10.0.0.1"));
+
+    assertEquals(6, second.increment("register_attempts:10.0.0.1", 1, 3600));
+    awaitValue(first, "register_attempts:10.0.0.1", 6L);
+  }
+
+  @Test
+  void incrementOfANonIntegerValueFailsInsteadOfCountingLocally() throws Exception {
+    CacheServiceImpl node = startNode();
+    node.put("login_attempts:bob", "not a number", 900);
+
+    assertThrows(IllegalStateException.class, () -> node.increment("login_attempts:bob", 1, 900));
+    assertThrows(IllegalStateException.class, () -> node.increment("login_attempts:bob", 1, 900));
+    assertEquals("not a number", node.get("login_attempts:bob"));
+  }
+
+  @Test
+  void incrementFailsWhenTheBackendIsUnavailable() throws Exception {
+    CacheServiceImpl node = startNode();
+    assertEquals(1, node.increment("login_attempts:carol", 1, 900));
+    server.close();
+
+    assertThrows(UncheckedIOException.class, () -> node.increment("login_attempts:carol", 1, 900));
+  }
+
+  @Test
+  void revocationCheckFailsClosedWhenTheBackendIsUnavailable() throws Exception {
+    CacheServiceImpl node = startNode();
+    server.close();
+
+    assertThrows(UncheckedIOException.class, () -> node.exists("token_blacklist:abc"));
+  }
+
+  @Test
+  void writesFailWhenTheBackendIsUnavailable() throws Exception {
+    CacheServiceImpl node = startNode();
+    server.close();
+
+    assertThrows(UncheckedIOException.class, () -> node.put("token_blacklist:abc", true, 3600));
+    assertNull(node.get("token_blacklist:abc"));
+    assertThrows(UncheckedIOException.class, () -> node.remove("session:abc"));
+  }
+
+  @Test
+  void readThroughStillReturnsTheLoadedValueWhenTheBackendIsUnavailable() throws Exception {
+    CacheServiceImpl node = startNode();
+    server.close();
+
+    assertEquals("loaded", node.getOrLoad("session:abc", 60, () -> "loaded"));
+  }
+
+  @Test
+  void missesAreRecordedInTheNearCache() throws Exception {
+    CacheServiceImpl node = startNode();
+
+    for (int i = 0; i < 3; i++) {
+      assertFalse(node.exists("token_blacklist:abc"));
+      assertNull(node.get("session:abc"));
+    }
+    assertEquals(1, server.count("EXISTS"));
+    assertEquals(1, server.count("GET"));
+  }
+
+  @Test
+  void writesOnAnotherNodeClearTheRecordedMiss() throws Exception {
+    CacheServiceImpl first = startNode();
+    CacheServiceImpl second = startNode();
+    assertFalse(first.exists("token_blacklist:abc"));
+
+    second.put("token_blacklist:abc", true, 3600);
+    awaitCondition(() -> first.exists("token_blacklist:abc"));
+    assertEquals(true, first.get("token_blacklist:abc"));
+  }
+
+  @Test
+  void recordedMissDoesNotHideALocalWrite() throws Exception {
+    CacheServiceImpl node = startNode();
+    assertNull(node.get("session:abc"));
+
+    assertEquals("loaded", node.getOrLoad("session:abc", 60, () -> "loaded"));
+    assertTrue(node.exists("session:abc"));
+    assertEquals("loaded", node.get("session:abc"));
+  }
+
+  @Test
+  void missesAreNotRecordedWhenTheNegativeTtlIsZero() throws Exception {
+    CacheServiceImpl node = startNode(0);
+
+    assertFalse(node.exists("token_blacklist:abc"));
+    assertFalse(node.exists("token_blacklist:abc"));
+    assertEquals(2, server.count("EXISTS"));
+  }
+
+  private CacheServiceImpl startNode() throws InterruptedException {
+    return startNode(10);
+  }
+
+  private CacheServiceImpl startNode(long negativeTtlSeconds) throws InterruptedException {
+    CacheConfig config = new CacheConfig();
+    config.setMaximumSize(10_000);
+    config.setBackend("redis");
+    config.setRedisHost("127.0.0.1");
+    config.setRedisPort(server.getPort());
+    config.setRedisTimeoutMs(2000);
+    config.setRedisPoolSize(4);
+    config.setNearTtlSeconds(60);
+    config.setNearNegativeTtlSeconds(negativeTtlSeconds);
+    config.setInvalidationChannel("cache:invalidation");
+    CacheServiceImpl node = new CacheServiceImpl(null, config);
+    node.afterPropertiesSet();
+    nodes.add(node);
+
+    // 等待订阅建立，之后的写操作都能通知到该实例
+    awaitCondition(() -> server.subscriberCount() == nodes.size());
+    return node;
+  }
+
+  private static void awaitValue(CacheServiceImpl node, String key, Object expected) throws InterruptedException {
+    awaitCondition(() -> expected.equals(node.get(key)));
+  }
+
+  private static void awaitCondition(Supplier<Boolean> condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.get()) {
+      assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package work.anyway.packages.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内的 Redis 协议测试桩
+ * 只实现 {@link RedisCacheBackend} 用到的命令，EVAL 只执行计数器递增脚本；
+ * 数值类值与 Redis 一样按十进制文本保存，INCRBY 对其他值返回错误。记录每个命令的调用次数。
+ */
+final class RespStubServer implements Closeable {
+
+  private final ServerSocket serverSocket;
+  private final Map<String, byte[]> values = new HashMap<>();
+  private final Map<String, Long> expirationTimes = new HashMap<>();
+  private final Map<String, AtomicInteger> commandCounts = new ConcurrentHashMap<>();
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+  private final Thread acceptor;
+  private volatile boolean closed;
+
+  RespStubServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    acceptor = new Thread(this::accept, "resp-stub-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * 命令被调用的次数
+   */
+  int count(String command) {
+    AtomicInteger count = commandCounts.get(command);
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * 当前的订阅连接数
+   */
+  int subscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * 直接读取保存的原始值，不存在时返回 null
+   */
+  synchronized byte[] rawValue(String key) {
+    return live(key) ? values.get(key) : null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        sockets.add(socket);
+        Thread handler = new Thread(() -> serve(socket), "resp-stub-connection");
+        handler.setDaemon(true);
+        handler.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    Subscriber subscription = null;
+    try (Socket s = socket) {
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      OutputStream out = new BufferedOutputStream(s.getOutputStream());
+      while (!closed) {
+        List<byte[]> command = readCommand(in);
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        commandCounts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+        if ("SUBSCRIBE".equals(name)) {
+          subscription = new Subscriber(text(command, 1), out);
+          subscribers.add(subscription);
+        }
+        // 在写锁外处理命令，PUBLISH 持有桩的锁向订阅连接写入
+        byte[] reply = handle(name, command);
+        synchronized (out) {
+          out.write(reply);
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      // 连接关闭
+    } finally {
+      if (subscription != null) {
+        subscribers.remove(subscription);
+      }
+    }
+  }
+
+  private synchronized byte[] handle(String name, List<byte[]> command) {
+    long currentTime = System.currentTimeMillis();
+    switch (name) {
+      case "AUTH":
+      case "SELECT":
+        return simple("OK");
+      case "GET":
+        return bulk(live(text(command, 1)) ? values.get(text(command, 1)) : null);
+      case "PTTL": {
+        String key = text(command, 1);
+        if (!live(key)) {
+          return integer(-2);
+        }
+        Long expirationTime = expirationTimes.get(key);
+        return integer(expirationTime == null ? -1 : expirationTime - currentTime);
+      }
+      case "SET": {
+        String key = text(command, 1);
+        values.put(key, command.get(2));
+        expirationTimes.remove(key);
+        if (command.size() > 4) {
+          expirationTimes.put(key, currentTime + Long.parseLong(text(command, 4)) * 1000);
+        }
+        return simple("OK");
+      }
+      case "DEL":
+      case "UNLINK": {
+        long removed = 0;
+        for (int i = 1; i < command.size(); i++) {
+          String key = text(command, i);
+          if (live(key)) {
+            removed++;
+          }
+          values.remove(key);
+          expirationTimes.remove(key);
+        }
+        return integer(removed);
+      }
+      case "EXISTS":
+        return integer(live(text(command, 1)) ? 1 : 0);
+      case "EXPIRE": {
+        String key = text(command, 1);
+        if (!live(key)) {
+          return integer(0);
+        }
+        expirationTimes.put(key, currentTime + Long.parseLong(text(command, 2)) * 1000);
+        return integer(1);
+      }
+      case "EVAL":
+        return increment(text(command, 3), Long.parseLong(text(command, 4)), Long.parseLong(text(command, 5)));
+      case "SCAN": {
+        Pattern pattern = CacheServiceImpl.toRegex(text(command, 3));
+        List<byte[]> keys = new ArrayList<>();
+        for (String key : values.keySet()) {
+          if (live(key) && pattern.matcher(key).matches()) {
+            keys.add(key.getBytes(StandardCharsets.UTF_8));
+          }
+        }
+        return scanReply(keys);
+      }
+      case "PUBLISH": {
+        String channel = text(command, 1);
+        long delivered = 0;
+        for (Subscriber subscriber : subscribers) {
+          if (subscriber.channel.equals(channel) && subscriber.deliver(channel, command.get(2))) {
+            delivered++;
+          }
+        }
+        return integer(delivered);
+      }
+      case "SUBSCRIBE":
+        return array(bulk("subscribe".getBytes(StandardCharsets.US_ASCII)),
+            bulk(command.get(1)), integer(1));
+      default:
+        return error("ERR unknown command '" + name + "'");
+    }
+  }
+
+  /**
+   * 与 INCREMENT_SCRIPT 相同：INCRBY，仅为新建的计数器设置过期时间
+   */
+  private byte[] increment(String key, long delta, long ttlSeconds) {
+    long value = 0;
+    boolean existed = live(key);
+    if (existed) {
+      try {
+        value = Long.parseLong(new String(values.get(key), StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+        return error("ERR value is not an integer or out of range");
+      }
+    } else {
+      expirationTimes.remove(key);
+    }
+    value += delta;
+    values.put(key, Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+    if (!existed && ttlSeconds > 0) {
+      expirationTimes.put(key, System.currentTimeMillis() + ttlSeconds * 1000);
+    }
+    return integer(value);
+  }
+
+  private boolean live(String key) {
+    if (!values.containsKey(key)) {
+      return false;
+    }
+    Long expirationTime = expirationTimes.get(key);
+    if (expirationTime != null && expirationTime <= System.currentTimeMillis()) {
+      values.remove(key);
+      expirationTimes.remove(key);
+      return false;
+    }
+    return true;
+  }
+
+  private static List<byte[]> readCommand(InputStream in) throws IOException {
+    int type = in.read();
+    if (type < 0) {
+      throw new EOFException();
+    }
+    if (type != '*') {
+      throw new IOException("Expected a command array");
+    }
+    int count = Integer.parseInt(readLine(in));
+    List<byte[]> args = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      if (in.read() != '$') {
+        throw new IOException("Expected a bulk string");
+      }
+      byte[] arg = new byte[Integer.parseInt(readLine(in))];
+      int offset = 0;
+      while (offset < arg.length) {
+        int read = in.read(arg, offset, arg.length - offset);
+        if (read < 0) {
+          throw new EOFException();
+        }
+        offset += read;
+      }
+      readLine(in);
+      args.add(arg);
+    }
+    return args;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int b;
+    while ((b = in.read()) != '\r') {
+      if (b < 0) {
+        throw new EOFException();
+      }
+      line.append((char) b);
+    }
+    in.read();
+    return line.toString();
+  }
+
+  private static String text(List<byte[]> command, int index) {
+    return new String(command.get(index), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] simple(String status) {
+    return ("+" + status + "\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] error(String message) {
+    return ("-" + message + "\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] integer(long value) {
+    return (":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] bulk(byte[] value) {
+    if (value == null) {
+      return "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    }
+    byte[] header = ("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    byte[] reply = new byte[header.length + value.length + 2];
+    System.arraycopy(header, 0, reply, 0, header.length);
+    System.arraycopy(value, 0, reply, header.length, value.length);
+    reply[reply.length - 2] = '\r';
+    reply[reply.length - 1] = '\n';
+    return reply;
+  }
+
+  private static byte[] array(byte[]... items) {
+    byte[] header = ("*" + items.length + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    int length = header.length;
+    for (byte[] item : items) {
+      length += item.length;
+    }
+    byte[] reply = new byte[length];
+    System.arraycopy(header, 0, reply, 0, header.length);
+    int offset = header.length;
+    for (byte[] item : items) {
+      System.arraycopy(item, 0, reply, offset, item.length);
+      offset += item.length;
+    }
+    return reply;
+  }
+
+  private static byte[] scanReply(List<byte[]> keys) {
+    byte[][] items = new byte[keys.size()][];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = bulk(keys.get(i));
+    }
+    return array(bulk("0".getBytes(StandardCharsets.US_ASCII)), array(items));
+  }
+
+  /**
+   * 订阅连接，消息直接写入该连接的输出流
+   */
+  private static final class Subscriber {
+    final String channel;
+    final OutputStream out;
+
+    Subscriber(String channel, OutputStream out) {
+      this.channel = channel;
+      this.out = out;
+    }
+
+    boolean deliver(String channel, byte[] message) {
+      byte[] reply = array(bulk("message".getBytes(StandardCharsets.US_ASCII)),
+          bulk(channel.getBytes(StandardCharsets.UTF_8)), bulk(message));
+      try {
+        synchronized (out) {
+          out.write(reply);
+          out.flush();
+        }
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+  }
+}
@@ -13,8 +13,8 @@ import work.anyway.interfaces.data.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import io.vertx.core.json.JsonObject;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.sql.Timestamp;
@@ -38,6 +38,14 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
   // 缓存，用于存储临时数据
   private final Map<String, Map<String, Map<String, Object>>> memoryCache = new ConcurrentHashMap<>();
 
+  // SQL 模板与字段名/列名转换缓存
+  private final SqlTemplateCache sqlTemplates = new SqlTemplateCache();
+  private final NameCache columnNames = new NameCache(this::camelToSnake);
+  private final NameCache fieldNames = new NameCache(this::snakeToCamel);
+  private final CollectionQueryBuilder queryBuilder =
+      new CollectionQueryBuilder(sqlTemplates, columnNames::get, fieldNames::get, this::convertForDatabase,
+          this::convertFromDatabase);
+
   @Autowired
   public AsyncDatabaseDataServiceImpl(DataSourceManager dataSourceManager, Vertx vertx) {
     this.dataSourceManager = dataSourceManager;
@@ -95,26 +103,23 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
 
       String id = String.valueOf(savedData.get("id"));
 
-      // 构建 INSERT SQL
-      List<String> columns = new ArrayList<>();
-      List<String> placeholders = new ArrayList<>();
-      List<Object> values = new ArrayList<>();
-
-      savedData.forEach((key, value) -> {
-        String columnName = camelToSnake(key);
-        columns.add(columnName);
-        placeholders.add("?");
+      // 构建 INSERT SQL，字段集合相同时复用模板
+      List<String> fields = new ArrayList<>(savedData.keySet());
+      List<Object> values = new ArrayList<>(fields.size());
+      for (String field : fields) {
         // Convert value to database-compatible format
-        values.add(convertForDatabase(value));
-      });
+        values.add(convertForDatabase(savedData.get(field)));
+      }
 
-      String sql = String.format("INSERT INTO %s (%s) VALUES (%s)",
-          collection,
-          String.join(", ", columns),
-          String.join(", ", placeholders));
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "insert", fields),
+          () -> String.format("INSERT INTO %s (%s) VALUES (%s)",
+              collection,
+              fields.stream().map(columnNames::get).collect(Collectors.joining(", ")),
+              String.join(", ", Collections.nCopies(fields.size(), "?"))));
 
       LOG.debug("Executing SQL: {}", sql);
 
+      dataSourceManager.markWrite(null);
       pool.preparedQuery(sql)
           .execute(Tuple.from(values))
           .onSuccess(rows -> {
@@ -167,13 +172,11 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
     Promise<Optional<Map<String, Object>>> promise = Promise.promise();
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      String sql = String.format("SELECT * FROM %s WHERE id = ?", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "findById"),
+          () -> String.format("SELECT * FROM %s WHERE id = ?", collection));
       LOG.debug("Executing SQL: {}", sql);
 
-      pool.preparedQuery(sql)
-          .execute(Tuple.of(id))
+      dataSourceManager.read(null, reader -> reader.preparedQuery(sql).execute(Tuple.of(id)))
           .onSuccess(rows -> {
             if (rows.size() > 0) {
               Row row = rows.iterator().next();
@@ -230,13 +233,11 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
     Promise<List<Map<String, Object>>> promise = Promise.promise();
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      String sql = String.format("SELECT * FROM %s", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "findAll"),
+          () -> String.format("SELECT * FROM %s", collection));
       LOG.debug("Executing SQL: {}", sql);
 
-      pool.query(sql)
-          .execute()
+      dataSourceManager.read(null, reader -> reader.query(sql).execute())
           .onSuccess(rows -> {
             List<Map<String, Object>> results = new ArrayList<>();
             LOG.debug("Query returned {} rows", rows.size());
@@ -262,10 +263,17 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
 
   @Override
   public List<Map<String, Object>> findByCriteria(String collection, Map<String, Object> criteria) {
-    // 简化实现，委托给 findAll 然后在内存中过滤
-    return findAll(collection).stream()
-        .filter(data -> matchesCriteria(data, criteria))
-        .collect(Collectors.toList());
+    LOG.debug("Finding data by criteria, collection: {}, criteria: {}", collection, criteria);
+
+    try {
+      return findByCriteriaAsync(collection, criteria).toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Failed to find data by criteria", e);
+      // 失败时在内存缓存中过滤
+      return findAllFromMemory(collection).stream()
+          .filter(data -> matchesCriteria(data, criteria))
+          .collect(Collectors.toList());
+    }
   }
 
   @Override
@@ -309,25 +317,24 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
       // 移除不应该更新的字段
       updateData.remove("id");
 
-      // 构建 UPDATE SQL
-      List<String> setClauses = new ArrayList<>();
-      List<Object> values = new ArrayList<>();
-
-      updateData.forEach((key, value) -> {
-        String columnName = camelToSnake(key);
-        setClauses.add(columnName + " = ?");
+      // 构建 UPDATE SQL，字段集合相同时复用模板
+      List<String> fields = new ArrayList<>(updateData.keySet());
+      List<Object> values = new ArrayList<>(fields.size() + 1);
+      for (String field : fields) {
         // Convert value to database-compatible format
-        values.add(convertForDatabase(value));
-      });
+        values.add(convertForDatabase(updateData.get(field)));
+      }
 
       values.add(id);
 
-      String sql = String.format("UPDATE %s SET %s WHERE id = ?",
-          collection,
-          String.join(", ", setClauses));
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "update", fields),
+          () -> String.format("UPDATE %s SET %s WHERE id = ?",
+              collection,
+              fields.stream().map(field -> columnNames.get(field) + " = ?").collect(Collectors.joining(", "))));
 
       LOG.debug("Executing SQL: {}", sql);
 
+      dataSourceManager.markWrite(null);
       pool.preparedQuery(sql)
           .execute(Tuple.from(values))
           .onSuccess(rows -> {
@@ -385,9 +392,11 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
     try {
       Pool pool = dataSourceManager.getDefaultPool();
 
-      String sql = String.format("DELETE FROM %s WHERE id = ?", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "delete"),
+          () -> String.format("DELETE FROM %s WHERE id = ?", collection));
       LOG.debug("Executing SQL: {}", sql);
 
+      dataSourceManager.markWrite(null);
       pool.preparedQuery(sql)
           .execute(Tuple.of(id))
           .onSuccess(rows -> {
@@ -411,83 +420,125 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
 
   @Override
   public long count(String collection) {
-    // 简化实现
-    return findAll(collection).size();
+    return countByCriteria(collection, Collections.emptyMap());
   }
 
   @Override
   public long countByCriteria(String collection, Map<String, Object> criteria) {
-    // 简化实现
-    return findByCriteria(collection, criteria).size();
+    LOG.debug("Counting data by criteria, collection: {}, criteria: {}", collection, criteria);
+
+    try {
+      return countAsync(collection, criteria).toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Failed to count data", e);
+      return findAllFromMemory(collection).stream()
+          .filter(data -> matchesCriteria(data, criteria))
+          .count();
+    }
   }
 
   @Override
   public PageResult<Map<String, Object>> query(String collection, QueryOptions options) {
-    // 简化实现
-    List<Map<String, Object>> allData = findAll(collection);
-
-    // 过滤
-    List<Map<String, Object>> filteredData = allData.stream()
-        .filter(data -> matchesCriteria(data, options.getFilters()))
-        .collect(Collectors.toList());
-
-    // 排序
-    if (options.getSortBy() != null) {
-      filteredData.sort((a, b) -> {
-        Object aValue = a.get(options.getSortBy());
-        Object bValue = b.get(options.getSortBy());
-
-        if (aValue == null && bValue == null)
-          return 0;
-        if (aValue == null)
-          return options.isAscending() ? -1 : 1;
-        if (bValue == null)
-          return options.isAscending() ? 1 : -1;
-
-        int result = 0;
-        if (aValue instanceof Comparable && bValue instanceof Comparable) {
-          result = ((Comparable) aValue).compareTo(bValue);
-        } else {
-          result = aValue.toString().compareTo(bValue.toString());
-        }
+    LOG.debug("Paging query data, collection: {}, options: page={}, pageSize={}, sortBy={}",
+        collection, options.getPage(), options.getPageSize(), options.getSortBy());
 
-        return options.isAscending() ? result : -result;
-      });
+    try {
+      return queryAsync(collection, options).toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Failed to query data", e);
+      // 失败时在内存缓存中查询
+      return queryFromMemory(collection, options);
     }
+  }
 
-    // 分页
-    int total = filteredData.size();
-    int fromIndex = Math.min(options.getOffset(), total);
-    int toIndex = Math.min(fromIndex + options.getPageSize(), total);
+  private Future<List<Map<String, Object>>> findByCriteriaAsync(String collection, Map<String, Object> criteria) {
+    return dataSourceManager.getSchemaCatalog(null).table(collection)
+        .compose(schema -> {
+          SqlBuilder sql = queryBuilder.select(dataSourceManager.getDialect(null), schema, criteria, null, true, 0, 0);
+          LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+          return dataSourceManager.read(null, reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+              .map(rows -> queryBuilder.toMaps(schema, rows));
+        });
+  }
 
-    List<Map<String, Object>> pageData = filteredData.subList(fromIndex, toIndex);
+  private Future<Long> countAsync(String collection, Map<String, Object> criteria) {
+    return dataSourceManager.getSchemaCatalog(null).table(collection)
+        .compose(schema -> executeCount(schema, criteria));
+  }
 
-    return new PageResult<>(pageData, total, options.getPage(), options.getPageSize());
+  /**
+   * 分页查询，数据与总数两条语句并行执行
+   */
+  private Future<PageResult<Map<String, Object>>> queryAsync(String collection, QueryOptions options) {
+    return dataSourceManager.getSchemaCatalog(null).table(collection).compose(schema -> {
+      SqlBuilder sql = queryBuilder.select(dataSourceManager.getDialect(null), schema, options.getFilters(),
+          options.getSortBy(), options.isAscending(), options.getPageSize(), options.getOffset());
+      LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+
+      Future<List<Map<String, Object>>> page = dataSourceManager
+          .read(null, reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+          .map(rows -> queryBuilder.toMaps(schema, rows));
+      Future<Long> total = executeCount(schema, options.getFilters());
+      return Future.all(page, total)
+          .map(done -> new PageResult<>(page.result(), total.result(), options.getPage(), options.getPageSize()));
+    });
+  }
+
+  private Future<Long> executeCount(TableSchema schema, Map<String, Object> criteria) {
+    SqlBuilder sql = queryBuilder.count(dataSourceManager.getDialect(null), schema, criteria);
+    LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+    return dataSourceManager.read(null, reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+        .map(rows -> rows.iterator().next().getLong(0));
   }
 
   @Override
   public int batchSave(String collection, List<Map<String, Object>> dataList) {
-    int savedCount = 0;
-    for (Map<String, Object> data : dataList) {
-      try {
-        save(collection, data);
-        savedCount++;
-      } catch (Exception e) {
-        LOG.error("Batch save failed for one record", e);
-      }
+    if (dataList.isEmpty()) {
+      return 0;
+    }
+
+    try {
+      return batchSaveAsync(collection, dataList).toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Batch save failed, collection: {}", collection, e);
+      return 0;
     }
-    return savedCount;
+  }
+
+  /**
+   * 在一个事务中批量插入，列集合相同的记录合并为多行 INSERT
+   */
+  private Future<Integer> batchSaveAsync(String collection, List<Map<String, Object>> dataList) {
+    Map<List<String>, List<List<Object>>> rowsByColumns = groupRowsByColumns(dataList);
+    BatchWriter writer = new BatchWriter(dataSourceManager.getDialect(null), dataSourceManager.getBatchSize(null));
+
+    dataSourceManager.markWrite(null);
+    return dataSourceManager.getDefaultPool().withTransaction(conn -> {
+      Future<Integer> result = Future.succeededFuture(0);
+      for (Map.Entry<List<String>, List<List<Object>>> group : rowsByColumns.entrySet()) {
+        result = result.compose(count -> writer.insert(conn, collection, group.getKey(), group.getValue())
+            .map(inserted -> count + inserted));
+      }
+      return result;
+    }).onSuccess(count -> LOG.info("Batch save completed, collection: {}, count: {}", collection, count));
   }
 
   @Override
   public int batchDelete(String collection, List<String> ids) {
-    int deletedCount = 0;
-    for (String id : ids) {
-      if (delete(collection, id)) {
-        deletedCount++;
-      }
+    if (ids.isEmpty()) {
+      return 0;
+    }
+
+    BatchWriter writer = new BatchWriter(dataSourceManager.getDialect(null), dataSourceManager.getBatchSize(null));
+    dataSourceManager.markWrite(null);
+    try {
+      return dataSourceManager.getDefaultPool()
+          .withTransaction(conn -> writer.deleteByIds(conn, collection, "id", ids))
+          .toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Batch delete failed, collection: {}", collection, e);
+      return 0;
     }
-    return deletedCount;
   }
 
   @Override
@@ -520,7 +571,7 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
       // Convert database values to application-friendly format
       value = convertFromDatabase(value);
       // 转换 snake_case 到 camelCase
-      String key = snakeToCamel(columnName);
+      String key = fieldNames.get(columnName);
       map.put(key, value);
     }
     return map;
@@ -552,6 +603,34 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
     return value;
   }
 
+  /**
+   * 获取按默认数据源方言转换后的 SQL 模板，未命中时才生成
+   */
+  private String sqlTemplate(List<Object> key, Supplier<String> factory) {
+    return sqlTemplates.get(key, () -> dataSourceManager.getDialect(null).translate(factory.get()));
+  }
+
+  /**
+   * 按列集合分组记录，没有 id 的记录被跳过
+   */
+  private Map<List<String>, List<List<Object>>> groupRowsByColumns(List<Map<String, Object>> dataList) {
+    Map<List<String>, List<List<Object>>> rowsByColumns = new LinkedHashMap<>();
+    for (Map<String, Object> data : dataList) {
+      if (!data.containsKey("id")) {
+        LOG.error("Batch save skipped a record without ID");
+        continue;
+      }
+      List<String> columns = new ArrayList<>(data.size());
+      List<Object> values = new ArrayList<>(data.size());
+      data.forEach((key, value) -> {
+        columns.add(columnNames.get(key));
+        values.add(convertForDatabase(value));
+      });
+      rowsByColumns.computeIfAbsent(columns, k -> new ArrayList<>()).add(values);
+    }
+    return rowsByColumns;
+  }
+
   /**
    * Convert database values to application-friendly format
    */
@@ -638,6 +717,48 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
 
   // 内存缓存相关方法（用于降级）
 
+  private PageResult<Map<String, Object>> queryFromMemory(String collection, QueryOptions options) {
+    List<Map<String, Object>> allData = findAllFromMemory(collection);
+
+    // 过滤
+    List<Map<String, Object>> filteredData = allData.stream()
+        .filter(data -> matchesCriteria(data, options.getFilters()))
+        .collect(Collectors.toList());
+
+    // 排序
+    if (options.getSortBy() != null) {
+      filteredData.sort((a, b) -> {
+        Object aValue = a.get(options.getSortBy());
+        Object bValue = b.get(options.getSortBy());
+
+        if (aValue == null && bValue == null)
+          return 0;
+        if (aValue == null)
+          return options.isAscending() ? -1 : 1;
+        if (bValue == null)
+          return options.isAscending() ? 1 : -1;
+
+        int result = 0;
+        if (aValue instanceof Comparable && bValue instanceof Comparable) {
+          result = ((Comparable) aValue).compareTo(bValue);
+        } else {
+          result = aValue.toString().compareTo(bValue.toString());
+        }
+
+        return options.isAscending() ? result : -result;
+      });
+    }
+
+    // 分页
+    int total = filteredData.size();
+    int fromIndex = Math.min(options.getOffset(), total);
+    int toIndex = Math.min(fromIndex + options.getPageSize(), total);
+
+    List<Map<String, Object>> pageData = filteredData.subList(fromIndex, toIndex);
+
+    return new PageResult<>(pageData, total, options.getPage(), options.getPageSize());
+  }
+
   private Map<String, Object> saveToMemory(String collection, Map<String, Object> data) {
     Map<String, Map<String, Object>> collectionData = getOrCreateCollection(collection);
 
@@ -672,39 +793,11 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
   public List<String> listCollections() {
     LOG.debug("Listing all collections");
 
-    // 如果有数据库连接，查询数据库中的表
-    Pool pool = dataSourceManager.getDefaultPool();
-    if (pool != null) {
+    // 从表结构目录读取，目录加载后不再访问数据库
+    if (dataSourceManager.getDefaultPool() != null) {
       try {
-        CompletableFuture<List<String>> future = new CompletableFuture<>();
-
-        // 获取默认数据源配置来判断数据库类型
-        Map<String, JsonObject> configs = dataSourceManager.getDataSourceConfigs();
-        String defaultDs = dataSourceManager.getDefaultDataSource();
-        JsonObject config = configs.get(defaultDs);
-        String dbType = config != null ? config.getString("type", "postgresql") : "postgresql";
-
-        // 根据数据库类型使用不同的查询
-        String query = dbType.toLowerCase().contains("postgres")
-            ? "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public' AND table_type = 'BASE TABLE'"
-            : "SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE() AND table_type = 'BASE TABLE'";
-
-        pool.query(query)
-            .execute()
-            .onSuccess(rows -> {
-              List<String> collections = new ArrayList<>();
-              for (Row row : rows) {
-                collections.add(row.getString("TABLE_NAME"));
-              }
-              future.complete(collections);
-            })
-            .onFailure(err -> {
-              LOG.error("Failed to list collections from database", err);
-              // 失败时返回内存中的集合
-              future.complete(new ArrayList<>(memoryCache.keySet()));
-            });
-
-        return future.get();
+        return dataSourceManager.getSchemaCatalog(null).tableNames()
+            .toCompletionStage().toCompletableFuture().get();
       } catch (Exception e) {
         LOG.error("Error listing collections", e);
       }
@@ -713,4 +806,16 @@ public class AsyncDatabaseDataServiceImpl implements TypedDataService {
     // 如果没有数据库连接，返回内存中的集合
     return new ArrayList<>(memoryCache.keySet());
   }
-}
\ No newline at end of file
+
+  @Override
+  public int refreshSchema() {
+    try {
+      return dataSourceManager.getSchemaCatalog(null).refresh()
+          .onSuccess(tables -> sqlTemplates.clear())
+          .toCompletionStage().toCompletableFuture().get();
+    } catch (Exception e) {
+      LOG.error("Failed to refresh schema", e);
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量写入器
+ * 插入使用多行 VALUES，删除使用 IN 列表，按批次大小分块执行。
+ * 完整的块共用同一条 SQL，不足一块的余数行用单行语句的 executeBatch 发送，
+ * 因此无论数据量多少，每张表只会产生两种语句文本，可以被预编译语句缓存复用。
+ * 调用方负责在事务中执行，使所有分块一次提交。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class BatchWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchWriter.class);
+
+  /**
+   * 单条语句的参数个数上限（PostgreSQL 与 MySQL 协议均为 65535）
+   */
+  private static final int MAX_PARAMETERS = 65535;
+
+  private final SqlDialect dialect;
+  private final int batchSize;
+
+  /**
+   * @param dialect   SQL 方言
+   * @param batchSize 每块的行数
+   */
+  BatchWriter(SqlDialect dialect, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    this.dialect = dialect;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * 批量插入
+   *
+   * @param client  数据库连接，通常是事务连接
+   * @param table   表名
+   * @param columns 列名
+   * @param rows    每行的参数，顺序与列名一致
+   * @return 插入的行数
+   */
+  Future<Integer> insert(SqlClient client, String table, List<String> columns, List<List<Object>> rows) {
+    if (rows.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
+
+    int chunkSize = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns.size()));
+    String prefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+    int fullChunks = rows.size() / chunkSize;
+
+    Future<Integer> result = Future.succeededFuture(0);
+    if (fullChunks > 0) {
+      String sql = insertSql(prefix, columns.size(), chunkSize);
+      for (int chunk = 0; chunk < fullChunks; chunk++) {
+        List<List<Object>> slice = rows.subList(chunk * chunkSize, (chunk + 1) * chunkSize);
+        result = result.compose(count -> client.preparedQuery(sql)
+            .execute(Tuple.from(flatten(slice)))
+            .map(rowSet -> count + rowSet.rowCount()));
+      }
+    }
+
+    List<List<Object>> remainder = rows.subList(fullChunks * chunkSize, rows.size());
+    if (!remainder.isEmpty()) {
+      String sql = insertSql(prefix, columns.size(), 1);
+      List<Tuple> tuples = new ArrayList<>(remainder.size());
+      for (List<Object> row : remainder) {
+        tuples.add(Tuple.from(row));
+      }
+      result = result.compose(count -> executeBatch(client, sql, tuples).map(n -> count + n));
+    }
+
+    LOG.debug("Batch inserting {} rows into {} in chunks of {}", rows.size(), table, chunkSize);
+    return result;
+  }
+
+  /**
+   * 按主键批量删除
+   *
+   * @param client   数据库连接，通常是事务连接
+   * @param table    表名
+   * @param idColumn 主键列名
+   * @param ids      主键值
+   * @return 删除的行数
+   */
+  Future<Integer> deleteByIds(SqlClient client, String table, String idColumn, List<?> ids) {
+    if (ids.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
+
+    int chunkSize = Math.min(batchSize, MAX_PARAMETERS);
+    String prefix = "DELETE FROM " + table + " WHERE " + idColumn;
+    int fullChunks = ids.size() / chunkSize;
+
+    Future<Integer> result = Future.succeededFuture(0);
+    if (fullChunks > 0) {
+      StringBuilder sql = new StringBuilder(prefix).append(" IN (");
+      for (int i = 1; i <= chunkSize; i++) {
+        sql.append(i > 1 ? ", " : "").append(dialect.placeholder(i));
+      }
+      String deleteSql = sql.append(")").toString();
+      for (int chunk = 0; chunk < fullChunks; chunk++) {
+        List<?> slice = ids.subList(chunk * chunkSize, (chunk + 1) * chunkSize);
+        result = result.compose(count -> client.preparedQuery(deleteSql)
+            .execute(Tuple.from(new ArrayList<>(slice)))
+            .map(rowSet -> count + rowSet.rowCount()));
+      }
+    }
+
+    List<?> remainder = ids.subList(fullChunks * chunkSize, ids.size());
+    if (!remainder.isEmpty()) {
+      String sql = prefix + " = " + dialect.placeholder(1);
+      List<Tuple> tuples = new ArrayList<>(remainder.size());
+      for (Object id : remainder) {
+        tuples.add(Tuple.of(id));
+      }
+      result = result.compose(count -> executeBatch(client, sql, tuples).map(n -> count + n));
+    }
+
+    LOG.debug("Batch deleting {} rows from {} in chunks of {}", ids.size(), table, chunkSize);
+    return result;
+  }
+
+  /**
+   * 用 executeBatch 执行单行语句，累加每条语句的影响行数
+   */
+  private static Future<Integer> executeBatch(SqlClient client, String sql, List<Tuple> tuples) {
+    return client.preparedQuery(sql)
+        .executeBatch(tuples)
+        .map(rowSet -> {
+          int count = 0;
+          for (RowSet<Row> rows = rowSet; rows != null; rows = rows.next()) {
+            count += rows.rowCount();
+          }
+          return count;
+        });
+  }
+
+  private String insertSql(String prefix, int columnCount, int rowCount) {
+    StringBuilder sql = new StringBuilder(prefix);
+    int index = 0;
+    for (int row = 0; row < rowCount; row++) {
+      sql.append(row > 0 ? ", (" : "(");
+      for (int column = 0; column < columnCount; column++) {
+        sql.append(column > 0 ? ", " : "").append(dialect.placeholder(++index));
+      }
+      sql.append(")");
+    }
+    return sql.toString();
+  }
+
+  private static List<Object> flatten(List<List<Object>> rows) {
+    List<Object> params = new ArrayList<>(rows.size() * rows.get(0).size());
+    for (List<Object> row : rows) {
+      params.addAll(row);
+    }
+    return params;
+  }
+}
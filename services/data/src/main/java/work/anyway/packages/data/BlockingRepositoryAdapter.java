@@ -0,0 +1,269 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import work.anyway.interfaces.data.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 阻塞式仓库适配器
+ * 将 {@link ReactiveRepository} 包装为 {@link Repository}，调用线程等待 Future 完成。
+ * 失败时的行为与原有阻塞实现一致：保存失败抛出异常，其余操作记录日志后返回空结果。
+ * 当前线程处于 {@link EnhancedDataServiceImpl#inTransaction} 中时，操作转到事务连接上执行，
+ * 失败时直接抛出异常，使外层事务回滚。
+ * 不能在事件循环线程上调用，否则等待的结果永远无法送达。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+class BlockingRepositoryAdapter<T extends BaseEntity> implements Repository<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BlockingRepositoryAdapter.class);
+
+  private final ReactiveRepository<T> delegate;
+
+  BlockingRepositoryAdapter(ReactiveRepository<T> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public T save(T entity) {
+    try {
+      return await(() -> target().save(entity));
+    } catch (IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to save entity", e);
+    }
+  }
+
+  @Override
+  public Optional<T> findById(String id) {
+    try {
+      return await(() -> target().findById(id));
+    } catch (Exception e) {
+      return fallback("Failed to find entity by id", e, Optional.empty());
+    }
+  }
+
+  @Override
+  public List<T> findAll() {
+    try {
+      return await(() -> target().findAll());
+    } catch (Exception e) {
+      return fallback("Failed to find all entities", e, Collections.emptyList());
+    }
+  }
+
+  @Override
+  public List<T> findBy(QueryCriteria<T> criteria) {
+    try {
+      return await(() -> target().findBy(criteria));
+    } catch (Exception e) {
+      return fallback("Failed to query entities", e, Collections.emptyList());
+    }
+  }
+
+  @Override
+  public boolean update(T entity) {
+    if (entity.getId() == null || entity.getId().isEmpty()) {
+      throw new IllegalArgumentException("Entity must have ID for update");
+    }
+    try {
+      return await(() -> target().update(entity));
+    } catch (Exception e) {
+      return fallback("Failed to update entity", e, false);
+    }
+  }
+
+  @Override
+  public boolean delete(String id) {
+    try {
+      return await(() -> target().delete(id));
+    } catch (Exception e) {
+      return fallback("Failed to delete entity", e, false);
+    }
+  }
+
+  @Override
+  public int batchSave(List<T> entities) {
+    try {
+      return await(() -> target().batchSave(entities));
+    } catch (Exception e) {
+      return fallback("Failed to save entities in batch", e, 0);
+    }
+  }
+
+  @Override
+  public int batchDelete(List<String> ids) {
+    try {
+      return await(() -> target().batchDelete(ids));
+    } catch (Exception e) {
+      return fallback("Failed to delete entities in batch", e, 0);
+    }
+  }
+
+  @Override
+  public PageResult<T> findPage(QueryOptions options) {
+    try {
+      return await(() -> target().findPage(options));
+    } catch (Exception e) {
+      return fallback("Failed to find page", e,
+          new PageResult<>(Collections.<T>emptyList(), 0, options.getPage(), options.getPageSize()));
+    }
+  }
+
+  @Override
+  public long count() {
+    try {
+      return await(() -> target().count());
+    } catch (Exception e) {
+      return fallback("Failed to count entities", e, 0L);
+    }
+  }
+
+  @Override
+  public long countBy(QueryCriteria<T> criteria) {
+    try {
+      return await(() -> target().countBy(criteria));
+    } catch (Exception e) {
+      return fallback("Failed to count entities", e, 0L);
+    }
+  }
+
+  @Override
+  public CursorPage<T> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    try {
+      return await(() -> target().findPageAfter(criteria, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to find page after cursor", e);
+    }
+  }
+
+  @Override
+  public long forEachBatch(QueryCriteria<T> criteria, int batchSize, Consumer<List<T>> consumer) {
+    if (Context.isOnEventLoopThread()) {
+      throw new IllegalStateException("Blocking repository called on event loop thread, use ReactiveRepository instead");
+    }
+
+    // 批次交给调用线程处理，处理完成后再完成 Promise 让游标继续读取
+    BlockingQueue<Object> handoff = new LinkedBlockingQueue<>();
+    Future<Long> stream = target().stream(criteria, batchSize, batch -> {
+      Promise<Void> processed = Promise.promise();
+      handoff.add(new Batch<>(batch, processed, Vertx.currentContext()));
+      return processed.future();
+    });
+    stream.onComplete(handoff::add);
+
+    try {
+      while (true) {
+        Object next = handoff.take();
+        if (next instanceof Batch) {
+          @SuppressWarnings("unchecked")
+          Batch<T> batch = (Batch<T>) next;
+          try {
+            consumer.accept(batch.entities);
+            batch.complete(null);
+          } catch (RuntimeException e) {
+            batch.complete(e);
+            throw e;
+          }
+          continue;
+        }
+
+        AsyncResult<?> result = (AsyncResult<?>) next;
+        if (result.failed()) {
+          throw new RuntimeException("Failed to stream entities", result.cause());
+        }
+        return (Long) result.result();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while streaming entities", e);
+    }
+  }
+
+  /**
+   * 实际执行操作的仓库，当前线程有绑定事务时使用事务连接
+   */
+  private ReactiveRepository<T> target() {
+    TransactionBinding binding = TransactionBinding.current();
+    return binding == null ? delegate : binding.route(delegate);
+  }
+
+  /**
+   * 处理失败：调用方参数错误（如未知的查询字段）直接抛出，事务中抛出异常以便回滚，否则记录日志并返回默认值
+   */
+  private static <R> R fallback(String message, Exception e, R value) {
+    if (e instanceof IllegalArgumentException || TransactionBinding.current() != null) {
+      throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(message, e);
+    }
+    LOG.error(message, e);
+    return value;
+  }
+
+  /**
+   * 在调用线程上启动操作并等待 Future 完成
+   * 先检查线程再启动操作，在事件循环线程上调用时操作不会被执行
+   */
+  static <R> R await(Supplier<Future<R>> operation) throws Exception {
+    if (Context.isOnEventLoopThread()) {
+      throw new IllegalStateException("Blocking repository called on event loop thread, use ReactiveRepository instead");
+    }
+    try {
+      return operation.get().toCompletionStage().toCompletableFuture().get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : e;
+    }
+  }
+
+  /**
+   * 等待调用线程处理的批次
+   */
+  private static final class Batch<T> {
+    private final List<T> entities;
+    private final Promise<Void> processed;
+    private final Context context;
+
+    Batch(List<T> entities, Promise<Void> processed, Context context) {
+      this.entities = entities;
+      this.processed = processed;
+      this.context = context;
+    }
+
+    /**
+     * 回到产生批次的上下文完成 Promise，使游标的后续读取不在调用线程上执行
+     */
+    void complete(Throwable failure) {
+      Runnable action = () -> {
+        if (failure == null) {
+          processed.complete();
+        } else {
+          processed.fail(failure);
+        }
+      };
+      if (context == null) {
+        action.run();
+      } else {
+        context.runOnContext(v -> action.run());
+      }
+    }
+  }
+}
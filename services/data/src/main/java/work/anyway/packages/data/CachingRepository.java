@@ -0,0 +1,169 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import work.anyway.interfaces.data.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 带二级缓存的仓库
+ * 按 ID 查询以及（可选的）不带自定义过滤器的条件查询先读缓存，未命中时查询数据库并写入缓存；
+ * 通过本仓库的写操作完成后使相关条目失效。其余查询直接委托。
+ * 绑定到事务后不读写缓存，只登记失效：写入时立即失效一次，事务结束后再失效一次，
+ * 避免其他线程在提交前把旧值重新放回缓存。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+class CachingRepository<T extends BaseEntity> implements TransactionalRepository<T> {
+
+  private final TransactionalRepository<T> delegate;
+  private final EntityCache<T> cache;
+  // 绑定事务时的事务结束回调，未绑定时为 null
+  private final List<Runnable> afterCompletion;
+
+  CachingRepository(TransactionalRepository<T> delegate, EntityCache<T> cache) {
+    this(delegate, cache, null);
+  }
+
+  private CachingRepository(TransactionalRepository<T> delegate, EntityCache<T> cache,
+      List<Runnable> afterCompletion) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.afterCompletion = afterCompletion;
+  }
+
+  @Override
+  public Pool getPool() {
+    return delegate.getPool();
+  }
+
+  @Override
+  public TransactionalRepository<T> bind(SqlConnection connection, List<Runnable> afterCompletion) {
+    return new CachingRepository<>(delegate.bind(connection, afterCompletion), cache, afterCompletion);
+  }
+
+  @Override
+  public Future<T> save(T entity) {
+    // 保存后实体才有 ID，失效时再取
+    return write(() -> idsOf(Collections.singletonList(entity)), () -> delegate.save(entity));
+  }
+
+  @Override
+  public Future<Optional<T>> findById(String id) {
+    if (afterCompletion != null || id == null) {
+      return delegate.findById(id);
+    }
+
+    T cached = cache.get(id);
+    if (cached != null) {
+      return Future.succeededFuture(Optional.of(cached));
+    }
+    long generation = cache.generation();
+    return delegate.findById(id)
+        .onSuccess(found -> found.ifPresent(entity -> cache.put(id, entity, generation)));
+  }
+
+  @Override
+  public Future<List<T>> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public Future<List<T>> findBy(QueryCriteria<T> criteria) {
+    if (afterCompletion != null || !cache.isCacheQueries() || criteria.getCustomFilter() != null) {
+      return delegate.findBy(criteria);
+    }
+
+    List<Object> key = queryKey(criteria);
+    List<T> cached = cache.getQuery(key);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+    long generation = cache.generation();
+    return delegate.findBy(criteria).onSuccess(entities -> cache.putQuery(key, entities, generation));
+  }
+
+  @Override
+  public Future<Boolean> update(T entity) {
+    List<String> ids = idsOf(Collections.singletonList(entity));
+    return write(() -> ids, () -> delegate.update(entity));
+  }
+
+  @Override
+  public Future<Boolean> delete(String id) {
+    List<String> ids = id == null ? Collections.emptyList() : Collections.singletonList(id);
+    return write(() -> ids, () -> delegate.delete(id));
+  }
+
+  @Override
+  public Future<Integer> batchSave(List<T> entities) {
+    return write(() -> idsOf(entities), () -> delegate.batchSave(entities));
+  }
+
+  @Override
+  public Future<Integer> batchDelete(List<String> ids) {
+    List<String> snapshot = new ArrayList<>(ids);
+    return write(() -> snapshot, () -> delegate.batchDelete(ids));
+  }
+
+  @Override
+  public Future<PageResult<T>> findPage(QueryOptions options) {
+    return delegate.findPage(options);
+  }
+
+  @Override
+  public Future<Long> count() {
+    return delegate.count();
+  }
+
+  @Override
+  public Future<Long> countBy(QueryCriteria<T> criteria) {
+    return delegate.countBy(criteria);
+  }
+
+  @Override
+  public Future<CursorPage<T>> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    return delegate.findPageAfter(criteria, cursor, limit);
+  }
+
+  @Override
+  public Future<Long> stream(QueryCriteria<T> criteria, int batchSize, Function<List<T>, Future<Void>> handler) {
+    return delegate.stream(criteria, batchSize, handler);
+  }
+
+  /**
+   * 执行写操作，完成后使涉及的条目失效；事务中还在调用线程上登记事务结束后的失效
+   */
+  private <R> Future<R> write(Supplier<List<String>> ids, Supplier<Future<R>> operation) {
+    if (afterCompletion != null) {
+      afterCompletion.add(() -> cache.invalidate(ids.get()));
+    }
+    return operation.get().onComplete(ar -> cache.invalidate(ids.get()));
+  }
+
+  private static <T extends BaseEntity> List<String> idsOf(List<T> entities) {
+    List<String> ids = new ArrayList<>(entities.size());
+    for (T entity : entities) {
+      if (entity.getId() != null) {
+        ids.add(entity.getId());
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * 查询缓存键，数组形式的条件值（如 IN 列表）转换为 List 以便按内容比较
+   */
+  private static List<Object> queryKey(QueryCriteria<?> criteria) {
+    Map<String, Object> conditions = new HashMap<>();
+    criteria.getConditions().forEach((field, value) ->
+        conditions.put(field, value instanceof Object[] ? Arrays.asList((Object[]) value) : value));
+    return SqlTemplateCache.key(conditions, criteria.getOrderBy(), criteria.isAscending());
+  }
+}
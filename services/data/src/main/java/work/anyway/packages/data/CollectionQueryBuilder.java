@@ -0,0 +1,172 @@
+package work.anyway.packages.data;
+
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Map 形式数据服务的查询构建器
+ * 将条件映射与分页参数编译为参数化的 SELECT / COUNT 语句，条件语法与 {@link CriteriaCompiler} 一致。
+ * 字段名和排序字段只有在表结构中存在对应列时才会进入 SQL，其余的被忽略。
+ * 模板缓存键由表名、表结构版本号、条件形状和解析后的排序列组成，不包含请求中的原始字符串；
+ * 表结构刷新后版本号变化，生成新的模板。
+ * 分页查询以主键作为次要排序；按没有索引的列排序分页时记录一次警告。
+ * 结果行按表结构转换为 Map，列名与值的转换方式对每个结果集只确定一次。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class CollectionQueryBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CollectionQueryBuilder.class);
+
+  private final SqlTemplateCache templates;
+  private final UnaryOperator<String> toColumnName;
+  private final UnaryOperator<String> toFieldName;
+  private final UnaryOperator<Object> valueConverter;
+  private final UnaryOperator<Object> valueDecoder;
+  // 已警告过的无索引排序列，"表名.列名"
+  private final Set<String> unindexedSorts = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @param templates      SQL 模板缓存
+   * @param toColumnName   字段名到列名的命名转换
+   * @param toFieldName    列名到字段名的命名转换
+   * @param valueConverter 参数值到数据库类型的转换，在按列类型转换之前执行
+   * @param valueDecoder   数据库值到应用层表示的转换，用于时间戳列和表结构中没有的列
+   */
+  CollectionQueryBuilder(SqlTemplateCache templates, UnaryOperator<String> toColumnName,
+      UnaryOperator<String> toFieldName, UnaryOperator<Object> valueConverter, UnaryOperator<Object> valueDecoder) {
+    this.templates = templates;
+    this.toColumnName = toColumnName;
+    this.toFieldName = toFieldName;
+    this.valueConverter = valueConverter;
+    this.valueDecoder = valueDecoder;
+  }
+
+  /**
+   * 构建查询语句
+   *
+   * @param dialect   SQL 方言
+   * @param schema    表结构
+   * @param filters   条件映射，可以为 null
+   * @param sortBy    排序字段，可以为 null
+   * @param ascending 是否升序
+   * @param limit     每页条数，不大于 0 时不分页
+   * @param offset    跳过的条数
+   */
+  SqlBuilder select(SqlDialect dialect, TableSchema schema, Map<String, Object> filters, String sortBy,
+      boolean ascending, int limit, int offset) {
+    Map<String, Object> conditions = filters == null ? Collections.emptyMap() : filters;
+    CriteriaCompiler compiler = compiler(schema);
+    boolean paged = limit > 0;
+    String sortColumn = schema.resolveColumn(sortBy, toColumnName);
+
+    List<Object> key = SqlTemplateCache.key("select", schema.getName(), schema.getVersion(),
+        compiler.shape(conditions), sortColumn, ascending, paged);
+    return templates.build(dialect, key, sql -> {
+      sql.append("SELECT * FROM ").append(schema.getName());
+      compiler.appendWhere(sql, conditions);
+      appendOrderBy(sql, schema, sortColumn, ascending, paged);
+      if (paged) {
+        sql.append(" LIMIT ").param(limit).append(" OFFSET ").param(offset);
+      }
+    });
+  }
+
+  /**
+   * 构建计数语句
+   *
+   * @param dialect SQL 方言
+   * @param schema  表结构
+   * @param filters 条件映射，可以为 null
+   */
+  SqlBuilder count(SqlDialect dialect, TableSchema schema, Map<String, Object> filters) {
+    Map<String, Object> conditions = filters == null ? Collections.emptyMap() : filters;
+    CriteriaCompiler compiler = compiler(schema);
+
+    List<Object> key = SqlTemplateCache.key("count", schema.getName(), schema.getVersion(), compiler.shape(conditions));
+    return templates.build(dialect, key, sql -> {
+      sql.append("SELECT COUNT(*) FROM ").append(schema.getName());
+      compiler.appendWhere(sql, conditions);
+    });
+  }
+
+  /**
+   * 将结果集转换为 Map 列表
+   *
+   * @param schema 表结构
+   * @param rows   结果集
+   */
+  List<Map<String, Object>> toMaps(TableSchema schema, RowSet<Row> rows) {
+    List<String> columns = rows.columnsNames();
+    int size = columns == null ? 0 : columns.size();
+    String[] keys = new String[size];
+    boolean[] decode = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      String column = columns.get(i);
+      TableSchema.Column definition = schema.getColumn(column);
+      keys[i] = toFieldName.apply(column);
+      decode[i] = definition == null || definition.isTemporal();
+    }
+
+    List<Map<String, Object>> results = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      Map<String, Object> map = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        Object value = row.getValue(i);
+        map.put(keys[i], decode[i] ? valueDecoder.apply(value) : value);
+      }
+      results.add(map);
+    }
+    return results;
+  }
+
+  private CriteriaCompiler compiler(TableSchema schema) {
+    return new CriteriaCompiler(field -> schema.resolveColumn(field, toColumnName),
+        (column, value) -> schema.coerce(column, valueConverter.apply(value)));
+  }
+
+  /**
+   * 追加 ORDER BY 子句；分页时以主键作为次要排序，保证翻页结果稳定，
+   * 没有指定排序字段时直接按主键排序，可以沿主键索引顺序读取
+   */
+  private void appendOrderBy(SqlBuilder sql, TableSchema schema, String column, boolean ascending, boolean paged) {
+    String direction = ascending ? " ASC" : " DESC";
+
+    List<String> order = new ArrayList<>();
+    if (column != null) {
+      order.add(column);
+      if (paged && !schema.isIndexLeader(column)
+          && unindexedSorts.add(schema.getName() + "." + column)) {
+        LOG.warn("Paged query on {} sorts by unindexed column {}, consider adding an index",
+            schema.getName(), column);
+      }
+    }
+    if (paged) {
+      for (String key : schema.getPrimaryKey()) {
+        if (!order.contains(key)) {
+          order.add(key);
+        }
+      }
+    }
+    if (order.isEmpty()) {
+      return;
+    }
+
+    sql.append(" ORDER BY ");
+    for (int i = 0; i < order.size(); i++) {
+      sql.append(i == 0 ? "" : ", ").append(order.get(i)).append(direction);
+    }
+  }
+}
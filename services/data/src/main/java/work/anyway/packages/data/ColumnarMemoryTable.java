@@ -0,0 +1,708 @@
+package work.anyway.packages.data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * 按列存储的内存表
+ * Integer / Long / Double / Boolean 字段保存在基本类型数组中，字符串字段按字典编码保存，
+ * 其他类型或同一字段出现多种类型时退化为对象数组。条件匹配与排序直接在列上进行，不为每行创建 Map。
+ * 已写入的行不再修改：更新是标记旧行删除并追加新行，删除的行记录在位图中，删除过半时压缩。
+ * 因此读取返回的记录是只读视图而不是副本，视图反映读取时的内容，不随之后的写入变化。
+ * null 值与缺少字段等同。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class ColumnarMemoryTable implements MemoryTable {
+
+  // 删除的行数超过该值且超过总行数一半时压缩
+  private static final int COMPACT_THRESHOLD = 1024;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // 记录 ID -> 行号
+  private final Map<String, Integer> rowIds = new HashMap<>();
+  private Segment segment = new Segment();
+
+  @Override
+  public Map<String, Object> get(String id) {
+    lock.readLock().lock();
+    try {
+      Integer row = rowIds.get(id);
+      return row == null ? null : new RowView(segment, row);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<String, Object> put(String id, Map<String, Object> row) {
+    lock.writeLock().lock();
+    try {
+      Integer previous = rowIds.get(id);
+      if (previous != null) {
+        segment.delete(previous);
+      }
+      rowIds.put(id, segment.append(row));
+      compactIfNeeded();
+      return new RowView(segment, rowIds.get(id));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<String, Object> remove(String id) {
+    lock.writeLock().lock();
+    try {
+      Integer row = rowIds.remove(id);
+      if (row == null) {
+        return null;
+      }
+      RowView removed = new RowView(segment, row);
+      segment.delete(row);
+      compactIfNeeded();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return rowIds.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Map<String, Object>> scan(Map<String, Object> criteria, String sortBy, boolean ascending) {
+    lock.readLock().lock();
+    try {
+      Segment current = segment;
+      int[] rows = current.select(criteria);
+      if (sortBy != null) {
+        current.sort(rows, sortBy, ascending);
+      }
+
+      List<Map<String, Object>> results = new ArrayList<>(rows.length);
+      for (int row : rows) {
+        results.add(new RowView(current, row));
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long count(Map<String, Object> criteria) {
+    lock.readLock().lock();
+    try {
+      if (criteria == null || criteria.isEmpty()) {
+        return rowIds.size();
+      }
+      return segment.select(criteria).length;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 删除的行过多时把存活的行复制到新的段，旧段留给仍持有视图的调用方
+   */
+  private void compactIfNeeded() {
+    Segment current = segment;
+    if (current.deletedCount <= COMPACT_THRESHOLD || current.deletedCount * 2 <= current.rows) {
+      return;
+    }
+
+    // 按原行号顺序复制，保持写入顺序
+    String[] ids = new String[current.rows];
+    rowIds.forEach((id, row) -> ids[row] = id);
+    Segment compacted = new Segment();
+    for (int row = 0; row < ids.length; row++) {
+      if (ids[row] != null) {
+        rowIds.put(ids[row], compacted.append(new RowView(current, row)));
+      }
+    }
+    segment = compacted;
+  }
+
+  /**
+   * 一组列及其行的删除位图
+   * 写入只在写锁内进行；列集合与列内数组的引用是 volatile 的，视图可以在锁外读取已写入的行。
+   */
+  private static final class Segment {
+    // 字段名 -> 列，写时复制
+    private volatile Map<String, Column> columns = Collections.emptyMap();
+    private final BitSet deleted = new BitSet();
+    private int rows;
+    private int deletedCount;
+
+    int append(Map<String, Object> values) {
+      int row = rows;
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        Object value = entry.getValue();
+        if (value == null) {
+          continue;
+        }
+        Column column = columns.get(entry.getKey());
+        if (column == null) {
+          column = Column.of(value);
+          replaceColumn(entry.getKey(), column);
+        } else if (!column.accepts(value)) {
+          column = column.toObjects(row);
+          replaceColumn(entry.getKey(), column);
+        }
+        column.set(row, value);
+      }
+      rows = row + 1;
+      return row;
+    }
+
+    void delete(int row) {
+      deleted.set(row);
+      deletedCount++;
+    }
+
+    private void replaceColumn(String name, Column column) {
+      Map<String, Column> updated = new LinkedHashMap<>(columns);
+      updated.put(name, column);
+      columns = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * 符合条件的存活行号，按写入顺序排列
+     */
+    int[] select(Map<String, Object> criteria) {
+      List<IntPredicate> predicates = new ArrayList<>();
+      if (criteria != null) {
+        for (Map.Entry<String, Object> entry : criteria.entrySet()) {
+          Column column = columns.get(entry.getKey());
+          Object expected = entry.getValue();
+          if (column == null) {
+            if (expected != null) {
+              return new int[0];
+            }
+          } else if (expected == null) {
+            predicates.add(row -> !column.isPresent(row));
+          } else {
+            predicates.add(column.matcher(expected));
+          }
+        }
+      }
+
+      int[] matched = new int[rows - deletedCount];
+      int count = 0;
+      for (int row = deleted.nextClearBit(0); row < rows; row = deleted.nextClearBit(row + 1)) {
+        if (test(predicates, row)) {
+          matched[count++] = row;
+        }
+      }
+      return count == matched.length ? matched : Arrays.copyOf(matched, count);
+    }
+
+    private static boolean test(List<IntPredicate> predicates, int row) {
+      for (int i = 0; i < predicates.size(); i++) {
+        if (!predicates.get(i).test(row)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * 按列排序行号，null 最小，稳定排序
+     */
+    void sort(int[] rows, String field, boolean ascending) {
+      Column column = columns.get(field);
+      if (column == null || rows.length < 2) {
+        return;
+      }
+      IntBinaryOperator values = column.comparator();
+      IntBinaryOperator order = (a, b) -> {
+        boolean presentA = column.isPresent(a);
+        boolean presentB = column.isPresent(b);
+        int result = presentA && presentB ? values.applyAsInt(a, b) : Boolean.compare(presentA, presentB);
+        return ascending ? result : -result;
+      };
+      mergeSort(rows, Arrays.copyOf(rows, rows.length), 0, rows.length, order);
+    }
+
+    private static void mergeSort(int[] target, int[] source, int from, int to, IntBinaryOperator order) {
+      if (to - from < 2) {
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      mergeSort(source, target, from, mid, order);
+      mergeSort(source, target, mid, to, order);
+      for (int i = from, left = from, right = mid; i < to; i++) {
+        if (right >= to || (left < mid && order.applyAsInt(source[left], source[right]) <= 0)) {
+          target[i] = source[left++];
+        } else {
+          target[i] = source[right++];
+        }
+      }
+    }
+  }
+
+  /**
+   * 列
+   * 行号只增不减，写入某行之后该行的值不再改变
+   */
+  private abstract static class Column {
+
+    static Column of(Object value) {
+      if (value instanceof Integer) {
+        return new LongColumn(true);
+      }
+      if (value instanceof Long) {
+        return new LongColumn(false);
+      }
+      if (value instanceof Double) {
+        return new DoubleColumn();
+      }
+      if (value instanceof Boolean) {
+        return new BooleanColumn();
+      }
+      if (value instanceof String) {
+        return new StringColumn();
+      }
+      return new ObjectColumn();
+    }
+
+    abstract boolean accepts(Object value);
+
+    abstract void set(int row, Object value);
+
+    abstract Object get(int row);
+
+    abstract boolean isPresent(int row);
+
+    /**
+     * 与非 null 期望值相等的行
+     */
+    abstract IntPredicate matcher(Object expected);
+
+    /**
+     * 比较两个都有值的行
+     */
+    abstract IntBinaryOperator comparator();
+
+    /**
+     * 复制前 rows 行为对象列，用于字段出现新类型的值时
+     */
+    Column toObjects(int rows) {
+      ObjectColumn objects = new ObjectColumn();
+      for (int row = 0; row < rows; row++) {
+        Object value = get(row);
+        if (value != null) {
+          objects.set(row, value);
+        }
+      }
+      return objects;
+    }
+
+    static int capacity(int length, int row) {
+      return Math.max(row + 1, length * 2);
+    }
+  }
+
+  /**
+   * 基本类型列，是否有值记录在位图中
+   */
+  private abstract static class PrimitiveColumn extends Column {
+    private volatile long[] present = new long[1];
+
+    @Override
+    boolean isPresent(int row) {
+      long[] bits = present;
+      int word = row >>> 6;
+      return word < bits.length && (bits[word] & (1L << row)) != 0;
+    }
+
+    void markPresent(int row) {
+      long[] bits = present;
+      int word = row >>> 6;
+      if (word >= bits.length) {
+        bits = Arrays.copyOf(bits, capacity(bits.length, word));
+        present = bits;
+      }
+      bits[word] |= 1L << row;
+    }
+  }
+
+  /**
+   * Integer 或 Long 列
+   */
+  private static final class LongColumn extends PrimitiveColumn {
+    private final boolean ints;
+    private volatile long[] values = new long[16];
+
+    LongColumn(boolean ints) {
+      this.ints = ints;
+    }
+
+    @Override
+    boolean accepts(Object value) {
+      return ints ? value instanceof Integer : value instanceof Long;
+    }
+
+    @Override
+    void set(int row, Object value) {
+      long[] array = values;
+      if (row >= array.length) {
+        array = Arrays.copyOf(array, capacity(array.length, row));
+        values = array;
+      }
+      array[row] = ((Number) value).longValue();
+      markPresent(row);
+    }
+
+    @Override
+    Object get(int row) {
+      if (!isPresent(row)) {
+        return null;
+      }
+      long value = values[row];
+      return ints ? (Object) (int) value : (Object) value;
+    }
+
+    @Override
+    IntPredicate matcher(Object expected) {
+      if (!accepts(expected)) {
+        return row -> false;
+      }
+      long[] array = values;
+      long value = ((Number) expected).longValue();
+      return row -> isPresent(row) && array[row] == value;
+    }
+
+    @Override
+    IntBinaryOperator comparator() {
+      long[] array = values;
+      return (a, b) -> Long.compare(array[a], array[b]);
+    }
+  }
+
+  /**
+   * Double 列
+   */
+  private static final class DoubleColumn extends PrimitiveColumn {
+    private volatile double[] values = new double[16];
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof Double;
+    }
+
+    @Override
+    void set(int row, Object value) {
+      double[] array = values;
+      if (row >= array.length) {
+        array = Arrays.copyOf(array, capacity(array.length, row));
+        values = array;
+      }
+      array[row] = (Double) value;
+      markPresent(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return isPresent(row) ? (Object) values[row] : null;
+    }
+
+    @Override
+    IntPredicate matcher(Object expected) {
+      if (!accepts(expected)) {
+        return row -> false;
+      }
+      double[] array = values;
+      // 与 Double.equals 一致：NaN 等于 NaN，0.0 不等于 -0.0
+      long bits = Double.doubleToLongBits((Double) expected);
+      return row -> isPresent(row) && Double.doubleToLongBits(array[row]) == bits;
+    }
+
+    @Override
+    IntBinaryOperator comparator() {
+      double[] array = values;
+      return (a, b) -> Double.compare(array[a], array[b]);
+    }
+  }
+
+  /**
+   * Boolean 列，值按位保存
+   */
+  private static final class BooleanColumn extends PrimitiveColumn {
+    private volatile long[] values = new long[1];
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof Boolean;
+    }
+
+    @Override
+    void set(int row, Object value) {
+      long[] bits = values;
+      int word = row >>> 6;
+      if (word >= bits.length) {
+        bits = Arrays.copyOf(bits, capacity(bits.length, word));
+        values = bits;
+      }
+      if ((Boolean) value) {
+        bits[word] |= 1L << row;
+      }
+      markPresent(row);
+    }
+
+    @Override
+    Object get(int row) {
+      return isPresent(row) ? (Object) bit(values, row) : null;
+    }
+
+    @Override
+    IntPredicate matcher(Object expected) {
+      if (!accepts(expected)) {
+        return row -> false;
+      }
+      long[] bits = values;
+      boolean value = (Boolean) expected;
+      return row -> isPresent(row) && bit(bits, row) == value;
+    }
+
+    @Override
+    IntBinaryOperator comparator() {
+      long[] bits = values;
+      return (a, b) -> Boolean.compare(bit(bits, a), bit(bits, b));
+    }
+
+    private static boolean bit(long[] bits, int row) {
+      return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+  }
+
+  /**
+   * 字典编码的字符串列，行中保存字典序号加一，0 表示没有值
+   */
+  private static final class StringColumn extends Column {
+    private volatile int[] codes = new int[16];
+    private volatile String[] dictionary = new String[16];
+    private final Map<String, Integer> lookup = new HashMap<>();
+
+    @Override
+    boolean accepts(Object value) {
+      return value instanceof String;
+    }
+
+    @Override
+    void set(int row, Object value) {
+      Integer code = lookup.get(value);
+      if (code == null) {
+        code = lookup.size();
+        String[] words = dictionary;
+        if (code >= words.length) {
+          words = Arrays.copyOf(words, capacity(words.length, code));
+          dictionary = words;
+        }
+        words[code] = (String) value;
+        lookup.put((String) value, code);
+      }
+
+      int[] array = codes;
+      if (row >= array.length) {
+        array = Arrays.copyOf(array, capacity(array.length, row));
+        codes = array;
+      }
+      array[row] = code + 1;
+    }
+
+    @Override
+    Object get(int row) {
+      int[] array = codes;
+      if (row >= array.length || array[row] == 0) {
+        return null;
+      }
+      return dictionary[array[row] - 1];
+    }
+
+    @Override
+    boolean isPresent(int row) {
+      int[] array = codes;
+      return row < array.length && array[row] != 0;
+    }
+
+    @Override
+    IntPredicate matcher(Object expected) {
+      Integer code = lookup.get(expected);
+      if (code == null) {
+        return row -> false;
+      }
+      int[] array = codes;
+      int stored = code + 1;
+      return row -> row < array.length && array[row] == stored;
+    }
+
+    @Override
+    IntBinaryOperator comparator() {
+      // 字典按字符串排序一次，行之间比较名次
+      String[] words = dictionary;
+      int size = lookup.size();
+      Integer[] sorted = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = i;
+      }
+      Arrays.sort(sorted, (a, b) -> words[a].compareTo(words[b]));
+      int[] rank = new int[size + 1];
+      for (int i = 0; i < size; i++) {
+        rank[sorted[i] + 1] = i;
+      }
+      int[] array = codes;
+      return (a, b) -> Integer.compare(rank[array[a]], rank[array[b]]);
+    }
+  }
+
+  /**
+   * 对象列
+   */
+  private static final class ObjectColumn extends Column {
+    private volatile Object[] values = new Object[16];
+
+    @Override
+    boolean accepts(Object value) {
+      return true;
+    }
+
+    @Override
+    void set(int row, Object value) {
+      Object[] array = values;
+      if (row >= array.length) {
+        array = Arrays.copyOf(array, capacity(array.length, row));
+        values = array;
+      }
+      array[row] = value;
+    }
+
+    @Override
+    Object get(int row) {
+      Object[] array = values;
+      return row < array.length ? array[row] : null;
+    }
+
+    @Override
+    boolean isPresent(int row) {
+      return get(row) != null;
+    }
+
+    @Override
+    IntPredicate matcher(Object expected) {
+      return row -> Objects.equals(expected, get(row));
+    }
+
+    @Override
+    IntBinaryOperator comparator() {
+      return (a, b) -> MemoryTable.compareValues(get(a), get(b));
+    }
+  }
+
+  /**
+   * 一行的只读视图
+   */
+  private static final class RowView extends AbstractMap<String, Object> {
+    private final Segment segment;
+    private final int row;
+    private int size = -1;
+
+    RowView(Segment segment, int row) {
+      this.segment = segment;
+      this.row = row;
+    }
+
+    @Override
+    public Object get(Object key) {
+      Column column = segment.columns.get(key);
+      return column == null ? null : column.get(row);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+      if (size < 0) {
+        int count = 0;
+        for (Column column : segment.columns.values()) {
+          if (column.isPresent(row)) {
+            count++;
+          }
+        }
+        size = count;
+      }
+      return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          Iterator<Map.Entry<String, Column>> columns = segment.columns.entrySet().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            private Entry<String, Object> next = advance();
+
+            private Entry<String, Object> advance() {
+              while (columns.hasNext()) {
+                Map.Entry<String, Column> column = columns.next();
+                Object value = column.getValue().get(row);
+                if (value != null) {
+                  return new SimpleImmutableEntry<>(column.getKey(), value);
+                }
+              }
+              return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+              return next != null;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (next == null) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, Object> current = next;
+              next = advance();
+              return current;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return RowView.this.size();
+        }
+      };
+    }
+  }
+}
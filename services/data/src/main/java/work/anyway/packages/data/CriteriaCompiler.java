@@ -0,0 +1,211 @@
+package work.anyway.packages.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 查询条件编译器
+ * 将 QueryCriteria 的条件映射编译为 WHERE 子句。键的格式为 "字段" 或 "字段__操作符"，
+ * 支持的操作符：like、gt、gte、lt、lte、in、ne，没有后缀时为相等条件。
+ * 字段名通过解析函数映射为列名，只有白名单中的列会出现在 SQL 中。
+ * 严格模式下无法解析的字段或不支持的操作符抛出异常，否则被忽略。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class CriteriaCompiler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CriteriaCompiler.class);
+
+  private static final String OPERATOR_SEPARATOR = "__";
+
+  private final Function<String, String> columnResolver;
+  private final BiFunction<String, Object, Object> valueConverter;
+  private final boolean strict;
+
+  /**
+   * 创建忽略无法解析的条件的编译器
+   *
+   * @param columnResolver 字段名到列名的映射，返回 null 表示该字段不可查询
+   * @param valueConverter 参数值到数据库类型的转换，参数为列名和值
+   */
+  CriteriaCompiler(Function<String, String> columnResolver, BiFunction<String, Object, Object> valueConverter) {
+    this(columnResolver, valueConverter, false);
+  }
+
+  /**
+   * @param columnResolver 字段名到列名的映射，返回 null 表示该字段不可查询
+   * @param valueConverter 参数值到数据库类型的转换，参数为列名和值
+   * @param strict         是否拒绝无法解析的字段和不支持的操作符
+   */
+  CriteriaCompiler(Function<String, String> columnResolver, BiFunction<String, Object, Object> valueConverter,
+      boolean strict) {
+    this.columnResolver = columnResolver;
+    this.valueConverter = valueConverter;
+    this.strict = strict;
+  }
+
+  /**
+   * 追加 WHERE 子句，没有可用条件时不追加任何内容
+   *
+   * @param sql        SQL 构建器
+   * @param conditions 条件映射
+   * @throws IllegalArgumentException 严格模式下条件引用了未知字段或不支持的操作符
+   */
+  void appendWhere(SqlBuilder sql, Map<String, Object> conditions) {
+    boolean first = true;
+    for (Map.Entry<String, Object> condition : conditions.entrySet()) {
+      String key = condition.getKey();
+      String field = key;
+      Operator operator = Operator.EQ;
+
+      int separator = key.lastIndexOf(OPERATOR_SEPARATOR);
+      if (separator > 0) {
+        Operator parsed = Operator.of(key.substring(separator + OPERATOR_SEPARATOR.length()));
+        if (parsed != null) {
+          field = key.substring(0, separator);
+          operator = parsed;
+        }
+      }
+
+      String column = columnResolver.apply(field);
+      if (column == null) {
+        if (strict) {
+          throw new IllegalArgumentException(separator > 0 && operator == Operator.EQ
+              && columnResolver.apply(key.substring(0, separator)) != null
+              ? "Unsupported operator in query condition: " + key
+              : "Unknown field in query condition: " + key);
+        }
+        LOG.debug("Ignoring condition on unknown field: {}", key);
+        continue;
+      }
+
+      sql.append(first ? " WHERE " : " AND ");
+      first = false;
+      String target = column;
+      operator.append(sql, column, condition.getValue(), value -> valueConverter.apply(target, value));
+    }
+  }
+
+  /**
+   * 条件的结构特征：每个键、值是否为 null 以及 IN 列表的长度。
+   * 特征相同的条件编译出相同的 SQL 文本，可以作为 SQL 模板缓存键的一部分。
+   *
+   * @param conditions 条件映射
+   */
+  List<Object> shape(Map<String, Object> conditions) {
+    List<Object> shape = new ArrayList<>(conditions.size() * 2);
+    for (Map.Entry<String, Object> condition : conditions.entrySet()) {
+      String key = condition.getKey();
+      Object value = condition.getValue();
+      shape.add(key);
+      if (value == null) {
+        shape.add(null);
+      } else if (key.endsWith(OPERATOR_SEPARATOR + Operator.IN.suffix)) {
+        shape.add(Operator.toList(value).size());
+      } else {
+        shape.add(Boolean.TRUE);
+      }
+    }
+    return shape;
+  }
+
+  /**
+   * 条件操作符
+   */
+  private enum Operator {
+    EQ(null, "=") {
+      @Override
+      void append(SqlBuilder sql, String column, Object value, UnaryOperator<Object> converter) {
+        if (value == null) {
+          sql.append(column).append(" IS NULL");
+        } else {
+          super.append(sql, column, value, converter);
+        }
+      }
+    },
+    NE("ne", "<>") {
+      @Override
+      void append(SqlBuilder sql, String column, Object value, UnaryOperator<Object> converter) {
+        if (value == null) {
+          sql.append(column).append(" IS NOT NULL");
+        } else {
+          super.append(sql, column, value, converter);
+        }
+      }
+    },
+    LIKE("like", "LIKE"),
+    GT("gt", ">"),
+    GTE("gte", ">="),
+    LT("lt", "<"),
+    LTE("lte", "<="),
+    IN("in", "IN") {
+      @Override
+      void append(SqlBuilder sql, String column, Object value, UnaryOperator<Object> converter) {
+        List<Object> values = toList(value);
+        if (values.isEmpty()) {
+          // 空集合不匹配任何行
+          sql.append("1 = 0");
+          return;
+        }
+        sql.append(column).append(" IN (");
+        for (int i = 0; i < values.size(); i++) {
+          if (i > 0) {
+            sql.append(", ");
+          }
+          sql.param(converter.apply(values.get(i)));
+        }
+        sql.append(")");
+      }
+    };
+
+    private final String suffix;
+    private final String symbol;
+
+    Operator(String suffix, String symbol) {
+      this.suffix = suffix;
+      this.symbol = symbol;
+    }
+
+    void append(SqlBuilder sql, String column, Object value, UnaryOperator<Object> converter) {
+      sql.append(column).append(" ").append(symbol).append(" ").param(converter.apply(value));
+    }
+
+    static Operator of(String suffix) {
+      for (Operator operator : values()) {
+        if (suffix.equals(operator.suffix)) {
+          return operator;
+        }
+      }
+      return null;
+    }
+
+    private static List<Object> toList(Object value) {
+      if (value == null) {
+        return Collections.emptyList();
+      }
+      if (value instanceof Collection) {
+        return new ArrayList<>((Collection<?>) value);
+      }
+      if (value.getClass().isArray()) {
+        int length = Array.getLength(value);
+        List<Object> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          values.add(Array.get(value, i));
+        }
+        return values;
+      }
+      return Collections.singletonList(value);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package work.anyway.packages.data;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.pgclient.PgConnectOptions;
@@ -8,6 +9,7 @@ import io.vertx.mysqlclient.MySQLConnectOptions;
 import io.vertx.mysqlclient.MySQLPool;
 import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.SqlConnectOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -16,14 +18,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 数据源管理器
- * 负责管理多个数据库连接池
+ * 负责管理多个数据库连接池。
+ * 数据源可通过 datasource.&lt;name&gt;.replicas 声明只读副本（逗号分隔的数据源名称），
+ * 此时只读操作由 {@link ReplicaRouter} 分发到副本上执行
  * 
  * @author 作者名
  * @since 1.0.0
@@ -32,9 +39,19 @@ import java.util.concurrent.ConcurrentHashMap;
 public class DataSourceManager implements InitializingBean, DisposableBean {
   private static final Logger LOG = LoggerFactory.getLogger(DataSourceManager.class);
 
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  // 每个连接缓存的预编译语句数
+  private static final int DEFAULT_PREPARED_STATEMENT_CACHE_SIZE = 256;
+  // 副本健康检查间隔、摘除阈值与写后读主库的时长
+  private static final int DEFAULT_REPLICA_HEALTH_CHECK_INTERVAL = 5000;
+  private static final int DEFAULT_REPLICA_FAILURE_THRESHOLD = 3;
+  private static final int DEFAULT_REPLICA_STICKY_MILLIS = 1000;
+
   private final Vertx vertx;
   private final Map<String, Pool> dataSources = new ConcurrentHashMap<>();
   private final Map<String, JsonObject> dataSourceConfigs = new ConcurrentHashMap<>();
+  private final Map<String, ReplicaRouter> replicaRouters = new ConcurrentHashMap<>();
+  private final Map<String, SchemaCatalog> schemaCatalogs = new ConcurrentHashMap<>();
   private String defaultDataSource = "default";
 
   /**
@@ -82,6 +99,17 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
       setDefaultDataSource(defaultDs);
       LOG.info("Default datasource set to: {}", defaultDs);
     }
+
+    // 后台加载默认数据源的表结构目录，失败时在第一次使用时重新加载
+    if (hasDataSource(defaultDataSource)) {
+      try {
+        getSchemaCatalog(defaultDataSource).refresh()
+            .onFailure(err -> LOG.warn("Failed to load schema catalog of datasource {}: {}",
+                defaultDataSource, err.getMessage()));
+      } catch (Exception e) {
+        LOG.warn("Failed to load schema catalog of datasource {}", defaultDataSource, e);
+      }
+    }
   }
 
   /**
@@ -173,6 +201,121 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
     return dataSources.computeIfAbsent(dataSourceName, this::createPool);
   }
 
+  /**
+   * 获取数据源的 SQL 方言
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   * @return SQL 方言
+   */
+  SqlDialect getDialect(String dataSourceName) {
+    return SqlDialect.of(getConfig(dataSourceName).getString("type", "postgresql"));
+  }
+
+  /**
+   * 获取批量写入的分块大小
+   * 对应配置项 datasource.&lt;name&gt;.batchSize，默认 500
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   * @return 每块的行数
+   */
+  int getBatchSize(String dataSourceName) {
+    return getConfig(dataSourceName).getInteger("batchSize", DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * 获取数据源的表结构目录
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   * @return 表结构目录
+   */
+  SchemaCatalog getSchemaCatalog(String dataSourceName) {
+    if (dataSourceName == null || dataSourceName.isEmpty()) {
+      dataSourceName = defaultDataSource;
+    }
+    return schemaCatalogs.computeIfAbsent(dataSourceName,
+        name -> new SchemaCatalog(name, getPool(name), getDialect(name)));
+  }
+
+  /**
+   * 获取数据源的只读副本路由
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   * @return 副本路由，未配置副本时返回 null
+   */
+  ReplicaRouter getReplicaRouter(String dataSourceName) {
+    if (dataSourceName == null || dataSourceName.isEmpty()) {
+      dataSourceName = defaultDataSource;
+    }
+    if (getConfig(dataSourceName).getValue("replicas") == null) {
+      return null;
+    }
+    return replicaRouters.computeIfAbsent(dataSourceName, this::createReplicaRouter);
+  }
+
+  /**
+   * 执行只读操作，配置了副本时在副本上执行
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   * @param query          在给定连接池上执行的查询
+   * @return 查询结果
+   */
+  <R> Future<R> read(String dataSourceName, Function<Pool, Future<R>> query) {
+    ReplicaRouter router = getReplicaRouter(dataSourceName);
+    return router == null ? query.apply(getPool(dataSourceName)) : router.read(query);
+  }
+
+  /**
+   * 记录当前请求写过数据源，之后的只读操作回到主库
+   * 
+   * @param dataSourceName 数据源名称，为空时使用默认数据源
+   */
+  void markWrite(String dataSourceName) {
+    ReplicaRouter router = getReplicaRouter(dataSourceName);
+    if (router != null) {
+      router.markWrite();
+    }
+  }
+
+  private ReplicaRouter createReplicaRouter(String dataSourceName) {
+    JsonObject config = getConfig(dataSourceName);
+    SqlDialect dialect = getDialect(dataSourceName);
+
+    List<String> names = new ArrayList<>();
+    List<Pool> pools = new ArrayList<>();
+    for (String replica : String.valueOf(config.getValue("replicas")).split(",")) {
+      replica = replica.trim();
+      if (replica.isEmpty()) {
+        continue;
+      }
+      if (replica.equals(dataSourceName)) {
+        throw new IllegalArgumentException("Datasource cannot be its own replica: " + dataSourceName);
+      }
+      if (getDialect(replica) != dialect) {
+        throw new IllegalArgumentException("Replica " + replica + " has a different database type than " + dataSourceName);
+      }
+      names.add(replica);
+      pools.add(getPool(replica));
+    }
+
+    return new ReplicaRouter(vertx, dataSourceName, getPool(dataSourceName), names, pools,
+        ReplicaRouter.Strategy.of(config.getString("replicaStrategy")),
+        config.getInteger("replicaHealthCheckInterval", DEFAULT_REPLICA_HEALTH_CHECK_INTERVAL),
+        config.getInteger("replicaFailureThreshold", DEFAULT_REPLICA_FAILURE_THRESHOLD),
+        config.getInteger("replicaStickyMillis", DEFAULT_REPLICA_STICKY_MILLIS));
+  }
+
+  private JsonObject getConfig(String dataSourceName) {
+    if (dataSourceName == null || dataSourceName.isEmpty()) {
+      dataSourceName = defaultDataSource;
+    }
+
+    JsonObject config = dataSourceConfigs.get(dataSourceName);
+    if (config == null) {
+      throw new IllegalArgumentException("Datasource not configured: " + dataSourceName);
+    }
+    return config;
+  }
+
   /**
    * 获取默认数据源连接池
    * 
@@ -223,6 +366,7 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
         .setDatabase(config.getString("database"))
         .setUser(config.getString("user"))
         .setPassword(config.getString("password"));
+    applyPreparedStatementCache(connectOptions, config);
 
     // 添加额外的连接选项
     if (config.containsKey("properties")) {
@@ -250,6 +394,7 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
         .setDatabase(config.getString("database"))
         .setUser(config.getString("user"))
         .setPassword(config.getString("password"));
+    applyPreparedStatementCache(connectOptions, config);
 
     // 添加额外的连接选项
     if (config.containsKey("properties")) {
@@ -264,6 +409,19 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
     return MySQLPool.pool(vertx, connectOptions, poolOptions);
   }
 
+  /**
+   * 启用连接级的预编译语句缓存，相同 SQL 文本只在服务端解析一次
+   * 
+   * @param connectOptions 连接选项
+   * @param config         配置信息，可通过 cachePreparedStatements、preparedStatementCacheMaxSize 调整
+   */
+  private void applyPreparedStatementCache(SqlConnectOptions connectOptions, JsonObject config) {
+    connectOptions
+        .setCachePreparedStatements(config.getBoolean("cachePreparedStatements", true))
+        .setPreparedStatementCacheMaxSize(
+            config.getInteger("preparedStatementCacheMaxSize", DEFAULT_PREPARED_STATEMENT_CACHE_SIZE));
+  }
+
   /**
    * 创建连接池选项
    * 
@@ -337,6 +495,7 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
    * @param name 数据源名称
    */
   public void closeDataSource(String name) {
+    schemaCatalogs.remove(name);
     Pool pool = dataSources.remove(name);
     if (pool != null) {
       LOG.info("Closing datasource: {}", name);
@@ -349,6 +508,9 @@ public class DataSourceManager implements InitializingBean, DisposableBean {
    */
   @Override
   public void destroy() throws Exception {
+    replicaRouters.values().forEach(ReplicaRouter::close);
+    replicaRouters.clear();
+
     LOG.info("Closing all datasource connection pools");
     dataSources.forEach((name, pool) -> {
       try {
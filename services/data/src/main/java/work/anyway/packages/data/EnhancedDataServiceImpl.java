@@ -1,7 +1,11 @@
 package work.anyway.packages.data;
 
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +13,19 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import work.anyway.interfaces.data.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * 增强的数据服务实现
- * 提供类型安全的 Repository 支持
+ * 提供类型安全的 Repository 支持，阻塞式仓库由响应式仓库适配而来，
+ * 并提供基于连接池事务的多步操作支持。
+ * 通过 {@code @Table(cacheable = true)} 或 {@link CollectionDef} 启用缓存的实体，
+ * 仓库外层包装二级缓存，同一数据源的同一实体共用一个缓存
  * 
  * @author 作者名
  * @since 1.0.0
@@ -22,6 +36,9 @@ public class EnhancedDataServiceImpl extends AsyncDatabaseDataServiceImpl {
 
   private static final Logger LOG = LoggerFactory.getLogger(EnhancedDataServiceImpl.class);
 
+  // 实体缓存，键为 "数据源:实体类名"
+  private final Map<String, EntityCache<?>> entityCaches = new ConcurrentHashMap<>();
+
   @Autowired
   public EnhancedDataServiceImpl(DataSourceManager dataSourceManager, Vertx vertx) {
     super(dataSourceManager, vertx);
@@ -31,20 +48,125 @@ public class EnhancedDataServiceImpl extends AsyncDatabaseDataServiceImpl {
   @Override
   public <T extends BaseEntity> Repository<T> getRepository(CollectionDef collectionDef, Class<T> entityClass) {
     // 使用类型安全的 Repository 实现
-    Pool pool = dataSourceManager.getPool(collectionDef.getDataSource());
-    return new TypedRepositoryImpl<>(vertx, pool, entityClass);
+    return new BlockingRepositoryAdapter<>(getReactiveRepository(collectionDef, entityClass));
   }
 
   @Override
   public <T extends BaseEntity> Repository<T> getRepository(String table, Class<T> entityClass) {
-    Pool pool = dataSourceManager.getDefaultPool();
-    return new TypedRepositoryImpl<>(vertx, pool, entityClass);
+    return new BlockingRepositoryAdapter<>(getReactiveRepository(table, entityClass));
   }
 
   @Override
   public <T extends BaseEntity> Repository<T> getRepository(String dataSource, String table, Class<T> entityClass) {
+    return new BlockingRepositoryAdapter<>(getReactiveRepository(dataSource, table, entityClass));
+  }
+
+  @Override
+  public <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef,
+      Class<T> entityClass) {
+    // getPool 对空数据源名称使用默认数据源
+    String dataSource = collectionDef.getDataSource();
     Pool pool = dataSourceManager.getPool(dataSource);
-    return new TypedRepositoryImpl<>(vertx, pool, entityClass);
+    TypedRepositoryImpl<T> repository = new TypedRepositoryImpl<>(pool,
+        dataSourceManager.getReplicaRouter(dataSource), dataSourceManager.getDialect(dataSource),
+        dataSourceManager.getBatchSize(dataSource), entityClass);
+
+    EntityCacheOptions cacheOptions = collectionDef.getCacheOptions() != null
+        ? collectionDef.getCacheOptions()
+        : EntityMetadata.of(entityClass).getCacheOptions();
+    if (cacheOptions == null) {
+      return repository;
+    }
+    return new CachingRepository<>(repository, entityCache(dataSource, entityClass, cacheOptions));
+  }
+
+  @Override
+  public List<EntityCacheStats> getEntityCacheStats() {
+    List<EntityCacheStats> stats = new ArrayList<>(entityCaches.size());
+    for (EntityCache<?> cache : entityCaches.values()) {
+      stats.add(cache.stats());
+    }
+    return stats;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends BaseEntity> EntityCache<T> entityCache(String dataSource, Class<T> entityClass,
+      EntityCacheOptions options) {
+    String name = (dataSource == null || dataSource.isEmpty() ? "default" : dataSource) + ":" + entityClass.getName();
+    return (EntityCache<T>) entityCaches.computeIfAbsent(name, key -> {
+      LOG.info("Entity cache enabled for {}: {}", key, options);
+      return new EntityCache<>(key, options, EntityMapper.of(entityClass));
+    });
   }
 
-}
\ No newline at end of file
+  @Override
+  public <R> R inTransaction(Supplier<R> work) {
+    // 已在事务中时加入外层事务
+    if (TransactionBinding.current() != null) {
+      return work.get();
+    }
+    if (Context.isOnEventLoopThread()) {
+      throw new IllegalStateException("Blocking transaction started on event loop thread, use inTransactionAsync instead");
+    }
+
+    Pool pool = dataSourceManager.getDefaultPool();
+    SqlConnection connection = await(pool::getConnection, "Failed to open transaction connection");
+    TransactionBinding binding = new TransactionBinding(pool, connection);
+    try {
+      Transaction transaction = await(connection::begin, "Failed to begin transaction");
+      TransactionBinding.bind(binding);
+      R result;
+      try {
+        result = work.get();
+      } catch (RuntimeException | Error e) {
+        rollbackQuietly(transaction);
+        throw e;
+      } finally {
+        TransactionBinding.unbind();
+      }
+      await(transaction::commit, "Failed to commit transaction");
+      return result;
+    } finally {
+      connection.close();
+      // 无论提交还是回滚，事务期间写过的缓存条目都要再失效一次
+      binding.complete();
+    }
+  }
+
+  @Override
+  public <R> Future<R> inTransactionAsync(Function<TransactionScope, Future<R>> work) {
+    Pool pool = dataSourceManager.getDefaultPool();
+    List<Runnable> afterCompletion = new ArrayList<>();
+    return pool.<R>withTransaction(connection -> work.apply(new TransactionScope() {
+      @Override
+      public <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef,
+          Class<T> entityClass) {
+        TransactionalRepository<T> repository = (TransactionalRepository<T>) EnhancedDataServiceImpl.this
+            .getReactiveRepository(collectionDef, entityClass);
+        if (repository.getPool() != pool) {
+          throw new IllegalArgumentException(
+              "Transaction only covers the default data source: " + collectionDef.getDataSource());
+        }
+        return repository.bind(connection, afterCompletion);
+      }
+    })).onComplete(ar -> TransactionBinding.runAll(afterCompletion));
+  }
+
+  private void rollbackQuietly(Transaction transaction) {
+    try {
+      BlockingRepositoryAdapter.await(transaction::rollback);
+    } catch (Exception e) {
+      LOG.error("Failed to rollback transaction", e);
+    }
+  }
+
+  private static <R> R await(Supplier<Future<R>> operation, String message) {
+    try {
+      return BlockingRepositoryAdapter.await(operation);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(message, e);
+    }
+  }
+}
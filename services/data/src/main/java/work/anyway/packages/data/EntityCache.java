@@ -0,0 +1,213 @@
+package work.anyway.packages.data;
+
+import work.anyway.interfaces.data.EntityCacheOptions;
+import work.anyway.interfaces.data.EntityCacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实体二级缓存
+ * 按 ID 缓存实体，可选地按查询条件缓存结果列表，两者共用容量上限（LRU 淘汰）和存活时间。
+ * 缓存中保存的是实体副本，读取时也返回副本，调用方修改返回的实体不会影响缓存。
+ * 每次失效都会递增代数，查询开始前记录代数，结果返回时代数已变化则不写入缓存，
+ * 避免并发写入之前读到的旧值在失效之后被放回缓存。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class EntityCache<T> {
+
+  private final String name;
+  private final long ttlMillis;
+  private final int maxSize;
+  private final boolean cacheQueries;
+  private final EntityMapper<T> mapper;
+
+  // 按访问顺序排列，超过容量时淘汰最久未使用的条目；所有访问都在 this 上同步
+  private final LinkedHashMap<Object, Entry> entries;
+  private long generation;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder queryHits = new LongAdder();
+  private final LongAdder queryMisses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  EntityCache(String name, EntityCacheOptions options, EntityMapper<T> mapper) {
+    this.name = name;
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(options.getTtlSeconds());
+    this.maxSize = options.getMaxSize();
+    this.cacheQueries = options.isCacheQueries();
+    this.mapper = mapper;
+    this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+        if (size() > EntityCache.this.maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  boolean isCacheQueries() {
+    return cacheQueries;
+  }
+
+  /**
+   * 当前代数，在查询数据库之前获取
+   */
+  synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * 按 ID 读取
+   *
+   * @return 实体副本，未命中时返回 null
+   */
+  T get(String id) {
+    Object value = lookup(new IdKey(id));
+    if (value == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    @SuppressWarnings("unchecked")
+    T entity = (T) value;
+    return mapper.copy(entity);
+  }
+
+  /**
+   * 按 ID 写入
+   *
+   * @param generation 查询开始前的代数
+   */
+  void put(String id, T entity, long generation) {
+    store(new IdKey(id), mapper.copy(entity), generation);
+  }
+
+  /**
+   * 读取查询结果
+   *
+   * @return 结果列表的副本，未命中时返回 null
+   */
+  List<T> getQuery(List<Object> key) {
+    Object value = lookup(key);
+    if (value == null) {
+      queryMisses.increment();
+      return null;
+    }
+    queryHits.increment();
+    @SuppressWarnings("unchecked")
+    List<T> entities = (List<T>) value;
+    return copyAll(entities);
+  }
+
+  /**
+   * 写入查询结果
+   *
+   * @param generation 查询开始前的代数
+   */
+  void putQuery(List<Object> key, List<T> entities, long generation) {
+    store(key, copyAll(entities), generation);
+  }
+
+  /**
+   * 使给定 ID 的实体失效，同时清空所有查询结果
+   */
+  synchronized void invalidate(Collection<String> ids) {
+    generation++;
+    invalidations.increment();
+    for (String id : ids) {
+      entries.remove(new IdKey(id));
+    }
+    entries.keySet().removeIf(key -> !(key instanceof IdKey));
+  }
+
+  /**
+   * 清空缓存
+   */
+  synchronized void invalidateAll() {
+    generation++;
+    invalidations.increment();
+    entries.clear();
+  }
+
+  synchronized EntityCacheStats stats() {
+    return new EntityCacheStats(name, entries.size(), hits.sum(), misses.sum(), queryHits.sum(),
+        queryMisses.sum(), evictions.sum(), invalidations.sum());
+  }
+
+  private synchronized Object lookup(Object key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt <= System.currentTimeMillis()) {
+      entries.remove(key);
+      evictions.increment();
+      return null;
+    }
+    return entry.value;
+  }
+
+  private synchronized void store(Object key, Object value, long generation) {
+    if (generation != this.generation) {
+      // 查询期间发生过写入，结果可能已过时
+      return;
+    }
+    entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+  }
+
+  private List<T> copyAll(List<T> entities) {
+    List<T> copies = new ArrayList<>(entities.size());
+    for (T entity : entities) {
+      copies.add(mapper.copy(entity));
+    }
+    return copies;
+  }
+
+  /**
+   * 缓存条目
+   */
+  private static final class Entry {
+    private final Object value;
+    private final long expiresAt;
+
+    Entry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * ID 键，与查询键（List）区分
+   */
+  private static final class IdKey {
+    private final String id;
+
+    IdKey(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IdKey && ((IdKey) o).id.equals(id);
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package work.anyway.packages.data;
+
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import work.anyway.interfaces.data.EntityMetadata;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 实体映射器
+ * 每个实体类只构建一次：列名、字段访问器和从数据库类型到字段类型的转换函数都预先确定，
+ * 每个结果集只解析一次列位置，逐行映射时只做按位置取值和直接的 setter 调用。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class EntityMapper<T> {
+
+  private static final Map<Class<?>, EntityMapper<?>> CACHE = new ConcurrentHashMap<>();
+
+  private final EntityMetadata<T> metadata;
+  private final ColumnMapping[] columns;
+  private final ColumnMapping[] updateColumns;
+
+  private EntityMapper(EntityMetadata<T> metadata) {
+    this.metadata = metadata;
+
+    List<EntityMetadata.FieldMetadata> fields = metadata.getPersistentFields();
+    this.columns = new ColumnMapping[fields.size()];
+    List<ColumnMapping> update = new ArrayList<>(fields.size());
+    for (int i = 0; i < fields.size(); i++) {
+      columns[i] = new ColumnMapping(fields.get(i));
+      if (!columns[i].field.isPrimaryKey()) {
+        update.add(columns[i]);
+      }
+    }
+    // UPDATE 的参数顺序：非主键字段在前，主键在最后
+    EntityMetadata.FieldMetadata primaryKey = metadata.getPrimaryKeyField();
+    if (primaryKey != null) {
+      update.add(new ColumnMapping(primaryKey));
+    }
+    this.updateColumns = update.toArray(new ColumnMapping[0]);
+  }
+
+  /**
+   * 获取实体类的映射器
+   */
+  @SuppressWarnings("unchecked")
+  static <T> EntityMapper<T> of(Class<T> entityClass) {
+    return (EntityMapper<T>) CACHE.computeIfAbsent(entityClass,
+        type -> new EntityMapper<>(EntityMetadata.of(type)));
+  }
+
+  /**
+   * 将结果集转换为实体列表
+   */
+  List<T> toEntities(RowSet<Row> rows) {
+    List<T> entities = new ArrayList<>(rows.size());
+    if (rows.size() == 0) {
+      return entities;
+    }
+
+    int[] positions = positions(rows.columnsNames());
+    for (Row row : rows) {
+      entities.add(toEntity(row, positions));
+    }
+    return entities;
+  }
+
+  /**
+   * 按持久化字段顺序提取实体的列值（用于 INSERT）
+   */
+  List<Object> values(T entity) {
+    List<Object> values = new ArrayList<>(columns.length);
+    for (ColumnMapping column : columns) {
+      values.add(toDatabase(column.field.getValue(entity)));
+    }
+    return values;
+  }
+
+  /**
+   * 将实体转换为 UPDATE 参数
+   */
+  Tuple updateTuple(T entity) {
+    List<Object> values = new ArrayList<>(updateColumns.length);
+    for (ColumnMapping column : updateColumns) {
+      values.add(toDatabase(column.field.getValue(entity)));
+    }
+    return Tuple.from(values);
+  }
+
+  /**
+   * 复制实体的持久化字段，Date 字段复制为新对象，其余字段共享引用
+   */
+  T copy(T entity) {
+    T copy = metadata.newInstance();
+    for (ColumnMapping column : columns) {
+      Object value = column.field.getValue(entity);
+      if (value instanceof Date) {
+        value = ((Date) value).clone();
+      }
+      if (value != null || !column.primitive) {
+        column.field.setValue(copy, value);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * 转换值为数据库兼容格式
+   */
+  static Object toDatabase(Object value) {
+    if (value == null) {
+      return null;
+    }
+
+    // Date 转 LocalDateTime
+    if (value instanceof Date) {
+      return ((Date) value).toInstant()
+          .atZone(ZoneId.systemDefault())
+          .toLocalDateTime();
+    }
+
+    // Boolean 转 Integer (0/1)
+    if (value instanceof Boolean) {
+      return ((Boolean) value) ? 1 : 0;
+    }
+
+    // Enum 转 String
+    if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+
+    return value;
+  }
+
+  /**
+   * 计算每个字段在结果集中的列位置，结果集中没有的列为 -1
+   */
+  private int[] positions(List<String> columnNames) {
+    int[] positions = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      positions[i] = columnNames.indexOf(columns[i].columnName);
+    }
+    return positions;
+  }
+
+  private T toEntity(Row row, int[] positions) {
+    T entity = metadata.newInstance();
+    for (int i = 0; i < columns.length; i++) {
+      int position = positions[i];
+      if (position >= 0) {
+        columns[i].set(entity, row.getValue(position));
+      }
+    }
+    return entity;
+  }
+
+  /**
+   * 单个字段的列映射
+   */
+  private static final class ColumnMapping {
+    private final EntityMetadata.FieldMetadata field;
+    private final String columnName;
+    private final boolean primitive;
+    private final UnaryOperator<Object> fromDatabase;
+
+    ColumnMapping(EntityMetadata.FieldMetadata field) {
+      this.field = field;
+      this.columnName = field.getColumnName();
+      this.primitive = field.getField().getType().isPrimitive();
+      this.fromDatabase = fromDatabase(field.getField().getType());
+    }
+
+    void set(Object entity, Object value) {
+      if (value == null) {
+        // 基本类型字段保留默认值
+        if (!primitive) {
+          field.setValue(entity, null);
+        }
+        return;
+      }
+      field.setValue(entity, fromDatabase.apply(value));
+    }
+  }
+
+  /**
+   * 按字段类型选择从数据库格式转换的函数
+   */
+  private static UnaryOperator<Object> fromDatabase(Class<?> targetType) {
+    // LocalDateTime 转 Date
+    if (targetType == Date.class) {
+      return value -> value instanceof LocalDateTime
+          ? Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant())
+          : value;
+    }
+
+    // Integer/Boolean 转 Boolean
+    if (targetType == Boolean.class || targetType == boolean.class) {
+      return value -> value instanceof Number ? ((Number) value).intValue() != 0 : value;
+    }
+
+    // String 转 Enum
+    if (targetType.isEnum()) {
+      return enumConverter(targetType);
+    }
+
+    return UnaryOperator.identity();
+  }
+
+  /**
+   * 枚举转换：依次按名称、大写名称、getCode() 的返回值匹配
+   */
+  private static UnaryOperator<Object> enumConverter(Class<?> enumType) {
+    Map<String, Object> byName = new HashMap<>();
+    Map<String, Object> byCode = new HashMap<>();
+    Method getCode = null;
+    try {
+      getCode = enumType.getMethod("getCode");
+    } catch (NoSuchMethodException e) {
+      // 没有 getCode 方法，只按名称匹配
+    }
+    for (Object constant : enumType.getEnumConstants()) {
+      byName.put(((Enum<?>) constant).name(), constant);
+      if (getCode != null) {
+        try {
+          Object code = getCode.invoke(constant);
+          if (code != null) {
+            byCode.putIfAbsent(code.toString(), constant);
+          }
+        } catch (ReflectiveOperationException e) {
+          // 忽略反射错误
+        }
+      }
+    }
+
+    return value -> {
+      if (!(value instanceof String)) {
+        return value;
+      }
+      String stringValue = (String) value;
+      Object constant = byName.get(stringValue);
+      if (constant == null) {
+        constant = byName.get(stringValue.toUpperCase());
+      }
+      if (constant == null) {
+        constant = byCode.get(stringValue);
+      }
+      if (constant == null) {
+        throw new IllegalArgumentException("Cannot convert '" + stringValue + "' to " + enumType.getName());
+      }
+      return constant;
+    };
+  }
+}
@@ -0,0 +1,80 @@
+package work.anyway.packages.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按行存储的内存表
+ * 每条记录保存为独立的 HashMap，读取时返回副本，调用方可以随意修改返回的记录。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class HashMemoryTable implements MemoryTable {
+
+  private final Map<String, Map<String, Object>> rows = new ConcurrentHashMap<>();
+
+  @Override
+  public Map<String, Object> get(String id) {
+    Map<String, Object> row = rows.get(id);
+    return row == null ? null : new HashMap<>(row);
+  }
+
+  @Override
+  public Map<String, Object> put(String id, Map<String, Object> row) {
+    rows.put(id, row);
+    return new HashMap<>(row);
+  }
+
+  @Override
+  public Map<String, Object> remove(String id) {
+    return rows.remove(id);
+  }
+
+  @Override
+  public int size() {
+    return rows.size();
+  }
+
+  @Override
+  public List<Map<String, Object>> scan(Map<String, Object> criteria, String sortBy, boolean ascending) {
+    List<Map<String, Object>> results = new ArrayList<>();
+    for (Map<String, Object> row : rows.values()) {
+      if (matches(row, criteria)) {
+        results.add(new HashMap<>(row));
+      }
+    }
+
+    if (sortBy != null) {
+      Comparator<Map<String, Object>> comparator = Comparator.comparing(row -> row.get(sortBy),
+          Comparator.nullsFirst(MemoryTable::compareValues));
+      results.sort(ascending ? comparator : comparator.reversed());
+    }
+    return results;
+  }
+
+  @Override
+  public long count(Map<String, Object> criteria) {
+    if (criteria == null || criteria.isEmpty()) {
+      return rows.size();
+    }
+    return rows.values().stream().filter(row -> matches(row, criteria)).count();
+  }
+
+  private static boolean matches(Map<String, Object> row, Map<String, Object> criteria) {
+    if (criteria == null) {
+      return true;
+    }
+    for (Map.Entry<String, Object> entry : criteria.entrySet()) {
+      if (!Objects.equals(entry.getValue(), row.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
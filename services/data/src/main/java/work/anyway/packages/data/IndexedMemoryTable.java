@@ -0,0 +1,428 @@
+package work.anyway.packages.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 带二级索引的内存表
+ * 包装一个存储引擎，在保存、更新、删除时维护索引，查询时由一个简单的规划器选择索引：
+ * 优先使用命中记录最少的相等 / IN 条件，其次使用有序索引上的范围条件，
+ * 没有可用的条件索引但排序字段有有序索引时按索引顺序读取，都不满足时交给存储引擎全表扫描。
+ * 条件键的格式与 {@link CriteriaCompiler} 一致："字段" 或 "字段__操作符"，
+ * 操作符为 ne、like、gt、gte、lt、lte、in；范围比较中类型不同的值视为不满足条件。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class IndexedMemoryTable implements MemoryTable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexedMemoryTable.class);
+
+  private static final String OPERATOR_SEPARATOR = "__";
+
+  private final String name;
+  private final MemoryTable delegate;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // 字段名 -> 索引
+  private final Map<String, MemoryIndex> indexes = new ConcurrentHashMap<>();
+
+  /**
+   * @param name     集合名称，用于日志
+   * @param delegate 存储引擎
+   */
+  IndexedMemoryTable(String name, MemoryTable delegate) {
+    this.name = name;
+    this.delegate = delegate;
+  }
+
+  /**
+   * 创建索引并用已有记录填充，同一字段已有索引时替换
+   *
+   * @param field  字段名
+   * @param sorted 是否为有序索引
+   */
+  void createIndex(String field, boolean sorted) {
+    lock.writeLock().lock();
+    try {
+      MemoryIndex index = new MemoryIndex(field, sorted);
+      for (Map<String, Object> row : delegate.scan(Collections.emptyMap(), null, true)) {
+        index.add(String.valueOf(row.get("id")), row.get(field));
+      }
+      indexes.put(field, index);
+      LOG.info("Created {} index on {}.{}", sorted ? "sorted" : "hash", name, field);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 删除索引
+   *
+   * @return 索引存在时返回 true
+   */
+  boolean dropIndex(String field) {
+    lock.writeLock().lock();
+    try {
+      return indexes.remove(field) != null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<String, Object> get(String id) {
+    return delegate.get(id);
+  }
+
+  @Override
+  public Map<String, Object> put(String id, Map<String, Object> row) {
+    lock.writeLock().lock();
+    try {
+      Map<String, Object> previous = indexes.isEmpty() ? null : delegate.get(id);
+      Map<String, Object> saved = delegate.put(id, row);
+      for (MemoryIndex index : indexes.values()) {
+        if (previous != null) {
+          index.remove(id, previous.get(index.getField()));
+        }
+        index.add(id, row.get(index.getField()));
+      }
+      return saved;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<String, Object> remove(String id) {
+    lock.writeLock().lock();
+    try {
+      Map<String, Object> removed = delegate.remove(id);
+      if (removed != null) {
+        for (MemoryIndex index : indexes.values()) {
+          index.remove(id, removed.get(index.getField()));
+        }
+      }
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  @Override
+  public List<Map<String, Object>> scan(Map<String, Object> criteria, String sortBy, boolean ascending) {
+    List<Condition> conditions = parse(criteria);
+    lock.readLock().lock();
+    try {
+      Collection<String> candidates = plan(conditions);
+      if (candidates != null) {
+        List<Map<String, Object>> results = fetch(candidates, conditions);
+        if (sortBy != null) {
+          Comparator<Map<String, Object>> comparator = Comparator.comparing(row -> row.get(sortBy),
+              Comparator.nullsFirst(MemoryTable::compareValues));
+          results.sort(ascending ? comparator : comparator.reversed());
+        }
+        return results;
+      }
+
+      MemoryIndex order = sortBy == null ? null : indexes.get(sortBy);
+      if (order != null && order.supportsOrder()) {
+        LOG.debug("Scanning {} in order of index on {}", name, sortBy);
+        return fetch(order.ordered(ascending), conditions);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return filter(delegate.scan(equalities(conditions), sortBy, ascending), conditions);
+  }
+
+  @Override
+  public long count(Map<String, Object> criteria) {
+    List<Condition> conditions = parse(criteria);
+    lock.readLock().lock();
+    try {
+      Collection<String> candidates = plan(conditions);
+      if (candidates != null) {
+        return fetch(candidates, conditions).size();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    if (conditions.stream().allMatch(condition -> condition.operator == Operator.EQ)) {
+      return delegate.count(equalities(conditions));
+    }
+    return filter(delegate.scan(equalities(conditions), null, true), conditions).size();
+  }
+
+  /**
+   * 选择索引，返回候选记录 ID；没有可用索引时返回 null
+   */
+  private Collection<String> plan(List<Condition> conditions) {
+    Collection<String> best = null;
+    for (Condition condition : conditions) {
+      MemoryIndex index = indexes.get(condition.field);
+      Collection<String> candidates = index == null ? null : condition.lookup(index);
+      if (candidates != null && (best == null || candidates.size() < best.size())) {
+        best = candidates;
+      }
+    }
+    if (best != null) {
+      return best;
+    }
+
+    // 同一字段上的范围条件合并为一次区间查询
+    Map<String, Range> ranges = new LinkedHashMap<>();
+    for (Condition condition : conditions) {
+      MemoryIndex index = indexes.get(condition.field);
+      if (index != null && condition.operator.range && index.supportsRange(condition.value)) {
+        ranges.computeIfAbsent(condition.field, field -> new Range()).narrow(condition);
+      }
+    }
+    for (Map.Entry<String, Range> entry : ranges.entrySet()) {
+      Range range = entry.getValue();
+      Collection<String> candidates = indexes.get(entry.getKey())
+          .range(range.from, range.fromInclusive, range.to, range.toInclusive);
+      if (best == null || candidates.size() < best.size()) {
+        best = candidates;
+      }
+    }
+    if (best != null) {
+      LOG.debug("Planned range scan on {} with {} candidates", name, best.size());
+    }
+    return best;
+  }
+
+  private List<Map<String, Object>> fetch(Collection<String> ids, List<Condition> conditions) {
+    List<Map<String, Object>> results = new ArrayList<>(Math.min(ids.size(), 1024));
+    for (String id : ids) {
+      Map<String, Object> row = delegate.get(id);
+      if (row != null && matches(row, conditions)) {
+        results.add(row);
+      }
+    }
+    return results;
+  }
+
+  private static List<Map<String, Object>> filter(List<Map<String, Object>> rows, List<Condition> conditions) {
+    if (conditions.stream().allMatch(condition -> condition.operator == Operator.EQ)) {
+      return rows;
+    }
+    rows.removeIf(row -> !matches(row, conditions));
+    return rows;
+  }
+
+  private static boolean matches(Map<String, Object> row, List<Condition> conditions) {
+    for (Condition condition : conditions) {
+      if (!condition.test(row.get(condition.field))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 相等条件，交给存储引擎过滤
+   */
+  private static Map<String, Object> equalities(List<Condition> conditions) {
+    Map<String, Object> criteria = new LinkedHashMap<>();
+    for (Condition condition : conditions) {
+      if (condition.operator == Operator.EQ) {
+        criteria.put(condition.field, condition.value);
+      }
+    }
+    return criteria;
+  }
+
+  private static List<Condition> parse(Map<String, Object> criteria) {
+    if (criteria == null || criteria.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Condition> conditions = new ArrayList<>(criteria.size());
+    for (Map.Entry<String, Object> entry : criteria.entrySet()) {
+      String key = entry.getKey();
+      int separator = key.lastIndexOf(OPERATOR_SEPARATOR);
+      Operator operator = separator > 0 ? Operator.of(key.substring(separator + OPERATOR_SEPARATOR.length())) : null;
+      if (operator == null) {
+        conditions.add(new Condition(key, Operator.EQ, entry.getValue()));
+      } else {
+        conditions.add(new Condition(key.substring(0, separator), operator, entry.getValue()));
+      }
+    }
+    return conditions;
+  }
+
+  /**
+   * 条件操作符
+   */
+  private enum Operator {
+    EQ(null, false), NE("ne", false), LIKE("like", false), IN("in", false),
+    GT("gt", true), GTE("gte", true), LT("lt", true), LTE("lte", true);
+
+    private final String suffix;
+    private final boolean range;
+
+    Operator(String suffix, boolean range) {
+      this.suffix = suffix;
+      this.range = range;
+    }
+
+    static Operator of(String suffix) {
+      for (Operator operator : values()) {
+        if (suffix.equalsIgnoreCase(operator.suffix)) {
+          return operator;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * 单个条件
+   */
+  private static final class Condition {
+    private final String field;
+    private final Operator operator;
+    private final Object value;
+    private final Set<Object> values;
+    private final Pattern pattern;
+
+    Condition(String field, Operator operator, Object value) {
+      this.field = field;
+      this.operator = operator;
+      this.value = value;
+      this.values = operator == Operator.IN ? toSet(value) : null;
+      this.pattern = operator == Operator.LIKE && value != null ? likePattern(String.valueOf(value)) : null;
+    }
+
+    /**
+     * 通过索引查找候选记录，不能使用索引时返回 null
+     */
+    Collection<String> lookup(MemoryIndex index) {
+      if (operator == Operator.EQ) {
+        return index.equal(value);
+      }
+      if (operator == Operator.IN) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Object item : values) {
+          ids.addAll(index.equal(item));
+        }
+        return ids;
+      }
+      return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    boolean test(Object actual) {
+      switch (operator) {
+        case EQ:
+          return Objects.equals(value, actual);
+        case NE:
+          return value == null ? actual != null : actual != null && !value.equals(actual);
+        case IN:
+          return actual != null && values.contains(actual);
+        case LIKE:
+          return actual != null && pattern != null && pattern.matcher(String.valueOf(actual)).matches();
+        default:
+          if (actual == null || value == null || actual.getClass() != value.getClass()
+              || !(actual instanceof Comparable)) {
+            return false;
+          }
+          int result = ((Comparable) actual).compareTo(value);
+          switch (operator) {
+            case GT:
+              return result > 0;
+            case GTE:
+              return result >= 0;
+            case LT:
+              return result < 0;
+            default:
+              return result <= 0;
+          }
+      }
+    }
+
+    private static Set<Object> toSet(Object value) {
+      if (value instanceof Collection) {
+        return new LinkedHashSet<>((Collection<?>) value);
+      }
+      if (value instanceof Object[]) {
+        Set<Object> set = new LinkedHashSet<>();
+        Collections.addAll(set, (Object[]) value);
+        return set;
+      }
+      return value == null ? Collections.emptySet() : Collections.singleton(value);
+    }
+
+    /**
+     * SQL LIKE 模式转换为正则表达式：% 匹配任意字符串，_ 匹配单个字符
+     */
+    private static Pattern likePattern(String like) {
+      StringBuilder regex = new StringBuilder();
+      StringBuilder literal = new StringBuilder();
+      for (char c : like.toCharArray()) {
+        if (c == '%' || c == '_') {
+          if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+          }
+          regex.append(c == '%' ? ".*" : ".");
+        } else {
+          literal.append(c);
+        }
+      }
+      if (literal.length() > 0) {
+        regex.append(Pattern.quote(literal.toString()));
+      }
+      return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+  }
+
+  /**
+   * 同一字段上合并后的范围
+   */
+  private static final class Range {
+    private Object from;
+    private boolean fromInclusive;
+    private Object to;
+    private boolean toInclusive;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void narrow(Condition condition) {
+      Comparable bound = (Comparable) condition.value;
+      boolean inclusive = condition.operator == Operator.GTE || condition.operator == Operator.LTE;
+      if (condition.operator == Operator.GT || condition.operator == Operator.GTE) {
+        int result = from == null ? 1 : bound.compareTo(from);
+        if (result > 0 || (result == 0 && !inclusive)) {
+          from = bound;
+          fromInclusive = inclusive;
+        }
+      } else {
+        int result = to == null ? -1 : bound.compareTo(to);
+        if (result < 0 || (result == 0 && !inclusive)) {
+          to = bound;
+          toInclusive = inclusive;
+        }
+      }
+    }
+  }
+}
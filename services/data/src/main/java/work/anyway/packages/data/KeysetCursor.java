@@ -0,0 +1,115 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.json.JsonArray;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * keyset 分页游标
+ * 记录上一页最后一行的排序字段名、排序键和主键，编码为 URL 安全的 Base64 文本。
+ * 排序键按字段类型编码：Date 保存为毫秒数，枚举保存为名称，其余类型保存为 JSON 值。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class KeysetCursor {
+
+  private final String sortField;
+  private final Object sortValue;
+  private final String id;
+
+  KeysetCursor(String sortField, Object sortValue, String id) {
+    this.sortField = sortField;
+    this.sortValue = sortValue;
+    this.id = id;
+  }
+
+  /**
+   * 排序字段名，按主键排序时为 null
+   */
+  String getSortField() {
+    return sortField;
+  }
+
+  Object getSortValue() {
+    return sortValue;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  String encode() {
+    Object encoded = sortValue;
+    if (sortValue instanceof Date) {
+      encoded = ((Date) sortValue).getTime();
+    } else if (sortValue instanceof Enum) {
+      encoded = ((Enum<?>) sortValue).name();
+    } else if (sortValue instanceof LocalDateTime) {
+      encoded = sortValue.toString();
+    }
+    String json = new JsonArray().add(sortField).add(encoded).add(id).encode();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解码游标
+   *
+   * @param token     游标文本
+   * @param sortField 当前查询的排序字段名，必须与游标记录的一致
+   * @param sortType  排序字段的类型，用于还原排序键
+   * @throws IllegalArgumentException 游标格式错误或与当前查询不匹配
+   */
+  static KeysetCursor decode(String token, String sortField, Class<?> sortType) {
+    JsonArray json;
+    try {
+      json = new JsonArray(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + token, e);
+    }
+    if (json.size() != 3 || json.getString(2) == null) {
+      throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+    String cursorField = json.getString(0);
+    if (sortField == null ? cursorField != null : !sortField.equals(cursorField)) {
+      throw new IllegalArgumentException("Cursor was created for a different sort field: " + cursorField);
+    }
+    Object sortValue = sortType == null ? null : decodeValue(json.getValue(1), sortType);
+    return new KeysetCursor(cursorField, sortValue, json.getString(2));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object decodeValue(Object value, Class<?> type) {
+    if (value == null) {
+      throw new IllegalArgumentException("Cursor has no sort value");
+    }
+    if (type == Date.class) {
+      return new Date(((Number) value).longValue());
+    }
+    if (type == LocalDateTime.class) {
+      return LocalDateTime.parse((String) value);
+    }
+    if (type.isEnum()) {
+      return Enum.valueOf((Class<Enum>) type, (String) value);
+    }
+    if (value instanceof Number) {
+      Number number = (Number) value;
+      if (type == Integer.class || type == int.class) {
+        return number.intValue();
+      }
+      if (type == Long.class || type == long.class) {
+        return number.longValue();
+      }
+      if (type == Double.class || type == double.class) {
+        return number.doubleValue();
+      }
+      if (type == Float.class || type == float.class) {
+        return number.floatValue();
+      }
+    }
+    return value;
+  }
+}
@@ -1,40 +1,172 @@
 package work.anyway.packages.data;
 
+import io.vertx.core.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import work.anyway.interfaces.data.*;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 内存实现的数据服务
  * 用于开发和测试，数据存储在内存中
+ * 存储引擎由 data.memory.engine 配置：hash（默认）按行保存，读取时返回副本；
+ * columnar 按列保存，读取时返回只读视图，适合扫描较多的测试环境和参考数据缓存。
+ * 集合可以声明二级索引（哈希或有序），由 data.memory.indexes 配置或调用 {@link #createIndex} 创建，
+ * 查询条件支持与数据库实现相同的 "字段__操作符" 格式。
+ * 响应式仓库在调用线程上同步执行内存操作，结果以已完成的 Future 返回。
+ * 事务方法直接执行操作，不提供隔离和回滚，操作失败前的修改保留。
+ * 配置 data.memory.wal.directory 后启用持久化：修改写入预写日志，定期写入快照，启动时从快照和日志恢复。
  */
 @Service("memoryDataService")
-public class MemoryDataServiceImpl implements TypedDataService {
+public class MemoryDataServiceImpl implements TypedDataService, InitializingBean, DisposableBean {
 
   private static final Logger LOG = LoggerFactory.getLogger(MemoryDataServiceImpl.class);
 
   // 存储所有集合的数据
-  private final Map<String, Map<String, Map<String, Object>>> collections = new ConcurrentHashMap<>();
+  private final Map<String, IndexedMemoryTable> collections = new ConcurrentHashMap<>();
+
+  // 声明的索引：集合名称 -> 字段名 -> 是否有序，集合清空后重新创建时仍然生效
+  private final Map<String, Map<String, Boolean>> declaredIndexes = new ConcurrentHashMap<>();
 
   // ID 生成器
   private final Map<String, AtomicLong> idGenerators = new ConcurrentHashMap<>();
 
+  // 存储引擎
+  @Value("${data.memory.engine:hash}")
+  private String engine = "hash";
+
+  // 索引声明，格式为 "集合.字段[:hash|sorted]"，多个用逗号分隔
+  @Value("${data.memory.indexes:}")
+  private String indexes = "";
+  // 启动时从 indexes 解析的索引：集合名称 -> 字段名 -> 是否有序
+  private Map<String, Map<String, Boolean>> configuredIndexes = Collections.emptyMap();
+
+  // 持久化目录，为空时不持久化
+  @Value("${data.memory.wal.directory:}")
+  private String walDirectory = "";
+
+  // fsync 策略：always、interval 或 never
+  @Value("${data.memory.wal.fsync:always}")
+  private String fsync = "always";
+
+  @Value("${data.memory.wal.fsync.interval.ms:1000}")
+  private long fsyncIntervalMillis = 1000;
+
+  // 快照间隔，不大于 0 时只在关闭时写快照
+  @Value("${data.memory.snapshot.interval.seconds:300}")
+  private long snapshotIntervalSeconds = 300;
+
+  // 预写日志，未启用持久化时为 null
+  private MemoryJournal journal;
+  // 修改持有读锁，清空集合和写快照持有写锁
+  private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+  private ScheduledExecutorService snapshotScheduler;
+  // 上次快照时日志的序号
+  private long snapshotSequence;
+
   public MemoryDataServiceImpl() {
     LOG.info("Initializing MemoryDataServiceImpl with sample data");
   }
 
+  @Override
+  public void afterPropertiesSet() throws Exception {
+    if (!"hash".equalsIgnoreCase(engine) && !"columnar".equalsIgnoreCase(engine)) {
+      LOG.warn("Unknown data.memory.engine value '{}', using hash", engine);
+      engine = "hash";
+    }
+    LOG.info("Memory data service using {} engine", engine.toLowerCase(Locale.ROOT));
+    configuredIndexes = parseIndexes(indexes);
+    if (!configuredIndexes.isEmpty()) {
+      LOG.info("Memory data indexes configured: {}", configuredIndexes);
+    }
+
+    if (walDirectory == null || walDirectory.trim().isEmpty()) {
+      return;
+    }
+
+    MemoryJournal.FsyncPolicy policy = MemoryJournal.FsyncPolicy.of(fsync);
+    if (fsync != null && !policy.name().equalsIgnoreCase(fsync.trim())) {
+      LOG.warn("Unknown data.memory.wal.fsync value '{}', using {}", fsync, policy);
+    }
+    MemoryJournal opened = new MemoryJournal(Paths.get(walDirectory.trim()), policy, fsyncIntervalMillis);
+    long recovered = opened.recover(new MemoryJournal.Replay() {
+      @Override
+      public void put(String collection, String id, long sequence, Map<String, Object> row) {
+        table(collection).put(id, row);
+        sequence(collection, sequence);
+      }
+
+      @Override
+      public void sequence(String collection, long sequence) {
+        idGenerators.computeIfAbsent(collection, k -> new AtomicLong(0)).accumulateAndGet(sequence, Math::max);
+      }
+
+      @Override
+      public void delete(String collection, String id) {
+        IndexedMemoryTable table = collections.get(collection);
+        if (table != null) {
+          table.remove(id);
+        }
+      }
+
+      @Override
+      public void clear(String collection) {
+        clearMemory(collection);
+      }
+    });
+    journal = opened;
+    LOG.info("Memory data durability enabled: directory={}, fsync={}, snapshot interval={}s, recovered {} record(s)",
+        walDirectory.trim(), policy, snapshotIntervalSeconds, recovered);
+    // 恢复了日志时在下一次快照中压缩
+    snapshotSequence = recovered > 0 ? -1 : journal.lastSequence();
+
+    if (snapshotIntervalSeconds > 0) {
+      snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memory-snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+      snapshotScheduler.scheduleWithFixedDelay(this::snapshot, snapshotIntervalSeconds, snapshotIntervalSeconds,
+          TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (journal == null) {
+      return;
+    }
+    if (snapshotScheduler != null) {
+      snapshotScheduler.shutdownNow();
+    }
+    // 日志写入失败后切换日志文件会抛出异常，此时仍然要关闭日志
+    try {
+      snapshot();
+    } finally {
+      journal.close();
+    }
+  }
+
   @Override
   public Map<String, Object> save(String collection, Map<String, Object> data) {
     LOG.debug("Saving data to collection: {}", collection);
 
-    Map<String, Map<String, Object>> collectionData = collections.computeIfAbsent(collection,
-        k -> new ConcurrentHashMap<>());
     AtomicLong idGenerator = idGenerators.computeIfAbsent(collection, k -> new AtomicLong(0));
 
     // 复制数据以避免外部修改
@@ -48,68 +180,77 @@ public class MemoryDataServiceImpl implements TypedDataService {
     String id = String.valueOf(dataCopy.get("id"));
 
     // 保存数据
-    collectionData.put(id, dataCopy);
+    Map<String, Object> saved = write(collection, true, (table, log) -> {
+      log.accept(() -> MemoryJournal.put(collection, id, idGenerator.get(), dataCopy));
+      return table.put(id, dataCopy);
+    });
 
     LOG.info("Saved data with id {} to collection {}", id, collection);
-    return new HashMap<>(dataCopy);
+    return saved;
   }
 
   @Override
   public Optional<Map<String, Object>> findById(String collection, String id) {
     LOG.debug("Finding data by id {} in collection {}", id, collection);
 
-    Map<String, Map<String, Object>> collectionData = collections.get(collection);
-    if (collectionData == null) {
+    IndexedMemoryTable table = collections.get(collection);
+    if (table == null) {
       return Optional.empty();
     }
 
-    Map<String, Object> data = collectionData.get(id);
-    return data == null ? Optional.empty() : Optional.of(new HashMap<>(data));
+    return Optional.ofNullable(table.get(id));
   }
 
   @Override
   public List<Map<String, Object>> findAll(String collection) {
     LOG.debug("Finding all data in collection {}", collection);
 
-    Map<String, Map<String, Object>> collectionData = collections.get(collection);
-    if (collectionData == null) {
+    IndexedMemoryTable table = collections.get(collection);
+    if (table == null) {
       return new ArrayList<>();
     }
 
-    return collectionData.values().stream()
-        .map(HashMap::new)
-        .collect(Collectors.toList());
+    return table.scan(Collections.emptyMap(), null, true);
   }
 
   @Override
   public List<Map<String, Object>> findByCriteria(String collection, Map<String, Object> criteria) {
     LOG.debug("Finding data by criteria {} in collection {}", criteria, collection);
 
-    return findAll(collection).stream()
-        .filter(data -> matchesCriteria(data, criteria))
-        .collect(Collectors.toList());
+    IndexedMemoryTable table = collections.get(collection);
+    if (table == null) {
+      return new ArrayList<>();
+    }
+
+    return table.scan(criteria, null, true);
   }
 
   @Override
   public boolean update(String collection, String id, Map<String, Object> data) {
     LOG.debug("Updating data with id {} in collection {}", id, collection);
 
-    Map<String, Map<String, Object>> collectionData = collections.get(collection);
-    if (collectionData == null || !collectionData.containsKey(id)) {
-      LOG.warn("Data not found for update: collection={}, id={}", collection, id);
-      return false;
-    }
+    boolean updated = write(collection, false, (table, log) -> {
+      Map<String, Object> existingData = table == null ? null : table.get(id);
+      if (existingData == null) {
+        return false;
+      }
 
-    Map<String, Object> existingData = collectionData.get(id);
-    Map<String, Object> updatedData = new HashMap<>(existingData);
+      Map<String, Object> updatedData = new HashMap<>(existingData);
 
-    // 更新字段
-    updatedData.putAll(data);
+      // 更新字段
+      updatedData.putAll(data);
 
-    // 保持 ID 不变
-    updatedData.put("id", id);
+      // 保持 ID 不变
+      updatedData.put("id", id);
 
-    collectionData.put(id, updatedData);
+      log.accept(() -> MemoryJournal.put(collection, id, currentSequence(collection), updatedData));
+      table.put(id, updatedData);
+      return true;
+    });
+    if (!updated) {
+      LOG.warn("Data not found for update: collection={}, id={}", collection, id);
+      return false;
+    }
 
     LOG.info("Updated data with id {} in collection {}", id, collection);
     return true;
@@ -119,13 +260,13 @@ public class MemoryDataServiceImpl implements TypedDataService {
   public boolean delete(String collection, String id) {
     LOG.debug("Deleting data with id {} from collection {}", id, collection);
 
-    Map<String, Map<String, Object>> collectionData = collections.get(collection);
-    if (collectionData == null) {
-      return false;
-    }
-
-    Map<String, Object> removed = collectionData.remove(id);
-    boolean deleted = removed != null;
+    boolean deleted = write(collection, false, (table, log) -> {
+      if (table == null || table.remove(id) == null) {
+        return false;
+      }
+      log.accept(() -> MemoryJournal.delete(collection, id));
+      return true;
+    });
 
     if (deleted) {
       LOG.info("Deleted data with id {} from collection {}", id, collection);
@@ -138,13 +279,14 @@ public class MemoryDataServiceImpl implements TypedDataService {
 
   @Override
   public long count(String collection) {
-    Map<String, Map<String, Object>> collectionData = collections.get(collection);
-    return collectionData == null ? 0 : collectionData.size();
+    IndexedMemoryTable table = collections.get(collection);
+    return table == null ? 0 : table.size();
   }
 
   @Override
   public long countByCriteria(String collection, Map<String, Object> criteria) {
-    return findByCriteria(collection, criteria).size();
+    IndexedMemoryTable table = collections.get(collection);
+    return table == null ? 0 : table.count(criteria);
   }
 
   @Override
@@ -152,28 +294,11 @@ public class MemoryDataServiceImpl implements TypedDataService {
     LOG.debug("Querying collection {} with options: page={}, pageSize={}",
         collection, options.getPage(), options.getPageSize());
 
-    // 获取过滤后的数据
-    List<Map<String, Object>> filteredData = options.getFilters().isEmpty()
-        ? findAll(collection)
-        : findByCriteria(collection, options.getFilters());
-
-    // 排序
-    if (options.getSortBy() != null) {
-      filteredData.sort((a, b) -> {
-        Object aValue = a.get(options.getSortBy());
-        Object bValue = b.get(options.getSortBy());
-
-        if (aValue == null && bValue == null)
-          return 0;
-        if (aValue == null)
-          return options.isAscending() ? -1 : 1;
-        if (bValue == null)
-          return options.isAscending() ? 1 : -1;
-
-        int result = compareValues(aValue, bValue);
-        return options.isAscending() ? result : -result;
-      });
-    }
+    // 获取过滤并排序后的数据
+    IndexedMemoryTable table = collections.get(collection);
+    List<Map<String, Object>> filteredData = table == null
+        ? new ArrayList<>()
+        : table.scan(options.getFilters(), options.getSortBy(), options.isAscending());
 
     // 分页
     int total = filteredData.size();
@@ -230,33 +355,224 @@ public class MemoryDataServiceImpl implements TypedDataService {
     return new RepositoryImpl<>(this, collectionDef, entityClass);
   }
 
-  // 辅助方法
-  private boolean matchesCriteria(Map<String, Object> data, Map<String, Object> criteria) {
-    for (Map.Entry<String, Object> entry : criteria.entrySet()) {
-      String key = entry.getKey();
-      Object expectedValue = entry.getValue();
-      Object actualValue = data.get(key);
+  @Override
+  public <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef,
+      Class<T> entityClass) {
+    return new ReactiveRepositoryAdapter<>(getRepository(collectionDef, entityClass));
+  }
 
-      if (!Objects.equals(expectedValue, actualValue)) {
-        return false;
+  @Override
+  public <R> R inTransaction(Supplier<R> work) {
+    return work.get();
+  }
+
+  @Override
+  public <R> Future<R> inTransactionAsync(Function<TransactionScope, Future<R>> work) {
+    try {
+      return work.apply(new TransactionScope() {
+        @Override
+        public <T extends BaseEntity> ReactiveRepository<T> getReactiveRepository(CollectionDef collectionDef,
+            Class<T> entityClass) {
+          return MemoryDataServiceImpl.this.getReactiveRepository(collectionDef, entityClass);
+        }
+      });
+    } catch (RuntimeException e) {
+      return Future.failedFuture(e);
+    }
+  }
+
+  /**
+   * 为集合创建二级索引，已有数据会被加入索引
+   * 哈希索引用于相等与 IN 条件，有序索引还用于范围条件（gt、gte、lt、lte）和排序
+   *
+   * @param collection 集合名称
+   * @param field      字段名
+   * @param sorted     是否为有序索引
+   */
+  public void createIndex(String collection, String field, boolean sorted) {
+    declaredIndexes.computeIfAbsent(collection, k -> new ConcurrentHashMap<>()).put(field, sorted);
+    table(collection).createIndex(field, sorted);
+  }
+
+  /**
+   * 删除集合的二级索引
+   *
+   * @param collection 集合名称
+   * @param field      字段名
+   * @return 索引存在时返回 true
+   */
+  public boolean dropIndex(String collection, String field) {
+    Map<String, Boolean> declared = declaredIndexes.get(collection);
+    if (declared != null) {
+      declared.remove(field);
+    }
+    IndexedMemoryTable table = collections.get(collection);
+    return table != null && table.dropIndex(field);
+  }
+
+  /**
+   * 写入快照并删除快照已包含的日志，自上次快照以来没有修改时跳过
+   * 写入期间修改只在复制数据和切换日志文件时暂停
+   */
+  public synchronized void snapshot() {
+    if (journal == null) {
+      return;
+    }
+
+    Map<String, Long> sequences = new LinkedHashMap<>();
+    Map<String, List<Map<String, Object>>> rows = new LinkedHashMap<>();
+    long generation;
+    journalLock.writeLock().lock();
+    try {
+      if (journal.lastSequence() == snapshotSequence) {
+        return;
       }
+      idGenerators.forEach((name, generator) -> sequences.put(name, generator.get()));
+      collections.forEach((name, table) -> rows.put(name, table.scan(Collections.emptyMap(), null, true)));
+      generation = journal.rotate();
+      snapshotSequence = journal.lastSequence();
+    } finally {
+      journalLock.writeLock().unlock();
     }
-    return true;
+
+    try {
+      journal.writeSnapshot(generation, sequences, rows);
+      LOG.info("Memory snapshot written: {} collections, wal generation {}", rows.size(), generation);
+    } catch (IOException e) {
+      // 旧快照和日志仍然保留，下次重试
+      snapshotSequence = -1;
+      LOG.error("Failed to write memory snapshot", e);
+    }
+  }
+
+  /**
+   * 修改内存数据
+   * 启用持久化时，修改和日志追加在持有日志读锁和集合锁时完成，保证日志顺序与内存一致；
+   * 释放锁后按 fsync 策略等待日志落盘，多个线程的日志由写入线程合并提交。
+   */
+  private <R> R write(String collection, boolean create, Mutation<R> mutation) {
+    if (journal == null) {
+      return mutation.apply(create ? table(collection) : collections.get(collection), record -> {
+      });
+    }
+
+    long[] sequence = {0};
+    R result;
+    journalLock.readLock().lock();
+    try {
+      IndexedMemoryTable table = create ? table(collection) : collections.get(collection);
+      synchronized (table == null ? collections : table) {
+        result = mutation.apply(table, record -> sequence[0] = journal.append(record.get()));
+      }
+    } finally {
+      journalLock.readLock().unlock();
+    }
+    if (sequence[0] > 0) {
+      journal.await(sequence[0]);
+    }
+    return result;
   }
 
-  private int compareValues(Object a, Object b) {
-    if (a instanceof Comparable && b instanceof Comparable) {
-      return ((Comparable) a).compareTo(b);
+  /**
+   * 清空一个集合，collection 为 null 时清空所有集合
+   */
+  private void clear(String collection) {
+    long sequence = 0;
+    journalLock.writeLock().lock();
+    try {
+      clearMemory(collection);
+      if (journal != null) {
+        sequence = journal.append(MemoryJournal.clear(collection));
+      }
+    } finally {
+      journalLock.writeLock().unlock();
+    }
+    if (sequence > 0) {
+      journal.await(sequence);
+    }
+  }
+
+  private void clearMemory(String collection) {
+    if (collection == null) {
+      collections.clear();
+      idGenerators.clear();
+    } else {
+      collections.remove(collection);
+      idGenerators.remove(collection);
+    }
+  }
+
+  private long currentSequence(String collection) {
+    AtomicLong generator = idGenerators.get(collection);
+    return generator == null ? 0 : generator.get();
+  }
+
+  /**
+   * 一次内存修改，table 为 null 表示集合不存在；
+   * 通过 log 提交日志记录，记录只在启用持久化时生成
+   */
+  @FunctionalInterface
+  private interface Mutation<R> {
+    R apply(IndexedMemoryTable table, Consumer<Supplier<byte[]>> log);
+  }
+
+  // 辅助方法
+  private IndexedMemoryTable table(String collection) {
+    return collections.computeIfAbsent(collection, k -> {
+      LOG.debug("Creating {} table for collection {}", engine, collection);
+      MemoryTable storage = "columnar".equalsIgnoreCase(engine) ? new ColumnarMemoryTable() : new HashMemoryTable();
+      IndexedMemoryTable table = new IndexedMemoryTable(collection, storage);
+      indexDeclarations().getOrDefault(collection, Collections.emptyMap()).forEach(table::createIndex);
+      return table;
+    });
+  }
+
+  /**
+   * 配置与调用声明的所有索引，调用声明的优先
+   */
+  private Map<String, Map<String, Boolean>> indexDeclarations() {
+    Map<String, Map<String, Boolean>> result = new HashMap<>();
+    configuredIndexes.forEach((collection, fields) -> result.put(collection, new HashMap<>(fields)));
+    declaredIndexes.forEach((collection, fields) ->
+        result.computeIfAbsent(collection, k -> new HashMap<>()).putAll(fields));
+    return result;
+  }
+
+  /**
+   * 解析 data.memory.indexes，格式错误的声明记录警告后忽略
+   */
+  private static Map<String, Map<String, Boolean>> parseIndexes(String indexes) {
+    Map<String, Map<String, Boolean>> result = new HashMap<>();
+    if (indexes == null || indexes.trim().isEmpty()) {
+      return result;
+    }
+    for (String declaration : indexes.split(",")) {
+      String spec = declaration.trim();
+      if (spec.isEmpty()) {
+        continue;
+      }
+      int colon = spec.lastIndexOf(':');
+      String type = colon > 0 ? spec.substring(colon + 1).trim() : "hash";
+      String target = colon > 0 ? spec.substring(0, colon).trim() : spec;
+      int dot = target.lastIndexOf('.');
+      if (dot <= 0 || dot == target.length() - 1) {
+        LOG.warn("Ignoring invalid memory index declaration: {}", spec);
+        continue;
+      }
+      if (!"hash".equalsIgnoreCase(type) && !"sorted".equalsIgnoreCase(type)) {
+        LOG.warn("Unknown index type '{}' in memory index declaration {}, using hash", type, spec);
+      }
+      result.computeIfAbsent(target.substring(0, dot), k -> new HashMap<>())
+          .put(target.substring(dot + 1), "sorted".equalsIgnoreCase(type));
     }
-    return String.valueOf(a).compareTo(String.valueOf(b));
+    return result;
   }
 
   /**
    * 清空所有数据（仅用于测试）
    */
   public void clearAll() {
-    collections.clear();
-    idGenerators.clear();
+    clear(null);
     LOG.warn("All data cleared from memory");
   }
 
@@ -267,8 +583,7 @@ public class MemoryDataServiceImpl implements TypedDataService {
    * @param collection 集合名称
    */
   public void clearCollection(String collection) {
-    collections.remove(collection);
-    idGenerators.remove(collection);
+    clear(collection);
     LOG.warn("Collection {} cleared from memory", collection);
   }
 
@@ -0,0 +1,155 @@
+package work.anyway.packages.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 内存表的二级索引
+ * 哈希索引支持相等与 IN 条件；有序索引另外支持范围条件和按字段排序。
+ * 值为 null 或缺少字段的记录单独保存。同一个值下的记录 ID 按写入顺序排列。
+ * 不是线程安全的，由 {@link IndexedMemoryTable} 加锁访问。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class MemoryIndex {
+
+  private final String field;
+  private final boolean sorted;
+  // 字段值 -> 记录 ID
+  private final Map<Object, Set<String>> entries;
+  private final Set<String> nulls = new LinkedHashSet<>();
+  // 非 null 值的类型 -> 记录数，只有一种类型时有序索引才能用于范围查询和排序；
+  // 其他类型的记录删除后恢复可用
+  private final Map<Class<?>, int[]> keyTypes = new HashMap<>();
+
+  /**
+   * @param field  字段名
+   * @param sorted 是否为有序索引
+   */
+  MemoryIndex(String field, boolean sorted) {
+    this.field = field;
+    this.sorted = sorted;
+    this.entries = sorted ? new TreeMap<>(MemoryIndex::compareKeys) : new HashMap<>();
+  }
+
+  String getField() {
+    return field;
+  }
+
+  boolean isSorted() {
+    return sorted;
+  }
+
+  void add(String id, Object value) {
+    if (value == null) {
+      nulls.add(id);
+      return;
+    }
+    if (entries.computeIfAbsent(value, key -> new LinkedHashSet<>()).add(id)) {
+      keyTypes.computeIfAbsent(value.getClass(), type -> new int[1])[0]++;
+    }
+  }
+
+  void remove(String id, Object value) {
+    if (value == null) {
+      nulls.remove(id);
+      return;
+    }
+    Set<String> ids = entries.get(value);
+    if (ids != null && ids.remove(id)) {
+      if (ids.isEmpty()) {
+        entries.remove(value);
+      }
+      int[] count = keyTypes.get(value.getClass());
+      if (--count[0] == 0) {
+        keyTypes.remove(value.getClass());
+      }
+    }
+  }
+
+  /**
+   * 字段值等于给定值的记录 ID
+   */
+  Set<String> equal(Object value) {
+    if (value == null) {
+      return nulls;
+    }
+    return entries.getOrDefault(value, Collections.emptySet());
+  }
+
+  /**
+   * 是否可以按 value 的类型做范围查询：有序索引且所有值与 value 类型相同
+   */
+  boolean supportsRange(Object value) {
+    return sorted && value instanceof Comparable && keyTypes.size() == 1
+        && keyTypes.containsKey(value.getClass());
+  }
+
+  /**
+   * 字段值在给定范围内的记录 ID，边界为 null 表示不限
+   */
+  Collection<String> range(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+    NavigableMap<Object, Set<String>> map = (NavigableMap<Object, Set<String>>) entries;
+    if (from != null && to != null && compareKeys(from, to) > 0) {
+      return Collections.emptyList();
+    }
+    if (from != null) {
+      map = map.tailMap(from, fromInclusive);
+    }
+    if (to != null) {
+      map = map.headMap(to, toInclusive);
+    }
+    return flatten(map.values());
+  }
+
+  /**
+   * 是否可以按字段排序：有序索引且所有值类型相同
+   */
+  boolean supportsOrder() {
+    return sorted && keyTypes.size() <= 1;
+  }
+
+  /**
+   * 按字段值排序的所有记录 ID，null 最小
+   */
+  Collection<String> ordered(boolean ascending) {
+    NavigableMap<Object, Set<String>> map = (NavigableMap<Object, Set<String>>) entries;
+    Collection<String> values = flatten((ascending ? map : map.descendingMap()).values());
+    List<String> result = new ArrayList<>(nulls.size() + values.size());
+    if (ascending) {
+      result.addAll(nulls);
+      result.addAll(values);
+    } else {
+      result.addAll(values);
+      result.addAll(nulls);
+    }
+    return result;
+  }
+
+  private static Collection<String> flatten(Collection<Set<String>> groups) {
+    List<String> ids = new ArrayList<>();
+    for (Set<String> group : groups) {
+      ids.addAll(group);
+    }
+    return ids;
+  }
+
+  /**
+   * 有序索引的键比较：同类型的值按 {@link MemoryTable#compareValues} 比较，不同类型按类名排列
+   */
+  private static int compareKeys(Object a, Object b) {
+    if (a.getClass() != b.getClass()) {
+      return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+    return MemoryTable.compareValues(a, b);
+  }
+}
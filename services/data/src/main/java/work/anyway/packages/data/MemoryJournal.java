@@ -0,0 +1,860 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 内存数据服务的预写日志与快照
+ * 每次修改编码为一条记录追加到日志文件（wal-代数.log），记录格式为 [长度][CRC32][内容]。
+ * 写入由后台线程成组完成：调用方把记录放入队列后等待，后台线程一次写出队列中的所有记录并按策略调用 fsync，
+ * 同一批等待者共享一次 fsync。快照（snapshot.dat）保存所有集合的完整内容以及它之后的第一个日志代数，
+ * 写快照前切换到新的日志文件，快照落盘后删除旧的日志文件。
+ * 恢复时先加载快照，再按代数顺序重放之后的日志；最后一个日志文件末尾不完整的记录被截掉。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class MemoryJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MemoryJournal.class);
+
+  private static final String SNAPSHOT_FILE = "snapshot.dat";
+  private static final String WAL_PREFIX = "wal-";
+  private static final String WAL_SUFFIX = ".log";
+  private static final int SNAPSHOT_MAGIC = 0x414D5331;
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte CLEAR = 3;
+
+  /**
+   * fsync 策略
+   */
+  enum FsyncPolicy {
+    // 每批写入后 fsync，调用方等待落盘
+    ALWAYS,
+    // 调用方等待写入操作系统，按间隔 fsync
+    INTERVAL,
+    // 只写入操作系统，由操作系统决定何时落盘
+    NEVER;
+
+    static FsyncPolicy of(String name) {
+      for (FsyncPolicy policy : values()) {
+        if (policy.name().equalsIgnoreCase(name == null ? "" : name.trim())) {
+          return policy;
+        }
+      }
+      return ALWAYS;
+    }
+  }
+
+  /**
+   * 重放的目标
+   */
+  interface Replay {
+    void put(String collection, String id, long sequence, Map<String, Object> row);
+
+    /**
+     * 恢复集合的 ID 生成器
+     */
+    void sequence(String collection, long sequence);
+
+    void delete(String collection, String id);
+
+    /**
+     * @param collection 集合名称，为 null 时清空所有集合
+     */
+    void clear(String collection);
+  }
+
+  private final Path directory;
+  private final FsyncPolicy policy;
+  private final long fsyncIntervalMillis;
+
+  private final Object monitor = new Object();
+  private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+  private long appended;
+  private long written;
+  private long durable;
+  private long scheduledGeneration;
+  private IOException failure;
+  private boolean closed;
+
+  // 以下字段只由后台线程访问
+  private FileChannel channel;
+  private long generation;
+  private long lastForce;
+  private boolean dirty;
+  private Thread writer;
+
+  /**
+   * @param directory           数据目录
+   * @param policy              fsync 策略
+   * @param fsyncIntervalMillis INTERVAL 策略下的 fsync 间隔（毫秒）
+   */
+  MemoryJournal(Path directory, FsyncPolicy policy, long fsyncIntervalMillis) {
+    this.directory = directory;
+    this.policy = policy;
+    this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+  }
+
+  /**
+   * 加载快照并重放日志，然后打开新的日志文件开始写入
+   *
+   * @return 恢复的记录数（快照中的记录加日志记录）
+   */
+  long recover(Replay replay) throws IOException {
+    Files.createDirectories(directory);
+    long count = 0;
+    long first = 1;
+
+    Path snapshot = directory.resolve(SNAPSHOT_FILE);
+    if (Files.exists(snapshot)) {
+      long[] result = readSnapshot(snapshot, replay);
+      first = result[0];
+      count += result[1];
+    }
+
+    List<Long> generations = walGenerations();
+    for (int i = 0; i < generations.size(); i++) {
+      long walGeneration = generations.get(i);
+      if (walGeneration >= first) {
+        count += replay(walFile(walGeneration), i == generations.size() - 1, replay);
+      }
+    }
+
+    long last = generations.isEmpty() ? first - 1 : generations.get(generations.size() - 1);
+    generation = Math.max(first, last + 1);
+    scheduledGeneration = generation;
+    channel = openWal(generation);
+    lastForce = System.currentTimeMillis();
+
+    writer = new Thread(this::writeLoop, "memory-wal-writer");
+    writer.setDaemon(true);
+    writer.start();
+    LOG.info("Memory journal opened in {} ({}), recovered {} records", directory, policy, count);
+    return count;
+  }
+
+  /**
+   * 追加一条记录，返回序号供 {@link #await(long)} 使用
+   * 调用方需要保证追加顺序与修改内存的顺序一致
+   */
+  long append(byte[] record) {
+    synchronized (monitor) {
+      checkOpen();
+      long sequence = ++appended;
+      queue.add(new Entry(sequence, record, 0));
+      monitor.notifyAll();
+      return sequence;
+    }
+  }
+
+  /**
+   * 等待记录按 fsync 策略写出
+   *
+   * @throws UncheckedIOException 日志写入失败
+   */
+  void await(long sequence) {
+    synchronized (monitor) {
+      while ((policy == FsyncPolicy.ALWAYS ? durable : written) < sequence) {
+        if (failure != null) {
+          throw new UncheckedIOException("Memory journal write failed", failure);
+        }
+        try {
+          monitor.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for memory journal", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * 已追加的最后一条记录的序号
+   */
+  long lastSequence() {
+    synchronized (monitor) {
+      return appended;
+    }
+  }
+
+  /**
+   * 切换到新的日志文件，之前的记录写出并落盘后返回
+   * 调用方需要保证切换期间没有新的记录追加
+   *
+   * @return 新日志文件的代数
+   */
+  long rotate() {
+    long target;
+    long sequence;
+    synchronized (monitor) {
+      checkOpen();
+      target = ++scheduledGeneration;
+      sequence = ++appended;
+      queue.add(new Entry(sequence, null, target));
+      monitor.notifyAll();
+
+      while (durable < sequence) {
+        if (failure != null) {
+          throw new UncheckedIOException("Memory journal rotation failed", failure);
+        }
+        try {
+          monitor.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while rotating memory journal", e);
+        }
+      }
+    }
+    return target;
+  }
+
+  /**
+   * 写入快照并删除快照已包含的日志文件
+   *
+   * @param firstGeneration 快照之后的第一个日志代数
+   * @param sequences       集合名称 -> ID 生成器的当前值
+   * @param collections     集合名称 -> 所有记录
+   */
+  void writeSnapshot(long firstGeneration, Map<String, Long> sequences,
+      Map<String, List<Map<String, Object>>> collections) throws IOException {
+    Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+    long rows = 0;
+    try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+      CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeLong(firstGeneration);
+
+      out.writeInt(sequences.size());
+      for (Map.Entry<String, Long> entry : sequences.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeLong(entry.getValue());
+      }
+      out.writeInt(collections.size());
+      for (Map.Entry<String, List<Map<String, Object>>> entry : collections.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeInt(entry.getValue().size());
+        for (Map<String, Object> row : entry.getValue()) {
+          writeString(out, String.valueOf(row.get("id")));
+          writeMap(out, row);
+          rows++;
+        }
+      }
+      out.flush();
+      out.writeLong(checked.getChecksum().getValue());
+      out.flush();
+      file.getFD().sync();
+    }
+
+    Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory();
+
+    for (long walGeneration : walGenerations()) {
+      if (walGeneration < firstGeneration) {
+        Files.deleteIfExists(walFile(walGeneration));
+      }
+    }
+    LOG.info("Wrote memory snapshot with {} rows in {} collections", rows, collections.size());
+  }
+
+  /**
+   * 写出队列中的记录并关闭日志文件
+   */
+  void close() {
+    synchronized (monitor) {
+      closed = true;
+      monitor.notifyAll();
+    }
+    if (writer != null) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    // 后台线程因写入失败提前退出时日志文件仍然打开
+    if (channel != null && channel.isOpen()) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close memory journal file", e);
+      }
+    }
+  }
+
+  // 记录编码
+
+  static byte[] put(String collection, String id, long sequence, Map<String, Object> row) {
+    return encode(out -> {
+      out.writeByte(PUT);
+      writeString(out, collection);
+      writeString(out, id);
+      out.writeLong(sequence);
+      writeMap(out, row);
+    });
+  }
+
+  static byte[] delete(String collection, String id) {
+    return encode(out -> {
+      out.writeByte(DELETE);
+      writeString(out, collection);
+      writeString(out, id);
+    });
+  }
+
+  static byte[] clear(String collection) {
+    return encode(out -> {
+      out.writeByte(CLEAR);
+      out.writeBoolean(collection != null);
+      if (collection != null) {
+        writeString(out, collection);
+      }
+    });
+  }
+
+  // 后台写入
+
+  private void writeLoop() {
+    while (true) {
+      List<Entry> batch = new ArrayList<>();
+      boolean stop;
+      synchronized (monitor) {
+        while (queue.isEmpty() && !closed && !intervalDue()) {
+          try {
+            monitor.wait(dirty && policy == FsyncPolicy.INTERVAL
+                ? Math.max(1, lastForce + fsyncIntervalMillis - System.currentTimeMillis()) : 0);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+        }
+        batch.addAll(queue);
+        queue.clear();
+        stop = closed && batch.isEmpty();
+      }
+
+      try {
+        if (stop) {
+          channel.force(false);
+          channel.close();
+          markDone(appendedSnapshot(), true);
+          return;
+        }
+        long last = write(batch);
+        boolean forced = policy == FsyncPolicy.ALWAYS || intervalDue();
+        if (forced && dirty) {
+          channel.force(false);
+          dirty = false;
+          lastForce = System.currentTimeMillis();
+        }
+        markDone(last, forced || !dirty);
+      } catch (IOException e) {
+        LOG.error("Memory journal write failed, further writes are rejected", e);
+        synchronized (monitor) {
+          failure = e;
+          monitor.notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * 写出一批记录，遇到切换标记时先落盘并关闭当前文件
+   *
+   * @return 批中最后一条记录的序号，空批时返回当前已写出的序号
+   */
+  private long write(List<Entry> batch) throws IOException {
+    List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+    long last = -1;
+    for (Entry entry : batch) {
+      if (entry.record == null) {
+        flush(buffers);
+        channel.force(false);
+        channel.close();
+        generation = entry.generation;
+        channel = openWal(generation);
+        dirty = false;
+        lastForce = System.currentTimeMillis();
+        markDone(entry.sequence - 1, true);
+        markDone(entry.sequence, true);
+      } else {
+        buffers.add(frame(entry.record));
+      }
+      last = entry.sequence;
+    }
+    flush(buffers);
+    return last < 0 ? writtenSnapshot() : last;
+  }
+
+  private void flush(List<ByteBuffer> buffers) throws IOException {
+    if (buffers.isEmpty()) {
+      return;
+    }
+    ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+    long remaining = 0;
+    for (ByteBuffer buffer : array) {
+      remaining += buffer.remaining();
+    }
+    while (remaining > 0) {
+      remaining -= channel.write(array);
+    }
+    buffers.clear();
+    dirty = true;
+  }
+
+  private boolean intervalDue() {
+    return policy == FsyncPolicy.INTERVAL && dirty && System.currentTimeMillis() - lastForce >= fsyncIntervalMillis;
+  }
+
+  private void markDone(long sequence, boolean forced) {
+    synchronized (monitor) {
+      written = Math.max(written, sequence);
+      if (forced) {
+        durable = Math.max(durable, sequence);
+      }
+      monitor.notifyAll();
+    }
+  }
+
+  private long appendedSnapshot() {
+    synchronized (monitor) {
+      return appended;
+    }
+  }
+
+  private long writtenSnapshot() {
+    synchronized (monitor) {
+      return written;
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Memory journal is closed");
+    }
+    if (failure != null) {
+      throw new UncheckedIOException("Memory journal write failed", failure);
+    }
+  }
+
+  private static ByteBuffer frame(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    ByteBuffer buffer = ByteBuffer.allocate(8 + record.length);
+    buffer.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+    return buffer;
+  }
+
+  // 恢复
+
+  /**
+   * @return [快照之后的第一个日志代数, 记录数]
+   */
+  private static long[] readSnapshot(Path snapshot, Replay replay) throws IOException {
+    try (InputStream file = Files.newInputStream(snapshot)) {
+      CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file, 1 << 16), new CRC32());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+        throw new IOException("Unrecognized memory snapshot: " + snapshot);
+      }
+      long firstGeneration = in.readLong();
+
+      int sequenceCount = in.readInt();
+      Map<String, Long> sequences = new LinkedHashMap<>();
+      for (int i = 0; i < sequenceCount; i++) {
+        sequences.put(readString(in), in.readLong());
+      }
+
+      long rows = 0;
+      int collectionCount = in.readInt();
+      for (int i = 0; i < collectionCount; i++) {
+        String collection = readString(in);
+        long sequence = sequences.getOrDefault(collection, 0L);
+        int size = in.readInt();
+        for (int j = 0; j < size; j++) {
+          replay.put(collection, readString(in), sequence, readMap(in));
+          rows++;
+        }
+      }
+
+      long expected = checked.getChecksum().getValue();
+      if (in.readLong() != expected) {
+        throw new IOException("Memory snapshot checksum mismatch: " + snapshot);
+      }
+      // 包括已经没有记录的集合
+      sequences.forEach(replay::sequence);
+      return new long[] {firstGeneration, rows};
+    }
+  }
+
+  /**
+   * 重放一个日志文件，末尾不完整或校验失败的记录只允许出现在最后一个文件中，并被截掉
+   */
+  private static long replay(Path wal, boolean last, Replay replay) throws IOException {
+    long count = 0;
+    long valid = 0;
+    try (FileChannel file = FileChannel.open(wal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file), 1 << 16));
+      long size = file.size();
+      while (true) {
+        byte[] record;
+        try {
+          int length = in.readInt();
+          int crc = in.readInt();
+          if (length < 0 || valid + 8 + length > size) {
+            break;
+          }
+          record = new byte[length];
+          in.readFully(record);
+          CRC32 check = new CRC32();
+          check.update(record);
+          if ((int) check.getValue() != crc) {
+            break;
+          }
+        } catch (EOFException e) {
+          break;
+        }
+        apply(record, replay);
+        valid += 8 + record.length;
+        count++;
+      }
+
+      if (valid < size) {
+        if (!last) {
+          throw new IOException("Corrupt memory journal " + wal + " at offset " + valid);
+        }
+        LOG.warn("Truncating incomplete tail of memory journal {} at offset {} ({} bytes)", wal, valid, size - valid);
+        file.truncate(valid);
+        file.force(true);
+      }
+    }
+    return count;
+  }
+
+  private static void apply(byte[] record, Replay replay) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    byte type = in.readByte();
+    switch (type) {
+      case PUT:
+        String collection = readString(in);
+        String id = readString(in);
+        long sequence = in.readLong();
+        replay.put(collection, id, sequence, readMap(in));
+        break;
+      case DELETE:
+        replay.delete(readString(in), readString(in));
+        break;
+      case CLEAR:
+        replay.clear(in.readBoolean() ? readString(in) : null);
+        break;
+      default:
+        throw new IOException("Unknown memory journal record type: " + type);
+    }
+  }
+
+  private List<Long> walGenerations() throws IOException {
+    List<Long> generations = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(WAL_PREFIX) && name.endsWith(WAL_SUFFIX))
+          .forEach(name -> {
+            try {
+              generations.add(Long.parseLong(name.substring(WAL_PREFIX.length(), name.length() - WAL_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+              LOG.warn("Ignoring unexpected file in memory journal directory: {}", name);
+            }
+          });
+    }
+    generations.sort(null);
+    return generations;
+  }
+
+  private Path walFile(long walGeneration) {
+    return directory.resolve(String.format(Locale.ROOT, "%s%020d%s", WAL_PREFIX, walGeneration, WAL_SUFFIX));
+  }
+
+  private FileChannel openWal(long walGeneration) throws IOException {
+    FileChannel opened = FileChannel.open(walFile(walGeneration), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    syncDirectory();
+    return opened;
+  }
+
+  /**
+   * 让新建和改名的文件在目录中持久化；不支持打开目录的平台上忽略
+   */
+  private void syncDirectory() {
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      LOG.debug("Could not sync directory {}", directory, e);
+    }
+  }
+
+  // 值编码
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INTEGER = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte FLOAT = 6;
+  private static final byte SHORT = 7;
+  private static final byte BYTE = 8;
+  private static final byte BIG_DECIMAL = 9;
+  private static final byte BIG_INTEGER = 10;
+  private static final byte DATE = 11;
+  private static final byte INSTANT = 12;
+  private static final byte LOCAL_DATE = 13;
+  private static final byte LOCAL_DATE_TIME = 14;
+  private static final byte OFFSET_DATE_TIME = 15;
+  private static final byte UUID_VALUE = 16;
+  private static final byte BYTES = 17;
+  private static final byte LIST = 18;
+  private static final byte MAP = 19;
+  private static final byte JSON_OBJECT = 20;
+  private static final byte JSON_ARRAY = 21;
+
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private static byte[] encode(Writer writer) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    try {
+      writer.write(new DataOutputStream(bytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+    out.writeInt(map.size());
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      writeValue(out, entry.getKey());
+      writeValue(out, entry.getValue());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> readMap(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    Map<Object, Object> map = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(readValue(in), readValue(in));
+    }
+    return (Map<String, Object>) (Map<?, ?>) map;
+  }
+
+  /**
+   * 写入一个值；不支持的类型抛出 {@link IllegalArgumentException}，此时记录不会被写入也不会修改内存
+   */
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof BigDecimal) {
+      out.writeByte(BIG_DECIMAL);
+      writeString(out, value.toString());
+    } else if (value instanceof BigInteger) {
+      out.writeByte(BIG_INTEGER);
+      writeString(out, value.toString());
+    } else if (value instanceof Date) {
+      out.writeByte(DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (value instanceof Instant) {
+      out.writeByte(INSTANT);
+      out.writeLong(((Instant) value).getEpochSecond());
+      out.writeInt(((Instant) value).getNano());
+    } else if (value instanceof LocalDate || value instanceof LocalDateTime || value instanceof OffsetDateTime) {
+      out.writeByte(value instanceof LocalDate ? LOCAL_DATE
+          : value instanceof LocalDateTime ? LOCAL_DATE_TIME : OFFSET_DATE_TIME);
+      writeString(out, value.toString());
+    } else if (value instanceof UUID) {
+      out.writeByte(UUID_VALUE);
+      out.writeLong(((UUID) value).getMostSignificantBits());
+      out.writeLong(((UUID) value).getLeastSignificantBits());
+    } else if (value instanceof byte[]) {
+      out.writeByte(BYTES);
+      out.writeInt(((byte[]) value).length);
+      out.write((byte[]) value);
+    } else if (value instanceof JsonObject) {
+      out.writeByte(JSON_OBJECT);
+      writeString(out, ((JsonObject) value).encode());
+    } else if (value instanceof JsonArray) {
+      out.writeByte(JSON_ARRAY);
+      writeString(out, ((JsonArray) value).encode());
+    } else if (value instanceof Collection) {
+      out.writeByte(LIST);
+      out.writeInt(((Collection<?>) value).size());
+      for (Object item : (Collection<?>) value) {
+        writeValue(out, item);
+      }
+    } else if (value instanceof Map) {
+      out.writeByte(MAP);
+      writeMap(out, (Map<?, ?>) value);
+    } else {
+      throw new IllegalArgumentException("Unsupported value type for durable memory storage: " + value.getClass());
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case NULL:
+        return null;
+      case STRING:
+        return readString(in);
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case BOOLEAN:
+        return in.readBoolean();
+      case FLOAT:
+        return in.readFloat();
+      case SHORT:
+        return in.readShort();
+      case BYTE:
+        return in.readByte();
+      case BIG_DECIMAL:
+        return new BigDecimal(readString(in));
+      case BIG_INTEGER:
+        return new BigInteger(readString(in));
+      case DATE:
+        return new Date(in.readLong());
+      case INSTANT:
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+      case LOCAL_DATE:
+        return LocalDate.parse(readString(in));
+      case LOCAL_DATE_TIME:
+        return LocalDateTime.parse(readString(in));
+      case OFFSET_DATE_TIME:
+        return OffsetDateTime.parse(readString(in));
+      case UUID_VALUE:
+        return new UUID(in.readLong(), in.readLong());
+      case BYTES:
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+      case LIST:
+        int size = in.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue(in));
+        }
+        return list;
+      case MAP:
+        return readMap(in);
+      case JSON_OBJECT:
+        return new JsonObject(readString(in));
+      case JSON_ARRAY:
+        return new JsonArray(readString(in));
+      default:
+        throw new IOException("Unknown value type in memory journal: " + type);
+    }
+  }
+
+  /**
+   * 队列中的记录或日志切换标记（record 为 null）
+   */
+  private static final class Entry {
+    private final long sequence;
+    private final byte[] record;
+    private final long generation;
+
+    Entry(long sequence, byte[] record, long generation) {
+      this.sequence = sequence;
+      this.record = record;
+      this.generation = generation;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package work.anyway.packages.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存数据服务中一个集合的存储引擎
+ * 条件按字段值相等匹配（{@link java.util.Objects#equals}），排序时 null 最小，
+ * 可比较的值按 {@link Comparable} 比较，其余按字符串比较。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+interface MemoryTable {
+
+  /**
+   * 按 ID 获取记录
+   *
+   * @return 记录，不存在时返回 null
+   */
+  Map<String, Object> get(String id);
+
+  /**
+   * 保存记录，已存在的同 ID 记录被替换
+   *
+   * @param id  记录 ID
+   * @param row 记录内容，保存后调用方不再修改
+   * @return 保存后的记录
+   */
+  Map<String, Object> put(String id, Map<String, Object> row);
+
+  /**
+   * 删除记录
+   *
+   * @return 被删除的记录，不存在时返回 null
+   */
+  Map<String, Object> remove(String id);
+
+  /**
+   * 记录数
+   */
+  int size();
+
+  /**
+   * 查询符合条件的记录
+   *
+   * @param criteria  字段 -> 期望值，为空时返回所有记录
+   * @param sortBy    排序字段，为 null 时不排序
+   * @param ascending 是否升序
+   */
+  List<Map<String, Object>> scan(Map<String, Object> criteria, String sortBy, boolean ascending);
+
+  /**
+   * 统计符合条件的记录数
+   *
+   * @param criteria 字段 -> 期望值，为空时统计所有记录
+   */
+  long count(Map<String, Object> criteria);
+
+  /**
+   * 比较两个非 null 的字段值
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static int compareValues(Object a, Object b) {
+    if (a instanceof Comparable && b instanceof Comparable) {
+      return ((Comparable) a).compareTo(b);
+    }
+    return String.valueOf(a).compareTo(String.valueOf(b));
+  }
+}
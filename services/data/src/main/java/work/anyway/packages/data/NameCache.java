@@ -0,0 +1,39 @@
+package work.anyway.packages.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 名称转换缓存
+ * 缓存字段名与列名之间的转换结果（如 camelCase 与 snake_case），避免每行每列重复转换。
+ * 达到容量上限后照常转换但不再缓存。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class NameCache {
+
+  private static final int MAX_SIZE = 4096;
+
+  private final UnaryOperator<String> converter;
+  private final Map<String, String> names = new ConcurrentHashMap<>();
+
+  NameCache(UnaryOperator<String> converter) {
+    this.converter = converter;
+  }
+
+  String get(String name) {
+    if (name == null) {
+      return null;
+    }
+    String converted = names.get(name);
+    if (converted == null) {
+      converted = converter.apply(name);
+      if (names.size() < MAX_SIZE) {
+        names.putIfAbsent(name, converted);
+      }
+    }
+    return converted;
+  }
+}
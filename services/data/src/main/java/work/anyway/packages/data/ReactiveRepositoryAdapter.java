@@ -0,0 +1,122 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import work.anyway.interfaces.data.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 响应式仓库适配器
+ * 将 {@link Repository} 包装为 {@link ReactiveRepository}，操作在调用线程上同步执行，
+ * 结果以已完成的 Future 返回，异常转换为失败的 Future。
+ * 只用于操作本身不阻塞的内存实现；启用持久化且 fsync 为 always 时写操作会等待日志落盘。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+class ReactiveRepositoryAdapter<T extends BaseEntity> implements ReactiveRepository<T> {
+
+  private final Repository<T> delegate;
+
+  ReactiveRepositoryAdapter(Repository<T> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Future<T> save(T entity) {
+    return call(() -> delegate.save(entity));
+  }
+
+  @Override
+  public Future<Optional<T>> findById(String id) {
+    return call(() -> delegate.findById(id));
+  }
+
+  @Override
+  public Future<List<T>> findAll() {
+    return call(delegate::findAll);
+  }
+
+  @Override
+  public Future<List<T>> findBy(QueryCriteria<T> criteria) {
+    return call(() -> delegate.findBy(criteria));
+  }
+
+  @Override
+  public Future<Boolean> update(T entity) {
+    return call(() -> delegate.update(entity));
+  }
+
+  @Override
+  public Future<Boolean> delete(String id) {
+    return call(() -> delegate.delete(id));
+  }
+
+  @Override
+  public Future<Integer> batchSave(List<T> entities) {
+    return call(() -> delegate.batchSave(entities));
+  }
+
+  @Override
+  public Future<Integer> batchDelete(List<String> ids) {
+    return call(() -> delegate.batchDelete(ids));
+  }
+
+  @Override
+  public Future<PageResult<T>> findPage(QueryOptions options) {
+    return call(() -> delegate.findPage(options));
+  }
+
+  @Override
+  public Future<Long> count() {
+    return call(delegate::count);
+  }
+
+  @Override
+  public Future<Long> countBy(QueryCriteria<T> criteria) {
+    return call(() -> delegate.countBy(criteria));
+  }
+
+  @Override
+  public Future<CursorPage<T>> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    return call(() -> delegate.findPageAfter(criteria, cursor, limit));
+  }
+
+  @Override
+  public Future<Long> stream(QueryCriteria<T> criteria, int batchSize, Function<List<T>, Future<Void>> handler) {
+    if (batchSize <= 0) {
+      return Future.failedFuture(new IllegalArgumentException("batchSize must be positive"));
+    }
+    return call(() -> delegate.findBy(criteria)).compose(all -> handleBatches(all, 0, batchSize, handler));
+  }
+
+  /**
+   * 逐批回调，上一批处理完成后才处理下一批
+   */
+  private static <T> Future<Long> handleBatches(List<T> all, int from, int batchSize,
+      Function<List<T>, Future<Void>> handler) {
+    if (from >= all.size()) {
+      return Future.succeededFuture((long) all.size());
+    }
+    List<T> batch = all.subList(from, Math.min(from + batchSize, all.size()));
+    Future<Void> handled;
+    try {
+      handled = handler.apply(batch);
+    } catch (RuntimeException e) {
+      handled = Future.failedFuture(e);
+    }
+    return handled.compose(v -> handleBatches(all, from + batchSize, batchSize, handler));
+  }
+
+  private static <R> Future<R> call(Supplier<R> operation) {
+    try {
+      return Future.succeededFuture(operation.get());
+    } catch (RuntimeException e) {
+      return Future.failedFuture(e);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 只读副本路由
+ * 为一个主库管理若干只读副本，只读操作按轮询或最少活跃查询数选择健康的副本执行，
+ * 写操作与事务始终在主库上执行。
+ * 当前上下文（每个 HTTP 请求独有的 Vert.x 副本上下文）或线程写过主库之后，
+ * 一段时间内的读取都回到主库，保证读到自己的写入。写入时间记录在上下文本地数据中，
+ * 请求结束时随副本上下文一起丢弃，不会影响其他请求。
+ * 定时对每个副本执行健康检查，连续失败达到阈值的副本被摘除，恢复后重新加入。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class ReplicaRouter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicaRouter.class);
+
+  /**
+   * 副本选择策略
+   */
+  enum Strategy {
+    ROUND_ROBIN, LEAST_LOADED;
+
+    static Strategy of(String name) {
+      return name != null && name.replace("-", "_").equalsIgnoreCase("least_loaded") ? LEAST_LOADED : ROUND_ROBIN;
+    }
+  }
+
+  private final String name;
+  private final Pool primary;
+  private final List<Replica> replicas;
+  private final Strategy strategy;
+  private final int failureThreshold;
+  private final long stickyMillis;
+  private final Vertx vertx;
+  private final long timerId;
+
+  private final AtomicInteger next = new AtomicInteger();
+  // 上下文本地数据的键，每个主库一个
+  private final Object stickyKey = new Object();
+  // 不在 Vert.x 上下文中的线程最后一次写入的时间
+  private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+  /**
+   * @param vertx               Vert.x 实例，用于健康检查定时器
+   * @param name                主库数据源名称
+   * @param primary             主库连接池
+   * @param replicaNames        副本数据源名称
+   * @param replicaPools        副本连接池，顺序与名称一致
+   * @param strategy            副本选择策略
+   * @param healthCheckInterval 健康检查间隔（毫秒）
+   * @param failureThreshold    摘除副本所需的连续失败次数
+   * @param stickyMillis        写入后读取主库的时长（毫秒）
+   */
+  ReplicaRouter(Vertx vertx, String name, Pool primary, List<String> replicaNames, List<Pool> replicaPools,
+      Strategy strategy, long healthCheckInterval, int failureThreshold, long stickyMillis) {
+    this.vertx = vertx;
+    this.name = name;
+    this.primary = primary;
+    List<Replica> list = new ArrayList<>(replicaPools.size());
+    for (int i = 0; i < replicaPools.size(); i++) {
+      list.add(new Replica(replicaNames.get(i), replicaPools.get(i)));
+    }
+    this.replicas = Collections.unmodifiableList(list);
+    this.strategy = strategy;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.stickyMillis = stickyMillis;
+    this.timerId = healthCheckInterval > 0 ? vertx.setPeriodic(healthCheckInterval, id -> checkHealth()) : -1;
+
+    LOG.info("Read replicas for datasource {}: {} ({})", name, replicaNames, strategy);
+  }
+
+  Pool getPrimary() {
+    return primary;
+  }
+
+  /**
+   * 执行只读操作
+   * 选中副本失败时改在主库上重试一次
+   *
+   * @param query 在给定连接池上执行的查询
+   */
+  <R> Future<R> read(Function<Pool, Future<R>> query) {
+    return read(query, true);
+  }
+
+  /**
+   * 执行只读操作，失败时不重试
+   * 用于已经产生副作用（如已把部分结果交给调用方）的读取
+   *
+   * @param query 在给定连接池上执行的查询
+   */
+  <R> Future<R> readOnce(Function<Pool, Future<R>> query) {
+    return read(query, false);
+  }
+
+  private <R> Future<R> read(Function<Pool, Future<R>> query, boolean retryOnPrimary) {
+    Replica replica = isSticky() ? null : select();
+    if (replica == null) {
+      return query.apply(primary);
+    }
+
+    replica.active.incrementAndGet();
+    Future<R> result;
+    try {
+      result = query.apply(replica.pool);
+    } catch (RuntimeException e) {
+      result = Future.failedFuture(e);
+    }
+    result = result.onComplete(ar -> replica.active.decrementAndGet());
+    if (!retryOnPrimary) {
+      return result;
+    }
+    return result.recover(err -> {
+      LOG.warn("Read on replica {} failed, retrying on primary {}: {}", replica.name, name, err.getMessage());
+      return query.apply(primary);
+    });
+  }
+
+  /**
+   * 记录当前请求写过主库，之后一段时间内的读取回到主库
+   */
+  void markWrite() {
+    Context context = Vertx.currentContext();
+    if (context != null) {
+      context.putLocal(stickyKey, System.currentTimeMillis());
+    } else {
+      lastWrite.set(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * 停止健康检查
+   */
+  void close() {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+    }
+  }
+
+  private boolean isSticky() {
+    Context context = Vertx.currentContext();
+    Long written = context != null ? context.getLocal(stickyKey) : lastWrite.get();
+    if (written == null) {
+      return false;
+    }
+    // 公开 API 无法区分请求的副本上下文和共享的上下文，两者都只在时间窗口内有效
+    return System.currentTimeMillis() - written < stickyMillis;
+  }
+
+  /**
+   * 选择一个健康的副本，全部不可用时返回 null
+   */
+  private Replica select() {
+    int size = replicas.size();
+    if (strategy == Strategy.LEAST_LOADED) {
+      Replica best = null;
+      for (Replica replica : replicas) {
+        if (replica.healthy.get() && (best == null || replica.active.get() < best.active.get())) {
+          best = replica;
+        }
+      }
+      return best;
+    }
+
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (replica.healthy.get()) {
+        return replica;
+      }
+    }
+    return null;
+  }
+
+  private void checkHealth() {
+    for (Replica replica : replicas) {
+      // 上一次检查未结束时跳过，避免不可达的副本堆积检查请求
+      if (!replica.checking.compareAndSet(false, true)) {
+        continue;
+      }
+      replica.pool.query("SELECT 1").execute().onComplete(ar -> {
+        replica.checking.set(false);
+        if (ar.succeeded()) {
+          replica.failures.set(0);
+          if (replica.healthy.compareAndSet(false, true)) {
+            LOG.info("Replica {} of datasource {} is back in rotation", replica.name, name);
+          }
+        } else if (replica.failures.incrementAndGet() >= failureThreshold
+            && replica.healthy.compareAndSet(true, false)) {
+          LOG.warn("Replica {} of datasource {} ejected after {} failed health checks: {}",
+              replica.name, name, failureThreshold, ar.cause().getMessage());
+        }
+      });
+    }
+  }
+
+  /**
+   * 副本及其状态
+   */
+  private static final class Replica {
+    private final String name;
+    private final Pool pool;
+    private final AtomicBoolean healthy = new AtomicBoolean(true);
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private final AtomicInteger failures = new AtomicInteger();
+    // 正在执行的只读操作数
+    private final AtomicInteger active = new AtomicInteger();
+
+    Replica(String name, Pool pool) {
+      this.name = name;
+      this.pool = pool;
+    }
+  }
+}
@@ -197,6 +197,75 @@ public class RepositoryImpl<T extends BaseEntity> implements Repository<T> {
     return count;
   }
 
+  /**
+   * 游标分页查询
+   * 读取符合条件的实体后在内存中按排序字段和主键排序，从游标位置之后截取一页，
+   * 适用于数据在内存中的实现
+   */
+  @Override
+  public CursorPage<T> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    if (criteria.getCustomFilter() != null) {
+      throw new IllegalArgumentException("Keyset pagination does not support custom filters");
+    }
+
+    EntityMetadata<T> metadata = EntityMetadata.of(entityClass);
+    EntityMetadata.FieldMetadata sortField = criteria.getOrderBy() == null
+        ? null
+        : metadata.getFields().get(criteria.getOrderBy());
+    if (sortField == metadata.getPrimaryKeyField()) {
+      sortField = null;
+    }
+    String sortName = sortField == null ? null : sortField.getFieldName();
+    KeysetCursor after = cursor == null
+        ? null
+        : KeysetCursor.decode(cursor, sortName, sortField == null ? null : sortField.getField().getType());
+
+    EntityMetadata.FieldMetadata keyField = sortField;
+    int direction = criteria.isAscending() ? 1 : -1;
+    List<T> entities = dataService.findByCriteria(collectionDef.getFullName(), convertCriteriaToConditions(criteria))
+        .stream()
+        .map(this::mapToEntity)
+        .filter(entity -> after == null || direction * compareKeys(
+            sortKey(entity, keyField), entity.getId(), after.getSortValue(), after.getId()) > 0)
+        .sorted((a, b) -> direction * compareKeys(sortKey(a, keyField), a.getId(), sortKey(b, keyField), b.getId()))
+        // 多取一条判断是否还有下一页
+        .limit(limit + 1L)
+        .collect(Collectors.toList());
+    if (entities.size() <= limit) {
+      return new CursorPage<>(entities, null);
+    }
+
+    entities = entities.subList(0, limit);
+    T last = entities.get(limit - 1);
+    return new CursorPage<>(entities, new KeysetCursor(sortName, sortKey(last, keyField), last.getId()).encode());
+  }
+
+  /**
+   * 排序字段的值，按主键排序时为 null
+   */
+  private Object sortKey(T entity, EntityMetadata.FieldMetadata sortField) {
+    if (sortField == null) {
+      return null;
+    }
+    Object value = sortField.getValue(entity);
+    if (value == null) {
+      throw new IllegalStateException("Keyset pagination requires non-null values in " + sortField.getFieldName());
+    }
+    return value;
+  }
+
+  /**
+   * 按 (排序键, 主键) 的字典序比较
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static int compareKeys(Object aValue, String aId, Object bValue, String bId) {
+    int result = aValue == null ? 0 : ((Comparable) aValue).compareTo(bValue);
+    return result != 0 ? result : aId.compareTo(bId);
+  }
+
   /**
    * 将实体转换为 Map
    * 
@@ -219,25 +288,14 @@ public class RepositoryImpl<T extends BaseEntity> implements Repository<T> {
 
   /**
    * 转换查询条件
-   * 将 QueryCriteria 的高级条件转换为简单的 Map 条件
+   * 条件键保持 QueryCriteria 的格式（"字段" 或 "字段__操作符"），
+   * 操作符由数据服务解析：内存实现交给 IndexedMemoryTable，数据库实现交给 CriteriaCompiler
    * 
    * @param criteria 查询条件
    * @return 条件 Map
    */
   private Map<String, Object> convertCriteriaToConditions(QueryCriteria<T> criteria) {
-    Map<String, Object> conditions = new HashMap<>();
-
-    // 这里简化处理，只处理等值条件
-    // 实际应用中可以根据条件后缀（如 __gt, __lt 等）构建更复杂的查询
-    criteria.getConditions().forEach((key, value) -> {
-      if (!key.contains("__")) {
-        // 简单的等值条件
-        conditions.put(key, value);
-      }
-      // TODO: 处理复杂条件（如 __gt, __lt, __like 等）
-    });
-
-    return conditions;
+    return new LinkedHashMap<>(criteria.getConditions());
   }
 
   /**
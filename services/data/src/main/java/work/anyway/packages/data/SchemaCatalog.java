@@ -0,0 +1,216 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据源的表结构目录
+ * 一次读取当前模式下所有表的列、主键和索引，保存为快照；{@link #refresh()} 重新读取并整体替换快照。
+ * 列与主键来自 information_schema；PostgreSQL 的 information_schema 不包含索引，索引从 pg_index 读取。
+ * 快照中没有的表（如启动后新建的表）在第一次访问时单独读取并加入快照，表不存在时不缓存。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class SchemaCatalog {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaCatalog.class);
+
+  private final String name;
+  private final Pool pool;
+  private final SqlDialect dialect;
+
+  // 表名 -> 表结构，refresh 时整体替换
+  private volatile Map<String, TableSchema> tables;
+  // 正在进行或已完成的整体加载
+  private volatile Future<Map<String, TableSchema>> loading;
+  // 正在单独读取的表
+  private final Map<String, Future<TableSchema>> pendingTables = new ConcurrentHashMap<>();
+
+  /**
+   * @param name    数据源名称
+   * @param pool    数据源连接池
+   * @param dialect SQL 方言
+   */
+  SchemaCatalog(String name, Pool pool, SqlDialect dialect) {
+    this.name = name;
+    this.pool = pool;
+    this.dialect = dialect;
+  }
+
+  /**
+   * 重新读取所有表结构，完成后替换快照
+   *
+   * @return 读取到的表数
+   */
+  synchronized Future<Integer> refresh() {
+    Future<Map<String, TableSchema>> load = load(null).onSuccess(loaded -> {
+      tables = loaded;
+      LOG.info("Loaded schema catalog of datasource {}: {} tables", name, loaded.size());
+    });
+    loading = load;
+    return load.map(Map::size);
+  }
+
+  /**
+   * 所有表名，按名称排序；尚未加载时先加载
+   */
+  Future<List<String>> tableNames() {
+    return snapshot().map(snapshot -> new ArrayList<>(new TreeSet<>(snapshot.keySet())));
+  }
+
+  /**
+   * 获取表结构
+   *
+   * @param table 表名
+   * @return 表结构，表不存在时失败并返回 {@link IllegalArgumentException}
+   */
+  Future<TableSchema> table(String table) {
+    return snapshot().compose(snapshot -> {
+      TableSchema schema = snapshot.get(table);
+      if (schema != null) {
+        return Future.succeededFuture(schema);
+      }
+
+      Future<TableSchema> pending = pendingTables.computeIfAbsent(table, key -> load(key).compose(loaded -> {
+        TableSchema found = loaded.get(key);
+        if (found == null) {
+          return Future.failedFuture(new IllegalArgumentException("Unknown collection: " + key));
+        }
+        addTable(found);
+        return Future.succeededFuture(found);
+      }));
+      return pending.onComplete(ar -> pendingTables.remove(table, pending));
+    });
+  }
+
+  private synchronized void addTable(TableSchema schema) {
+    Map<String, TableSchema> updated = new HashMap<>(tables);
+    updated.put(schema.getName(), schema);
+    tables = updated;
+  }
+
+  /**
+   * 当前快照，首次访问或上次加载失败时触发整体加载
+   */
+  private Future<Map<String, TableSchema>> snapshot() {
+    Map<String, TableSchema> current = tables;
+    if (current != null) {
+      return Future.succeededFuture(current);
+    }
+    synchronized (this) {
+      Future<Map<String, TableSchema>> load = loading;
+      if (load == null || load.failed()) {
+        refresh();
+        load = loading;
+      }
+      return load;
+    }
+  }
+
+  /**
+   * 读取表结构
+   *
+   * @param table 只读取这张表，为 null 时读取所有表
+   */
+  private Future<Map<String, TableSchema>> load(String table) {
+    Tuple params = table == null ? Tuple.tuple() : Tuple.of(table);
+    Future<RowSet<Row>> columns = pool.preparedQuery(columnsSql(table != null)).execute(params);
+    Future<RowSet<Row>> primaryKeys = pool.preparedQuery(primaryKeysSql(table != null)).execute(params);
+    Future<RowSet<Row>> indexes = pool.preparedQuery(indexesSql(table != null)).execute(params);
+
+    return Future.all(columns, primaryKeys, indexes).map(done -> {
+      // 结果集都按表名和列顺序排列，列名按位置读取以兼容两种数据库的大小写
+      Map<String, Map<String, String>> columnTypes = new LinkedHashMap<>();
+      for (Row row : columns.result()) {
+        columnTypes.computeIfAbsent(row.getString(0), key -> new LinkedHashMap<>())
+            .put(row.getString(1), TableSchema.normalizeType(row.getString(2)));
+      }
+
+      Map<String, List<String>> keys = new HashMap<>();
+      for (Row row : primaryKeys.result()) {
+        keys.computeIfAbsent(row.getString(0), key -> new ArrayList<>()).add(row.getString(1));
+      }
+
+      Map<String, Map<String, List<String>>> indexColumns = new HashMap<>();
+      Map<String, Boolean> uniqueIndexes = new HashMap<>();
+      for (Row row : indexes.result()) {
+        String tableName = row.getString(0);
+        String indexName = row.getString(1);
+        indexColumns.computeIfAbsent(tableName, key -> new LinkedHashMap<>())
+            .computeIfAbsent(indexName, key -> new ArrayList<>())
+            .add(row.getString(3));
+        uniqueIndexes.put(tableName + "." + indexName, isTrue(row.getValue(2)));
+      }
+
+      Map<String, TableSchema> loaded = new HashMap<>();
+      columnTypes.forEach((tableName, types) -> {
+        List<TableSchema.Index> tableIndexes = new ArrayList<>();
+        indexColumns.getOrDefault(tableName, Collections.emptyMap()).forEach((indexName, indexed) -> {
+          boolean unique = uniqueIndexes.get(tableName + "." + indexName);
+          tableIndexes.add(new TableSchema.Index(indexName, indexed, unique));
+        });
+        loaded.put(tableName, new TableSchema(tableName, types,
+            keys.getOrDefault(tableName, Collections.emptyList()), tableIndexes));
+      });
+      return loaded;
+    });
+  }
+
+  private String columnsSql(boolean singleTable) {
+    String schema = dialect == SqlDialect.MYSQL ? "DATABASE()" : "current_schema()";
+    return dialect.translate("SELECT c.table_name, c.column_name, c.data_type FROM information_schema.columns c "
+        + "JOIN information_schema.tables t ON t.table_schema = c.table_schema AND t.table_name = c.table_name "
+        + "WHERE t.table_type = 'BASE TABLE' AND c.table_schema = " + schema
+        + (singleTable ? " AND c.table_name = ?" : "")
+        + " ORDER BY c.table_name, c.ordinal_position");
+  }
+
+  private String primaryKeysSql(boolean singleTable) {
+    String schema = dialect == SqlDialect.MYSQL ? "DATABASE()" : "current_schema()";
+    return dialect.translate("SELECT k.table_name, k.column_name FROM information_schema.table_constraints c "
+        + "JOIN information_schema.key_column_usage k ON k.constraint_schema = c.constraint_schema "
+        + "AND k.constraint_name = c.constraint_name AND k.table_name = c.table_name "
+        + "WHERE c.constraint_type = 'PRIMARY KEY' AND c.table_schema = " + schema
+        + (singleTable ? " AND c.table_name = ?" : "")
+        + " ORDER BY k.table_name, k.ordinal_position");
+  }
+
+  private String indexesSql(boolean singleTable) {
+    if (dialect == SqlDialect.MYSQL) {
+      return "SELECT table_name, index_name, non_unique = 0, column_name FROM information_schema.statistics "
+          + "WHERE table_schema = DATABASE()" + (singleTable ? " AND table_name = ?" : "")
+          + " ORDER BY table_name, index_name, seq_in_index";
+    }
+    // 表达式索引的列不在 pg_attribute 中，会被联结过滤掉
+    return "SELECT t.relname, i.relname, ix.indisunique, a.attname FROM pg_index ix "
+        + "JOIN pg_class t ON t.oid = ix.indrelid "
+        + "JOIN pg_class i ON i.oid = ix.indexrelid "
+        + "JOIN pg_namespace n ON n.oid = t.relnamespace "
+        + "CROSS JOIN LATERAL unnest(ix.indkey) WITH ORDINALITY AS k(attnum, ord) "
+        + "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum "
+        + "WHERE n.nspname = current_schema()" + (singleTable ? " AND t.relname = $1" : "")
+        + " ORDER BY t.relname, i.relname, k.ord";
+  }
+
+  private static boolean isTrue(Object value) {
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    return value instanceof Number && ((Number) value).intValue() != 0;
+  }
+}
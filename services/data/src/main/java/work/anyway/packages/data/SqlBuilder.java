@@ -0,0 +1,88 @@
+package work.anyway.packages.data;
+
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 构建器
+ * 拼接 SQL 文本的同时收集参数，并按方言生成带序号的占位符。
+ * 基于模板创建的构建器不再拼接文本，只收集参数，文本直接使用模板。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class SqlBuilder {
+
+  private final SqlDialect dialect;
+  // 拼接中的文本，基于模板时为 null
+  private final StringBuilder sql;
+  private final String template;
+  private final List<Object> params = new ArrayList<>();
+  // 基于模板时记录追加的片段长度，用于 length()
+  private int skipped;
+
+  SqlBuilder(SqlDialect dialect) {
+    this.dialect = dialect;
+    this.sql = new StringBuilder();
+    this.template = null;
+  }
+
+  private SqlBuilder(SqlDialect dialect, String template) {
+    this.dialect = dialect;
+    this.sql = null;
+    this.template = template;
+  }
+
+  /**
+   * 创建基于已有模板的构建器，只收集参数
+   *
+   * @param template 与参数对应的 SQL 文本
+   */
+  static SqlBuilder fromTemplate(SqlDialect dialect, String template) {
+    return new SqlBuilder(dialect, template);
+  }
+
+  SqlBuilder append(String text) {
+    if (sql == null) {
+      skipped += text.length();
+    } else {
+      sql.append(text);
+    }
+    return this;
+  }
+
+  /**
+   * 追加一个参数及其占位符
+   */
+  SqlBuilder param(Object value) {
+    params.add(value);
+    if (sql == null) {
+      skipped++;
+    } else {
+      sql.append(dialect.placeholder(params.size()));
+    }
+    return this;
+  }
+
+  /**
+   * 当前 SQL 文本长度，用于判断片段是否追加了内容
+   */
+  int length() {
+    return sql == null ? skipped : sql.length();
+  }
+
+  List<Object> getParams() {
+    return params;
+  }
+
+  Tuple toTuple() {
+    return Tuple.from(params);
+  }
+
+  @Override
+  public String toString() {
+    return sql == null ? template : sql.toString();
+  }
+}
@@ -0,0 +1,69 @@
+package work.anyway.packages.data;
+
+/**
+ * SQL 方言
+ * 目前只处理参数占位符的差异：PostgreSQL 使用 $1、$2…，MySQL 使用 ?
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+enum SqlDialect {
+
+  POSTGRESQL {
+    @Override
+    String placeholder(int index) {
+      return "$" + index;
+    }
+  },
+
+  MYSQL {
+    @Override
+    String placeholder(int index) {
+      return "?";
+    }
+  };
+
+  /**
+   * 生成第 index 个参数的占位符，从 1 开始
+   */
+  abstract String placeholder(int index);
+
+  /**
+   * 将使用 ? 占位符的 SQL 转换为当前方言
+   * 只适用于内部生成、不含字符串字面量的 SQL
+   */
+  String translate(String sql) {
+    if (this == MYSQL) {
+      return sql;
+    }
+    StringBuilder result = new StringBuilder(sql.length() + 16);
+    int index = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '?') {
+        result.append(placeholder(++index));
+      } else {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * 根据数据源配置中的 type 确定方言
+   *
+   * @param type 数据库类型，与 {@link DataSourceManager} 的取值一致
+   */
+  static SqlDialect of(String type) {
+    switch (type == null ? "postgresql" : type.toLowerCase()) {
+      case "postgresql":
+      case "postgres":
+      case "pg":
+        return POSTGRESQL;
+      case "mysql":
+        return MYSQL;
+      default:
+        throw new UnsupportedOperationException("Unsupported database type: " + type);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package work.anyway.packages.data;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * SQL 模板缓存
+ * 按 (集合, 操作, 列集合) 缓存已生成并按方言转换过的 SQL 文本，热点查询不再重复拼接字符串；
+ * 文本稳定后也能命中连接上的预编译语句缓存。
+ * 缓存有容量上限，达到上限后淘汰最久未使用的模板；键的各部分应取自有限的取值集合，
+ * 不要直接放入请求参数等不受控的字符串。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class SqlTemplateCache {
+
+  static final int DEFAULT_MAX_SIZE = 1024;
+
+  // 按访问顺序排列，读写都在 this 上同步
+  private final Map<List<Object>, String> templates;
+
+  SqlTemplateCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  SqlTemplateCache(int maxSize) {
+    this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, String> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * 构造缓存键，各部分按 equals 比较
+   */
+  static List<Object> key(Object... parts) {
+    return Arrays.asList(parts);
+  }
+
+  /**
+   * 获取 SQL 模板，未命中时生成并缓存
+   *
+   * @param key     缓存键
+   * @param factory SQL 生成函数
+   */
+  String get(List<Object> key, Supplier<String> factory) {
+    String sql = lookup(key);
+    if (sql == null) {
+      sql = factory.get();
+      store(key, sql);
+    }
+    return sql;
+  }
+
+  /**
+   * 构建带参数的语句
+   * 命中时构建器只收集参数，SQL 文本直接使用缓存的模板；未命中时完整构建并缓存文本。
+   * 因此 body 对相同的键必须生成相同的文本和相同个数的参数。
+   *
+   * @param dialect SQL 方言
+   * @param key     缓存键
+   * @param body    构建语句的函数
+   */
+  SqlBuilder build(SqlDialect dialect, List<Object> key, Consumer<SqlBuilder> body) {
+    String template = lookup(key);
+    SqlBuilder sql = template == null ? new SqlBuilder(dialect) : SqlBuilder.fromTemplate(dialect, template);
+    body.accept(sql);
+    if (template == null) {
+      store(key, sql.toString());
+    }
+    return sql;
+  }
+
+  /**
+   * 清空所有模板，表结构刷新后调用，旧表结构的模板不再占用容量
+   */
+  synchronized void clear() {
+    templates.clear();
+  }
+
+  /**
+   * 当前缓存的模板数
+   */
+  synchronized int size() {
+    return templates.size();
+  }
+
+  private synchronized String lookup(List<Object> key) {
+    return templates.get(key);
+  }
+
+  // 生成模板在锁外进行，并发生成的同一模板只保留先放入的一份
+  private synchronized void store(List<Object> key, String sql) {
+    templates.putIfAbsent(key, sql);
+  }
+}
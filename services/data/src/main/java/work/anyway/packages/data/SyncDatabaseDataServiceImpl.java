@@ -1,5 +1,6 @@
 package work.anyway.packages.data;
 
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.sqlclient.*;
 import org.slf4j.Logger;
@@ -9,8 +10,8 @@ import org.springframework.stereotype.Service;
 import work.anyway.interfaces.data.*;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import io.vertx.core.json.JsonObject;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -32,6 +33,14 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
 
   private final DataSourceManager dataSourceManager;
 
+  // SQL 模板与字段名/列名转换缓存
+  private final SqlTemplateCache sqlTemplates = new SqlTemplateCache();
+  private final NameCache columnNames = new NameCache(this::camelToSnake);
+  private final NameCache fieldNames = new NameCache(this::snakeToCamel);
+  private final CollectionQueryBuilder queryBuilder =
+      new CollectionQueryBuilder(sqlTemplates, columnNames::get, fieldNames::get, this::convertForDatabase,
+          this::convertFromDatabase);
+
   /**
    * 构造函数
    * 
@@ -59,28 +68,25 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
       // 准备数据 - 不修改原始数据
       Map<String, Object> savedData = new HashMap<>(data);
 
-      // 构建 INSERT SQL
-      List<String> columns = new ArrayList<>();
-      List<String> placeholders = new ArrayList<>();
-      List<Object> values = new ArrayList<>();
-
-      savedData.forEach((key, value) -> {
-        // 转换 camelCase 到 snake_case
-        String columnName = camelToSnake(key);
-        columns.add(columnName);
-        placeholders.add("?");
+      // 构建 INSERT SQL，字段集合相同时复用模板
+      List<String> fields = new ArrayList<>(savedData.keySet());
+      List<Object> values = new ArrayList<>(fields.size());
+      for (String field : fields) {
         // Convert value to database-compatible format
-        values.add(convertForDatabase(value));
-      });
+        values.add(convertForDatabase(savedData.get(field)));
+      }
 
-      String sql = String.format("INSERT INTO %s (%s) VALUES (%s)",
-          collection,
-          String.join(", ", columns),
-          String.join(", ", placeholders));
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "insert", fields),
+          () -> String.format("INSERT INTO %s (%s) VALUES (%s)",
+              collection,
+              // 转换 camelCase 到 snake_case
+              fields.stream().map(columnNames::get).collect(Collectors.joining(", ")),
+              String.join(", ", Collections.nCopies(fields.size(), "?"))));
 
       LOG.debug("Executing SQL: {}", sql);
 
       // 执行同步查询（简化实现）
+      dataSourceManager.markWrite(null);
       Promise<RowSet<Row>> promise = Promise.promise();
       pool.preparedQuery(sql)
           .execute(Tuple.from(values), promise);
@@ -113,14 +119,13 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     LOG.debug("Finding data by ID, collection: {}, ID: {}", collection, id);
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      String sql = String.format("SELECT * FROM %s WHERE id = ?", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "findById"),
+          () -> String.format("SELECT * FROM %s WHERE id = ?", collection));
       LOG.debug("Executing SQL: {}", sql);
 
       Promise<RowSet<Row>> promise = Promise.promise();
-      pool.preparedQuery(sql)
-          .execute(Tuple.of(id), promise);
+      dataSourceManager.read(null, reader -> reader.preparedQuery(sql).execute(Tuple.of(id)))
+          .onComplete(promise);
 
       // 等待结果
       while (!promise.future().isComplete()) {
@@ -155,14 +160,13 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     LOG.debug("Finding all data, collection: {}", collection);
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      String sql = String.format("SELECT * FROM %s", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "findAll"),
+          () -> String.format("SELECT * FROM %s", collection));
       LOG.debug("Executing SQL: {}", sql);
 
       Promise<RowSet<Row>> promise = Promise.promise();
-      pool.query(sql)
-          .execute(promise);
+      dataSourceManager.read(null, reader -> reader.query(sql).execute())
+          .onComplete(promise);
 
       // 等待结果
       while (!promise.future().isComplete()) {
@@ -195,10 +199,15 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
   public List<Map<String, Object>> findByCriteria(String collection, Map<String, Object> criteria) {
     LOG.debug("Finding data by criteria, collection: {}, criteria: {}", collection, criteria);
 
-    // 简化实现，实际应该构建 WHERE 子句
-    return findAll(collection).stream()
-        .filter(data -> matchesCriteria(data, criteria))
-        .collect(Collectors.toList());
+    try {
+      TableSchema schema = tableSchema(collection);
+      SqlBuilder sql = queryBuilder.select(dataSourceManager.getDialect(null), schema, criteria, null, true, 0, 0);
+      LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+      return queryBuilder.toMaps(schema, execute(sql));
+    } catch (Exception e) {
+      LOG.error("Failed to find data by criteria in database", e);
+      return Collections.emptyList();
+    }
   }
 
   @Override
@@ -213,25 +222,24 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
       // 移除不应该更新的字段
       updateData.remove("id");
 
-      // 构建 UPDATE SQL
-      List<String> setClauses = new ArrayList<>();
-      List<Object> values = new ArrayList<>();
-
-      updateData.forEach((key, value) -> {
-        String columnName = camelToSnake(key);
-        setClauses.add(columnName + " = ?");
+      // 构建 UPDATE SQL，字段集合相同时复用模板
+      List<String> fields = new ArrayList<>(updateData.keySet());
+      List<Object> values = new ArrayList<>(fields.size() + 1);
+      for (String field : fields) {
         // Convert value to database-compatible format
-        values.add(convertForDatabase(value));
-      });
+        values.add(convertForDatabase(updateData.get(field)));
+      }
 
       values.add(id); // WHERE 条件的值
 
-      String sql = String.format("UPDATE %s SET %s WHERE id = ?",
-          collection,
-          String.join(", ", setClauses));
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "update", fields),
+          () -> String.format("UPDATE %s SET %s WHERE id = ?",
+              collection,
+              fields.stream().map(field -> columnNames.get(field) + " = ?").collect(Collectors.joining(", "))));
 
       LOG.debug("Executing SQL: {}", sql);
 
+      dataSourceManager.markWrite(null);
       Promise<RowSet<Row>> promise = Promise.promise();
       pool.preparedQuery(sql)
           .execute(Tuple.from(values), promise);
@@ -270,9 +278,11 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     try {
       Pool pool = dataSourceManager.getDefaultPool();
 
-      String sql = String.format("DELETE FROM %s WHERE id = ?", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "delete"),
+          () -> String.format("DELETE FROM %s WHERE id = ?", collection));
       LOG.debug("Executing SQL: {}", sql);
 
+      dataSourceManager.markWrite(null);
       Promise<RowSet<Row>> promise = Promise.promise();
       pool.preparedQuery(sql)
           .execute(Tuple.of(id), promise);
@@ -309,14 +319,13 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     LOG.debug("Counting data, collection: {}", collection);
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      String sql = String.format("SELECT COUNT(*) FROM %s", collection);
+      String sql = sqlTemplate(SqlTemplateCache.key(collection, "count"),
+          () -> String.format("SELECT COUNT(*) FROM %s", collection));
       LOG.debug("Executing SQL: {}", sql);
 
       Promise<RowSet<Row>> promise = Promise.promise();
-      pool.query(sql)
-          .execute(promise);
+      dataSourceManager.read(null, reader -> reader.query(sql).execute())
+          .onComplete(promise);
 
       // 等待结果
       while (!promise.future().isComplete()) {
@@ -349,10 +358,12 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
   public long countByCriteria(String collection, Map<String, Object> criteria) {
     LOG.debug("Counting data by criteria, collection: {}, criteria: {}", collection, criteria);
 
-    // 简化实现，实际应该构建 WHERE 子句
-    return findAll(collection).stream()
-        .filter(data -> matchesCriteria(data, criteria))
-        .count();
+    try {
+      return executeCount(tableSchema(collection), criteria);
+    } catch (Exception e) {
+      LOG.error("Failed to count data by criteria in database", e);
+      return 0;
+    }
   }
 
   @Override
@@ -361,51 +372,15 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
         collection, options.getPage(), options.getPageSize(), options.getSortBy());
 
     try {
-      Pool pool = dataSourceManager.getDefaultPool();
-
-      // 构建 SELECT SQL
-      String selectColumns = "*"; // 查询所有列
-      String whereClause = buildWhereClause(options.getFilters());
-      String orderByClause = buildOrderByClause(options.getSortBy(), options.isAscending());
-      String limitClause = buildLimitClause(options.getOffset(), options.getPageSize());
-
-      String sql = String.format("SELECT %s FROM %s %s %s %s",
-          selectColumns,
-          collection,
-          whereClause,
-          orderByClause,
-          limitClause);
-
-      LOG.debug("Executing SQL: {}", sql);
-
-      Promise<RowSet<Row>> promise = Promise.promise();
-      pool.preparedQuery(sql)
-          .execute(buildTupleForFilters(options.getFilters()), promise);
-
-      // 等待结果
-      while (!promise.future().isComplete()) {
-        try {
-          Thread.sleep(10);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          throw new RuntimeException("Interrupted while waiting for database operation", e);
-        }
-      }
-
-      if (promise.future().succeeded()) {
-        RowSet<Row> rows = promise.future().result();
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (Row row : rows) {
-          results.add(rowToMap(row));
-        }
-
-        // 获取总数
-        long total = countByCriteria(collection, options.getFilters());
-        return new PageResult<>(results, total, options.getPage(), options.getPageSize());
-      } else {
-        throw new RuntimeException("Failed to query data from database: " + promise.future().cause().getMessage());
-      }
-
+      // 过滤字段、排序字段只接受表中存在的列，过滤值与分页参数都使用占位符
+      TableSchema schema = tableSchema(collection);
+      SqlBuilder sql = queryBuilder.select(dataSourceManager.getDialect(null), schema, options.getFilters(),
+          options.getSortBy(), options.isAscending(), options.getPageSize(), options.getOffset());
+      LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+      List<Map<String, Object>> results = queryBuilder.toMaps(schema, execute(sql));
+
+      long total = executeCount(schema, options.getFilters());
+      return new PageResult<>(results, total, options.getPage(), options.getPageSize());
     } catch (Exception e) {
       LOG.error("Failed to query data from database", e);
       return new PageResult<>(Collections.emptyList(), 0, options.getPage(), options.getPageSize());
@@ -416,33 +391,55 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
   public int batchSave(String collection, List<Map<String, Object>> dataList) {
     LOG.debug("Batch saving data, collection: {}, count: {}", collection, dataList.size());
 
-    int savedCount = 0;
-    for (Map<String, Object> data : dataList) {
-      try {
-        save(collection, data);
-        savedCount++;
-      } catch (Exception e) {
-        LOG.error("Batch save failed, skipping this record", e);
-      }
+    if (dataList.isEmpty()) {
+      return 0;
     }
 
-    LOG.info("Batch save completed, collection: {}, success: {}/{}", collection, savedCount, dataList.size());
-    return savedCount;
+    Map<List<String>, List<List<Object>>> rowsByColumns = groupRowsByColumns(dataList);
+    BatchWriter writer = new BatchWriter(dataSourceManager.getDialect(null), dataSourceManager.getBatchSize(null));
+
+    dataSourceManager.markWrite(null);
+    try {
+      // 所有记录在一个事务中插入，列集合相同的记录合并为多行 INSERT
+      int savedCount = dataSourceManager.getDefaultPool().withTransaction(conn -> {
+        Future<Integer> result = Future.succeededFuture(0);
+        for (Map.Entry<List<String>, List<List<Object>>> group : rowsByColumns.entrySet()) {
+          result = result.compose(count -> writer.insert(conn, collection, group.getKey(), group.getValue())
+              .map(inserted -> count + inserted));
+        }
+        return result;
+      }).toCompletionStage().toCompletableFuture().get();
+
+      LOG.info("Batch save completed, collection: {}, success: {}/{}", collection, savedCount, dataList.size());
+      return savedCount;
+    } catch (Exception e) {
+      LOG.error("Batch save failed, collection: {}", collection, e);
+      return 0;
+    }
   }
 
   @Override
   public int batchDelete(String collection, List<String> ids) {
     LOG.debug("Batch deleting data, collection: {}, count: {}", collection, ids.size());
 
-    int deletedCount = 0;
-    for (String id : ids) {
-      if (delete(collection, id)) {
-        deletedCount++;
-      }
+    if (ids.isEmpty()) {
+      return 0;
     }
 
-    LOG.info("Batch delete completed, collection: {}, success: {}/{}", collection, deletedCount, ids.size());
-    return deletedCount;
+    BatchWriter writer = new BatchWriter(dataSourceManager.getDialect(null), dataSourceManager.getBatchSize(null));
+
+    dataSourceManager.markWrite(null);
+    try {
+      int deletedCount = dataSourceManager.getDefaultPool()
+          .withTransaction(conn -> writer.deleteByIds(conn, collection, "id", ids))
+          .toCompletionStage().toCompletableFuture().get();
+
+      LOG.info("Batch delete completed, collection: {}, success: {}/{}", collection, deletedCount, ids.size());
+      return deletedCount;
+    } catch (Exception e) {
+      LOG.error("Batch delete failed, collection: {}", collection, e);
+      return 0;
+    }
   }
 
   @Override
@@ -476,7 +473,7 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
       // Convert database values to application-friendly format
       value = convertFromDatabase(value);
       // 转换 snake_case 到 camelCase
-      String key = snakeToCamel(columnName);
+      String key = fieldNames.get(columnName);
       map.put(key, value);
     }
     return map;
@@ -531,6 +528,34 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     return value;
   }
 
+  /**
+   * 获取按默认数据源方言转换后的 SQL 模板，未命中时才生成
+   */
+  private String sqlTemplate(List<Object> key, Supplier<String> factory) {
+    return sqlTemplates.get(key, () -> dataSourceManager.getDialect(null).translate(factory.get()));
+  }
+
+  /**
+   * 按列集合分组记录，没有 id 的记录被跳过
+   */
+  private Map<List<String>, List<List<Object>>> groupRowsByColumns(List<Map<String, Object>> dataList) {
+    Map<List<String>, List<List<Object>>> rowsByColumns = new LinkedHashMap<>();
+    for (Map<String, Object> data : dataList) {
+      if (!data.containsKey("id")) {
+        LOG.error("Batch save skipped a record without ID");
+        continue;
+      }
+      List<String> columns = new ArrayList<>(data.size());
+      List<Object> values = new ArrayList<>(data.size());
+      data.forEach((key, value) -> {
+        columns.add(columnNames.get(key));
+        values.add(convertForDatabase(value));
+      });
+      rowsByColumns.computeIfAbsent(columns, k -> new ArrayList<>()).add(values);
+    }
+    return rowsByColumns;
+  }
+
   /**
    * 将 camelCase 字符串转换为 snake_case 字符串
    */
@@ -579,86 +604,21 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
   }
 
   /**
-   * 检查数据是否匹配查询条件
+   * 获取表结构，表不存在时抛出 IllegalArgumentException
    */
-  private boolean matchesCriteria(Map<String, Object> data, Map<String, Object> criteria) {
-    if (criteria == null || criteria.isEmpty()) {
-      return true;
-    }
-
-    for (Map.Entry<String, Object> entry : criteria.entrySet()) {
-      String key = entry.getKey();
-      Object value = entry.getValue();
-
-      if (!data.containsKey(key)) {
-        return false;
-      }
-
-      Object dataValue = data.get(key);
-
-      // 简单的相等比较
-      if (!Objects.equals(value, dataValue)) {
-        return false;
-      }
-    }
-
-    return true;
-  }
-
-  private String buildWhereClause(Map<String, Object> filters) {
-    if (filters == null || filters.isEmpty()) {
-      return "";
-    }
-
-    List<String> conditions = new ArrayList<>();
-    for (Map.Entry<String, Object> entry : filters.entrySet()) {
-      String key = entry.getKey();
-      Object value = entry.getValue();
-
-      // 转换 camelCase 到 snake_case
-      String columnName = camelToSnake(key);
-
-      if (value == null) {
-        conditions.add(columnName + " IS NULL");
-      } else {
-        conditions.add(columnName + " = ?");
-      }
-    }
-
-    return "WHERE " + String.join(" AND ", conditions);
-  }
-
-  private String buildOrderByClause(String sortBy, boolean ascending) {
-    if (sortBy == null || sortBy.isEmpty()) {
-      return "";
-    }
-
-    // 转换 camelCase 到 snake_case
-    String columnName = camelToSnake(sortBy);
-    return "ORDER BY " + columnName + (ascending ? " ASC" : " DESC");
+  private TableSchema tableSchema(String collection) throws Exception {
+    return BlockingRepositoryAdapter.await(() -> dataSourceManager.getSchemaCatalog(null).table(collection));
   }
 
-  private String buildLimitClause(int offset, int pageSize) {
-    if (pageSize <= 0) {
-      return "";
-    }
-
-    return "LIMIT " + pageSize + " OFFSET " + offset;
+  private long executeCount(TableSchema schema, Map<String, Object> criteria) throws Exception {
+    SqlBuilder sql = queryBuilder.count(dataSourceManager.getDialect(null), schema, criteria);
+    LOG.debug("Executing SQL: {}, parameters: {}", sql, sql.getParams());
+    return execute(sql).iterator().next().getLong(0);
   }
 
-  private Tuple buildTupleForFilters(Map<String, Object> filters) {
-    List<Object> values = new ArrayList<>();
-    if (filters != null) {
-      for (Map.Entry<String, Object> entry : filters.entrySet()) {
-        Object value = entry.getValue();
-
-        // 只添加非 null 值，因为 null 值使用 IS NULL 而不是 = ?
-        if (value != null) {
-          values.add(value);
-        }
-      }
-    }
-    return Tuple.from(values);
+  private RowSet<Row> execute(SqlBuilder sql) throws Exception {
+    return BlockingRepositoryAdapter.await(
+        () -> dataSourceManager.read(null, reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple())));
   }
 
   @Override
@@ -672,35 +632,9 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
     }
 
     try {
-      // 获取默认数据源配置来判断数据库类型
-      Map<String, JsonObject> configs = dataSourceManager.getDataSourceConfigs();
-      String defaultDs = dataSourceManager.getDefaultDataSource();
-      JsonObject config = configs.get(defaultDs);
-      String dbType = config != null ? config.getString("type", "postgresql") : "postgresql";
-
-      // 根据数据库类型使用不同的查询
-      String query = dbType.toLowerCase().contains("postgres")
-          ? "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public' AND table_type = 'BASE TABLE'"
-          : "SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE() AND table_type = 'BASE TABLE'";
-
-      List<String> collections = new ArrayList<>();
-
-      pool.preparedQuery(query)
-          .execute()
-          .onComplete(ar -> {
-            if (ar.succeeded()) {
-              RowSet<Row> rows = ar.result();
-              for (Row row : rows) {
-                collections.add(row.getString("TABLE_NAME"));
-              }
-            } else {
-              LOG.error("Failed to list collections from database", ar.cause());
-            }
-          })
-          .toCompletionStage()
-          .toCompletableFuture()
-          .get();
-
+      // 从表结构目录读取，目录加载后不再访问数据库
+      List<String> collections = BlockingRepositoryAdapter.await(
+          () -> dataSourceManager.getSchemaCatalog(null).tableNames());
       LOG.debug("Found {} collections", collections.size());
       return collections;
     } catch (Exception e) {
@@ -708,4 +642,15 @@ public class SyncDatabaseDataServiceImpl implements TypedDataService {
       return Collections.emptyList();
     }
   }
-}
\ No newline at end of file
+
+  @Override
+  public int refreshSchema() {
+    try {
+      return BlockingRepositoryAdapter.await(() -> dataSourceManager.getSchemaCatalog(null).refresh()
+          .onSuccess(tables -> sqlTemplates.clear()));
+    } catch (Exception e) {
+      LOG.error("Failed to refresh schema", e);
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package work.anyway.packages.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 表结构
+ * 记录从数据库目录读取的列、主键和索引，作为 Map 形式数据服务查询时的列白名单：
+ * 只有表中存在的列才能出现在 WHERE / ORDER BY 中。
+ * 每列在构造时按列类型确定编码函数，字符串形式的参数（如 HTTP 查询参数）据此转换为对应的 Java 类型后再绑定。
+ * 每个实例有唯一的版本号，重新读取的表结构版本号不同，用作 SQL 模板缓存键的一部分。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class TableSchema {
+
+  private static final AtomicLong VERSIONS = new AtomicLong();
+
+  private final String name;
+  private final long version;
+  // 列名 -> 列，按列顺序排列
+  private final Map<String, Column> columns;
+  private final List<String> primaryKey;
+  private final List<Index> indexes;
+
+  /**
+   * @param name        表名
+   * @param columnTypes 列名 -> 列类型，按列顺序排列
+   * @param primaryKey  主键列，按键内顺序排列
+   * @param indexes     索引，包括主键索引
+   */
+  TableSchema(String name, Map<String, String> columnTypes, List<String> primaryKey, List<Index> indexes) {
+    this.name = name;
+    this.version = VERSIONS.incrementAndGet();
+    Map<String, Column> map = new LinkedHashMap<>();
+    columnTypes.forEach((column, type) -> map.put(column, new Column(column, type)));
+    this.columns = Collections.unmodifiableMap(map);
+    this.primaryKey = Collections.unmodifiableList(new ArrayList<>(primaryKey));
+    this.indexes = Collections.unmodifiableList(new ArrayList<>(indexes));
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * 表结构版本号，每次读取表结构时生成
+   */
+  long getVersion() {
+    return version;
+  }
+
+  Map<String, Column> getColumns() {
+    return columns;
+  }
+
+  List<String> getPrimaryKey() {
+    return primaryKey;
+  }
+
+  List<Index> getIndexes() {
+    return indexes;
+  }
+
+  boolean hasColumn(String column) {
+    return columns.containsKey(column);
+  }
+
+  Column getColumn(String column) {
+    return columns.get(column);
+  }
+
+  /**
+   * 列是否可以通过索引定位或排序：主键的首列或任一索引的首列
+   */
+  boolean isIndexLeader(String column) {
+    if (!primaryKey.isEmpty() && primaryKey.get(0).equals(column)) {
+      return true;
+    }
+    for (Index index : indexes) {
+      if (index.getColumns().get(0).equals(column)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 将字段名解析为列名：字段名本身是列名时直接使用，否则尝试命名转换后的列名
+   *
+   * @param field        字段名
+   * @param toColumnName 字段名到列名的命名转换，如 camelCase 转 snake_case
+   * @return 列名，表中没有对应的列时返回 null
+   */
+  String resolveColumn(String field, UnaryOperator<String> toColumnName) {
+    if (field == null) {
+      return null;
+    }
+    if (columns.containsKey(field)) {
+      return field;
+    }
+    String column = toColumnName.apply(field);
+    return columns.containsKey(column) ? column : null;
+  }
+
+  /**
+   * 按列类型转换字符串参数，其他类型的值原样返回
+   *
+   * @throws IllegalArgumentException 字符串不能转换为列类型
+   */
+  Object coerce(String column, Object value) {
+    Column target = columns.get(column);
+    return target == null ? value : target.encode(value);
+  }
+
+  /**
+   * 规范化列类型名称
+   */
+  static String normalizeType(String dataType) {
+    return dataType == null ? "" : dataType.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * 列
+   */
+  static final class Column {
+    private final String name;
+    private final String type;
+    // 字符串参数的解析函数，类型无需转换时为 null
+    private final Function<String, Object> parser;
+    private final boolean temporal;
+
+    Column(String name, String type) {
+      this.name = name;
+      this.type = type;
+      this.parser = parser(type);
+      this.temporal = type.startsWith("timestamp") || type.equals("datetime");
+    }
+
+    String getName() {
+      return name;
+    }
+
+    String getType() {
+      return type;
+    }
+
+    /**
+     * 是否为时间戳类型，读取时需要转换为应用层的时间表示
+     */
+    boolean isTemporal() {
+      return temporal;
+    }
+
+    Object encode(Object value) {
+      if (parser == null || !(value instanceof String)) {
+        return value;
+      }
+      try {
+        return parser.apply(((String) value).trim());
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid value for column " + name + " (" + type + "): " + value, e);
+      }
+    }
+
+    private static Function<String, Object> parser(String type) {
+      switch (type) {
+        case "smallint":
+        case "integer":
+        case "int":
+        case "mediumint":
+          return Integer::valueOf;
+        case "tinyint":
+          // MySQL 的 BOOLEAN 即 TINYINT(1)
+          return text -> text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")
+              ? (Object) (Boolean.parseBoolean(text) ? 1 : 0)
+              : Integer.valueOf(text);
+        case "bigint":
+          return Long::valueOf;
+        case "numeric":
+        case "decimal":
+          return BigDecimal::new;
+        case "real":
+        case "float":
+          return Float::valueOf;
+        case "double":
+        case "double precision":
+          return Double::valueOf;
+        case "boolean":
+          return Boolean::valueOf;
+        case "uuid":
+          return UUID::fromString;
+        case "date":
+          return LocalDate::parse;
+        case "datetime":
+        case "timestamp":
+        case "timestamp without time zone":
+          return text -> LocalDateTime.parse(text.replace(' ', 'T'));
+        case "timestamp with time zone":
+          return text -> OffsetDateTime.parse(text.replace(' ', 'T'));
+        default:
+          return null;
+      }
+    }
+  }
+
+  /**
+   * 索引
+   */
+  static final class Index {
+    private final String name;
+    private final List<String> columns;
+    private final boolean unique;
+
+    Index(String name, List<String> columns, boolean unique) {
+      this.name = name;
+      this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+      this.unique = unique;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    List<String> getColumns() {
+      return columns;
+    }
+
+    boolean isUnique() {
+      return unique;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package work.anyway.packages.data;
+
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import work.anyway.interfaces.data.BaseEntity;
+import work.anyway.interfaces.data.ReactiveRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 线程绑定的事务
+ * 阻塞式事务执行期间把事务连接绑定到调用线程，阻塞式仓库在该线程上的调用
+ * 会转到同一连接池的事务连接上执行，从而让跨服务的多步操作共用一次提交。
+ *
+ * @author 作者名
+ * @since 1.0.0
+ */
+final class TransactionBinding {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TransactionBinding.class);
+
+  private static final ThreadLocal<TransactionBinding> CURRENT = new ThreadLocal<>();
+
+  private final Pool pool;
+  private final SqlConnection connection;
+  // 事务结束后执行的回调，只在调用线程上登记和执行
+  private final List<Runnable> afterCompletion = new ArrayList<>();
+
+  TransactionBinding(Pool pool, SqlConnection connection) {
+    this.pool = pool;
+    this.connection = connection;
+  }
+
+  /**
+   * 当前线程绑定的事务，没有时返回 null
+   */
+  static TransactionBinding current() {
+    return CURRENT.get();
+  }
+
+  static void bind(TransactionBinding binding) {
+    CURRENT.set(binding);
+  }
+
+  static void unbind() {
+    CURRENT.remove();
+  }
+
+  /**
+   * 返回应当执行操作的仓库：同一连接池的可加入事务的仓库改为在事务连接上执行，
+   * 不使用数据库连接的仓库（如内存实现）原样返回
+   *
+   * @throws IllegalArgumentException 仓库使用其他数据源的连接池，无法加入事务
+   */
+  <T extends BaseEntity> ReactiveRepository<T> route(ReactiveRepository<T> repository) {
+    if (repository instanceof TransactionalRepository) {
+      TransactionalRepository<T> transactional = (TransactionalRepository<T>) repository;
+      // 与异步事务一致：其他数据源上的操作不能静默地在事务之外执行
+      if (transactional.getPool() != pool) {
+        throw new IllegalArgumentException("Transaction only covers the default data source");
+      }
+      return transactional.bind(connection, afterCompletion);
+    }
+    return repository;
+  }
+
+  /**
+   * 事务结束后执行登记的回调
+   */
+  void complete() {
+    runAll(afterCompletion);
+  }
+
+  /**
+   * 依次执行回调，单个回调失败不影响其余回调
+   */
+  static void runAll(List<Runnable> callbacks) {
+    for (Runnable callback : callbacks) {
+      try {
+        callback.run();
+      } catch (RuntimeException e) {
+        LOG.error("Transaction completion callback failed", e);
+      }
+    }
+    callbacks.clear();
+  }
+}
@@ -0,0 +1,32 @@
+package work.anyway.packages.data;
+
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import work.anyway.interfaces.data.BaseEntity;
+import work.anyway.interfaces.data.ReactiveRepository;
+
+import java.util.List;
+
+/**
+ * 可以加入事务的仓库
+ * 绑定到事务连接后，所有操作在该连接上执行，由调用方负责提交和回滚。
+ *
+ * @param <T> 实体类型
+ * @author 作者名
+ * @since 1.0.0
+ */
+interface TransactionalRepository<T extends BaseEntity> extends ReactiveRepository<T> {
+
+  /**
+   * 仓库使用的连接池，只有同一连接池的事务连接才能绑定
+   */
+  Pool getPool();
+
+  /**
+   * 创建在给定事务连接上执行的仓库
+   *
+   * @param connection      已开启事务的连接
+   * @param afterCompletion 事务结束（提交或回滚）后执行的回调，仓库可以向其中登记操作
+   */
+  TransactionalRepository<T> bind(SqlConnection connection, List<Runnable> afterCompletion);
+}
@@ -1,570 +1,502 @@
 package work.anyway.packages.data;
 
-import io.vertx.core.Vertx;
+import io.vertx.core.Future;
 import io.vertx.sqlclient.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import work.anyway.interfaces.data.*;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 类型安全的仓库实现
- * 直接操作实体对象，无需 Map 转换
+ * 直接操作实体对象，无需 Map 转换，行与实体之间的转换由每个实体类共享的 {@link EntityMapper} 完成。
+ * 所有操作直接在连接池上异步执行并返回 Future，阻塞式访问由 {@link BlockingRepositoryAdapter} 提供。
+ * 通过 {@link #bind} 得到的仓库在给定的事务连接上执行，不再自行开启事务。
+ * 数据源配置了只读副本时，未绑定事务的只读操作经 {@link ReplicaRouter} 在副本上执行。
  * 
  * @param <T> 实体类型
  * @author 作者名
  * @since 1.0.0
  */
-public class TypedRepositoryImpl<T extends BaseEntity> implements Repository<T> {
+public class TypedRepositoryImpl<T extends BaseEntity> implements TransactionalRepository<T> {
 
   private static final Logger LOG = LoggerFactory.getLogger(TypedRepositoryImpl.class);
 
-  private final Vertx vertx;
   private final Pool pool;
+  // 事务连接，未绑定时为 null
+  private final SqlConnection connection;
+  // 执行查询的客户端：绑定时为事务连接，否则为连接池
+  private final SqlClient client;
+  // 只读副本路由，未配置副本或绑定事务时为 null
+  private final ReplicaRouter router;
+  private final SqlDialect dialect;
   private final Class<T> entityClass;
   private final EntityMetadata<T> metadata;
+  private final EntityMapper<T> mapper;
+  private final CriteriaCompiler criteriaCompiler;
+  private final BatchWriter batchWriter;
+  private final SqlTemplateCache templates;
+
+  // 按方言转换后的固定 SQL
+  private final String insertSql;
+  private final String updateSql;
+  private final String selectByIdSql;
+  private final String deleteSql;
+  private final String selectAllSql;
+
+  public TypedRepositoryImpl(Pool pool, SqlDialect dialect, int batchSize, Class<T> entityClass) {
+    this(pool, null, dialect, batchSize, entityClass);
+  }
 
-  public TypedRepositoryImpl(Vertx vertx, Pool pool, Class<T> entityClass) {
-    this.vertx = vertx;
+  TypedRepositoryImpl(Pool pool, ReplicaRouter router, SqlDialect dialect, int batchSize, Class<T> entityClass) {
     this.pool = pool;
+    this.connection = null;
+    this.client = pool;
+    this.router = router;
+    this.dialect = dialect;
     this.entityClass = entityClass;
     this.metadata = EntityMetadata.of(entityClass);
+    this.mapper = EntityMapper.of(entityClass);
+    this.criteriaCompiler = new CriteriaCompiler(this::resolveColumn,
+        (column, value) -> EntityMapper.toDatabase(value), true);
+    this.batchWriter = new BatchWriter(dialect, batchSize);
+    this.templates = new SqlTemplateCache();
+
+    this.insertSql = dialect.translate(metadata.getInsertSql());
+    this.updateSql = dialect.translate(metadata.getUpdateSql());
+    this.selectByIdSql = dialect.translate(metadata.getSelectByIdSql());
+    this.deleteSql = dialect.translate(metadata.getDeleteSql());
+    this.selectAllSql = "SELECT * FROM " + metadata.getFullTableName();
 
     LOG.info("Created TypedRepository for entity: {}, table: {}",
         entityClass.getSimpleName(), metadata.getTableName());
   }
 
+  private TypedRepositoryImpl(TypedRepositoryImpl<T> source, SqlConnection connection) {
+    this.pool = source.pool;
+    this.connection = connection;
+    this.client = connection;
+    this.router = null;
+    this.dialect = source.dialect;
+    this.entityClass = source.entityClass;
+    this.metadata = source.metadata;
+    this.mapper = source.mapper;
+    this.criteriaCompiler = new CriteriaCompiler(this::resolveColumn,
+        (column, value) -> EntityMapper.toDatabase(value), true);
+    this.batchWriter = source.batchWriter;
+    this.templates = source.templates;
+    this.insertSql = source.insertSql;
+    this.updateSql = source.updateSql;
+    this.selectByIdSql = source.selectByIdSql;
+    this.deleteSql = source.deleteSql;
+    this.selectAllSql = source.selectAllSql;
+  }
+
+  @Override
+  public TypedRepositoryImpl<T> bind(SqlConnection connection, List<Runnable> afterCompletion) {
+    return new TypedRepositoryImpl<>(this, connection);
+  }
+
+  @Override
+  public Pool getPool() {
+    return pool;
+  }
+
   @Override
-  public T save(T entity) {
+  public Future<T> save(T entity) {
     if (entity.getId() == null || entity.getId().isEmpty()) {
       entity.setId(UUID.randomUUID().toString());
     }
 
-    CompletableFuture<T> future = new CompletableFuture<>();
+    Tuple params = Tuple.from(mapper.values(entity));
 
-    vertx.<T>executeBlocking(promise -> {
-      String sql = metadata.getInsertSql();
-      Tuple params = entityToTuple(entity);
+    LOG.debug("Executing INSERT: {}", insertSql);
+    LOG.debug("Parameters: {}", params);
 
-      LOG.debug("Executing INSERT: {}", sql);
-      LOG.debug("Parameters: {}", params);
-
-      pool.preparedQuery(sql)
-          .execute(params)
-          .onSuccess(rows -> {
-            LOG.debug("Entity saved successfully: {}", entity.getId());
-            promise.complete(entity);
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to save entity", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
-
-    try {
-      return future.get();
-    } catch (Exception e) {
-      throw new RuntimeException("Failed to save entity", e);
-    }
+    markWrite();
+    return client.preparedQuery(insertSql)
+        .execute(params)
+        .map(rows -> {
+          LOG.debug("Entity saved successfully: {}", entity.getId());
+          return entity;
+        })
+        .onFailure(err -> LOG.error("Failed to save entity", err));
   }
 
   @Override
-  public Optional<T> findById(String id) {
-    CompletableFuture<Optional<T>> future = new CompletableFuture<>();
-
-    vertx.<Optional<T>>executeBlocking(promise -> {
-      String sql = metadata.getSelectByIdSql();
-
-      LOG.debug("Executing SELECT: {}", sql);
-      LOG.debug("ID: {}", id);
-
-      pool.preparedQuery(sql)
-          .execute(Tuple.of(id))
-          .onSuccess(rows -> {
-            if (rows.size() > 0) {
-              T entity = rowToEntity(rows.iterator().next());
-              promise.complete(Optional.of(entity));
-            } else {
-              promise.complete(Optional.empty());
-            }
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to find entity by id", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
+  public Future<Optional<T>> findById(String id) {
+    LOG.debug("Executing SELECT: {}", selectByIdSql);
+    LOG.debug("ID: {}", id);
 
-    try {
-      return future.get();
-    } catch (Exception e) {
-      LOG.error("Failed to find entity by id", e);
-      return Optional.empty();
-    }
+    return read(reader -> reader.preparedQuery(selectByIdSql).execute(Tuple.of(id)))
+        .map(rows -> mapper.toEntities(rows).stream().findFirst())
+        .onFailure(err -> LOG.error("Failed to find entity by id", err));
   }
 
   @Override
-  public List<T> findAll() {
-    CompletableFuture<List<T>> future = new CompletableFuture<>();
-
-    vertx.<List<T>>executeBlocking(promise -> {
-      String sql = "SELECT * FROM " + metadata.getFullTableName();
+  public Future<List<T>> findAll() {
+    LOG.debug("Executing SELECT ALL: {}", selectAllSql);
 
-      LOG.debug("Executing SELECT ALL: {}", sql);
-
-      pool.query(sql)
-          .execute()
-          .onSuccess(rows -> {
-            List<T> entities = new ArrayList<>();
-            for (Row row : rows) {
-              entities.add(rowToEntity(row));
-            }
-            promise.complete(entities);
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to find all entities", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
-
-    try {
-      return future.get();
-    } catch (Exception e) {
-      LOG.error("Failed to find all entities", e);
-      return Collections.emptyList();
-    }
+    return read(reader -> reader.query(selectAllSql).execute())
+        .map(mapper::toEntities)
+        .onFailure(err -> LOG.error("Failed to find all entities", err));
   }
 
   @Override
-  public List<T> findBy(QueryCriteria<T> criteria) {
-    CompletableFuture<List<T>> future = new CompletableFuture<>();
-
-    vertx.<List<T>>executeBlocking(promise -> {
-      // 构建 WHERE 子句
-      StringBuilder sql = new StringBuilder("SELECT * FROM ");
-      sql.append(metadata.getFullTableName());
-
-      List<Object> params = new ArrayList<>();
-      Map<String, Object> conditions = criteria.getConditions();
-
-      if (!conditions.isEmpty()) {
-        sql.append(" WHERE ");
-        StringJoiner whereClause = new StringJoiner(" AND ");
-
-        conditions.forEach((key, value) -> {
-          EntityMetadata.FieldMetadata field = metadata.getFields().get(key);
-          if (field != null) {
-            whereClause.add(field.getColumnName() + " = ?");
-            params.add(value);
-          }
-        });
-
-        sql.append(whereClause);
-      }
-
-      // 添加排序
-      if (criteria.getOrderBy() != null) {
-        EntityMetadata.FieldMetadata field = metadata.getFields().get(criteria.getOrderBy());
-        if (field != null) {
-          sql.append(" ORDER BY ").append(field.getColumnName());
-          sql.append(criteria.isAscending() ? " ASC" : " DESC");
-        }
-      }
-
-      LOG.debug("Executing QUERY: {}", sql);
-      LOG.debug("Parameters: {}", params);
+  public Future<List<T>> findBy(QueryCriteria<T> criteria) {
+    // 条件结构相同的查询复用缓存的 SQL 文本，只重新收集参数
+    List<Object> key = SqlTemplateCache.key("findBy", criteriaCompiler.shape(criteria.getConditions()),
+        criteria.getOrderBy(), criteria.isAscending());
+    SqlBuilder sql;
+    try {
+      sql = templates.build(dialect, key, builder -> {
+        builder.append("SELECT * FROM ").append(metadata.getFullTableName());
+        criteriaCompiler.appendWhere(builder, criteria.getConditions());
+        appendOrderBy(builder, criteria.getOrderBy(), criteria.isAscending());
+      });
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
+    }
 
-      pool.preparedQuery(sql.toString())
-          .execute(Tuple.from(params))
-          .onSuccess(rows -> {
-            List<T> entities = new ArrayList<>();
-            for (Row row : rows) {
-              entities.add(rowToEntity(row));
-            }
+    LOG.debug("Executing QUERY: {}", sql);
+    LOG.debug("Parameters: {}", sql.getParams());
 
-            // 应用自定义过滤器
-            if (criteria.getCustomFilter() != null) {
-              entities = entities.stream()
-                  .filter(criteria.getCustomFilter())
-                  .collect(Collectors.toList());
-            }
+    return read(reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+        .map(rows -> {
+          List<T> entities = mapper.toEntities(rows);
 
-            promise.complete(entities);
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to query entities", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
+          // 应用自定义过滤器
+          if (criteria.getCustomFilter() != null) {
+            entities = entities.stream()
+                .filter(criteria.getCustomFilter())
+                .collect(Collectors.toList());
+          }
 
-    try {
-      return future.get();
-    } catch (Exception e) {
-      LOG.error("Failed to query entities", e);
-      return Collections.emptyList();
-    }
+          return entities;
+        })
+        .onFailure(err -> LOG.error("Failed to query entities", err));
   }
 
   @Override
-  public boolean update(T entity) {
+  public Future<Boolean> update(T entity) {
     if (entity.getId() == null || entity.getId().isEmpty()) {
-      throw new IllegalArgumentException("Entity must have ID for update");
+      return Future.failedFuture(new IllegalArgumentException("Entity must have ID for update"));
     }
 
-    CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-    vertx.<Boolean>executeBlocking(promise -> {
-      String sql = metadata.getUpdateSql();
-      Tuple params = updateToTuple(entity);
+    Tuple params = mapper.updateTuple(entity);
 
-      LOG.debug("Executing UPDATE: {}", sql);
-      LOG.debug("Parameters: {}", params);
+    LOG.debug("Executing UPDATE: {}", updateSql);
+    LOG.debug("Parameters: {}", params);
 
-      pool.preparedQuery(sql)
-          .execute(params)
-          .onSuccess(rows -> {
-            promise.complete(rows.rowCount() > 0);
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to update entity", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
+    markWrite();
+    return client.preparedQuery(updateSql)
+        .execute(params)
+        .map(rows -> rows.rowCount() > 0)
+        .onFailure(err -> LOG.error("Failed to update entity", err));
+  }
 
-    try {
-      return future.get();
-    } catch (Exception e) {
-      LOG.error("Failed to update entity", e);
-      return false;
-    }
+  @Override
+  public Future<Boolean> delete(String id) {
+    LOG.debug("Executing DELETE: {}", deleteSql);
+    LOG.debug("ID: {}", id);
+
+    markWrite();
+    return client.preparedQuery(deleteSql)
+        .execute(Tuple.of(id))
+        .map(rows -> rows.rowCount() > 0)
+        .onFailure(err -> LOG.error("Failed to delete entity", err));
   }
 
   @Override
-  public boolean delete(String id) {
-    CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-    vertx.<Boolean>executeBlocking(promise -> {
-      String sql = metadata.getDeleteSql();
-
-      LOG.debug("Executing DELETE: {}", sql);
-      LOG.debug("ID: {}", id);
-
-      pool.preparedQuery(sql)
-          .execute(Tuple.of(id))
-          .onSuccess(rows -> {
-            promise.complete(rows.rowCount() > 0);
-          })
-          .onFailure(err -> {
-            LOG.error("Failed to delete entity", err);
-            promise.fail(err);
-          });
-    }, false, res -> {
-      if (res.succeeded()) {
-        future.complete(res.result());
-      } else {
-        future.completeExceptionally(res.cause());
-      }
-    });
+  public Future<Integer> batchSave(List<T> entities) {
+    if (entities.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
 
-    try {
-      return future.get();
-    } catch (Exception e) {
-      LOG.error("Failed to delete entity", e);
-      return false;
+    List<String> columns = new ArrayList<>();
+    for (EntityMetadata.FieldMetadata field : metadata.getPersistentFields()) {
+      columns.add(field.getColumnName());
     }
-  }
 
-  @Override
-  public int batchSave(List<T> entities) {
-    int saved = 0;
+    List<List<Object>> rows = new ArrayList<>(entities.size());
     for (T entity : entities) {
-      try {
-        save(entity);
-        saved++;
-      } catch (Exception e) {
-        LOG.error("Failed to save entity in batch", e);
+      if (entity.getId() == null || entity.getId().isEmpty()) {
+        entity.setId(UUID.randomUUID().toString());
       }
+      rows.add(mapper.values(entity));
     }
-    return saved;
-  }
 
-  @Override
-  public int batchDelete(List<String> ids) {
-    int deleted = 0;
-    for (String id : ids) {
-      if (delete(id)) {
-        deleted++;
-      }
-    }
-    return deleted;
+    // 所有分块在同一个事务中提交，任一失败则全部回滚
+    markWrite();
+    return withTransaction(conn -> batchWriter.insert(conn, metadata.getFullTableName(), columns, rows))
+        .onSuccess(count -> LOG.debug("Batch saved {} entities", count))
+        .onFailure(err -> LOG.error("Failed to save entities in batch", err));
   }
 
   @Override
-  public PageResult<T> findPage(QueryOptions options) {
-    // 简化实现，实际应该使用 LIMIT 和 OFFSET
-    List<T> allData = findAll();
-
-    // 应用过滤
-    if (!options.getFilters().isEmpty()) {
-      allData = allData.stream()
-          .filter(entity -> matchesFilters(entity, options.getFilters()))
-          .collect(Collectors.toList());
+  public Future<Integer> batchDelete(List<String> ids) {
+    if (ids.isEmpty()) {
+      return Future.succeededFuture(0);
     }
 
-    // 应用排序
-    if (options.getSortBy() != null) {
-      EntityMetadata.FieldMetadata field = metadata.getFields().get(options.getSortBy());
-      if (field != null) {
-        allData.sort((a, b) -> {
-          Object aValue = field.getValue(a);
-          Object bValue = field.getValue(b);
-
-          if (aValue == null && bValue == null)
-            return 0;
-          if (aValue == null)
-            return options.isAscending() ? -1 : 1;
-          if (bValue == null)
-            return options.isAscending() ? 1 : -1;
-
-          if (aValue instanceof Comparable && bValue instanceof Comparable) {
-            int result = ((Comparable) aValue).compareTo(bValue);
-            return options.isAscending() ? result : -result;
-          }
+    String idColumn = metadata.getPrimaryKeyField().getColumnName();
+    markWrite();
+    return withTransaction(conn -> batchWriter.deleteByIds(conn, metadata.getFullTableName(), idColumn, ids))
+        .onSuccess(count -> LOG.debug("Batch deleted {} entities", count))
+        .onFailure(err -> LOG.error("Failed to delete entities in batch", err));
+  }
 
-          return 0;
-        });
-      }
+  @Override
+  public Future<PageResult<T>> findPage(QueryOptions options) {
+    List<Object> key = SqlTemplateCache.key("findPage", criteriaCompiler.shape(options.getFilters()),
+        options.getSortBy(), options.isAscending());
+    SqlBuilder sql;
+    try {
+      sql = templates.build(dialect, key, builder -> {
+        builder.append("SELECT * FROM ").append(metadata.getFullTableName());
+        criteriaCompiler.appendWhere(builder, options.getFilters());
+        appendOrderBy(builder, options.getSortBy(), options.isAscending());
+        builder.append(" LIMIT ").param(options.getPageSize()).append(" OFFSET ").param(options.getOffset());
+      });
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
     }
 
-    // 分页
-    int total = allData.size();
-    int fromIndex = Math.min(options.getOffset(), total);
-    int toIndex = Math.min(fromIndex + options.getPageSize(), total);
+    LOG.debug("Executing PAGE QUERY: {}", sql);
+    LOG.debug("Parameters: {}", sql.getParams());
 
-    List<T> pageData = allData.subList(fromIndex, toIndex);
+    Future<List<T>> page = read(reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+        .map(mapper::toEntities);
+    Future<Long> total = executeCount(options.getFilters());
 
-    return new PageResult<>(pageData, total, options.getPage(), options.getPageSize());
+    return Future.all(page, total)
+        .map(done -> new PageResult<>(page.result(), total.result(), options.getPage(), options.getPageSize()))
+        .onFailure(err -> LOG.error("Failed to find page", err));
   }
 
   @Override
-  public long count() {
-    // 简化实现
-    return findAll().size();
+  public Future<Long> count() {
+    return executeCount(Collections.emptyMap())
+        .onFailure(err -> LOG.error("Failed to count entities", err));
   }
 
   @Override
-  public long countBy(QueryCriteria<T> criteria) {
-    // 简化实现
-    return findBy(criteria).size();
+  public Future<Long> countBy(QueryCriteria<T> criteria) {
+    // 自定义过滤器只能在内存中执行
+    if (criteria.getCustomFilter() != null) {
+      return findBy(criteria).map(entities -> (long) entities.size());
+    }
+
+    return executeCount(criteria.getConditions())
+        .onFailure(err -> LOG.error("Failed to count entities", err));
   }
 
-  /**
-   * 将实体转换为 Tuple（用于 INSERT）
-   */
-  private Tuple entityToTuple(T entity) {
-    List<Object> values = new ArrayList<>();
+  @Override
+  public Future<CursorPage<T>> findPageAfter(QueryCriteria<T> criteria, String cursor, int limit) {
+    if (limit <= 0) {
+      return Future.failedFuture(new IllegalArgumentException("limit must be positive"));
+    }
+    if (criteria.getCustomFilter() != null) {
+      return Future.failedFuture(new IllegalArgumentException("Keyset pagination does not support custom filters"));
+    }
 
-    for (EntityMetadata.FieldMetadata field : metadata.getPersistentFields()) {
-      Object value = field.getValue(entity);
-      values.add(convertForDatabase(value));
+    EntityMetadata.FieldMetadata idField = metadata.getPrimaryKeyField();
+    EntityMetadata.FieldMetadata sortField = criteria.getOrderBy() == null
+        ? null
+        : metadata.getFields().get(criteria.getOrderBy());
+    if (sortField == idField) {
+      sortField = null;
     }
+    String sortName = sortField == null ? null : sortField.getFieldName();
+    String op = criteria.isAscending() ? " > " : " < ";
+    String direction = criteria.isAscending() ? " ASC" : " DESC";
 
-    return Tuple.from(values);
-  }
+    KeysetCursor after;
+    try {
+      after = cursor == null
+          ? null
+          : KeysetCursor.decode(cursor, sortName, sortField == null ? null : sortField.getField().getType());
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
+    }
 
-  /**
-   * 将实体转换为 Tuple（用于 UPDATE）
-   */
-  private Tuple updateToTuple(T entity) {
-    List<Object> values = new ArrayList<>();
+    SqlBuilder sql = new SqlBuilder(dialect).append("SELECT * FROM ").append(metadata.getFullTableName());
+    int length = sql.length();
+    try {
+      criteriaCompiler.appendWhere(sql, criteria.getConditions());
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
+    }
 
-    // 先添加非主键字段
-    for (EntityMetadata.FieldMetadata field : metadata.getPersistentFields()) {
-      if (!field.isPrimaryKey()) {
-        Object value = field.getValue(entity);
-        values.add(convertForDatabase(value));
+    if (after != null) {
+      sql.append(sql.length() == length ? " WHERE " : " AND ");
+      String idColumn = idField.getColumnName();
+      if (sortField == null) {
+        sql.append(idColumn).append(op).param(after.getId());
+      } else {
+        // (sort, id) 按字典序越过游标位置
+        Object sortValue = EntityMapper.toDatabase(after.getSortValue());
+        String sortColumn = sortField.getColumnName();
+        sql.append("(").append(sortColumn).append(op).param(sortValue)
+            .append(" OR (").append(sortColumn).append(" = ").param(sortValue)
+            .append(" AND ").append(idColumn).append(op).param(after.getId()).append("))");
       }
     }
 
-    // 最后添加主键
-    if (metadata.getPrimaryKeyField() != null) {
-      Object pkValue = metadata.getPrimaryKeyField().getValue(entity);
-      values.add(convertForDatabase(pkValue));
+    sql.append(" ORDER BY ");
+    if (sortField != null) {
+      sql.append(sortField.getColumnName()).append(direction).append(", ");
     }
+    sql.append(idField.getColumnName()).append(direction);
+    // 多读一行判断是否还有下一页
+    sql.append(" LIMIT ").param(limit + 1);
+
+    LOG.debug("Executing KEYSET QUERY: {}", sql);
+    LOG.debug("Parameters: {}", sql.getParams());
+
+    EntityMetadata.FieldMetadata keyField = sortField;
+    return read(reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+        .map(rows -> {
+          List<T> entities = mapper.toEntities(rows);
+          if (entities.size() <= limit) {
+            return new CursorPage<>(entities, null);
+          }
 
-    return Tuple.from(values);
+          entities = entities.subList(0, limit);
+          T last = entities.get(limit - 1);
+          Object lastSortValue = null;
+          if (keyField != null) {
+            lastSortValue = keyField.getValue(last);
+            if (lastSortValue == null) {
+              throw new IllegalStateException("Keyset pagination requires non-null values in " + sortName);
+            }
+          }
+          String next = new KeysetCursor(sortName, lastSortValue, last.getId()).encode();
+          return new CursorPage<>(entities, next);
+        })
+        .onFailure(err -> LOG.error("Failed to find page after cursor", err));
   }
 
-  /**
-   * 将 Row 转换为实体
-   */
-  private T rowToEntity(Row row) {
-    try {
-      T entity = entityClass.getDeclaredConstructor().newInstance();
+  @Override
+  public Future<Long> stream(QueryCriteria<T> criteria, int batchSize,
+      Function<List<T>, Future<Void>> handler) {
+    if (batchSize <= 0) {
+      return Future.failedFuture(new IllegalArgumentException("batchSize must be positive"));
+    }
 
-      for (EntityMetadata.FieldMetadata field : metadata.getPersistentFields()) {
-        String columnName = field.getColumnName();
+    SqlBuilder sql = new SqlBuilder(dialect).append("SELECT * FROM ").append(metadata.getFullTableName());
+    try {
+      criteriaCompiler.appendWhere(sql, criteria.getConditions());
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
+    }
+    appendOrderBy(sql, criteria.getOrderBy(), criteria.isAscending());
 
-        // 检查列是否存在
-        try {
-          Object value = row.getValue(columnName);
+    LOG.debug("Executing STREAM: {}, batch size {}", sql, batchSize);
+    LOG.debug("Parameters: {}", sql.getParams());
 
-          // 类型转换
-          value = convertFromDatabase(value, field.getField().getType());
+    // PostgreSQL 的游标只能在事务中使用
+    Function<SqlConnection, Future<Long>> work = conn -> conn.prepare(sql.toString())
+        .compose(statement -> {
+          Cursor cursor = statement.cursor(sql.toTuple());
+          return readBatches(cursor, batchSize, criteria.getCustomFilter(), handler, 0)
+              .eventually(() -> cursor.close().eventually(() -> statement.close()));
+        });
+    // 未绑定事务时可以在副本上开启只读游标；批次已交给调用方处理，失败时不能改到主库重读
+    Future<Long> result = connection != null || router == null
+        ? withTransaction(work)
+        : router.readOnce(reader -> reader.withTransaction(work));
+    return result
+        .onFailure(err -> LOG.error("Failed to stream entities", err));
+  }
 
-          field.setValue(entity, value);
-        } catch (NoSuchElementException e) {
-          // 列不存在，跳过
-          LOG.debug("Column {} not found in result set, skipping", columnName);
-        }
+  /**
+   * 逐批读取游标，上一批处理完成后才读取下一批
+   */
+  private Future<Long> readBatches(Cursor cursor, int batchSize, Predicate<T> filter,
+      Function<List<T>, Future<Void>> handler, long processed) {
+    return cursor.read(batchSize).compose(rows -> {
+      List<T> batch = mapper.toEntities(rows);
+      if (filter != null) {
+        batch = batch.stream().filter(filter).collect(Collectors.toList());
       }
 
-      return entity;
-    } catch (Exception e) {
-      throw new RuntimeException("Failed to create entity from row", e);
-    }
+      long total = processed + batch.size();
+      Future<Void> handled = batch.isEmpty() ? Future.succeededFuture() : handler.apply(batch);
+      return handled.compose(v -> cursor.hasMore()
+          ? readBatches(cursor, batchSize, filter, handler, total)
+          : Future.succeededFuture(total));
+    });
   }
 
   /**
-   * 转换值为数据库兼容格式
+   * 执行只读操作：配置了副本且未绑定事务时在副本上执行，否则使用当前客户端
    */
-  private Object convertForDatabase(Object value) {
-    if (value == null) {
-      return null;
-    }
-
-    // Date 转 LocalDateTime
-    if (value instanceof Date) {
-      return ((Date) value).toInstant()
-          .atZone(ZoneId.systemDefault())
-          .toLocalDateTime();
-    }
-
-    // Boolean 转 Integer (0/1)
-    if (value instanceof Boolean) {
-      return ((Boolean) value) ? 1 : 0;
-    }
+  private Future<RowSet<Row>> read(Function<SqlClient, Future<RowSet<Row>>> query) {
+    return router == null ? query.apply(client) : router.read(query::apply);
+  }
 
-    // Enum 转 String
-    if (value instanceof Enum) {
-      return ((Enum<?>) value).name();
+  /**
+   * 记录写入，使当前请求之后的读取回到主库
+   */
+  private void markWrite() {
+    if (router != null) {
+      router.markWrite();
     }
+  }
 
-    return value;
+  /**
+   * 在事务中执行：已绑定事务连接时直接使用该连接，否则从连接池开启新事务
+   */
+  private <R> Future<R> withTransaction(Function<SqlConnection, Future<R>> work) {
+    return connection != null ? work.apply(connection) : pool.withTransaction(work);
   }
 
   /**
-   * 从数据库格式转换值
+   * 执行 COUNT 查询
+   *
+   * @param conditions 查询条件
    */
-  private Object convertFromDatabase(Object value, Class<?> targetType) {
-    if (value == null) {
-      return null;
+  private Future<Long> executeCount(Map<String, Object> conditions) {
+    SqlBuilder sql;
+    try {
+      sql = templates.build(dialect, SqlTemplateCache.key("count", criteriaCompiler.shape(conditions)),
+          builder -> {
+            builder.append("SELECT COUNT(*) FROM ").append(metadata.getFullTableName());
+            criteriaCompiler.appendWhere(builder, conditions);
+          });
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(e);
     }
 
-    // LocalDateTime 转 Date
-    if (targetType == Date.class && value instanceof LocalDateTime) {
-      return Date.from(((LocalDateTime) value)
-          .atZone(ZoneId.systemDefault())
-          .toInstant());
-    }
+    LOG.debug("Executing COUNT: {}", sql);
+    LOG.debug("Parameters: {}", sql.getParams());
 
-    // Integer/Boolean 转 Boolean
-    if (targetType == Boolean.class || targetType == boolean.class) {
-      if (value instanceof Number) {
-        return ((Number) value).intValue() != 0;
-      }
-      if (value instanceof Boolean) {
-        return value;
-      }
-    }
+    return read(reader -> reader.preparedQuery(sql.toString()).execute(sql.toTuple()))
+        .map(rows -> rows.iterator().next().getLong(0));
+  }
 
-    // String 转 Enum
-    if (targetType.isEnum() && value instanceof String) {
-      String stringValue = (String) value;
-      // 尝试直接匹配
-      try {
-        return Enum.valueOf((Class<Enum>) targetType, stringValue);
-      } catch (IllegalArgumentException e) {
-        // 尝试大写匹配
-        try {
-          return Enum.valueOf((Class<Enum>) targetType, stringValue.toUpperCase());
-        } catch (IllegalArgumentException e2) {
-          // 尝试通过反射查找具有 getCode() 方法的枚举
-          try {
-            Object[] enumConstants = targetType.getEnumConstants();
-            for (Object enumConstant : enumConstants) {
-              try {
-                // 尝试调用 getCode() 方法
-                java.lang.reflect.Method getCodeMethod = targetType.getMethod("getCode");
-                Object code = getCodeMethod.invoke(enumConstant);
-                if (stringValue.equals(code)) {
-                  return enumConstant;
-                }
-              } catch (NoSuchMethodException nsme) {
-                // 没有 getCode 方法，跳过
-                break;
-              }
-            }
-          } catch (Exception ex) {
-            // 忽略反射错误
-          }
-          throw new IllegalArgumentException("Cannot convert '" + stringValue + "' to " + targetType.getName());
-        }
-      }
+  /**
+   * 追加 ORDER BY 子句，不是实体字段时忽略
+   */
+  private void appendOrderBy(SqlBuilder sql, String fieldName, boolean ascending) {
+    String column = fieldName == null ? null : resolveColumn(fieldName);
+    if (column != null) {
+      sql.append(" ORDER BY ").append(column).append(ascending ? " ASC" : " DESC");
     }
-
-    return value;
   }
 
   /**
-   * 检查实体是否匹配过滤条件
+   * 将实体字段名解析为列名
+   *
+   * @return 列名，不是持久化字段时返回 null
    */
-  private boolean matchesFilters(T entity, Map<String, Object> filters) {
-    for (Map.Entry<String, Object> filter : filters.entrySet()) {
-      EntityMetadata.FieldMetadata field = metadata.getFields().get(filter.getKey());
-      if (field != null) {
-        Object entityValue = field.getValue(entity);
-        Object filterValue = filter.getValue();
-
-        if (!Objects.equals(entityValue, filterValue)) {
-          return false;
-        }
-      }
-    }
-    return true;
+  private String resolveColumn(String fieldName) {
+    EntityMetadata.FieldMetadata field = metadata.getFields().get(fieldName);
+    return field == null ? null : field.getColumnName();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.PreparedQuery;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 批量写入按块和余数拆分语句，块边界处的行数与参数不丢失不重复
+ */
+class BatchWriterTest {
+
+  private static final List<String> COLUMNS = List.of("id", "customer");
+  private static final String CHUNK_INSERT = "INSERT INTO orders (id, customer) VALUES ($1, $2), ($3, $4), ($5, $6)";
+  private static final String SINGLE_INSERT = "INSERT INTO orders (id, customer) VALUES ($1, $2)";
+
+  private final RecordingClient client = new RecordingClient();
+  private final BatchWriter writer = new BatchWriter(SqlDialect.POSTGRESQL, 3);
+
+  @Test
+  void emptyBatchSendsNoStatements() {
+    assertEquals(0, writer.insert(client.proxy(), "orders", COLUMNS, List.of()).result());
+    assertEquals(0, writer.deleteByIds(client.proxy(), "orders", "id", List.of()).result());
+    assertEquals(List.of(), client.calls);
+  }
+
+  @Test
+  void exactlyOneChunkUsesASingleMultiRowInsert() {
+    assertEquals(3, writer.insert(client.proxy(), "orders", COLUMNS, rows(3)).result());
+
+    assertEquals(List.of(new Call(CHUNK_INSERT, false, List.of(params(0, 3)))), client.calls);
+  }
+
+  @Test
+  void oneRowPastTheChunkGoesToTheRemainderBatch() {
+    assertEquals(4, writer.insert(client.proxy(), "orders", COLUMNS, rows(4)).result());
+
+    assertEquals(List.of(
+        new Call(CHUNK_INSERT, false, List.of(params(0, 3))),
+        new Call(SINGLE_INSERT, true, List.of(params(3, 4)))), client.calls);
+  }
+
+  @Test
+  void fullChunksShareOneStatementAndTheRemainderIsBatched() {
+    assertEquals(8, writer.insert(client.proxy(), "orders", COLUMNS, rows(8)).result());
+
+    assertEquals(List.of(
+        new Call(CHUNK_INSERT, false, List.of(params(0, 3))),
+        new Call(CHUNK_INSERT, false, List.of(params(3, 6))),
+        new Call(SINGLE_INSERT, true, List.of(params(6, 7), params(7, 8)))), client.calls);
+  }
+
+  @Test
+  void fewerRowsThanAChunkOnlyUseTheRemainderBatch() {
+    assertEquals(2, writer.insert(client.proxy(), "orders", COLUMNS, rows(2)).result());
+
+    assertEquals(List.of(new Call(SINGLE_INSERT, true, List.of(params(0, 1), params(1, 2)))), client.calls);
+  }
+
+  @Test
+  void chunkSizeIsCappedByTheParameterLimit() {
+    // 两列时一条语句最多 32767 行
+    BatchWriter large = new BatchWriter(SqlDialect.POSTGRESQL, 100_000);
+    assertEquals(32_768, large.insert(client.proxy(), "orders", COLUMNS, rows(32_768)).result());
+
+    assertEquals(2, client.calls.size());
+    assertEquals(65_534, client.calls.get(0).tuples.get(0).size());
+    assertEquals(List.of(params(32_767, 32_768)), client.calls.get(1).tuples);
+  }
+
+  @Test
+  void deletesSplitIntoInListsAndARemainderBatch() {
+    assertEquals(3, writer.deleteByIds(client.proxy(), "orders", "id", ids(0, 3)).result());
+    assertEquals(List.of(new Call("DELETE FROM orders WHERE id IN ($1, $2, $3)", false, List.of(ids(0, 3)))),
+        client.calls);
+
+    client.calls.clear();
+    assertEquals(5, writer.deleteByIds(client.proxy(), "orders", "id", ids(0, 5)).result());
+    assertEquals(List.of(
+        new Call("DELETE FROM orders WHERE id IN ($1, $2, $3)", false, List.of(ids(0, 3))),
+        new Call("DELETE FROM orders WHERE id = $1", true, List.of(ids(3, 4), ids(4, 5)))), client.calls);
+  }
+
+  private static List<List<Object>> rows(int count) {
+    List<List<Object>> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(List.of("o" + i, "customer-" + i));
+    }
+    return rows;
+  }
+
+  /**
+   * 第 from 到 to（不含）行展开后的参数
+   */
+  private static List<Object> params(int from, int to) {
+    return rows(to).subList(from, to).stream().flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  private static List<Object> ids(int from, int to) {
+    return IntStream.range(from, to).mapToObj(i -> (Object) ("o" + i)).collect(Collectors.toList());
+  }
+
+  /**
+   * 一次语句调用：SQL、是否为 executeBatch 以及每组参数
+   */
+  private static final class Call {
+    private final String sql;
+    private final boolean batch;
+    private final List<List<Object>> tuples;
+
+    Call(String sql, boolean batch, List<List<Object>> tuples) {
+      this.sql = sql;
+      this.batch = batch;
+      this.tuples = tuples;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Call)) {
+        return false;
+      }
+      Call other = (Call) o;
+      return sql.equals(other.sql) && batch == other.batch && tuples.equals(other.tuples);
+    }
+
+    @Override
+    public int hashCode() {
+      return sql.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return (batch ? "executeBatch " : "execute ") + sql + " " + tuples;
+    }
+  }
+
+  /**
+   * 记录语句调用的数据库连接，每组参数报告影响的行数：插入为行数，删除为 ID 个数
+   */
+  private static final class RecordingClient {
+    final List<Call> calls = new ArrayList<>();
+
+    SqlClient proxy() {
+      return stub(SqlClient.class, (method, args) -> {
+        if (!method.equals("preparedQuery")) {
+          throw new UnsupportedOperationException(method);
+        }
+        return query((String) args[0]);
+      });
+    }
+
+    private PreparedQuery<?> query(String sql) {
+      int perRow = sql.startsWith("INSERT") ? COLUMNS.size() : 1;
+      return stub(PreparedQuery.class, (method, args) -> {
+        if (method.equals("execute") && args != null && args.length == 1) {
+          Tuple tuple = (Tuple) args[0];
+          calls.add(new Call(sql, false, List.of(values(tuple))));
+          return Future.succeededFuture(rowSet(tuple.size() / perRow, null));
+        }
+        if (method.equals("executeBatch") && args != null && args.length == 1) {
+          @SuppressWarnings("unchecked")
+          List<Tuple> tuples = (List<Tuple>) args[0];
+          calls.add(new Call(sql, true, tuples.stream().map(RecordingClient::values).collect(Collectors.toList())));
+          // executeBatch 的结果是每条语句一个 RowSet 的链表
+          RowSet<Row> result = null;
+          for (int i = tuples.size() - 1; i >= 0; i--) {
+            result = rowSet(tuples.get(i).size() / perRow, result);
+          }
+          return Future.succeededFuture(result);
+        }
+        throw new UnsupportedOperationException(method);
+      });
+    }
+
+    private static RowSet<Row> rowSet(int rowCount, RowSet<Row> next) {
+      return stub(RowSet.class, (method, args) -> {
+        switch (method) {
+          case "rowCount":
+            return rowCount;
+          case "next":
+            return next;
+          default:
+            throw new UnsupportedOperationException(method);
+        }
+      });
+    }
+
+    private static List<Object> values(Tuple tuple) {
+      List<Object> values = new ArrayList<>(tuple.size());
+      for (int i = 0; i < tuple.size(); i++) {
+        values.add(tuple.getValue(i));
+      }
+      return Collections.unmodifiableList(values);
+    }
+  }
+
+  private interface Handler {
+    Object invoke(String method, Object[] args);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <P> P stub(Class<?> type, Handler handler) {
+    return (P) Proxy.newProxyInstance(BatchWriterTest.class.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> handler.invoke(method.getName(), args));
+  }
+}
@@ -0,0 +1,58 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * 阻塞等待在事件循环线程上被拒绝时，操作不应已经启动
+ */
+class BlockingRepositoryAdapterTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void operationIsNotStartedOnTheEventLoop() throws Exception {
+    AtomicBoolean started = new AtomicBoolean();
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+    vertx.runOnContext(v -> {
+      try {
+        BlockingRepositoryAdapter.await(() -> {
+          started.set(true);
+          return Future.succeededFuture("saved");
+        });
+        failure.complete(null);
+      } catch (Exception e) {
+        failure.complete(e);
+      }
+    });
+
+    assertInstanceOf(IllegalStateException.class, failure.get(10, TimeUnit.SECONDS));
+    assertFalse(started.get());
+  }
+
+  @Test
+  void operationRunsOnAWorkerThread() throws Exception {
+    assertEquals("saved", BlockingRepositoryAdapter.await(() -> Future.succeededFuture("saved")));
+  }
+}
@@ -0,0 +1,205 @@
+package work.anyway.packages.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 列式内存表与按行存储的内存表结果一致，以及删除后的压缩和字段类型变化时的退化
+ */
+class ColumnarMemoryTableTest {
+
+  private static final String[] FIELDS = { "category", "price", "stock", "active", "createdAt" };
+
+  @Test
+  void matchesTheHashTableUnderRandomInsertsUpdatesAndDeletes() {
+    ColumnarMemoryTable columnar = new ColumnarMemoryTable();
+    HashMemoryTable hash = new HashMemoryTable();
+    SplittableRandom random = new SplittableRandom(42);
+
+    // 删除比例足够高，过程中会多次触发压缩
+    for (int i = 0; i < 20_000; i++) {
+      String id = "id-" + random.nextInt(3000);
+      if (random.nextInt(10) < 4) {
+        assertEquals(hash.remove(id), copy(columnar.remove(id)));
+      } else {
+        Map<String, Object> row = randomRow(id, random);
+        assertEquals(hash.put(id, row), copy(columnar.put(id, new HashMap<>(row))));
+      }
+      if (i % 1000 == 0) {
+        assertSameContent(hash, columnar);
+      }
+    }
+    assertSameContent(hash, columnar);
+
+    List<Map<String, Object>> criteria = List.of(
+        Map.of(),
+        Map.of("category", "c3"),
+        Map.of("category", "c1", "active", true),
+        Map.of("stock", 7),
+        Map.of("stock", 7L),
+        Map.of("price", 12.5),
+        Map.of("missing", "x"),
+        criteria("stock", null),
+        criteria("category", null));
+    for (Map<String, Object> condition : criteria) {
+      assertEquals(hash.count(condition), columnar.count(condition), condition.toString());
+      assertEquals(byId(hash.scan(condition, null, true)), byId(columnar.scan(condition, null, true)),
+          condition.toString());
+      for (String field : FIELDS) {
+        for (boolean ascending : new boolean[] { true, false }) {
+          // 排序值相同的记录在两种实现中的相对顺序可以不同，只比较排序值的序列
+          assertEquals(sortValues(hash.scan(condition, field, ascending), field),
+              sortValues(columnar.scan(condition, field, ascending), field), condition + " by " + field);
+        }
+      }
+    }
+  }
+
+  @Test
+  void compactionKeepsLiveRowsInWriteOrderAndEarlierViews() throws ReflectiveOperationException {
+    ColumnarMemoryTable table = new ColumnarMemoryTable();
+    for (int i = 0; i < 3000; i++) {
+      table.put("id-" + i, row("id-" + i, "c" + (i % 20), i));
+    }
+    Map<String, Object> earlier = table.get("id-2999");
+    Object segment = segment(table);
+
+    for (int i = 0; i < 3000; i++) {
+      if (i % 10 != 0) {
+        table.remove("id-" + i);
+      }
+    }
+
+    assertNotSame(segment, segment(table), "deleting most rows should compact the table");
+    assertEquals(300, table.size());
+    List<Map<String, Object>> rows = table.scan(Map.of(), null, true);
+    assertEquals(300, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals("id-" + i * 10, rows.get(i).get("id"));
+      assertEquals(i * 10, rows.get(i).get("stock"));
+    }
+    assertEquals(150, table.count(Map.of("category", "c0")));
+    assertEquals(0, table.count(Map.of("category", "c1")));
+    assertNull(table.get("id-2999"));
+    assertEquals(2999, earlier.get("stock"));
+
+    // 压缩后的表继续接受更新和删除
+    table.put("id-10", row("id-10", "c9", -1));
+    table.remove("id-20");
+    assertEquals(299, table.size());
+    assertEquals(-1, table.get("id-10").get("stock"));
+    assertEquals(List.of("id-10"), table.scan(Map.of("category", "c9"), null, true).stream()
+        .map(row -> row.get("id")).collect(Collectors.toList()));
+  }
+
+  @Test
+  void fieldThatChangesTypeFallsBackToAGenericColumn() {
+    ColumnarMemoryTable table = new ColumnarMemoryTable();
+    for (int i = 0; i < 10; i++) {
+      table.put("id-" + i, row("id-" + i, "c0", i));
+    }
+    table.put("id-10", row("id-10", "c0", "ten"));
+    table.put("id-11", row("id-11", "c0", 11L));
+
+    assertEquals(3, table.get("id-3").get("stock"));
+    assertEquals("ten", table.get("id-10").get("stock"));
+    assertEquals(11L, table.get("id-11").get("stock"));
+    assertEquals(List.of("id-3"), ids(table.scan(Map.of("stock", 3), null, true)));
+    assertEquals(List.of(), ids(table.scan(Map.of("stock", 3L), null, true)));
+    assertEquals(List.of("id-10"), ids(table.scan(Map.of("stock", "ten"), null, true)));
+    assertEquals(List.of("id-11"), ids(table.scan(Map.of("stock", 11L), null, true)));
+
+    // 同类型的行仍然可以排序
+    table.remove("id-10");
+    table.remove("id-11");
+    List<String> descending = ids(table.scan(Map.of(), "stock", false));
+    assertEquals("id-9", descending.get(0));
+    assertEquals("id-0", descending.get(descending.size() - 1));
+  }
+
+  private static void assertSameContent(HashMemoryTable hash, ColumnarMemoryTable columnar) {
+    assertEquals(hash.size(), columnar.size());
+    assertEquals(byId(hash.scan(Map.of(), null, true)), byId(columnar.scan(Map.of(), null, true)));
+    for (Map<String, Object> row : hash.scan(Map.of(), null, true)) {
+      String id = (String) row.get("id");
+      assertEquals(hash.get(id), copy(columnar.get(id)));
+    }
+  }
+
+  private static Map<String, Object> randomRow(String id, SplittableRandom random) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", id);
+    // 每个字段都可能缺少
+    if (random.nextInt(8) != 0) {
+      row.put("category", "c" + random.nextInt(6));
+    }
+    if (random.nextInt(8) != 0) {
+      row.put("price", random.nextInt(40) / 2.0);
+    }
+    if (random.nextInt(8) != 0) {
+      row.put("stock", random.nextInt(20));
+    }
+    if (random.nextInt(8) != 0) {
+      row.put("active", random.nextBoolean());
+    }
+    if (random.nextInt(8) != 0) {
+      row.put("createdAt", 1_700_000_000_000L + random.nextInt(1000));
+    }
+    return row;
+  }
+
+  private static Map<String, Object> row(String id, String category, Object stock) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", id);
+    row.put("category", category);
+    row.put("stock", stock);
+    return row;
+  }
+
+  private static Map<String, Object> criteria(String field, Object value) {
+    Map<String, Object> criteria = new HashMap<>();
+    criteria.put(field, value);
+    return criteria;
+  }
+
+  private static Map<String, Object> copy(Map<String, Object> row) {
+    return row == null ? null : new HashMap<>(row);
+  }
+
+  private static Map<Object, Map<String, Object>> byId(List<Map<String, Object>> rows) {
+    Map<Object, Map<String, Object>> result = new HashMap<>();
+    for (Map<String, Object> row : rows) {
+      result.put(row.get("id"), new HashMap<>(row));
+    }
+    return result;
+  }
+
+  private static List<Object> sortValues(List<Map<String, Object>> rows, String field) {
+    List<Object> values = new ArrayList<>(rows.size());
+    for (Map<String, Object> row : rows) {
+      values.add(row.get(field));
+    }
+    return values;
+  }
+
+  private static List<String> ids(List<Map<String, Object>> rows) {
+    return rows.stream().map(row -> (String) row.get("id")).collect(Collectors.toList());
+  }
+
+  private static Object segment(ColumnarMemoryTable table) throws ReflectiveOperationException {
+    Field field = ColumnarMemoryTable.class.getDeclaredField("segment");
+    field.setAccessible(true);
+    return field.get(table);
+  }
+}
@@ -0,0 +1,105 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import org.junit.jupiter.api.Test;
+import work.anyway.interfaces.data.BaseEntity;
+import work.anyway.interfaces.data.QueryCriteria;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 查询条件编译，以及实体仓库对未知字段和操作符的拒绝
+ */
+class CriteriaCompilerTest {
+
+  private static final Map<String, String> COLUMNS = Map.of("customer", "customer", "createdAt", "created_at");
+
+  @Test
+  void compilesOperatorConditions() {
+    Map<String, Object> conditions = new LinkedHashMap<>();
+    conditions.put("customer__like", "a%");
+    conditions.put("createdAt__gte", 10);
+    conditions.put("customer__in", List.of("alice", "bob"));
+
+    SqlBuilder sql = new SqlBuilder(SqlDialect.POSTGRESQL);
+    compiler(true).appendWhere(sql, conditions);
+
+    assertEquals(" WHERE customer LIKE $1 AND created_at >= $2 AND customer IN ($3, $4)", sql.toString());
+    assertEquals(List.of("a%", 10, "alice", "bob"), sql.getParams());
+  }
+
+  @Test
+  void strictCompilerRejectsUnknownFieldsAndOperators() {
+    IllegalArgumentException field = assertThrows(IllegalArgumentException.class,
+        () -> compiler(true).appendWhere(new SqlBuilder(SqlDialect.POSTGRESQL), Map.of("nickname", "al")));
+    assertTrue(field.getMessage().contains("nickname"), field.getMessage());
+
+    IllegalArgumentException operator = assertThrows(IllegalArgumentException.class,
+        () -> compiler(true).appendWhere(new SqlBuilder(SqlDialect.POSTGRESQL), Map.of("createdAt__between", 1)));
+    assertTrue(operator.getMessage().contains("createdAt__between"), operator.getMessage());
+    assertTrue(operator.getMessage().contains("operator"), operator.getMessage());
+  }
+
+  @Test
+  void lenientCompilerIgnoresUnknownConditions() {
+    Map<String, Object> conditions = new LinkedHashMap<>();
+    conditions.put("nickname", "al");
+    conditions.put("createdAt__between", 1);
+    conditions.put("customer", "alice");
+
+    SqlBuilder sql = new SqlBuilder(SqlDialect.POSTGRESQL);
+    compiler(false).appendWhere(sql, conditions);
+
+    assertEquals(" WHERE customer = $1", sql.toString());
+  }
+
+  @Test
+  void typedRepositoryRejectsUnknownConditionsBeforeQuerying() throws Exception {
+    Vertx vertx = Vertx.vertx();
+    // 连接池在第一次查询时才连接，条件在此之前被拒绝
+    Pool pool = PgPool.pool(vertx, new PgConnectOptions().setPort(1), new PoolOptions());
+    try {
+      BlockingRepositoryAdapter<Order> orders = new BlockingRepositoryAdapter<>(
+          new TypedRepositoryImpl<>(pool, null, SqlDialect.POSTGRESQL, 100, Order.class));
+
+      IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+          () -> orders.findBy(QueryCriteria.<Order>create().eq("customer", "alice").gt("age", 30)));
+      assertTrue(failure.getMessage().contains("age__gt"), failure.getMessage());
+      assertThrows(IllegalArgumentException.class,
+          () -> orders.countBy(QueryCriteria.<Order>create().eq("nickname", "al")));
+    } finally {
+      pool.close();
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+  }
+
+  private static CriteriaCompiler compiler(boolean strict) {
+    return new CriteriaCompiler(COLUMNS::get, (column, value) -> value, strict);
+  }
+
+  /**
+   * 测试实体
+   */
+  public static class Order extends BaseEntity {
+    private String customer;
+
+    public String getCustomer() {
+      return customer;
+    }
+
+    public void setCustomer(String customer) {
+      this.customer = customer;
+    }
+  }
+}
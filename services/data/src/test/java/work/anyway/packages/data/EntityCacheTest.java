@@ -0,0 +1,117 @@
+package work.anyway.packages.data;
+
+import org.junit.jupiter.api.Test;
+import work.anyway.interfaces.data.BaseEntity;
+import work.anyway.interfaces.data.EntityCacheOptions;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 实体二级缓存的代数检查、容量上限与存活时间
+ */
+class EntityCacheTest {
+
+  @Test
+  void loadStartedBeforeAnInvalidationDoesNotRepopulateTheCache() {
+    EntityCache<Role> cache = cache(60, 100);
+    List<Object> query = List.of("code", "admin");
+
+    // 读取开始后、写回缓存前，另一个线程修改并失效了该记录
+    long before = cache.generation();
+    cache.invalidate(List.of("1"));
+    cache.put("1", new Role("1", "stale"), before);
+    cache.putQuery(query, List.of(new Role("1", "stale")), before);
+    assertNull(cache.get("1"));
+    assertNull(cache.getQuery(query));
+
+    long after = cache.generation();
+    cache.put("1", new Role("1", "fresh"), after);
+    cache.putQuery(query, List.of(new Role("1", "fresh")), after);
+    assertEquals("fresh", cache.get("1").getCode());
+    assertEquals("fresh", cache.getQuery(query).get(0).getCode());
+  }
+
+  @Test
+  void invalidationDropsQueryResultsButKeepsOtherIds() {
+    EntityCache<Role> cache = cache(60, 100);
+    long generation = cache.generation();
+    cache.put("1", new Role("1", "admin"), generation);
+    cache.put("2", new Role("2", "user"), generation);
+    cache.putQuery(List.of("all"), List.of(new Role("1", "admin"), new Role("2", "user")), generation);
+
+    cache.invalidate(List.of("1"));
+
+    assertNull(cache.get("1"));
+    assertNotNull(cache.get("2"));
+    assertNull(cache.getQuery(List.of("all")));
+  }
+
+  @Test
+  void leastRecentlyUsedEntryIsEvictedAtTheSizeBound() {
+    EntityCache<Role> cache = cache(60, 2);
+    long generation = cache.generation();
+    cache.put("1", new Role("1", "admin"), generation);
+    cache.put("2", new Role("2", "user"), generation);
+    cache.get("1");
+    cache.put("3", new Role("3", "guest"), generation);
+
+    assertNotNull(cache.get("1"));
+    assertNull(cache.get("2"));
+    assertNotNull(cache.get("3"));
+    assertEquals(2, cache.stats().getSize());
+    assertEquals(1, cache.stats().getEvictionCount());
+  }
+
+  @Test
+  void entriesExpireAfterTheTtl() throws InterruptedException {
+    EntityCache<Role> cache = cache(1, 100);
+    cache.put("1", new Role("1", "admin"), cache.generation());
+    assertNotNull(cache.get("1"));
+
+    Thread.sleep(1100);
+    assertNull(cache.get("1"));
+    assertEquals(0, cache.stats().getSize());
+  }
+
+  @Test
+  void cachedEntitiesAreCopies() {
+    EntityCache<Role> cache = cache(60, 100);
+    Role role = new Role("1", "admin");
+    cache.put("1", role, cache.generation());
+
+    role.setCode("changed");
+    cache.get("1").setCode("changed");
+    assertEquals("admin", cache.get("1").getCode());
+  }
+
+  private static EntityCache<Role> cache(int ttlSeconds, int maxSize) {
+    return new EntityCache<>("roles", EntityCacheOptions.of(ttlSeconds, maxSize, true), EntityMapper.of(Role.class));
+  }
+
+  /**
+   * 测试实体
+   */
+  public static class Role extends BaseEntity {
+    private String code;
+
+    public Role() {
+    }
+
+    Role(String id, String code) {
+      setId(id);
+      this.code = code;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    public void setCode(String code) {
+      this.code = code;
+    }
+  }
+}
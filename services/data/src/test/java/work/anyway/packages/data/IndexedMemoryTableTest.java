@@ -0,0 +1,154 @@
+package work.anyway.packages.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 带二级索引的内存表的索引选择、范围和 IN 查询以及混合类型的回退
+ */
+class IndexedMemoryTableTest {
+
+  private CountingTable engine;
+  private IndexedMemoryTable table;
+
+  @BeforeEach
+  void setUp() {
+    engine = new CountingTable();
+    table = new IndexedMemoryTable("products", engine);
+    for (int i = 0; i < 20; i++) {
+      table.put("p" + i, row("p" + i, "category-" + (i % 4), i * 10));
+    }
+  }
+
+  @Test
+  void equalityAndInConditionsUseTheHashIndex() {
+    table.createIndex("category", false);
+    engine.scans = 0;
+
+    assertEquals(Set.of("p1", "p5", "p9", "p13", "p17"), ids(table.scan(Map.of("category", "category-1"), null, true)));
+    assertEquals(Set.of("p2", "p3", "p6", "p7", "p10", "p11", "p14", "p15", "p18", "p19"),
+        ids(table.scan(Map.of("category__in", List.of("category-2", "category-3")), null, true)));
+    assertEquals(5, table.count(Map.of("category", "category-0")));
+    assertEquals(0, engine.scans);
+  }
+
+  @Test
+  void rangeConditionsOnTheSameFieldAreMergedOnTheSortedIndex() {
+    table.createIndex("price", true);
+    engine.scans = 0;
+
+    Map<String, Object> criteria = new HashMap<>();
+    criteria.put("price__gt", 50);
+    criteria.put("price__lte", 90);
+    criteria.put("price__gte", 40);
+    assertEquals(Set.of("p6", "p7", "p8", "p9"), ids(table.scan(criteria, null, true)));
+    assertEquals(Set.of("p0", "p1", "p2"), ids(table.scan(Map.of("price__lt", 30), null, true)));
+    assertEquals(0, table.count(Map.of("price__gt", 100, "price__lt", 50)));
+    assertEquals(0, engine.scans);
+  }
+
+  @Test
+  void mostSelectiveIndexedConditionDrivesTheQuery() {
+    table.createIndex("category", false);
+    table.createIndex("price", true);
+    engine.scans = 0;
+
+    // 相等条件命中 5 条，范围条件命中 15 条，选择前者后再用范围条件过滤
+    Map<String, Object> criteria = Map.of("category", "category-2", "price__gte", 50);
+    assertEquals(Set.of("p6", "p10", "p14", "p18"), ids(table.scan(criteria, null, true)));
+    assertEquals(0, engine.scans);
+  }
+
+  @Test
+  void conditionsWithoutAnIndexAreFilteredAfterAScan() {
+    Map<String, Object> criteria = Map.of("price__gte", 150, "category__ne", "category-3");
+    assertEquals(Set.of("p16", "p17", "p18"), ids(table.scan(criteria, null, true)));
+    assertEquals(1, engine.scans);
+  }
+
+  @Test
+  void mixedValueTypesFallBackToAScanUntilTheOddRowsAreRemoved() {
+    table.createIndex("price", true);
+    table.put("odd", row("odd", "category-0", "cheap"));
+    engine.scans = 0;
+
+    // 类型不同的值不满足范围条件
+    assertEquals(Set.of("p18", "p19"), ids(table.scan(Map.of("price__gt", 170), null, true)));
+    assertEquals(1, engine.scans);
+
+    table.remove("odd");
+    engine.scans = 0;
+    assertEquals(Set.of("p18", "p19"), ids(table.scan(Map.of("price__gt", 170), null, true)));
+    List<Map<String, Object>> ordered = table.scan(Map.of(), "price", false);
+    assertEquals("p19", ordered.get(0).get("id"));
+    assertEquals(0, engine.scans);
+
+    // 修改为其他类型的值再改回来，同样恢复
+    table.put("p3", row("p3", "category-3", 30L));
+    table.scan(Map.of("price__lt", 20), null, true);
+    assertEquals(1, engine.scans);
+    table.put("p3", row("p3", "category-3", 30));
+    assertEquals(Set.of("p0", "p1", "p2", "p3"), ids(table.scan(Map.of("price__lte", 30), null, true)));
+    assertEquals(1, engine.scans);
+  }
+
+  private static Map<String, Object> row(String id, String category, Object price) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", id);
+    row.put("category", category);
+    row.put("price", price);
+    return row;
+  }
+
+  private static Set<String> ids(List<Map<String, Object>> rows) {
+    return rows.stream().map(row -> (String) row.get("id")).collect(Collectors.toSet());
+  }
+
+  /**
+   * 记录全表扫描次数的存储引擎，索引查询只按 ID 读取记录
+   */
+  private static final class CountingTable implements MemoryTable {
+    private final HashMemoryTable delegate = new HashMemoryTable();
+    int scans;
+
+    @Override
+    public Map<String, Object> get(String id) {
+      return delegate.get(id);
+    }
+
+    @Override
+    public Map<String, Object> put(String id, Map<String, Object> row) {
+      return delegate.put(id, row);
+    }
+
+    @Override
+    public Map<String, Object> remove(String id) {
+      return delegate.remove(id);
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+
+    @Override
+    public List<Map<String, Object>> scan(Map<String, Object> criteria, String sortBy, boolean ascending) {
+      scans++;
+      return delegate.scan(criteria, sortBy, ascending);
+    }
+
+    @Override
+    public long count(Map<String, Object> criteria) {
+      scans++;
+      return delegate.count(criteria);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import work.anyway.interfaces.data.BaseEntity;
+import work.anyway.interfaces.data.CollectionDef;
+import work.anyway.interfaces.data.CursorPage;
+import work.anyway.interfaces.data.QueryCriteria;
+import work.anyway.interfaces.data.ReactiveRepository;
+import work.anyway.interfaces.data.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存数据服务的仓库、响应式仓库与事务
+ */
+class MemoryDataServiceImplTest {
+
+  private MemoryDataServiceImpl dataService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    dataService = new MemoryDataServiceImpl();
+    dataService.afterPropertiesSet();
+  }
+
+  @Test
+  void reactiveRepositoryCompletesWithTheRepositoryResults() throws Exception {
+    ReactiveRepository<Order> orders = dataService.getReactiveRepository("orders", Order.class);
+
+    Order saved = await(orders.save(new Order("alice", 30)));
+    await(orders.save(new Order("bob", 10)));
+    assertEquals(Optional.of("alice"), await(orders.findById(saved.getId())).map(Order::getCustomer));
+    assertEquals(2L, await(orders.count()));
+
+    List<Integer> batchSizes = new ArrayList<>();
+    long streamed = await(orders.stream(QueryCriteria.<Order>create(), 1, batch -> {
+      batchSizes.add(batch.size());
+      return Future.succeededFuture();
+    }));
+    assertEquals(2L, streamed);
+    assertEquals(List.of(1, 1), batchSizes);
+
+    assertTrue(await(orders.delete(saved.getId())));
+    assertEquals(1L, await(orders.count()));
+  }
+
+  @Test
+  void keysetPagesVisitEveryEntityOnceInSortOrder() {
+    Repository<Order> orders = dataService.getRepository("orders", Order.class);
+    int[] amounts = { 30, 10, 20, 10, 30, 40, 20, 10 };
+    for (int i = 0; i < amounts.length; i++) {
+      orders.save(new Order("customer" + i, amounts[i]));
+    }
+
+    QueryCriteria<Order> criteria = QueryCriteria.<Order>create().orderBy("amount", false);
+    List<Order> visited = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      CursorPage<Order> page = orders.findPageAfter(criteria, cursor, 3);
+      visited.addAll(page.getData());
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(3, pages);
+    List<Order> expected = new ArrayList<>(orders.findAll());
+    expected.sort(Comparator.comparing(Order::getAmount).thenComparing(Order::getId).reversed());
+    assertEquals(expected.stream().map(Order::getId).collect(Collectors.toList()),
+        visited.stream().map(Order::getId).collect(Collectors.toList()));
+
+    String amountCursor = orders.findPageAfter(criteria, null, 3).getNextCursor();
+    assertThrows(IllegalArgumentException.class,
+        () -> orders.findPageAfter(QueryCriteria.<Order>create().orderBy("customer", true), amountCursor, 3));
+  }
+
+  @Test
+  void operatorConditionsReachTheMemoryTable() {
+    Repository<Order> orders = dataService.getRepository("orders", Order.class);
+    int[] amounts = { 30, 10, 20, 10, 30, 40, 20, 10 };
+    for (int i = 0; i < amounts.length; i++) {
+      orders.save(new Order("customer" + (i % 3), amounts[i]));
+    }
+    dataService.createIndex(CollectionDef.builder("orders").build().getFullName(), "amount", true);
+
+    QueryCriteria<Order> criteria = QueryCriteria.<Order>create()
+        .gt("amount", 10)
+        .in("customer", "customer0", "customer1");
+    List<Order> matched = orders.findBy(criteria);
+    assertEquals(List.of(20, 30, 30), matched.stream().map(Order::getAmount).sorted().collect(Collectors.toList()));
+    assertEquals(3L, orders.countBy(criteria));
+
+    CursorPage<Order> page = orders.findPageAfter(QueryCriteria.<Order>create()
+        .between("amount", 20, 30).orderBy("amount", true), null, 10);
+    assertEquals(List.of(20, 20, 30, 30), page.getData().stream().map(Order::getAmount).collect(Collectors.toList()));
+  }
+
+  @Test
+  void transactionsRunTheWorkDirectly() throws Exception {
+    Repository<Order> orders = dataService.getRepository("orders", Order.class);
+    String id = dataService.inTransaction(() -> orders.save(new Order("alice", 30)).getId());
+    assertEquals(Optional.of(30), orders.findById(id).map(Order::getAmount));
+
+    long count = await(dataService.inTransactionAsync(scope -> {
+      ReactiveRepository<Order> scoped = scope.getReactiveRepository("orders", Order.class);
+      return scoped.save(new Order("bob", 10)).compose(saved -> scoped.count());
+    }));
+    assertEquals(2L, count);
+
+    IllegalStateException failure = new IllegalStateException("work failed");
+    assertEquals(failure, assertThrows(ExecutionException.class,
+        () -> await(dataService.<Void>inTransactionAsync(scope -> {
+          throw failure;
+        }))).getCause());
+  }
+
+  static <R> R await(Future<R> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * 测试实体
+   */
+  public static class Order extends BaseEntity {
+    private String customer;
+    private int amount;
+
+    public Order() {
+    }
+
+    Order(String customer, int amount) {
+      this.customer = customer;
+      this.amount = amount;
+    }
+
+    public String getCustomer() {
+      return customer;
+    }
+
+    public void setCustomer(String customer) {
+      this.customer = customer;
+    }
+
+    public int getAmount() {
+      return amount;
+    }
+
+    public void setAmount(int amount) {
+      this.amount = amount;
+    }
+  }
+}
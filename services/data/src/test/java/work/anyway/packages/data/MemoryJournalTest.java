@@ -0,0 +1,220 @@
+package work.anyway.packages.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存数据服务预写日志的重放、截断、快照恢复与 fsync 策略
+ */
+class MemoryJournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void replaysPutsDeletesAndClearsInOrder() throws IOException {
+    MemoryJournal journal = open(MemoryJournal.FsyncPolicy.ALWAYS, new Recorded());
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "alice")));
+    write(journal, MemoryJournal.put("orders", "2", 2, row("2", "bob")));
+    write(journal, MemoryJournal.put("orders", "1", 2, row("1", "carol")));
+    write(journal, MemoryJournal.delete("orders", "2"));
+    write(journal, MemoryJournal.put("users", "7", 7, row("7", "dave")));
+    write(journal, MemoryJournal.clear("users"));
+    journal.close();
+
+    Recorded recovered = new Recorded();
+    MemoryJournal reopened = open(MemoryJournal.FsyncPolicy.ALWAYS, recovered);
+    reopened.close();
+
+    assertEquals(Map.of("orders", Map.of("1", row("1", "carol"))), recovered.rows);
+    assertEquals(2L, recovered.sequences.get("orders"));
+  }
+
+  @Test
+  void incompleteTailOfTheLastSegmentIsTruncated() throws IOException {
+    MemoryJournal journal = open(MemoryJournal.FsyncPolicy.ALWAYS, new Recorded());
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "alice")));
+    write(journal, MemoryJournal.put("orders", "2", 2, row("2", "bob")));
+    journal.close();
+
+    // 模拟写入一半时崩溃：记录头声明的长度超过文件剩余的字节
+    Path wal = lastWal();
+    long complete = Files.size(wal);
+    byte[] record = MemoryJournal.put("orders", "3", 3, row("3", "lost"));
+    ByteBuffer torn = ByteBuffer.allocate(8 + record.length / 2);
+    torn.putInt(record.length).putInt(0).put(record, 0, record.length / 2);
+    Files.write(wal, torn.array(), StandardOpenOption.APPEND);
+
+    Recorded recovered = new Recorded();
+    MemoryJournal reopened = open(MemoryJournal.FsyncPolicy.ALWAYS, recovered);
+    assertEquals(Map.of("1", row("1", "alice"), "2", row("2", "bob")), recovered.rows.get("orders"));
+    assertEquals(complete, Files.size(wal));
+
+    // 截断后写入的记录在下一次恢复时仍然可见
+    write(reopened, MemoryJournal.put("orders", "3", 3, row("3", "carol")));
+    reopened.close();
+
+    Recorded again = new Recorded();
+    open(MemoryJournal.FsyncPolicy.ALWAYS, again).close();
+    assertEquals(3, again.rows.get("orders").size());
+    assertEquals(row("3", "carol"), again.rows.get("orders").get("3"));
+  }
+
+  @Test
+  void corruptionBeforeTheLastSegmentFailsRecovery() throws IOException {
+    MemoryJournal journal = open(MemoryJournal.FsyncPolicy.ALWAYS, new Recorded());
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "alice")));
+    journal.rotate();
+    write(journal, MemoryJournal.put("orders", "2", 2, row("2", "bob")));
+    journal.close();
+
+    Files.write(wals().get(0), new byte[] {0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    assertThrows(IOException.class, () -> new MemoryJournal(directory, MemoryJournal.FsyncPolicy.ALWAYS, 1000)
+        .recover(new Recorded()));
+  }
+
+  @Test
+  void recoversSnapshotAndTheWritesAfterIt() throws IOException {
+    MemoryJournal journal = open(MemoryJournal.FsyncPolicy.ALWAYS, new Recorded());
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "alice")));
+    write(journal, MemoryJournal.put("orders", "2", 2, row("2", "bob")));
+
+    long generation = journal.rotate();
+    Map<String, List<Map<String, Object>>> rows = new LinkedHashMap<>();
+    rows.put("orders", List.of(row("1", "alice"), row("2", "bob")));
+    journal.writeSnapshot(generation, Map.of("orders", 2L), rows);
+    assertEquals(1, wals().size(), "segments covered by the snapshot should be deleted");
+
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "carol")));
+    write(journal, MemoryJournal.delete("orders", "2"));
+    write(journal, MemoryJournal.put("orders", "3", 3, row("3", "dave")));
+    journal.close();
+
+    Recorded recovered = new Recorded();
+    MemoryJournal reopened = new MemoryJournal(directory, MemoryJournal.FsyncPolicy.ALWAYS, 1000);
+    assertEquals(5, reopened.recover(recovered));
+    reopened.close();
+
+    assertEquals(Map.of("1", row("1", "carol"), "3", row("3", "dave")), recovered.rows.get("orders"));
+    assertEquals(3L, recovered.sequences.get("orders"));
+  }
+
+  @ParameterizedTest
+  @EnumSource(MemoryJournal.FsyncPolicy.class)
+  void awaitedRecordsAreWrittenUnderEveryPolicy(MemoryJournal.FsyncPolicy policy) throws IOException {
+    // INTERVAL 的间隔远大于测试时长：等待只需要写入操作系统，不等待 fsync
+    MemoryJournal journal = new MemoryJournal(directory, policy, 3_600_000);
+    journal.recover(new Recorded());
+    long start = System.nanoTime();
+    write(journal, MemoryJournal.put("orders", "1", 1, row("1", "alice")));
+    assertTrue(System.nanoTime() - start < 10_000_000_000L, "await should not wait for the fsync interval");
+    assertTrue(Files.size(lastWal()) > 0, "awaited record should be in the segment file");
+    journal.close();
+
+    Recorded recovered = new Recorded();
+    open(policy, recovered).close();
+    assertEquals(Map.of("1", row("1", "alice")), recovered.rows.get("orders"));
+  }
+
+  @Test
+  void closedJournalRejectsAppends() throws IOException {
+    MemoryJournal journal = open(MemoryJournal.FsyncPolicy.NEVER, new Recorded());
+    journal.close();
+
+    assertThrows(IllegalStateException.class, () -> journal.append(MemoryJournal.delete("orders", "1")));
+  }
+
+  @Test
+  void unknownPolicyNamesFallBackToAlways() {
+    assertEquals(MemoryJournal.FsyncPolicy.INTERVAL, MemoryJournal.FsyncPolicy.of(" Interval "));
+    assertEquals(MemoryJournal.FsyncPolicy.NEVER, MemoryJournal.FsyncPolicy.of("never"));
+    assertEquals(MemoryJournal.FsyncPolicy.ALWAYS, MemoryJournal.FsyncPolicy.of("sometimes"));
+    assertEquals(MemoryJournal.FsyncPolicy.ALWAYS, MemoryJournal.FsyncPolicy.of(null));
+  }
+
+  private MemoryJournal open(MemoryJournal.FsyncPolicy policy, Recorded replay) throws IOException {
+    MemoryJournal journal = new MemoryJournal(directory, policy, 1000);
+    journal.recover(replay);
+    return journal;
+  }
+
+  private static void write(MemoryJournal journal, byte[] record) {
+    journal.await(journal.append(record));
+  }
+
+  private List<Path> wals() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.getFileName().toString().startsWith("wal-")).sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private Path lastWal() throws IOException {
+    List<Path> wals = wals();
+    return wals.get(wals.size() - 1);
+  }
+
+  private static Map<String, Object> row(String id, String customer) {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", id);
+    row.put("customer", customer);
+    return row;
+  }
+
+  /**
+   * 把重放结果记录为 集合 -> ID -> 记录
+   */
+  private static final class Recorded implements MemoryJournal.Replay {
+    final Map<String, Map<String, Map<String, Object>>> rows = new HashMap<>();
+    final Map<String, Long> sequences = new HashMap<>();
+
+    @Override
+    public void put(String collection, String id, long sequence, Map<String, Object> row) {
+      rows.computeIfAbsent(collection, k -> new HashMap<>()).put(id, row);
+      sequence(collection, sequence);
+    }
+
+    @Override
+    public void sequence(String collection, long sequence) {
+      sequences.merge(collection, sequence, Math::max);
+    }
+
+    @Override
+    public void delete(String collection, String id) {
+      Map<String, Map<String, Object>> table = rows.get(collection);
+      if (table != null) {
+        table.remove(id);
+      }
+    }
+
+    @Override
+    public void clear(String collection) {
+      if (collection == null) {
+        rows.clear();
+        sequences.clear();
+      } else {
+        rows.remove(collection);
+        sequences.remove(collection);
+      }
+    }
+  }
+}
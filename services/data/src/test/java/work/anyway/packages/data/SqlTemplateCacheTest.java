@@ -0,0 +1,93 @@
+package work.anyway.packages.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SQL 模板缓存的容量淘汰与 Map 形式查询的模板缓存键
+ */
+class SqlTemplateCacheTest {
+
+  @Test
+  void leastRecentlyUsedTemplateIsEvicted() {
+    SqlTemplateCache cache = new SqlTemplateCache(2);
+    cache.get(SqlTemplateCache.key("a"), () -> "SELECT a");
+    cache.get(SqlTemplateCache.key("b"), () -> "SELECT b");
+    cache.get(SqlTemplateCache.key("a"), () -> "unused");
+    cache.get(SqlTemplateCache.key("c"), () -> "SELECT c");
+
+    assertEquals(2, cache.size());
+    assertEquals("SELECT a", cache.get(SqlTemplateCache.key("a"), () -> "rebuilt a"));
+    assertEquals("rebuilt b", cache.get(SqlTemplateCache.key("b"), () -> "rebuilt b"));
+  }
+
+  @Test
+  void templatesAreCachedAfterTheLimitIsReached() {
+    SqlTemplateCache cache = new SqlTemplateCache(2);
+    for (int i = 0; i < 10; i++) {
+      int n = i;
+      cache.get(SqlTemplateCache.key(n), () -> "SELECT " + n);
+    }
+
+    assertEquals(2, cache.size());
+    assertEquals("SELECT 9", cache.get(SqlTemplateCache.key(9), () -> "rebuilt"));
+  }
+
+  @Test
+  void unknownSortFieldsShareOneTemplate() {
+    SqlTemplateCache cache = new SqlTemplateCache();
+    CollectionQueryBuilder builder = builder(cache);
+    TableSchema schema = orders();
+
+    for (int i = 0; i < 100; i++) {
+      SqlBuilder sql = builder.select(SqlDialect.POSTGRESQL, schema, null, "unknown" + i, true, 20, 0);
+      assertEquals("SELECT * FROM orders ORDER BY id ASC LIMIT $1 OFFSET $2", sql.toString());
+    }
+    builder.select(SqlDialect.POSTGRESQL, schema, null, "createdAt", true, 20, 0);
+    builder.select(SqlDialect.POSTGRESQL, schema, null, "created_at", true, 20, 0);
+
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void reloadedSchemaGetsNewTemplates() {
+    SqlTemplateCache cache = new SqlTemplateCache();
+    CollectionQueryBuilder builder = builder(cache);
+
+    builder.count(SqlDialect.POSTGRESQL, orders(), null);
+    builder.count(SqlDialect.POSTGRESQL, orders(), null);
+
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void clearDropsTemplatesOfReplacedSchemas() {
+    SqlTemplateCache cache = new SqlTemplateCache();
+    CollectionQueryBuilder builder = builder(cache);
+    builder.count(SqlDialect.POSTGRESQL, orders(), null);
+
+    cache.clear();
+    builder.count(SqlDialect.POSTGRESQL, orders(), null);
+
+    assertEquals(1, cache.size());
+  }
+
+  private static CollectionQueryBuilder builder(SqlTemplateCache cache) {
+    UnaryOperator<String> toColumnName = field -> field.replaceAll("([A-Z])", "_$1").toLowerCase();
+    return new CollectionQueryBuilder(cache, toColumnName, UnaryOperator.identity(),
+        UnaryOperator.identity(), UnaryOperator.identity());
+  }
+
+  private static TableSchema orders() {
+    Map<String, String> columns = new LinkedHashMap<>();
+    columns.put("id", "bigint");
+    columns.put("created_at", "timestamp without time zone");
+    return new TableSchema("orders", columns, List.of("id"), List.of());
+  }
+}
@@ -0,0 +1,45 @@
+package work.anyway.packages.data;
+
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 阻塞式事务拒绝其他数据源上的仓库
+ */
+class TransactionBindingTest {
+
+  @Test
+  void repositoryOnAnotherDataSourceIsRejectedInsideATransaction() throws Exception {
+    Vertx vertx = Vertx.vertx();
+    // 连接池在第一次查询时才连接，仓库在此之前被拒绝
+    Pool defaultPool = PgPool.pool(vertx, new PgConnectOptions().setPort(1), new PoolOptions());
+    Pool otherPool = PgPool.pool(vertx, new PgConnectOptions().setPort(2), new PoolOptions());
+    try {
+      BlockingRepositoryAdapter<CriteriaCompilerTest.Order> orders = new BlockingRepositoryAdapter<>(
+          new TypedRepositoryImpl<>(otherPool, null, SqlDialect.POSTGRESQL, 100, CriteriaCompilerTest.Order.class));
+
+      TransactionBinding.bind(new TransactionBinding(defaultPool, null));
+      try {
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () -> orders.findById("1"));
+        assertTrue(failure.getMessage().contains("default data source"), failure.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> orders.save(new CriteriaCompilerTest.Order()));
+        assertThrows(IllegalArgumentException.class, () -> orders.delete("1"));
+      } finally {
+        TransactionBinding.unbind();
+      }
+    } finally {
+      defaultPool.close();
+      otherPool.close();
+      vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+  }
+}
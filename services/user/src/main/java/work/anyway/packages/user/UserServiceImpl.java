@@ -26,6 +26,7 @@ public class UserServiceImpl implements UserService {
 
   private static final Logger LOG = LoggerFactory.getLogger(UserServiceImpl.class);
 
+  private final TypedDataService dataService;
   private final Repository<User> userRepository;
 
   @Autowired
@@ -33,6 +34,7 @@ public class UserServiceImpl implements UserService {
 
   @Autowired
   public UserServiceImpl(@Qualifier("enhancedDataService") TypedDataService dataService) {
+    this.dataService = dataService;
     this.userRepository = dataService.getRepository("users", User.class);
   }
 
@@ -63,6 +65,17 @@ public class UserServiceImpl implements UserService {
     return savedUser;
   }
 
+  @Override
+  public User createUserWithAccount(User user, UserAccount account) {
+    // 用户和账户共用一个事务，避免账户创建失败后留下没有账户的用户
+    return dataService.inTransaction(() -> {
+      User savedUser = createUser(user);
+      account.setUserId(savedUser.getId());
+      accountService.createAccount(account);
+      return savedUser;
+    });
+  }
+
   @Override
   public boolean updateUser(String userId, User user) {
     LOG.debug("Updating user {} with info: {}", userId, user);